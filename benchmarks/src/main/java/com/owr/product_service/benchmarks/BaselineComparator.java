@@ -0,0 +1,135 @@
+package com.owr.product_service.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Compares two JMH result files ({@code -rf json}) and fails when a benchmark got slower, or allocates more, than
+ * the threshold allows.
+ *
+ * <p>Usage: {@code BaselineComparator <baseline.json> <current.json> [threshold-percent, default 10]}.
+ * Benchmarks are matched by name and parameters; those present in only one file are listed but never fail the
+ * comparison. A difference within the combined error margins of both runs is not reported as a regression.</p>
+ *
+ * <p>Exit status: 0 without regressions, 1 with regressions, 2 on bad arguments.</p>
+ */
+public final class BaselineComparator {
+
+    private static final List<String> ALLOCATION_METRICS = List.of("gc.alloc.rate.norm", "·gc.alloc.rate.norm");
+
+    /**
+     * One benchmark result: the primary score and, when run with {@code -prof gc}, bytes allocated per operation.
+     */
+    private record Result(String mode, String unit, double score, double error, Double allocatedBytes) {
+
+        /**
+         * Throughput modes report operations per time unit, where higher is better.
+         */
+        boolean higherIsBetter() {
+            return "thrpt".equals(mode);
+        }
+    }
+
+    private BaselineComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args.length > 3) {
+            System.err.println("Usage: BaselineComparator <baseline.json> <current.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length == 3 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, Result> baseline = read(new File(args[0]));
+        Map<String, Result> current = read(new File(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s %9s%n", "Benchmark", "Baseline", "Current", "Score", "Alloc");
+        for (Map.Entry<String, Result> entry : current.entrySet()) {
+            Result now = entry.getValue();
+            Result before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s %9s  (new)%n", entry.getKey(), "-", now.score(), "", "");
+                continue;
+            }
+
+            double scoreChange = percentChange(before.score(), now.score());
+            double slowdown = before.higherIsBetter() ? -scoreChange : scoreChange;
+            boolean slower = slowdown > threshold
+                    && Math.abs(now.score() - before.score()) > before.error() + now.error();
+
+            Double allocationChange = before.allocatedBytes() != null && now.allocatedBytes() != null
+                    ? percentChange(before.allocatedBytes(), now.allocatedBytes())
+                    : null;
+            boolean allocatesMore = allocationChange != null && allocationChange > threshold;
+
+            String verdict = slower || allocatesMore ? "  REGRESSION" : "";
+            if (!verdict.isEmpty()) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%% %9s %s%s%n", entry.getKey(), before.score(), now.score(),
+                    scoreChange, allocationChange == null ? "-" : String.format("%+.1f%%", allocationChange),
+                    now.unit(), verdict);
+        }
+        for (String missing : baseline.keySet()) {
+            if (!current.containsKey(missing)) {
+                System.out.printf("%-90s (missing from current run)%n", missing);
+            }
+        }
+
+        System.out.printf("%d regression(s) above %.1f%%%n", regressions, threshold);
+        System.exit(regressions == 0 ? 0 : 1);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new TreeMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            JsonNode primary = run.path("primaryMetric");
+            Double allocated = null;
+            for (String metric : ALLOCATION_METRICS) {
+                JsonNode secondary = run.path("secondaryMetrics").path(metric);
+                if (!secondary.isMissingNode()) {
+                    allocated = secondary.path("score").asDouble();
+                    break;
+                }
+            }
+            results.put(key(run), new Result(run.path("mode").asText(), primary.path("scoreUnit").asText(),
+                    primary.path("score").asDouble(), errorOf(primary), allocated));
+        }
+        return results;
+    }
+
+    /**
+     * Benchmark name plus its parameters in name order, e.g. {@code GetAllProductsBenchmark.getAllProducts
+     * [catalogSize=1000, stockCache=true]}.
+     */
+    private static String key(JsonNode run) {
+        String name = run.path("benchmark").asText().replace("com.owr.product_service.benchmarks.", "");
+        JsonNode params = run.path("params");
+        if (params.isMissingNode() || params.isEmpty()) {
+            return name;
+        }
+        SortedMap<String, String> sorted = new TreeMap<>();
+        params.fields().forEachRemaining(param -> sorted.put(param.getKey(), param.getValue().asText()));
+        return name + " " + sorted;
+    }
+
+    /**
+     * JMH reports {@code NaN} as the error of runs with a single iteration.
+     */
+    private static double errorOf(JsonNode primary) {
+        double error = primary.path("scoreError").asDouble(0);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    private static double percentChange(double before, double now) {
+        return before == 0 ? 0 : (now - before) * 100.0 / before;
+    }
+}
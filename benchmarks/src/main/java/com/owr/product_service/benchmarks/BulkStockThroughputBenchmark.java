@@ -0,0 +1,76 @@
+package com.owr.product_service.benchmarks;
+
+import com.owr.product_service.service.client.InventoryClient;
+import com.owr.product_service.service.client.StockLookupResult;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of bulk stock lookups ({@link InventoryClient#getStockQuantities}) from many concurrent callers against
+ * an inventory stub that answers every bulk call after {@code latencyMillis}, with the default inventory executor
+ * (8 threads, queue of 1 000) and stock cache off.
+ *
+ * <p>Each lookup sends {@code productsPerLookup / 200} chunks. With the default 64 callers the queue absorbs every
+ * chunk; run with {@code -t 256} or more to saturate it. Chunks the executor rejects are served from the last known
+ * stock; {@code degraded} counts the lookups that had such a chunk.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class BulkStockThroughputBenchmark {
+
+    @Param({"2"})
+    public int latencyMillis;
+
+    @Param({"1000"})
+    public int productsPerLookup;
+
+    private Fixtures.Inventory inventory;
+    private List<Long> productIds;
+
+    /**
+     * Lookups per caller thread, by outcome.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+        public long complete;
+        public long degraded;
+    }
+
+    @Setup
+    public void setUp() {
+        inventory = new Fixtures.Inventory(false,
+                new Fixtures.DelayedInventoryGateway(Duration.ofMillis(latencyMillis)));
+        productIds = new ArrayList<>(productsPerLookup);
+        for (long id = 1; id <= productsPerLookup; id++) {
+            productIds.add(id);
+            inventory.gateway.createInventory(id, 10, null);
+        }
+        inventory.client.getStockQuantities(productIds); // records the last known stock
+    }
+
+    @TearDown
+    public void tearDown() {
+        inventory.close();
+    }
+
+    @Benchmark
+    public StockLookupResult getStockQuantities(Outcomes outcomes) {
+        StockLookupResult result = inventory.client.getStockQuantities(productIds);
+        if (result.failures().isEmpty() && result.stale().isEmpty()) {
+            outcomes.complete++;
+        } else {
+            outcomes.degraded++;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,250 @@
+package com.owr.product_service.benchmarks;
+
+import com.owr.product_service.dto.ProductDto;
+import com.owr.product_service.model.Product;
+import com.owr.product_service.repository.ProductRepository;
+import com.owr.product_service.service.ProductService;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.client.*;
+import com.owr.product_service.service.timing.StageMetrics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.LongStream;
+
+/**
+ * Builds the objects under test without a Spring context: a deterministic catalog, an in-memory
+ * {@link ProductRepository} and an {@link InventoryClient} wired to the {@link LocalInventoryGateway}.
+ */
+final class Fixtures {
+
+    private static final String[] CATEGORIES = {"Shoes", "Shirts", "Trousers", "Jackets", "Accessories"};
+    private static final String[] COLOURS = {"Red", "Blue", "Green", "Black", "White", "Grey", "Navy", "Beige",
+            "Olive", "Brown", "Pink", "Yellow"};
+    private static final String[] MATERIALS = {"Cotton", "Wool", "Linen", "Denim", "Leather", "Silk", "Cashmere",
+            "Suede", "Canvas", "Fleece"};
+    private static final String[] TYPES = {"Shirt", "Blouse", "Sweater", "Cardigan", "Jacket", "Coat", "Jeans",
+            "Chinos", "Shorts", "Skirt", "Dress", "Sneaker", "Boot", "Loafer", "Sandal", "Belt", "Scarf", "Hat",
+            "Bag", "Wallet"};
+    private static final String[] ADJECTIVES = {"soft", "warm", "light", "slim", "relaxed", "classic", "modern",
+            "durable", "breathable", "waterproof", "stretch", "organic", "recycled", "handmade", "vintage", "casual",
+            "formal", "cosy", "lightweight", "premium"};
+
+    private Fixtures() {
+    }
+
+    /**
+     * @param size the number of products
+     * @return products with ids {@code 1..size} and realistic field lengths
+     */
+    static List<Product> catalog(int size) {
+        List<Product> products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            products.add(Product.builder()
+                    .id((long) i)
+                    .name("Product " + i + " " + CATEGORIES[i % CATEGORIES.length])
+                    .category(CATEGORIES[i % CATEGORIES.length])
+                    .description("Comfortable everyday item number " + i + ", made from organic cotton.")
+                    .price(9.99 + (i % 500))
+                    .build());
+        }
+        return products;
+    }
+
+    /**
+     * @param size the number of DTOs
+     * @return DTOs as returned by {@code GET /api/products/all}
+     */
+    static List<ProductDto> dtos(int size) {
+        List<ProductDto> dtos = new ArrayList<>(size);
+        for (Product product : catalog(size)) {
+            dtos.add(new ProductDto(product.getId(), product.getName(), product.getCategory(),
+                    product.getDescription(), product.getPrice(), (int) (product.getId() % 100), null, false));
+        }
+        return dtos;
+    }
+
+    /**
+     * @param id the product id
+     * @return a product with a name like "Navy Linen Jacket" and a description of six attributes, the same for
+     * every call with the same id
+     */
+    static ProductSnapshot searchableProduct(long id) {
+        Random random = new Random(id);
+        String name = COLOURS[random.nextInt(COLOURS.length)] + " " + MATERIALS[random.nextInt(MATERIALS.length)]
+                + " " + TYPES[random.nextInt(TYPES.length)];
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < 6; i++) {
+            description.append(ADJECTIVES[random.nextInt(ADJECTIVES.length)]).append(' ');
+        }
+        return new ProductSnapshot(id, name, CATEGORIES[(int) (id % CATEGORIES.length)], description.toString(),
+                9.99 + id % 500, 0L);
+    }
+
+    /**
+     * A repository whose {@code count()} and {@code streamAllSnapshots()} describe {@code size}
+     * {@link #searchableProduct(long)}s, generated while streaming rather than held in memory; every other method
+     * is unsupported.
+     */
+    static ProductRepository searchRepository(int size) {
+        return (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "count" -> (long) size;
+                    case "streamAllSnapshots" -> LongStream.rangeClosed(1, size).mapToObj(Fixtures::searchableProduct);
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "GeneratedProductRepository";
+                    default -> throw new UnsupportedOperationException(method.toString());
+                });
+    }
+
+    /**
+     * A transaction manager that does nothing, for components that only use transactions to read consistently.
+     */
+    static PlatformTransactionManager noTransactions() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    /**
+     * A repository whose {@code findAll()} and {@code findAll(Sort)} return the given products (already in id
+     * order); every other method is unsupported.
+     */
+    static ProductRepository repository(List<Product> products) {
+        return (ProductRepository) Proxy.newProxyInstance(
+                ProductRepository.class.getClassLoader(),
+                new Class<?>[]{ProductRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findAll" -> {
+                        if (args == null || args.length == 0 || args[0] instanceof Sort) {
+                            yield products;
+                        }
+                        throw new UnsupportedOperationException(method.toString());
+                    }
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryProductRepository";
+                    default -> throw new UnsupportedOperationException(method.toString());
+                });
+    }
+
+    /**
+     * The inventory client as configured by default, talking to the in-memory gateway.
+     */
+    static final class Inventory implements AutoCloseable {
+
+        final LocalInventoryGateway gateway;
+        final StageMetrics stageMetrics = new StageMetrics(new SimpleMeterRegistry());
+        final InventoryClient client;
+        private final ThreadPoolTaskExecutor inventoryExecutor = executor("inventory-", 8, 8, 1_000);
+        private final ThreadPoolTaskExecutor hedgingExecutor = executor("inventory-hedge-", 16, 200, 0);
+
+        Inventory(boolean stockCacheEnabled) {
+            this(stockCacheEnabled, new LocalInventoryGateway());
+        }
+
+        Inventory(boolean stockCacheEnabled, LocalInventoryGateway gateway) {
+            this.gateway = gateway;
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            StockCache stockCache = new StockCache(stockCacheEnabled, Duration.ofSeconds(5), Duration.ofSeconds(3),
+                    100_000, inventoryExecutor, registry);
+            LastKnownStock lastKnownStock = new LastKnownStock(Duration.ofHours(1), 100_000, registry);
+            HedgingPolicy hedgingPolicy = new HedgingPolicy(true, 95, Duration.ofMillis(20), 10,
+                    hedgingExecutor, registry);
+            client = new InventoryClient(gateway, inventoryExecutor, stockCache, CircuitBreaker.ofDefaults("inventory"),
+                    lastKnownStock, hedgingPolicy, stageMetrics);
+            setField(client, "chunkSize", 200);
+            setField(client, "serviceToken", "");
+        }
+
+        @Override
+        public void close() {
+            inventoryExecutor.shutdown();
+            hedgingExecutor.shutdown();
+        }
+
+        private static ThreadPoolTaskExecutor executor(String prefix, int core, int max, int queue) {
+            ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(core);
+            executor.setMaxPoolSize(max);
+            executor.setQueueCapacity(queue);
+            executor.setThreadNamePrefix(prefix);
+            executor.initialize();
+            return executor;
+        }
+    }
+
+    /**
+     * The in-memory gateway with the round trip of a remote inventory service: every bulk call sleeps for
+     * {@code latency} before answering.
+     */
+    static final class DelayedInventoryGateway extends LocalInventoryGateway {
+
+        private final Duration latency;
+
+        DelayedInventoryGateway(Duration latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public Map<Long, Integer> fetchStocks(List<Long> productIds, String authorization) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            return super.fetchStocks(productIds, authorization);
+        }
+    }
+
+    /**
+     * A product service reading from {@code repository} and {@code inventory}, with metrics going to the
+     * inventory's in-memory registry; collaborators that
+     * {@code getAllProducts} does not use are left {@code null}.
+     */
+    static ProductService productService(ProductRepository repository, Inventory inventory) {
+        return new ProductService(repository, inventory.client, null, null, null, null, null, null, null,
+                inventory.stageMetrics);
+    }
+
+    /**
+     * Sets a field that Spring would inject with {@code @Value}.
+     */
+    static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass(), e);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.owr.product_service.benchmarks;
+
+import com.owr.product_service.dto.ProductDto;
+import com.owr.product_service.model.Product;
+import com.owr.product_service.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link ProductService#getAllProducts()} at several catalog sizes: repository read, bulk stock lookup
+ * fanned out over the inventory executor, and mapping. The repository and the inventory service are in-memory, so
+ * the numbers show the service's own overhead. {@code stockCache=true} measures the warm path where every
+ * quantity is served from the stock cache.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GetAllProductsBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int catalogSize;
+
+    @Param({"false", "true"})
+    public boolean stockCache;
+
+    private Fixtures.Inventory inventory;
+    private ProductService service;
+
+    @Setup
+    public void setUp() {
+        List<Product> catalog = Fixtures.catalog(catalogSize);
+        inventory = new Fixtures.Inventory(stockCache);
+        catalog.forEach(product -> inventory.gateway.createInventory(product.getId(), 10, null));
+        service = Fixtures.productService(Fixtures.repository(catalog), inventory);
+        service.getAllProducts(); // fills the stock cache when enabled
+    }
+
+    @TearDown
+    public void tearDown() {
+        inventory.close();
+    }
+
+    @Benchmark
+    public List<ProductDto> getAllProducts() {
+        return service.getAllProducts().body();
+    }
+}
@@ -0,0 +1,61 @@
+package com.owr.product_service.benchmarks;
+
+import com.owr.product_service.service.client.InventoryClient;
+import com.owr.product_service.service.client.StockLevel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency of single stock lookups through {@link InventoryClient} against the in-memory gateway.
+ *
+ * <p>{@code cachedHit} is the stock cache hit path. {@code uncached} goes through hedging (hand-off to the hedging
+ * executor), the circuit breaker and last-known bookkeeping on every call, which is the overhead added on top of
+ * the network round trip.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InventoryClientBenchmark {
+
+    private static final long HOT_PRODUCTS = 1_000;
+
+    private final AtomicLong nextId = new AtomicLong();
+    private Fixtures.Inventory cached;
+    private Fixtures.Inventory uncached;
+
+    @Setup
+    public void setUp() {
+        cached = new Fixtures.Inventory(true);
+        uncached = new Fixtures.Inventory(false);
+        for (long id = 1; id <= HOT_PRODUCTS; id++) {
+            cached.gateway.createInventory(id, (int) id, null);
+            uncached.gateway.createInventory(id, (int) id, null);
+            cached.client.getStock(id);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        cached.close();
+        uncached.close();
+    }
+
+    @Benchmark
+    public StockLevel cachedHit() {
+        return cached.client.getStock(nextProductId());
+    }
+
+    @Benchmark
+    public StockLevel uncached() {
+        return uncached.client.getStock(nextProductId());
+    }
+
+    private long nextProductId() {
+        return 1 + Math.floorMod(nextId.getAndIncrement(), HOT_PRODUCTS);
+    }
+}
@@ -0,0 +1,61 @@
+package com.owr.product_service.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.owr.product_service.dto.ProductDto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Prints the size of a {@code GET /api/products/all} response body per format and catalog size, raw and
+ * gzip-compressed (what the service sends above {@code server.compression.min-response-size}).
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.owr.product_service.benchmarks.PayloadSizes [size...]
+ * </pre>
+ */
+public final class PayloadSizes {
+
+    private static final String[] FORMATS = {"json", "smile", "cbor"};
+
+    private PayloadSizes() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] sizes = args.length == 0
+                ? new int[]{100, 1_000, 10_000}
+                : Arrays.stream(args).mapToInt(Integer::parseInt).toArray();
+
+        System.out.printf("%-6s %8s %12s %12s %8s%n", "format", "products", "raw bytes", "gzip bytes", "vs json");
+        for (int size : sizes) {
+            List<ProductDto> products = Fixtures.dtos(size);
+            long json = 0;
+            for (String format : FORMATS) {
+                ObjectMapper mapper = ProductFormatBenchmark.mapper(format);
+                byte[] raw = mapper.writerFor(mapper.getTypeFactory()
+                                .constructCollectionType(List.class, ProductDto.class))
+                        .writeValueAsBytes(products);
+                if (json == 0) {
+                    json = raw.length;
+                }
+                System.out.printf("%-6s %8d %12d %12d %7.0f%%%n",
+                        format, size, raw.length, gzip(raw), 100.0 * raw.length / json);
+            }
+        }
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static int gzip(byte[] raw) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(raw);
+        }
+        return compressed.size();
+    }
+}
@@ -0,0 +1,78 @@
+package com.owr.product_service.benchmarks;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.owr.product_service.dto.ProductDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization throughput of {@code List<ProductDto>} in the formats {@code GET /api/products/all} negotiates:
+ * JSON, Smile ({@code application/x-jackson-smile}) and CBOR ({@code application/cbor}). Deserialization is
+ * measured too, as the cost a Java client pays for the format. Payload sizes are printed by {@link PayloadSizes}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    public String format;
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<ProductDto> products;
+    private ObjectWriter listWriter;
+    private ObjectReader listReader;
+    private ByteArrayOutputStream buffer;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        products = Fixtures.dtos(size);
+        ObjectMapper mapper = mapper(format);
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, ProductDto.class);
+        listWriter = mapper.writerFor(listType);
+        listReader = mapper.readerFor(listType);
+        buffer = new ByteArrayOutputStream(size * 256);
+        encoded = listWriter.writeValueAsBytes(products);
+    }
+
+    /**
+     * Serializes into a reused buffer, as the response body is written to the servlet output stream.
+     */
+    @Benchmark
+    public int serialize() throws IOException {
+        buffer.reset();
+        listWriter.writeValue(buffer, products);
+        return buffer.size();
+    }
+
+    @Benchmark
+    public List<ProductDto> deserialize() throws IOException {
+        return listReader.readValue(encoded);
+    }
+
+    /**
+     * Returns a mapper configured like the one behind the service's message converter for the format.
+     */
+    static ObjectMapper mapper(String format) {
+        return switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.owr.product_service.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.owr.product_service.dto.ProductDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of serializing {@code List<ProductDto>} as done for {@code GET /api/products/all}, with an
+ * {@link ObjectMapper} configured like Spring Boot's. Run with {@code -prof gc} to see the allocation per response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductJsonBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    private List<ProductDto> products;
+    private ObjectWriter listWriter;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() {
+        products = Fixtures.dtos(size);
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        listWriter = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, ProductDto.class));
+        buffer = new ByteArrayOutputStream(size * 256);
+    }
+
+    /**
+     * Serializes into a fresh byte array, as a message converter without a pooled buffer does.
+     */
+    @Benchmark
+    public byte[] toBytes() throws IOException {
+        return listWriter.writeValueAsBytes(products);
+    }
+
+    /**
+     * Serializes into a reused buffer, isolating the encoding cost from the output allocation.
+     */
+    @Benchmark
+    public int toReusedBuffer() throws IOException {
+        buffer.reset();
+        listWriter.writeValue(buffer, products);
+        return buffer.size();
+    }
+}
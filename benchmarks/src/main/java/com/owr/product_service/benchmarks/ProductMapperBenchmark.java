@@ -0,0 +1,54 @@
+package com.owr.product_service.benchmarks;
+
+import com.owr.product_service.dto.ProductDto;
+import com.owr.product_service.mapper.ProductMapper;
+import com.owr.product_service.model.Product;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.client.StockLevel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of {@link ProductMapper}. Run with {@code -prof gc} to see the allocation per mapping
+ * ({@code gc.alloc.rate.norm}).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ProductMapperBenchmark {
+
+    private Product product;
+    private ProductSnapshot snapshot;
+    private StockLevel stock;
+
+    @Setup
+    public void setUp() {
+        product = Fixtures.catalog(1).get(0);
+        snapshot = ProductSnapshot.of(product);
+        stock = StockLevel.live(42);
+    }
+
+    @Benchmark
+    public ProductDto entityWithQuantity() {
+        return ProductMapper.toDTO(product, 42);
+    }
+
+    @Benchmark
+    public ProductDto entityWithStockLevel() {
+        return ProductMapper.toDTO(product, stock);
+    }
+
+    @Benchmark
+    public ProductDto snapshotWithStockLevel() {
+        return ProductMapper.toDTO(snapshot, stock);
+    }
+
+    @Benchmark
+    public ProductDto entityWithoutStock() {
+        return ProductMapper.toDTOWithoutStock(product, "Inventory lookup failed");
+    }
+}
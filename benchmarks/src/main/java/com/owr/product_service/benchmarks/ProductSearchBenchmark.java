@@ -0,0 +1,47 @@
+package com.owr.product_service.benchmarks;
+
+import com.owr.product_service.dto.ProductSearchPage;
+import com.owr.product_service.service.search.ProductSearchIndex;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link ProductSearchIndex#search(String, int, int)} (first page of 20) over a generated catalog of
+ * {@code catalogSize} products, built once per trial.
+ *
+ * <p>The queries cover the cost drivers: {@code cotton} matches a tenth of the catalog, so ranking dominates;
+ * {@code navy cotton sh} intersects two common terms with a prefix; {@code cashmere loafer vintage} intersects
+ * three terms whose common documents are few, where skipping through the longer posting lists pays off.</p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+@State(Scope.Benchmark)
+public class ProductSearchBenchmark {
+
+    @Param({"1000000"})
+    public int catalogSize;
+
+    @Param({"cotton", "navy cotton sh", "cashmere loafer vintage"})
+    public String query;
+
+    private ProductSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        index = new ProductSearchIndex(Fixtures.searchRepository(catalogSize), Fixtures.noTransactions(),
+                new SimpleMeterRegistry());
+        Fixtures.setField(index, "maxPageSize", 100);
+        Fixtures.setField(index, "maxWindow", 1000);
+        index.onApplicationReady();
+    }
+
+    @Benchmark
+    public ProductSearchPage search() {
+        return index.search(query, 0, 20);
+    }
+}
@@ -0,0 +1,140 @@
+package com.owr.product_service.loadtest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stand-in for the inventory service on a local port, speaking the protocol of {@code RestInventoryGateway}:
+ * {@code GET {base}/{id}}, {@code POST {base}/batch}, {@code POST {base}} and {@code POST {base}/bulk}.
+ *
+ * <p>Every response is delayed by the configured latency plus a uniform jitter; a share of them is delayed by the
+ * slow latency instead, and a share is answered with 503, so the service's hedging, circuit breaker and stale
+ * fallbacks see realistic tails. Unknown products have a stock of 100.</p>
+ */
+final class InventoryStub implements AutoCloseable {
+
+    private static final String BASE_PATH = "/api/inventory";
+    private static final int DEFAULT_QUANTITY = 100;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, Integer> quantities = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong injectedErrors = new AtomicLong();
+    private final LoadTestSettings settings;
+    private final HttpServer server;
+
+    InventoryStub(LoadTestSettings settings) throws IOException {
+        this.settings = settings;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.server.createContext(BASE_PATH, this::handle);
+        this.server.start();
+    }
+
+    /**
+     * @return the value for {@code inventory.service.port}
+     */
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort() + BASE_PATH + "/";
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long injectedErrors() {
+        return injectedErrors.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            simulateLatency();
+            if (ThreadLocalRandom.current().nextDouble() < settings.inventoryErrorRate()) {
+                injectedErrors.incrementAndGet();
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath().substring(BASE_PATH.length()).replaceAll("^/|/$", "");
+            String method = exchange.getRequestMethod();
+            if (method.equals("GET") && path.matches("\\d+")) {
+                respond(exchange, quantities.getOrDefault(Long.parseLong(path), DEFAULT_QUANTITY));
+            } else if (method.equals("POST") && path.equals("batch")) {
+                List<Long> ids = objectMapper.readValue(exchange.getRequestBody(), new TypeReference<>() {
+                });
+                Map<Long, Integer> stock = new HashMap<>(ids.size() * 2);
+                ids.forEach(id -> stock.put(id, quantities.getOrDefault(id, DEFAULT_QUANTITY)));
+                respond(exchange, stock);
+            } else if (method.equals("POST") && path.equals("bulk")) {
+                List<InventoryRecord> records = objectMapper.readValue(exchange.getRequestBody(), new TypeReference<>() {
+                });
+                records.forEach(record -> quantities.put(record.productId(), record.quantity()));
+                exchange.sendResponseHeaders(200, -1);
+            } else if (method.equals("POST") && path.isEmpty()) {
+                InventoryRecord record = objectMapper.readValue(exchange.getRequestBody(), InventoryRecord.class);
+                quantities.put(record.productId(), record.quantity());
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    private void simulateLatency() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long millis = random.nextDouble() < settings.inventorySlowRate()
+                ? settings.inventorySlowLatency().toMillis()
+                : settings.inventoryLatency().toMillis() + jitterMillis(random, settings.inventoryJitter());
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static long jitterMillis(ThreadLocalRandom random, Duration jitter) {
+        return jitter.isZero() ? 0 : random.nextLong(jitter.toMillis() + 1);
+    }
+
+    private void respond(HttpExchange exchange, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    /**
+     * Body of the create calls, as sent by the service.
+     */
+    private record InventoryRecord(Long productId, int quantity) {
+    }
+}
@@ -0,0 +1,100 @@
+package com.owr.product_service.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * Minimal OpenID provider on a local port: publishes its discovery document and RSA signing key, and mints
+ * RS256 access tokens. Pointing {@code spring.security.oauth2.resourceserver.jwt.issuer-uri} at it makes the
+ * service validate signature, issuer and expiry of load test tokens exactly as it does with the real issuer.
+ */
+final class JwtIssuerStub implements AutoCloseable {
+
+    private final RSAKey signingKey;
+    private final HttpServer server;
+
+    JwtIssuerStub() throws IOException {
+        try {
+            this.signingKey = new RSAKeyGenerator(2048).keyID("loadtest").generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Cannot generate the signing key", e);
+        }
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 64);
+        this.server.createContext("/.well-known/openid-configuration", exchange -> respond(exchange, """
+                {"issuer":"%s","jwks_uri":"%s/jwks","id_token_signing_alg_values_supported":["RS256"],
+                 "subject_types_supported":["public"],"response_types_supported":["token"]}
+                """.formatted(issuer(), issuer())));
+        this.server.createContext("/jwks", exchange ->
+                respond(exchange, new JWKSet(signingKey.toPublicJWK()).toString()));
+        this.server.start();
+    }
+
+    /**
+     * @return the value for {@code spring.security.oauth2.resourceserver.jwt.issuer-uri}
+     */
+    String issuer() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Mints a signed access token.
+     *
+     * @param subject  the {@code sub} claim
+     * @param validity how long the token is valid
+     * @return the serialized token, to be sent as {@code Authorization: Bearer <token>}
+     */
+    String mint(String subject, Duration validity) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(issuer())
+                .subject(subject)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(validity)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(),
+                claims);
+        try {
+            jwt.sign(new RSASSASigner(signingKey));
+        } catch (JOSEException e) {
+            throw new IllegalStateException("Cannot sign the token", e);
+        }
+        return jwt.serialize();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        try (exchange) {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.owr.product_service.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Seeds the catalog and sends the configured request mix to the service.
+ *
+ * <p>Requests are started at a fixed arrival rate on virtual threads, independent of how fast responses come back
+ * (open model), and each latency is measured from the time the request was due, not from when it was actually
+ * sent. A slow service therefore shows up in the percentiles instead of silently lowering the load
+ * (no coordinated omission).</p>
+ */
+final class LoadDriver implements AutoCloseable {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long MAX_RECORDED_MICROS = TimeUnit.SECONDS.toMicros(60);
+    private static final String[] CATEGORIES = {"Shoes", "Shirts", "Trousers", "Jackets", "Accessories"};
+
+    /**
+     * Latencies and outcomes of one endpoint during one run.
+     */
+    static final class EndpointStats {
+        final Histogram latencyMicros = new ConcurrentHistogram(MAX_RECORDED_MICROS, 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+    }
+
+    private final String baseUrl;
+    private final String[] authorizations;
+    private final LoadTestSettings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong createdProducts = new AtomicLong();
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private long[] productIds = new long[0];
+
+    LoadDriver(String baseUrl, List<String> tokens, LoadTestSettings settings) {
+        this.baseUrl = baseUrl + "/api/products";
+        this.authorizations = tokens.stream().map(token -> "Bearer " + token).toArray(String[]::new);
+        this.settings = settings;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+
+        this.operations = settings.mix().keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += settings.mix().get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Imports {@code count} products through {@code POST /import} and remembers their ids as request targets.
+     *
+     * @param count the number of products
+     * @throws IOException if the import or the id listing fails
+     */
+    void seed(int count) throws IOException, InterruptedException {
+        List<Map<String, Object>> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(Map.of("product", product("seed-" + i, i), "quantity", 100));
+        }
+        HttpResponse<String> imported = send(request("/import")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(items))));
+        if (imported.statusCode() != 200) {
+            throw new IOException("Seeding failed with " + imported.statusCode() + ": " + imported.body());
+        }
+
+        List<Long> ids = new ArrayList<>(count);
+        String cursor = null;
+        do {
+            String query = "?limit=500" + (cursor == null ? "" : "&cursor=" + cursor);
+            HttpResponse<String> page = send(request(query).GET());
+            if (page.statusCode() != 200) {
+                throw new IOException("Listing ids failed with " + page.statusCode() + ": " + page.body());
+            }
+            JsonNode body = objectMapper.readTree(page.body());
+            body.path("items").forEach(item -> ids.add(item.path("id").asLong()));
+            cursor = body.path("nextCursor").isTextual() ? body.path("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        if (ids.isEmpty()) {
+            throw new IOException("No products to send requests for; use --loadtest.catalog-size > 0");
+        }
+        productIds = ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * Sends the request mix at {@code --loadtest.rate} for the given time, then waits for outstanding requests.
+     *
+     * @param duration how long to start new requests
+     * @return the stats per endpoint
+     */
+    Map<Operation, EndpointStats> run(Duration duration) throws InterruptedException {
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            stats.put(operation, new EndpointStats());
+        }
+
+        long interval = TimeUnit.SECONDS.toNanos(1) / settings.rate();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            long due = start + i * interval;
+            if (due - end >= 0) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation operation = nextOperation();
+            EndpointStats endpoint = stats.get(operation);
+            if (inFlight.incrementAndGet() > settings.maxInFlight()) {
+                inFlight.decrementAndGet();
+                endpoint.dropped.increment();
+                continue;
+            }
+            executor.execute(() -> {
+                try {
+                    execute(operation, due, endpoint);
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+
+        long drainDeadline = System.nanoTime() + REQUEST_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() - drainDeadline < 0) {
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    /**
+     * Prints requests, errors, throughput and latency percentiles per endpoint.
+     *
+     * @param stats    the stats of a run
+     * @param duration the length of that run
+     * @param out      where to print
+     */
+    static void report(Map<Operation, EndpointStats> stats, Duration duration, PrintStream out) {
+        double seconds = duration.toMillis() / 1000.0;
+        out.printf("%-16s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Dropped", "Req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        stats.forEach((operation, endpoint) -> {
+            Histogram latency = endpoint.latencyMicros;
+            out.printf("%-16s %9d %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.label,
+                    latency.getTotalCount(),
+                    endpoint.errors.sum(),
+                    endpoint.dropped.sum(),
+                    latency.getTotalCount() / seconds,
+                    latency.getValueAtPercentile(50) / 1000.0,
+                    latency.getValueAtPercentile(99) / 1000.0,
+                    latency.getValueAtPercentile(99.9) / 1000.0,
+                    latency.getMaxValue() / 1000.0);
+        });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private Operation nextOperation() {
+        int ticket = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    /**
+     * Sends one request and records its latency, counted from {@code due}; failed requests are recorded too.
+     */
+    private void execute(Operation operation, long due, EndpointStats endpoint) {
+        boolean ok;
+        try {
+            HttpResponse<String> response = send(build(operation));
+            ok = response.statusCode() < 400;
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - due);
+        endpoint.latencyMicros.recordValue(Math.min(micros, MAX_RECORDED_MICROS));
+        if (!ok) {
+            endpoint.errors.increment();
+        }
+    }
+
+    private HttpRequest.Builder build(Operation operation) throws IOException {
+        long id = productIds[ThreadLocalRandom.current().nextInt(productIds.length)];
+        return switch (operation) {
+            case ALL -> request("/all").GET();
+            case GET -> request("/" + id).GET();
+            case PRICE -> request("/" + id + "/price").GET();
+            case CREATE -> {
+                long n = createdProducts.incrementAndGet();
+                byte[] body = objectMapper.writeValueAsBytes(
+                        Map.of("product", product("loadtest-" + n + "-" + System.nanoTime(), n), "quantity", 10));
+                yield request("")
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            }
+            case PATCH -> {
+                double price = price(ThreadLocalRandom.current().nextLong());
+                byte[] body = objectMapper.writeValueAsBytes(Map.of("price", price));
+                yield request("/" + id)
+                        .header("Content-Type", "application/json")
+                        .method("PATCH", HttpRequest.BodyPublishers.ofByteArray(body));
+            }
+        };
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Authorization", authorizations[ThreadLocalRandom.current().nextInt(authorizations.length)]);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Map<String, Object> product(String name, long n) {
+        String category = CATEGORIES[(int) Math.floorMod(n, CATEGORIES.length)];
+        return Map.of(
+                "name", name,
+                "category", category,
+                "description", "Comfortable everyday " + category.toLowerCase(Locale.ROOT) + ", item " + n,
+                "price", price(n));
+    }
+
+    private static double price(long n) {
+        return 9.99 + Math.floorMod(n, 500);
+    }
+}
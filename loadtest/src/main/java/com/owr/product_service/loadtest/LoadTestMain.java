@@ -0,0 +1,130 @@
+package com.owr.product_service.loadtest;
+
+import com.owr.product_service.ProductServiceApplication;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+/**
+ * Runs the service in-process against an embedded PostgreSQL, an {@link InventoryStub} and a
+ * {@link JwtIssuerStub}, seeds the catalog, warms up, and reports a measured run of the configured request mix.
+ *
+ * <p>Needs no network and no Docker: the PostgreSQL binaries come from a Maven artifact. See {@code pom.xml} for
+ * the command line; {@code --loadtest.*} arguments are described in {@link LoadTestSettings}.</p>
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.parse(args);
+        // The stubs' JDK HttpServer closes keep-alive connections beyond 200 idle ones, which the service would
+        // then see as "failed to respond" once it holds more connections to the stub than that
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(settings.maxInFlight()));
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+             InventoryStub inventory = new InventoryStub(settings);
+             JwtIssuerStub issuer = new JwtIssuerStub()) {
+            Duration validity = settings.warmup().plus(settings.duration()).plus(Duration.ofHours(1));
+            List<String> tokens = IntStream.range(0, settings.clients())
+                    .mapToObj(client -> issuer.mint("loadtest-client-" + client, validity))
+                    .toList();
+            String token = tokens.get(0);
+
+            try (ConfigurableApplicationContext service = new SpringApplicationBuilder(ProductServiceApplication.class)
+                    .run(serviceArguments(settings, postgres, inventory, issuer, token));
+                 LoadDriver driver = new LoadDriver("http://localhost:" + port(service), tokens, settings)) {
+
+                System.out.printf("Service running in %s mode%n", settings.mode());
+                System.out.printf("Seeding %d products%n", settings.catalogSize());
+                driver.seed(settings.catalogSize());
+
+                System.out.printf("Warming up for %s at %d req/s%n", settings.warmup(), settings.rate());
+                driver.run(settings.warmup());
+
+                System.out.printf("Measuring for %s at %d req/s, mix %s%n",
+                        settings.duration(), settings.rate(), settings.mix());
+                long inventoryRequestsBefore = inventory.requests();
+                Map<String, Double> inventoryOutcomesBefore = inventoryOutcomes(service);
+                LoadDriver.report(driver.run(settings.duration()), settings.duration(), System.out);
+                System.out.printf("Inventory stub: %d requests during the run, %d injected errors in total%n",
+                        inventory.requests() - inventoryRequestsBefore, inventory.injectedErrors());
+                System.out.printf("Inventory client: %s during the run%n",
+                        difference(inventoryOutcomes(service), inventoryOutcomesBefore));
+            }
+        }
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    /**
+     * Points the service at the embedded database and the stubs. Passed as command line arguments because those
+     * take precedence over {@code application.properties}; the user's own arguments win over these defaults.
+     */
+    private static String[] serviceArguments(LoadTestSettings settings, EmbeddedPostgres postgres,
+                                             InventoryStub inventory, JwtIssuerStub issuer, String token) {
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("spring.datasource.url", postgres.getJdbcUrl("postgres", "postgres"));
+        properties.put("spring.datasource.username", "postgres");
+        properties.put("spring.datasource.password", "postgres");
+        if (settings.isReactive()) {
+            properties.put("spring.profiles.active", "reactive");
+            properties.put("spring.r2dbc.url", "r2dbc:postgresql://localhost:" + postgres.getPort() + "/postgres");
+            properties.put("spring.r2dbc.username", "postgres");
+            properties.put("spring.r2dbc.password", "postgres");
+        }
+        properties.put("spring.jpa.show-sql", "false");
+        properties.put("logging.level.root", "WARN");
+        properties.put("inventory.client.mode", "rest");
+        properties.put("inventory.service.port", inventory.baseUrl());
+        properties.put("inventory.service.token", token);
+        properties.put("spring.security.oauth2.resourceserver.jwt.issuer-uri", issuer.issuer());
+        properties.putAll(settings.serviceArguments());
+
+        return properties.entrySet().stream()
+                .map(property -> "--" + property.getKey() + "=" + property.getValue())
+                .toArray(String[]::new);
+    }
+
+    /**
+     * The service's counts of failed inventory calls by reason and of stock served stale or not at all, so that a
+     * fast run is not mistaken for a healthy one when the answers came from the last known stock.
+     */
+    private static Map<String, Double> inventoryOutcomes(ConfigurableApplicationContext service) {
+        MeterRegistry registry = service.getBean(MeterRegistry.class);
+        Map<String, Double> outcomes = new TreeMap<>();
+        for (Counter counter : registry.find("inventory.requests.failures").counters()) {
+            outcomes.merge("failed " + counter.getId().getTag("reason"), counter.count(), Double::sum);
+        }
+        for (Counter counter : registry.find("inventory.stock.fallbacks").counters()) {
+            outcomes.merge(counter.getId().getTag("outcome"), counter.count(), Double::sum);
+        }
+        return outcomes;
+    }
+
+    private static String difference(Map<String, Double> after, Map<String, Double> before) {
+        StringJoiner joined = new StringJoiner(", ");
+        after.forEach((outcome, count) -> joined.add(
+                outcome + " " + Math.round(count - before.getOrDefault(outcome, 0.0))));
+        return joined.length() == 0 ? "no failures" : joined.toString();
+    }
+
+    private static int port(ConfigurableApplicationContext service) {
+        return ((WebServerApplicationContext) service).getWebServer().getPort();
+    }
+}
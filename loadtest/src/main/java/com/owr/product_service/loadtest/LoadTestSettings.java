@@ -0,0 +1,138 @@
+package com.owr.product_service.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Settings of a load test run, read from {@code --loadtest.*} arguments; all other arguments are meant for the
+ * service.
+ *
+ * @param rate                     requests started per second (open model: arrivals do not wait for responses)
+ * @param duration                 length of the measured run
+ * @param warmup                   length of the unrecorded run before it
+ * @param maxInFlight              requests in flight above which new arrivals are dropped and counted as such
+ * @param catalogSize              products imported before the run
+ * @param clients                  distinct bearer tokens the requests are spread over, as sent by that many clients
+ * @param mix                      relative weight per operation
+ * @param mode                     {@code blocking} (Spring MVC, JPA) or {@code reactive} (WebFlux, R2DBC)
+ * @param inventoryLatency         base latency of every inventory stub response
+ * @param inventoryJitter          upper bound of the uniformly distributed extra latency
+ * @param inventorySlowRate        share of inventory responses delayed by {@code inventorySlowLatency} instead
+ * @param inventorySlowLatency     latency of the slow inventory responses (exercises hedging and the breaker)
+ * @param inventoryErrorRate       share of inventory responses answered with 503
+ * @param serviceArguments         the arguments passed on to the service
+ */
+record LoadTestSettings(int rate,
+                        Duration duration,
+                        Duration warmup,
+                        int maxInFlight,
+                        int catalogSize,
+                        int clients,
+                        Map<Operation, Integer> mix,
+                        String mode,
+                        Duration inventoryLatency,
+                        Duration inventoryJitter,
+                        double inventorySlowRate,
+                        Duration inventorySlowLatency,
+                        double inventoryErrorRate,
+                        Map<String, String> serviceArguments) {
+
+    private static final String PREFIX = "loadtest.";
+
+    /**
+     * Parses {@code --name=value} arguments.
+     *
+     * @param args the command line
+     * @return the settings, defaults for everything not given
+     * @throws IllegalArgumentException on an unknown {@code loadtest.} setting or a malformed value
+     */
+    static LoadTestSettings parse(String[] args) {
+        Map<String, String> settings = new HashMap<>();
+        Map<String, String> serviceArguments = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value but got " + arg);
+            }
+            String name = arg.substring(2, arg.indexOf('='));
+            String value = arg.substring(arg.indexOf('=') + 1);
+            if (name.startsWith(PREFIX)) {
+                settings.put(name.substring(PREFIX.length()), value);
+            } else {
+                serviceArguments.put(name, value);
+            }
+        }
+
+        LoadTestSettings parsed = new LoadTestSettings(
+                Integer.parseInt(settings.getOrDefault("rate", "200")),
+                duration(settings.getOrDefault("duration", "60s")),
+                duration(settings.getOrDefault("warmup", "20s")),
+                Integer.parseInt(settings.getOrDefault("max-in-flight", "10000")),
+                Integer.parseInt(settings.getOrDefault("catalog-size", "10000")),
+                Integer.parseInt(settings.getOrDefault("clients", "100")),
+                mix(settings.getOrDefault("mix", "all:1,get:60,price:30,create:5,patch:4")),
+                settings.getOrDefault("mode", "blocking"),
+                duration(settings.getOrDefault("inventory.latency", "5ms")),
+                duration(settings.getOrDefault("inventory.jitter", "5ms")),
+                Double.parseDouble(settings.getOrDefault("inventory.slow-rate", "0.01")),
+                duration(settings.getOrDefault("inventory.slow-latency", "500ms")),
+                Double.parseDouble(settings.getOrDefault("inventory.error-rate", "0")),
+                serviceArguments);
+
+        Set<String> known = Set.of("rate", "duration", "warmup", "max-in-flight", "catalog-size", "clients", "mix",
+                "mode", "inventory.latency", "inventory.jitter", "inventory.slow-rate", "inventory.slow-latency",
+                "inventory.error-rate");
+        for (String name : settings.keySet()) {
+            if (!known.contains(name)) {
+                throw new IllegalArgumentException("Unknown setting --" + PREFIX + name + ", expected one of " + known);
+            }
+        }
+        if (parsed.rate() < 1) {
+            throw new IllegalArgumentException("--loadtest.rate must be at least 1");
+        }
+        if (parsed.clients() < 1) {
+            throw new IllegalArgumentException("--loadtest.clients must be at least 1");
+        }
+        if (!Set.of("blocking", "reactive").contains(parsed.mode())) {
+            throw new IllegalArgumentException("--loadtest.mode must be blocking or reactive");
+        }
+        return parsed;
+    }
+
+    /**
+     * @return whether the service is run in its reactive mode
+     */
+    boolean isReactive() {
+        return "reactive".equals(mode);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static Duration duration(String value) {
+        return DurationStyle.detectAndParse(value);
+    }
+
+    /**
+     * Parses {@code name:weight,...}, e.g. {@code get:60,price:40}.
+     */
+    private static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected name:weight in --loadtest.mix but got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.byName(parts[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("--loadtest.mix needs at least one operation with a positive weight");
+        }
+        return mix;
+    }
+}
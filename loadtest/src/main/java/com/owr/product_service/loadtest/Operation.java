@@ -0,0 +1,57 @@
+package com.owr.product_service.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * The endpoints a load test run sends traffic to.
+ */
+enum Operation {
+
+    /**
+     * {@code GET /api/products/all}
+     */
+    ALL("all", "GET /all"),
+
+    /**
+     * {@code GET /api/products/{id}}
+     */
+    GET("get", "GET /{id}"),
+
+    /**
+     * {@code GET /api/products/{id}/price}
+     */
+    PRICE("price", "GET /{id}/price"),
+
+    /**
+     * {@code POST /api/products}
+     */
+    CREATE("create", "POST /"),
+
+    /**
+     * {@code PATCH /api/products/{id}}
+     */
+    PATCH("patch", "PATCH /{id}");
+
+    /**
+     * Name used in {@code --loadtest.mix}.
+     */
+    final String mixName;
+
+    /**
+     * Label printed in the report.
+     */
+    final String label;
+
+    Operation(String mixName, String label) {
+        this.mixName = mixName;
+        this.label = label;
+    }
+
+    static Operation byName(String mixName) {
+        return Arrays.stream(values())
+                .filter(operation -> operation.mixName.equals(mixName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown operation '" + mixName
+                        + "' in --loadtest.mix, expected one of " + Arrays.stream(values()).map(o -> o.mixName).toList()));
+    }
+}
@@ -0,0 +1,15 @@
+#!/usr/bin/env bash
+#=================================================================================
+#  init-primary.sh
+#
+#  Runs once when the primary of docker-compose.replicas.yml initialises its data
+#  directory: creates the role the replica streams WAL with and allows it to
+#  connect for replication.
+#=================================================================================
+set -e
+
+psql -v ON_ERROR_STOP=1 --username "$POSTGRES_USER" --dbname "$POSTGRES_DB" <<-SQL
+    CREATE ROLE replicator WITH REPLICATION LOGIN PASSWORD '${REPLICATION_PASSWORD}';
+SQL
+
+echo "host replication replicator all scram-sha-256" >> "$PGDATA/pg_hba.conf"
@@ -0,0 +1,40 @@
+#!/usr/bin/env sh
+#=================================================================================
+#  time-to-first-request.sh
+#
+#  Starts the service with the given command and prints the milliseconds until it
+#  first answers an HTTP request (any status, so no token is needed), then stops it.
+#
+#  Usage:
+#    scripts/time-to-first-request.sh java -jar target/product-service-0.0.1-SNAPSHOT.jar
+#    scripts/time-to-first-request.sh target/product-service
+#    URL=http://localhost:8586/api/products/1 scripts/time-to-first-request.sh docker run --rm -p 8586:8586 ...
+#=================================================================================
+
+URL="${URL:-http://localhost:8586/api/products/all}"
+TIMEOUT_S="${TIMEOUT_S:-120}"
+
+start=$(date +%s%3N)
+"$@" > time-to-first-request.log 2>&1 &
+pid=$!
+
+while :; do
+    status=$(curl -s -o /dev/null -w '%{http_code}' "$URL")
+    if [ "$status" != "000" ]; then
+        echo "first response (HTTP $status) after $(( $(date +%s%3N) - start )) ms"
+        break
+    fi
+    if ! kill -0 "$pid" 2>/dev/null; then
+        echo "process exited before answering, see time-to-first-request.log" >&2
+        exit 1
+    fi
+    if [ $(( $(date +%s%3N) - start )) -gt $(( TIMEOUT_S * 1000 )) ]; then
+        echo "no response within ${TIMEOUT_S}s" >&2
+        kill "$pid"
+        exit 1
+    fi
+    sleep 0.01
+done
+
+kill "$pid"
+wait "$pid" 2>/dev/null
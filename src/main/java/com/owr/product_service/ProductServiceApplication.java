@@ -1,10 +1,13 @@
 package com.owr.product_service;
 
+import com.owr.product_service.config.ApplicationRuntimeHints;
 import io.github.cdimascio.dotenv.Dotenv;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ApplicationRuntimeHints.class)
 public class ProductServiceApplication {
 
     public static void main(String[] args) {
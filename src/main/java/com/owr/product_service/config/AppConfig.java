@@ -1,10 +1,35 @@
 package com.owr.product_service.config;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.owr.product_service.service.timing.StageMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.client.RestTemplate;
 
+import javax.sql.DataSource;
+import java.time.Duration;
+
 /*=================================================================================
  * Project: product-service
  * File: AppConfig
@@ -13,14 +38,194 @@ import org.springframework.web.client.RestTemplate;
  * Description: Define and expose reusable Spring-managed components that can be injected  into the application
  =================================================================================*/
 @Configuration
+@EnableScheduling
 public class AppConfig {
     /**
-     * Creates and registers a {@link RestTemplate} bean.
+     * Creates the connection pool shared by all outgoing HTTP calls.
+     *
+     * <p>Connections are kept alive and reused across requests instead of paying a TCP handshake per call.
+     * Pool size and usage are published as {@code httpcomponents.httpclient.pool.*{httpclient=inventory}}
+     * meters, so saturation (pending acquisitions, leased == max) is visible.</p>
+     *
+     * @param maxConnections         maximum open connections in total
+     * @param maxConnectionsPerRoute maximum open connections to one host
+     * @param connectTimeout         maximum time to establish a TCP connection
+     * @param readTimeout            maximum time to wait for data on an open connection
+     * @param timeToLive             maximum lifetime of a pooled connection
+     * @param meterRegistry          registry the pool gauges are bound to
+     * @return the pooling connection manager
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpConnectionManager(
+            @Value("${http.client.max-connections:200}") int maxConnections,
+            @Value("${http.client.max-connections-per-route:50}") int maxConnectionsPerRoute,
+            @Value("${http.client.connect-timeout:1s}") Duration connectTimeout,
+            @Value("${http.client.read-timeout:2s}") Duration readTimeout,
+            @Value("${http.client.time-to-live:5m}") Duration timeToLive,
+            MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnectionsPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout.toMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(timeToLive.toMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "inventory")
+                .bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    /**
+     * Creates the pooled, keep-alive HTTP client used by {@link RestTemplate}.
      *
+     * @param connectionManager  the shared connection pool
+     * @param readTimeout        maximum time to wait for a response
+     * @param poolAcquireTimeout maximum time to wait for a free pooled connection
+     * @param keepAlive          how long an idle connection is kept when the server sends no Keep-Alive hint
+     * @return the HTTP client
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(
+            PoolingHttpClientConnectionManager connectionManager,
+            @Value("${http.client.read-timeout:2s}") Duration readTimeout,
+            @Value("${http.client.pool-acquire-timeout:500ms}") Duration poolAcquireTimeout,
+            @Value("${http.client.keep-alive:30s}") Duration keepAlive) {
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeout.toMillis()))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeout.toMillis()))
+                        .setConnectionKeepAlive(TimeValue.ofMilliseconds(keepAlive.toMillis()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(keepAlive.toMillis()))
+                .build();
+    }
+
+    /**
+     * Creates and registers a {@link RestTemplate} bean backed by the pooled {@link CloseableHttpClient}.
+     *
+     * @param httpClient the pooled HTTP client
      * @return a new instance of {@code RestTemplate}
      */
     @Bean
-    public RestTemplate restTemplate(){
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient httpClient){
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    /**
+     * Replaces Spring Boot's JSON message converter with one that times response serialization.
+     *
+     * @param objectMapper the auto-configured object mapper
+     * @param stageMetrics the stage timers
+     * @return the converter
+     */
+    @Bean
+    public TimedJacksonHttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper,
+                                                                               StageMetrics stageMetrics) {
+        return new TimedJacksonHttpMessageConverter(objectMapper, stageMetrics);
+    }
+
+    /**
+     * Serves {@code application/cbor} to clients that send it in {@code Accept}; JSON stays the default.
+     *
+     * @param builder      Spring Boot's (prototype) object mapper builder, so CBOR output has the same content as JSON
+     * @param stageMetrics the stage timers
+     * @return the converter
+     */
+    @Bean
+    public TimedCborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder,
+                                                                  StageMetrics stageMetrics) {
+        return new TimedCborHttpMessageConverter(builder.factory(new CBORFactory()).build(), stageMetrics);
+    }
+
+    /**
+     * Serves Smile ({@code application/x-jackson-smile}) to clients that send it in {@code Accept}.
+     * <p>Smile back-references repeated property names, which makes long product lists smaller than CBOR.</p>
+     *
+     * @param builder      Spring Boot's (prototype) object mapper builder
+     * @param stageMetrics the stage timers
+     * @return the converter
+     */
+    @Bean
+    public TimedSmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder,
+                                                                    StageMetrics stageMetrics) {
+        return new TimedSmileHttpMessageConverter(builder.factory(new SmileFactory()).build(), stageMetrics);
+    }
+
+    /**
+     * Wraps the application's {@code dataSource} in a {@link DeadlineQueryTimeoutDataSource}, so that database
+     * queries count against the request deadline just like inventory calls.
+     *
+     * @return the post-processor
+     */
+    @Bean
+    public static BeanPostProcessor deadlineQueryTimeoutPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && "dataSource".equals(beanName)
+                        ? new DeadlineQueryTimeoutDataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    /**
+     * Creates the executor used to send the chunks of a bulk stock lookup to the inventory service concurrently.
+     *
+     * <p>At most {@code parallelism} chunks run at a time and up to 1,000 wait in the queue; beyond that a
+     * submission is rejected with {@code TaskRejectedException} rather than blocking the submitter, which
+     * {@code InventoryClient} reports as a failed chunk and {@code StockCache} as a skipped refresh. With
+     * {@code spring.threads.virtual.enabled=true} (which also moves Tomcat request handling onto virtual threads)
+     * the workers are virtual threads, otherwise platform threads.</p>
+     *
+     * <p>Tasks do not inherit the request context. Callers resolve request-bound data such as the Authorization
+     * header before submitting, as {@code InventoryClient} does.</p>
+     *
+     * @param parallelism    maximum number of chunks in flight at the same time
+     * @param virtualThreads whether the application runs in virtual-thread mode
+     * @return the executor
+     */
+    @Bean
+    public AsyncTaskExecutor inventoryExecutor(@Value("${inventory.batch.parallelism:8}") int parallelism,
+                                               @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(1_000);
+        executor.setThreadNamePrefix("inventory-");
+        executor.setVirtualThreads(virtualThreads);
+        return executor;
+    }
+
+    /**
+     * Creates the executor on which single inventory lookups and their hedges run.
+     *
+     * <p>Kept apart from {@link #inventoryExecutor} so that bulk fan-out cannot starve single lookups. In
+     * platform-thread mode it has no queue: when all threads are busy the submission is rejected and the
+     * caller runs the lookup itself, unhedged.</p>
+     *
+     * @param maxThreads     maximum platform threads
+     * @param virtualThreads whether the application runs in virtual-thread mode
+     * @return the executor
+     */
+    @Bean
+    public AsyncTaskExecutor hedgingExecutor(@Value("${inventory.hedging.max-threads:200}") int maxThreads,
+                                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("inventory-hedge-");
+            executor.setVirtualThreads(true);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(Math.min(16, maxThreads));
+        executor.setMaxPoolSize(maxThreads);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("inventory-hedge-");
+        return executor;
     }
 }
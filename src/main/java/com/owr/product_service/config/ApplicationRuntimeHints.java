@@ -0,0 +1,56 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.controller.request.ProductCsvRow;
+import com.owr.product_service.controller.request.ProductWithQuantity;
+import com.owr.product_service.dto.ProductImportResult;
+import com.owr.product_service.model.InventoryOutboxEntry;
+import com.owr.product_service.model.Product;
+import com.owr.product_service.repository.ProductCardView;
+import com.owr.product_service.repository.ProductDetailView;
+import com.owr.product_service.repository.ProductSummaryView;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.client.RestInventoryGateway;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection and resource hints for the GraalVM native image ({@code mvn -Pnative native:compile}).
+ *
+ * <p>Spring AOT already covers the bean definitions, the request and response types of the controller methods and
+ * the entities it finds through entity scanning. This adds what it cannot see:</p>
+ * <ul>
+ *     <li>the JPA entities, whose Lombok-generated constructors and accessors Hibernate calls reflectively</li>
+ *     <li>{@link ProductSnapshot} and the record projections of {@code ProductRepository}, instantiated by
+ *     Hibernate from constructor expressions</li>
+ *     <li>types bound by Jackson outside controller signatures: CSV rows and streamed JSON imports, and the
+ *     request bodies sent to the inventory service</li>
+ *     <li>the {@code .env} file, which {@code ProductServiceApplication} falls back to reading from the classpath
+ *     when it is not in the working directory</li>
+ * </ul>
+ */
+public class ApplicationRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (Class<?> entity : new Class<?>[]{Product.class, InventoryOutboxEntry.class}) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+        for (Class<?> projection : new Class<?>[]{ProductSnapshot.class, ProductCardView.class,
+                ProductSummaryView.class, ProductDetailView.class}) {
+            hints.reflection().registerType(projection, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+        }
+
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                ProductCsvRow.class,
+                ProductWithQuantity.class,
+                ProductImportResult.class,
+                RestInventoryGateway.InventoryRequest.class);
+
+        hints.resources().registerPattern(".env");
+    }
+}
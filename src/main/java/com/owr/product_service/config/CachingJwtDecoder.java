@@ -0,0 +1,113 @@
+package com.owr.product_service.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.owr.product_service.service.timing.Outcome;
+import com.owr.product_service.service.timing.Stage;
+import com.owr.product_service.service.timing.StageMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * A {@link JwtDecoder} that remembers successfully verified tokens, so a client sending the same bearer token
+ * again is not verified again (signature check and claim parsing, tens of microseconds per request).
+ *
+ * <p>Entries are keyed by the SHA-256 hash of the token, so raw tokens are not kept in memory, and are bounded
+ * by {@code security.jwt.cache.max-size}. An entry expires when its token does ({@code exp}), and at the latest
+ * after {@code security.jwt.cache.max-ttl}, which bounds how long a token signed with a key the issuer has
+ * since withdrawn is still accepted. Rejected tokens are never cached.</p>
+ *
+ * <p>Hits are timed as {@link Stage#AUTH} operation {@code cached}, verifications as {@code decode}; cache
+ * statistics are exported as {@code cache.*{cache=jwt}}.</p>
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final StageMetrics stageMetrics;
+    private final Cache<String, Jwt> verified;
+
+    /**
+     * @param delegate     verifies tokens that are not cached
+     * @param maxSize      maximum number of cached tokens; {@code 0} disables the cache
+     * @param maxTtl       longest time a token is cached
+     * @param stageMetrics the stage timers
+     * @param meterRegistry registry for the cache statistics
+     */
+    public CachingJwtDecoder(JwtDecoder delegate,
+                             long maxSize,
+                             Duration maxTtl,
+                             StageMetrics stageMetrics,
+                             MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.stageMetrics = stageMetrics;
+        if (maxSize > 0) {
+            this.verified = Caffeine.newBuilder()
+                    .maximumSize(maxSize)
+                    .expireAfter(Expiry.writing((String key, Jwt jwt) -> timeToLive(jwt, maxTtl, Instant.now())))
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt");
+        } else {
+            this.verified = null;
+        }
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        if (verified == null) {
+            return stageMetrics.time(Stage.AUTH, "decode", () -> delegate.decode(token));
+        }
+
+        long start = System.nanoTime();
+        String key = hash(token);
+        Jwt jwt = verified.getIfPresent(key);
+        if (jwt != null) {
+            stageMetrics.record(Stage.AUTH, "cached", Outcome.SUCCESS, System.nanoTime() - start);
+            return jwt;
+        }
+
+        jwt = stageMetrics.time(Stage.AUTH, "decode", () -> delegate.decode(token));
+        verified.put(key, jwt);
+        return jwt;
+    }
+
+    /**
+     * How long a token verified at {@code now} may be served from the cache: until it expires, at most
+     * {@code maxTtl}, and not at all once it has expired.
+     */
+    static Duration timeToLive(Jwt jwt, Duration maxTtl, Instant now) {
+        Instant expiresAt = jwt.getExpiresAt();
+        if (expiresAt == null) {
+            return maxTtl;
+        }
+        Duration untilExpiry = Duration.between(now, expiresAt);
+        if (untilExpiry.isNegative()) {
+            return Duration.ZERO;
+        }
+        return untilExpiry.compareTo(maxTtl) < 0 ? untilExpiry : maxTtl;
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
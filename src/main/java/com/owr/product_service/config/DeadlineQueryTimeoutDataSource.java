@@ -0,0 +1,92 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.service.deadline.Deadline;
+import com.owr.product_service.service.deadline.DeadlineContext;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+
+/**
+ * Bounds every JDBC statement run on behalf of a request by the time left until the request deadline.
+ *
+ * <p>Statements created while a {@link Deadline} is bound to the thread get the remaining time as their query
+ * timeout, so a slow query is cancelled by the driver instead of running on after the client has given up. The
+ * JDBC timeout has a resolution of whole seconds; the remaining time is rounded up. A statement created after the
+ * deadline has passed is not sent at all and fails with {@link SQLTimeoutException}. Either way the caller sees a
+ * {@code QueryTimeoutException}, which {@code ProductService} reports as a {@code DeadlineExceededException}.</p>
+ *
+ * <p>Statements created outside of a request, such as those of the index rebuilds and the outbox dispatcher, are
+ * left untouched.</p>
+ */
+public class DeadlineQueryTimeoutDataSource extends DelegatingDataSource {
+
+    public DeadlineQueryTimeoutDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return withDeadline(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return withDeadline(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    /**
+     * Applies the remaining time of the current request, if any, as the query timeout of {@code statement}.
+     *
+     * @param statement the statement just created
+     * @throws SQLTimeoutException if the deadline has already passed; the statement is closed
+     */
+    static void applyDeadline(Statement statement) throws SQLException {
+        Deadline deadline = DeadlineContext.current();
+        if (deadline == null) {
+            return;
+        }
+        long remainingMillis = deadline.remainingMillis();
+        if (remainingMillis == 0) {
+            statement.close();
+            throw new SQLTimeoutException("Request deadline exceeded before database query");
+        }
+        statement.setQueryTimeout((int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000));
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static Connection withDeadline(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new DeadlineConnectionHandler(connection));
+    }
+
+    /**
+     * Passes every call through to the connection and applies the deadline to the statements it creates.
+     */
+    private record DeadlineConnectionHandler(Connection target) implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+            if (result instanceof Statement statement) {
+                applyDeadline(statement);
+            }
+            return result;
+        }
+    }
+}
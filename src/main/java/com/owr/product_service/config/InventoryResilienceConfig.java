@@ -0,0 +1,81 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.exceptions.InventoryUnavailableException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.time.Duration;
+
+/**
+ * Resilience settings for calls to the inventory service.
+ */
+@Configuration
+public class InventoryResilienceConfig {
+
+    /**
+     * Creates the circuit breaker guarding all inventory calls.
+     *
+     * <p>The breaker opens when, over the last {@code sliding-window-size} calls, the failure rate or the
+     * share of calls slower than {@code slow-call-threshold} reaches its threshold. While open, calls fail
+     * immediately and readers fall back to the last known stock. After {@code open-duration} a few probe
+     * calls are let through (half-open) to decide whether to close it again.</p>
+     *
+     * <p>4xx answers are the inventory service working as designed and are not counted as failures.</p>
+     *
+     * <p>Metrics: {@code resilience4j.circuitbreaker.state}, {@code .calls}, {@code .failure.rate} etc. tagged
+     * {@code name=inventory}, plus {@code inventory.breaker.transitions{from,to}} for every state change.</p>
+     */
+    @Bean
+    public CircuitBreaker inventoryCircuitBreaker(
+            @Value("${inventory.breaker.sliding-window-size:50}") int slidingWindowSize,
+            @Value("${inventory.breaker.minimum-calls:20}") int minimumCalls,
+            @Value("${inventory.breaker.failure-rate-threshold:50}") float failureRateThreshold,
+            @Value("${inventory.breaker.slow-call-threshold:1s}") Duration slowCallThreshold,
+            @Value("${inventory.breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+            @Value("${inventory.breaker.open-duration:10s}") Duration openDuration,
+            @Value("${inventory.breaker.half-open-calls:5}") int halfOpenCalls,
+            MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(slowCallThreshold)
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .waitDurationInOpenState(openDuration)
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                .recordException(InventoryResilienceConfig::isInventoryFailure)
+                .build();
+
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        CircuitBreaker breaker = registry.circuitBreaker("inventory");
+        breaker.getEventPublisher().onStateTransition(event -> meterRegistry.counter(
+                "inventory.breaker.transitions",
+                "from", event.getStateTransition().getFromState().name(),
+                "to", event.getStateTransition().getToState().name()
+        ).increment());
+        return breaker;
+    }
+
+    /**
+     * Decides whether an exception counts as an inventory failure for the breaker.
+     */
+    private static boolean isInventoryFailure(Throwable e) {
+        Throwable cause = e instanceof InventoryUnavailableException ? e.getCause() : e;
+        if (cause instanceof WebClientResponseException response) {
+            return !response.getStatusCode().is4xxClientError();
+        }
+        return !(cause instanceof HttpClientErrorException);
+    }
+}
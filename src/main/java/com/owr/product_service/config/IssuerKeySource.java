@@ -0,0 +1,203 @@
+package com.owr.product_service.config;
+
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The signing keys of the token issuer ({@code spring.security.oauth2.resourceserver.jwt.issuer-uri}), held in
+ * memory for the JWT decoder.
+ *
+ * <p>The issuer metadata and key set are fetched once at startup, before the web server accepts requests, so
+ * the first requests after a deploy do not wait for discovery. The key set is then reloaded in the background
+ * every {@code security.jwt.jwks.refresh-interval-ms} to pick up rotated keys. A token signed with a key that is
+ * not known yet triggers an immediate reload, at most once per {@code security.jwt.jwks.min-refresh-interval}, so
+ * neither a fresh rotation nor tokens with made-up key ids can cause more than that. A request that finds the
+ * reload rate limited or already running is answered with the current keys at once instead of waiting.</p>
+ *
+ * <p>A failed reload keeps the previous keys. If the issuer cannot be reached at startup, the application
+ * still starts and the keys are loaded on the next reload.</p>
+ *
+ * <p>Metrics: {@code security.jwks.keys} gauge.</p>
+ */
+@Slf4j
+@Component
+public class IssuerKeySource implements JWKSource<SecurityContext>, SmartInitializingSingleton {
+
+    private static final List<String> METADATA_PATHS =
+            List.of("/.well-known/openid-configuration", "/.well-known/oauth-authorization-server");
+
+    private final String issuerUri;
+    private final RestTemplate restTemplate;
+    private final long minRefreshIntervalNanos;
+
+    private volatile JWKSet keys = new JWKSet();
+
+    /**
+     * Held while a reload runs.
+     */
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /**
+     * Resolved from the issuer metadata on the first successful reload. Guarded by {@code reloadLock}.
+     */
+    private String jwksUri;
+
+    /**
+     * When the last reload was attempted; claimed with a compare-and-set by on-demand reloads.
+     */
+    private final AtomicLong lastAttemptNanos;
+
+    public IssuerKeySource(@Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+                           RestTemplate restTemplate,
+                           @Value("${security.jwt.jwks.min-refresh-interval:30s}") Duration minRefreshInterval,
+                           MeterRegistry meterRegistry) {
+        this.issuerUri = issuerUri;
+        this.restTemplate = restTemplate;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.lastAttemptNanos = new AtomicLong(System.nanoTime() - minRefreshIntervalNanos);
+        Gauge.builder("security.jwks.keys", this, source -> source.keys.size()).register(meterRegistry);
+    }
+
+    /**
+     * Loads the keys before the web server starts.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        reload();
+    }
+
+    /**
+     * Periodically reloads the keys to follow key rotation.
+     */
+    @Scheduled(initialDelayString = "${security.jwt.jwks.refresh-interval-ms:300000}",
+            fixedDelayString = "${security.jwt.jwks.refresh-interval-ms:300000}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * Selects the keys matching a token header, reloading once if none does and a reload is allowed.
+     *
+     * @param selector the key selector built from the token header
+     * @param context  unused
+     * @return the matching keys, empty if none
+     */
+    @Override
+    public List<JWK> get(JWKSelector selector, SecurityContext context) {
+        List<JWK> matches = selector.select(keys);
+        if (matches.isEmpty() && reloadOnDemand()) {
+            matches = selector.select(keys);
+        }
+        return matches;
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    /**
+     * Reloads for a token with an unknown key, unless a reload was attempted within the minimum refresh interval
+     * or is running right now. Neither check waits: the caller's request thread never queues behind a fetch.
+     *
+     * @return whether new keys were loaded
+     */
+    private boolean reloadOnDemand() {
+        long last = lastAttemptNanos.get();
+        long now = System.nanoTime();
+        if (now - last < minRefreshIntervalNanos || !lastAttemptNanos.compareAndSet(last, now)) {
+            return false;
+        }
+        if (!reloadLock.tryLock()) {
+            return false;
+        }
+        try {
+            return fetchKeys();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Reloads unconditionally, waiting for a reload that is already running.
+     */
+    private void reload() {
+        reloadLock.lock();
+        try {
+            lastAttemptNanos.set(System.nanoTime());
+            fetchKeys();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Fetches the key set and swaps it in. Called with {@code reloadLock} held.
+     *
+     * @return whether new keys were loaded
+     */
+    private boolean fetchKeys() {
+        try {
+            if (jwksUri == null) {
+                jwksUri = discoverJwksUri();
+            }
+            String body = restTemplate.getForObject(jwksUri, String.class);
+            if (body == null) {
+                throw new IllegalStateException("Empty key set at " + jwksUri);
+            }
+            keys = JWKSet.parse(body);
+            log.debug("Loaded {} signing keys from {}", keys.size(), jwksUri);
+            return true;
+        } catch (RestClientException | ParseException | IllegalStateException e) {
+            log.warn("Could not load the signing keys of {}, keeping {} known keys: {}",
+                    issuerUri, keys.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads {@code jwks_uri} from the OpenID Connect or, failing that, the OAuth 2.0 authorization server
+     * metadata, checking that it describes the configured issuer.
+     */
+    private String discoverJwksUri() {
+        String base = issuerUri.endsWith("/") ? issuerUri.substring(0, issuerUri.length() - 1) : issuerUri;
+        RestClientException lastFailure = null;
+        for (String path : METADATA_PATHS) {
+            try {
+                Map<?, ?> metadata = restTemplate.getForObject(base + path, Map.class);
+                if (metadata == null || !(metadata.get("jwks_uri") instanceof String uri)) {
+                    continue;
+                }
+                if (!issuerUri.equals(metadata.get("issuer"))) {
+                    throw new IllegalStateException("Metadata at " + base + path + " is for issuer "
+                            + metadata.get("issuer") + ", expected " + issuerUri);
+                }
+                return uri;
+            } catch (RestClientException e) {
+                lastFailure = e;
+            }
+        }
+        if (lastFailure != null) {
+            throw lastFailure;
+        }
+        throw new IllegalStateException("No jwks_uri in the metadata of " + issuerUri);
+    }
+}
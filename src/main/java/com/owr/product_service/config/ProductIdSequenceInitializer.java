@@ -0,0 +1,53 @@
+package com.owr.product_service.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves the {@code products_seq} sequence past the ids already in the {@code products} table.
+ *
+ * <p>Product ids used to come from an identity column. After the switch to the pooled sequence, a freshly
+ * created sequence would hand out ids that already exist. This runs once at startup, after Hibernate has
+ * updated the schema and before the web server accepts requests, and only ever moves the sequence forward.</p>
+ */
+@Slf4j
+@Component
+public class ProductIdSequenceInitializer implements SmartInitializingSingleton {
+
+    /**
+     * Must match the {@code allocationSize} of the generator on {@code Product}.
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private static final String ALIGN_SEQUENCE = """
+            select setval('products_seq', m.max_id + ?, false)
+            from (select coalesce(max(id), 0) as max_id from products) m
+            where m.max_id >= (select last_value from products_seq)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param jdbcTemplate         used to run the alignment statement
+     * @param entityManagerFactory not used directly; makes sure the schema exists before this runs
+     */
+    public ProductIdSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            // With is_called=false the next nextval() returns max_id + 50, i.e. the pooled block max_id+1..+50
+            jdbcTemplate.query(ALIGN_SEQUENCE, rs -> {
+                log.info("Moved products_seq past existing product ids");
+            }, ALLOCATION_SIZE);
+        } catch (DataAccessException e) {
+            log.warn("Could not align products_seq with existing product ids: {}", e.getMessage());
+        }
+    }
+}
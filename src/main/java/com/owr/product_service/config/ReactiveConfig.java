@@ -0,0 +1,126 @@
+package com.owr.product_service.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.netty.channel.ChannelOption;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Infrastructure of the reactive mode ({@code reactive} profile): Netty, the non-blocking inventory client and
+ * R2DBC transactions.
+ *
+ * <p>The JPA beans of the blocking mode stay in place, as the scheduled jobs (outbox dispatch, index rebuilds)
+ * keep using them; request handling does not. Spring Boot does not create a JDBC {@code DataSource} once an R2DBC
+ * {@link ConnectionFactory} exists, so this configuration creates it.</p>
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveConfig {
+
+    /**
+     * Creates the JDBC pool from {@code spring.datasource.*}, as Spring Boot does in the blocking mode. With read
+     * replicas configured, {@link ReadReplicaConfig} creates the data sources instead.
+     *
+     * @param properties the {@code spring.datasource.*} properties
+     * @return the JDBC pool used by JPA and the scheduled jobs
+     */
+    @Bean
+    @ConditionalOnExpression("'${products.datasource.replicas.urls:}'.isEmpty()")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * Serves WebFlux on Netty; Tomcat is on the classpath for the blocking mode and would be preferred otherwise.
+     *
+     * @return the server factory
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Creates the connection pool of {@link #inventoryWebClient}, sized by the same {@code http.client.*}
+     * properties as the pool of the blocking mode.
+     *
+     * @param maxConnections     maximum open connections
+     * @param poolAcquireTimeout maximum time to wait for a free pooled connection
+     * @param keepAlive          how long an idle connection is kept
+     * @param timeToLive         maximum lifetime of a pooled connection
+     * @return the connection provider
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider inventoryConnectionProvider(
+            @Value("${http.client.max-connections:200}") int maxConnections,
+            @Value("${http.client.pool-acquire-timeout:500ms}") Duration poolAcquireTimeout,
+            @Value("${http.client.keep-alive:30s}") Duration keepAlive,
+            @Value("${http.client.time-to-live:5m}") Duration timeToLive) {
+        return ConnectionProvider.builder("inventory")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(poolAcquireTimeout)
+                .maxIdleTime(keepAlive)
+                .maxLifeTime(timeToLive)
+                .metrics(true)
+                .build();
+    }
+
+    /**
+     * Creates the {@link WebClient} calling the inventory service, based at {@code inventory.service.port}.
+     *
+     * @param builder            Spring Boot's builder, carrying the codecs and observation settings
+     * @param baseUrl            the inventory service base URL
+     * @param connectionProvider the pooled connections
+     * @param connectTimeout     maximum time to establish a TCP connection
+     * @param readTimeout        maximum time to wait for a response
+     * @return the client
+     */
+    @Bean
+    public WebClient inventoryWebClient(WebClient.Builder builder,
+                                        @Value("${inventory.service.port}") String baseUrl,
+                                        ConnectionProvider connectionProvider,
+                                        @Value("${http.client.connect-timeout:1s}") Duration connectTimeout,
+                                        @Value("${http.client.read-timeout:2s}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return builder
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    /**
+     * Creates the operator wrapping R2DBC work in transactions.
+     *
+     * <p>The R2DBC transaction manager is deliberately not a bean: {@code @Transactional} and the JDBC jobs must
+     * keep resolving the JPA {@code transactionManager}.</p>
+     *
+     * @param connectionFactory the R2DBC connection factory
+     * @return the transactional operator
+     */
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+}
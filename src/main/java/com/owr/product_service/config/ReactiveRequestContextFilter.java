@@ -0,0 +1,55 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.exceptions.DeadlineExceededException;
+import com.owr.product_service.service.deadline.Deadline;
+import com.owr.product_service.service.reactive.ReactiveRequestContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+/**
+ * Reactive counterpart of {@link RequestDeadlineFilter}: establishes the deadline of every request from the
+ * {@value RequestDeadlineFilter#TIMEOUT_HEADER} header, with the same defaults and cap, and stores it with the
+ * Authorization header in the Reactor context ({@link ReactiveRequestContext}).
+ *
+ * <p>The deadline is enforced per stage (database query, inventory call) rather than on the whole response, so a
+ * long catalog stream is not cut off once it has started.</p>
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReactiveRequestContextFilter implements WebFilter {
+
+    private final long defaultMillis;
+    private final long maxMillis;
+
+    public ReactiveRequestContextFilter(@Value("${requests.deadline.default:5s}") Duration defaultBudget,
+                                        @Value("${requests.deadline.max:30s}") Duration maxBudget) {
+        this.defaultMillis = defaultBudget.toMillis();
+        this.maxMillis = maxBudget.toMillis();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        long budget = RequestDeadlineFilter.budgetMillis(
+                headers.getFirst(RequestDeadlineFilter.TIMEOUT_HEADER), defaultMillis, maxMillis);
+        if (budget <= 0) {
+            return Mono.error(new DeadlineExceededException("Request deadline already exceeded"));
+        }
+
+        Deadline deadline = Deadline.inMillis(budget);
+        String authorization = headers.getFirst(HttpHeaders.AUTHORIZATION);
+        return chain.filter(exchange)
+                .contextWrite(context -> ReactiveRequestContext.with(context, authorization, deadline));
+    }
+}
@@ -0,0 +1,105 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.service.routing.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to read replicas and everything else to the primary
+ * ({@code spring.datasource.*}); active once {@code products.datasource.replicas.urls} is set.
+ *
+ * <p>The application's {@link DataSource} is a {@link LazyConnectionDataSourceProxy}: it only takes a physical
+ * connection when the first statement of a transaction runs, by which time it knows whether the transaction is
+ * read-only. Read-only transactions are those of {@code ProductRepository} queries; writes, reads inside a write
+ * transaction and reads pinned with {@code DataSourceRouting}, such as the index rebuilds, stay on the primary.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "products.datasource.replicas.urls")
+public class ReadReplicaConfig {
+
+    /**
+     * Creates the primary pool from {@code spring.datasource.*}, as Spring Boot would without replicas.
+     *
+     * @param properties the {@code spring.datasource.*} properties
+     * @return the primary pool
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+    }
+
+    /**
+     * Creates one pool per replica, with the credentials of the primary.
+     *
+     * <p>Replica pools wait at most {@code connection-timeout} for a connection, so an unreachable replica is
+     * ejected quickly instead of holding up the request, and do not fail startup when a replica is down.</p>
+     *
+     * @param properties        the {@code spring.datasource.*} properties
+     * @param primaryDataSource the primary pool
+     * @param urls              the JDBC URLs of the replicas
+     * @param maxPoolSize       maximum connections per replica
+     * @param connectionTimeout maximum time to wait for a replica connection
+     * @param maxLag            replication lag above which a replica is ejected
+     * @param readYourWrites    tells whether the current caller must read from the primary
+     * @param meterRegistry     registry for the pool and replica meters
+     * @return the read-only data source
+     */
+    @Bean(destroyMethod = "close")
+    public ReplicaDataSource replicaDataSource(
+            DataSourceProperties properties,
+            HikariDataSource primaryDataSource,
+            @Value("${products.datasource.replicas.urls}") List<String> urls,
+            @Value("${products.datasource.replicas.max-pool-size:10}") int maxPoolSize,
+            @Value("${products.datasource.replicas.connection-timeout:250ms}") Duration connectionTimeout,
+            @Value("${products.datasource.replicas.max-lag:2s}") Duration maxLag,
+            ReadYourWrites readYourWrites,
+            MeterRegistry meterRegistry) {
+        List<HikariDataSource> pools = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            HikariDataSource pool = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.trim())
+                    .build();
+            pool.setPoolName("replica-" + (pools.size() + 1));
+            pool.setMaximumPoolSize(maxPoolSize);
+            pool.setConnectionTimeout(connectionTimeout.toMillis());
+            pool.setInitializationFailTimeout(-1);
+            pool.setReadOnly(true);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            pools.add(pool);
+        }
+        return new ReplicaDataSource(primaryDataSource, pools, readYourWrites, maxLag, meterRegistry);
+    }
+
+    /**
+     * Creates the routing data source used by JPA and {@code JdbcTemplate}.
+     *
+     * @param primaryDataSource the primary pool
+     * @param replicaDataSource the replicas
+     * @return the data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,166 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.service.routing.DataSourceRouting;
+import com.owr.product_service.service.routing.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out connections for read-only transactions, spread round-robin over the read replicas.
+ *
+ * <p>Installed as the read-only data source of the {@code LazyConnectionDataSourceProxy} built by
+ * {@link ReadReplicaConfig}, so it is asked for a connection when the first statement of a read-only transaction
+ * runs. It answers with a primary connection instead when:</p>
+ * <ul>
+ *     <li>the thread is pinned to the primary ({@link DataSourceRouting}), or the caller wrote recently
+ *     ({@link ReadYourWrites});</li>
+ *     <li>no replica is healthy.</li>
+ * </ul>
+ *
+ * <p>A replica is ejected when it refuses a connection, or when the health check finds it unreachable or lagging
+ * more than {@code products.datasource.replicas.max-lag} behind the primary. It is readmitted by the first health
+ * check that finds it reachable and caught up. State is published as {@code products.db.replica.up},
+ * {@code products.db.replica.ejections} and {@code products.db.replica.fallbacks}.</p>
+ */
+@Slf4j
+public class ReplicaDataSource extends AbstractDataSource implements AutoCloseable {
+
+    /**
+     * Seconds the replica's replay lags behind the WAL it received; {@code 0} when it has replayed everything it
+     * received (the primary may simply be idle) and on a server that is not a standby.
+     */
+    private static final String LAG_QUERY = """
+            select case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0) end
+            """;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWrites readYourWrites;
+    private final Duration maxLag;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter fallbacks;
+
+    /**
+     * One replica pool and its health.
+     */
+    private static final class Replica {
+
+        final HikariDataSource pool;
+        final Counter ejections;
+        volatile boolean healthy = true;
+
+        Replica(HikariDataSource pool, MeterRegistry meterRegistry) {
+            this.pool = pool;
+            this.ejections = Counter.builder("products.db.replica.ejections")
+                    .description("Times the read replica was taken out of rotation")
+                    .tag("replica", pool.getPoolName())
+                    .register(meterRegistry);
+            Gauge.builder("products.db.replica.up", this, replica -> replica.healthy ? 1 : 0)
+                    .description("1 while the read replica receives read-only transactions")
+                    .tag("replica", pool.getPoolName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * @param primary        the primary, used when no replica may or can serve the read
+     * @param replicaPools   one connection pool per replica; closed with this data source
+     * @param readYourWrites tells whether the current caller must read its own writes
+     * @param maxLag         replication lag above which a replica is ejected
+     * @param meterRegistry  registry for the replica meters
+     */
+    public ReplicaDataSource(DataSource primary, List<HikariDataSource> replicaPools, ReadYourWrites readYourWrites,
+                             Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicaPools.stream().map(pool -> new Replica(pool, meterRegistry)).toList();
+        this.readYourWrites = readYourWrites;
+        this.maxLag = maxLag;
+        this.fallbacks = Counter.builder("products.db.replica.fallbacks")
+                .description("Read-only transactions sent to the primary because no replica was healthy")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (DataSourceRouting.isPrimaryRequired() || readYourWrites.callerWroteRecently()) {
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return replica.pool.getConnection();
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    /**
+     * Checks every replica for reachability and replication lag, ejecting and readmitting replicas.
+     */
+    @Scheduled(fixedDelayString = "${products.datasource.replicas.health-check-interval-ms:2000}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(1);
+                try (ResultSet lag = statement.executeQuery(LAG_QUERY)) {
+                    lag.next();
+                    double lagSeconds = lag.getDouble(1);
+                    if (lagSeconds * 1000 > maxLag.toMillis()) {
+                        eject(replica, "replication lag " + lagSeconds + "s");
+                    } else if (!replica.healthy) {
+                        replica.healthy = true;
+                        log.info("Read replica {} is back in rotation", replica.pool.getPoolName());
+                    }
+                }
+            } catch (SQLException e) {
+                eject(replica, e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private void eject(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            replica.ejections.increment();
+            log.warn("Ejected read replica {}: {}", replica.pool.getPoolName(), reason);
+        }
+    }
+}
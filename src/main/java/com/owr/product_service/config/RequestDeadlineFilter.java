@@ -0,0 +1,81 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.service.deadline.Deadline;
+import com.owr.product_service.service.deadline.DeadlineContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Establishes the end-to-end deadline of every request.
+ *
+ * <p>The budget is taken from the {@value #TIMEOUT_HEADER} header (milliseconds the caller is still willing to
+ * wait) and capped at {@code requests.deadline.max}; without the header {@code requests.deadline.default}
+ * applies. A caller that sends a budget of zero or less gets a 504 straight away.</p>
+ *
+ * <p>Runs before the security filters, so token verification counts against the budget too. The reactive mode
+ * applies the same rules in {@link ReactiveRequestContextFilter}.</p>
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    /**
+     * Request header carrying the remaining time budget of the caller in milliseconds.
+     */
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    private final long defaultMillis;
+    private final long maxMillis;
+
+    public RequestDeadlineFilter(@Value("${requests.deadline.default:5s}") Duration defaultBudget,
+                                 @Value("${requests.deadline.max:30s}") Duration maxBudget) {
+        this.defaultMillis = defaultBudget.toMillis();
+        this.maxMillis = maxBudget.toMillis();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long budget = budgetMillis(request.getHeader(TIMEOUT_HEADER), defaultMillis, maxMillis);
+        if (budget <= 0) {
+            response.sendError(HttpStatus.GATEWAY_TIMEOUT.value(), "Request deadline already exceeded");
+            return;
+        }
+
+        DeadlineContext.set(Deadline.inMillis(budget));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DeadlineContext.clear();
+        }
+    }
+
+    /**
+     * Parses the {@value #TIMEOUT_HEADER} header, falling back to {@code defaultMillis} when it is missing or
+     * malformed and capping it at {@code maxMillis}.
+     */
+    static long budgetMillis(String header, long defaultMillis, long maxMillis) {
+        if (header == null || header.isBlank()) {
+            return defaultMillis;
+        }
+        try {
+            return Math.min(Long.parseLong(header.trim()), maxMillis);
+        } catch (NumberFormatException e) {
+            return defaultMillis;
+        }
+    }
+}
@@ -1,42 +1,151 @@
 package com.owr.product_service.config;
 
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.owr.product_service.service.timing.StageMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Security of both web stacks: every request needs a valid bearer token, verified by the shared {@link JwtDecoder}.
+ */
 @Configuration
-@EnableWebSecurity
 public class SecurityConfig {
 
     /**
-     * Defines the security filter chain for HTTP requests.
+     * Security of the blocking (servlet) mode.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @EnableWebSecurity
+    static class ServletSecurityConfig {
+
+        /**
+         * Defines the security filter chain for HTTP requests.
+         *
+         * @param httpSecurity HttpSecurity instance used to configure security rules.
+         * @return A built SecurityFilterChain bean.
+         * @throws Exception in case of configuration errors.
+         */
+        @Bean
+        public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
+            httpSecurity
+                    .authorizeHttpRequests(auth -> auth
+                            // Uncomment the line below to allow public access to /home endpoint
+                            //.requestMatchers("/home").permitAll()
+
+                            // Require authentication for all other endpoints
+                            .anyRequest().authenticated()
+                    )
+                    .oauth2ResourceServer(
+                            oauth2 -> oauth2
+                                    .jwt(jwtConfigurer -> {
+                                        // Uses the JwtDecoder bean below
+                                    })
+                    );
+
+            // Finalise and return the filter chain
+            return httpSecurity.build();  // returns SecurityFilterChain object and registers it with Spring.
+        }
+    }
+
+    /**
+     * Security of the reactive mode, with the same rules as {@link ServletSecurityConfig}.
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    @EnableWebFluxSecurity
+    static class ReactiveSecurityConfig {
+
+        /**
+         * Defines the security filter chain for reactive requests.
+         *
+         * @param http ServerHttpSecurity instance used to configure security rules
+         * @return the filter chain
+         */
+        @Bean
+        public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+            return http
+                    .authorizeExchange(exchange -> exchange.anyExchange().authenticated())
+                    .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()))
+                    .build();
+        }
+
+        /**
+         * Adapts the shared {@link JwtDecoder}, so both modes verify tokens and share one token cache.
+         *
+         * <p>Decoding runs on the bounded-elastic scheduler: cached tokens return at once, but a token signed with
+         * an unknown key makes {@link IssuerKeySource} fetch the issuer keys, which blocks.</p>
+         *
+         * @param jwtDecoder the shared decoder
+         * @return the reactive decoder
+         */
+        @Bean
+        public ReactiveJwtDecoder reactiveJwtDecoder(JwtDecoder jwtDecoder) {
+            return token -> Mono.fromCallable(() -> jwtDecoder.decode(token))
+                    .subscribeOn(Schedulers.boundedElastic());
+        }
+    }
+
+    /**
+     * Creates the decoder validating the bearer tokens.
+     *
+     * <p>Signatures are checked against the issuer keys held by {@link IssuerKeySource}, which are fetched at
+     * startup rather than on the first request; issuer and expiry are validated as by Spring Boot's default
+     * decoder. Verified tokens are cached by {@link CachingJwtDecoder} until they expire.</p>
      *
-     * @param httpSecurity HttpSecurity instance used to configure security rules.
-     * @return A built SecurityFilterChain bean.
-     * @throws Exception in case of configuration errors.
+     * @param issuerUri     the token issuer
+     * @param algorithms    the accepted signature algorithms
+     * @param cacheMaxSize  maximum number of cached tokens, {@code 0} to verify every request
+     * @param cacheMaxTtl   longest time a verified token is cached
+     * @param issuerKeys    the issuer's signing keys
+     * @param stageMetrics  the stage timers
+     * @param meterRegistry registry for the cache statistics
+     * @return the decoder
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
-        httpSecurity
-                .authorizeHttpRequests(auth -> auth
-                        // Uncomment the line below to allow public access to /home endpoint
-                        //.requestMatchers("/home").permitAll()
-
-                        // Require authentication for all other endpoints
-                        .anyRequest().authenticated()
-                )
-                .oauth2ResourceServer(
-                        oauth2 -> oauth2
-                                .jwt(jwtConfigurer -> {
-                                    // Use default JWT decoder based on spring.security.oauth2.resourceserver.jwt.issuer-uri
-                                    // You can add a custom converter/decoder here if needed
-                                })
-                );
-
-        // Finalise and return the filter chain
-        return httpSecurity.build();  // returns SecurityFilterChain object and registers it with Spring.
+    public JwtDecoder jwtDecoder(
+            @Value("${spring.security.oauth2.resourceserver.jwt.issuer-uri}") String issuerUri,
+            @Value("${spring.security.oauth2.resourceserver.jwt.jws-algorithms:RS256}") String[] algorithms,
+            @Value("${security.jwt.cache.max-size:10000}") long cacheMaxSize,
+            @Value("${security.jwt.cache.max-ttl:5m}") Duration cacheMaxTtl,
+            IssuerKeySource issuerKeys,
+            StageMetrics stageMetrics,
+            MeterRegistry meterRegistry) {
+        Set<JWSAlgorithm> acceptedAlgorithms = Arrays.stream(algorithms)
+                .map(JWSAlgorithm::parse)
+                .collect(Collectors.toSet());
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(acceptedAlgorithms, issuerKeys));
+        // Claims are checked by the Spring validators below
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+
+        NimbusJwtDecoder verifier = new NimbusJwtDecoder(processor);
+        verifier.setJwtValidator(JwtValidators.createDefaultWithIssuer(issuerUri));
+        return new CachingJwtDecoder(verifier, cacheMaxSize, cacheMaxTtl, stageMetrics, meterRegistry);
     }
 }
-
@@ -0,0 +1,42 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.service.timing.RequestTimingContext;
+import com.owr.product_service.service.timing.RequestTimings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Sets the {@code Server-Timing} header with the stages completed so far just before a response body is
+ * serialized, so it is present even when the body is too large to be buffered and the response is committed
+ * during serialization. {@link ServerTimingFilter} replaces it with the complete breakdown when it still can.
+ */
+@ControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body,
+                                  MethodParameter returnType,
+                                  MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request,
+                                  ServerHttpResponse response) {
+        RequestTimings timings = RequestTimingContext.current();
+        if (timings != null) {
+            response.getHeaders().set(ServerTimingFilter.SERVER_TIMING_HEADER,
+                    timings.toServerTiming(System.nanoTime()));
+        }
+        return body;
+    }
+}
@@ -0,0 +1,63 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.service.timing.RequestTimingContext;
+import com.owr.product_service.service.timing.RequestTimings;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Collects the per-stage timings of every request and returns them in the {@value #SERVER_TIMING_HEADER}
+ * response header, e.g. {@code auth;dur=0.41, db;dur=1.52, inventory;dur=4.1, serialize;dur=0.08, total;dur=6.93}.
+ *
+ * <p>The header is written once the request has been handled, covering serialization too, as long as the
+ * response is still uncommitted (bodies up to the response buffer size). For larger bodies
+ * {@link ServerTimingAdvice} has already set it before serialization started. Disabled with
+ * {@code products.server-timing.enabled=false}; the stage timers are recorded either way.</p>
+ *
+ * <p>Runs right after {@link RequestDeadlineFilter} and before the security filters, so JWT decoding is
+ * included.</p>
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    /**
+     * Response header carrying the per-stage breakdown.
+     */
+    public static final String SERVER_TIMING_HEADER = "Server-Timing";
+
+    @Value("${products.server-timing.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestTimings timings = new RequestTimings(System.nanoTime());
+        RequestTimingContext.set(timings);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestTimingContext.clear();
+            if (!response.isCommitted()) {
+                response.setHeader(SERVER_TIMING_HEADER, timings.toServerTiming(System.nanoTime()));
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.owr.product_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.owr.product_service.service.timing.Outcome;
+import com.owr.product_service.service.timing.Stage;
+import com.owr.product_service.service.timing.StageMetrics;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The CBOR message converter, timing the serialization of every response body as {@link Stage#SERIALIZATION}.
+ *
+ * <p>Registered as a bean, so Spring Boot uses it in place of its own {@link MappingJackson2CborHttpMessageConverter},
+ * behind JSON: clients only get CBOR when they ask for it with {@code Accept}.</p>
+ */
+public class TimedCborHttpMessageConverter extends MappingJackson2CborHttpMessageConverter {
+
+    private final StageMetrics stageMetrics;
+
+    /**
+     * @param objectMapper the object mapper with a CBOR factory, built like the JSON one so the content is the same
+     * @param stageMetrics the stage timers
+     */
+    public TimedCborHttpMessageConverter(ObjectMapper objectMapper, StageMetrics stageMetrics) {
+        super(objectMapper);
+        this.stageMetrics = stageMetrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            super.writeInternal(object, type, outputMessage);
+            outcome = Outcome.SUCCESS;
+        } finally {
+            stageMetrics.record(Stage.SERIALIZATION, "cbor", outcome, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.owr.product_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.owr.product_service.service.timing.Outcome;
+import com.owr.product_service.service.timing.Stage;
+import com.owr.product_service.service.timing.StageMetrics;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The JSON message converter, timing the serialization of every response body as {@link Stage#SERIALIZATION}.
+ *
+ * <p>Registered as a bean, so Spring Boot uses it in place of its own {@link MappingJackson2HttpMessageConverter}
+ * with the same auto-configured {@link ObjectMapper}.</p>
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    private final StageMetrics stageMetrics;
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper, StageMetrics stageMetrics) {
+        super(objectMapper);
+        this.stageMetrics = stageMetrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            super.writeInternal(object, type, outputMessage);
+            outcome = Outcome.SUCCESS;
+        } finally {
+            stageMetrics.record(Stage.SERIALIZATION, "json", outcome, System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.owr.product_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.owr.product_service.service.timing.Outcome;
+import com.owr.product_service.service.timing.Stage;
+import com.owr.product_service.service.timing.StageMetrics;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * The Smile message converter, timing the serialization of every response body as {@link Stage#SERIALIZATION}.
+ *
+ * <p>Registered as a bean, so Spring Boot uses it in place of its own {@link MappingJackson2SmileHttpMessageConverter},
+ * behind JSON: clients only get Smile when they ask for it with {@code Accept}.</p>
+ */
+public class TimedSmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+    private final StageMetrics stageMetrics;
+
+    /**
+     * @param objectMapper the object mapper with a Smile factory, built like the JSON one so the content is the same
+     * @param stageMetrics the stage timers
+     */
+    public TimedSmileHttpMessageConverter(ObjectMapper objectMapper, StageMetrics stageMetrics) {
+        super(objectMapper);
+        this.stageMetrics = stageMetrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            super.writeInternal(object, type, outputMessage);
+            outcome = Outcome.SUCCESS;
+        } finally {
+            stageMetrics.record(Stage.SERIALIZATION, "smile", outcome, System.nanoTime() - start);
+        }
+    }
+}
@@ -1,33 +1,233 @@
 package com.owr.product_service.controller;
 
+import com.owr.product_service.controller.request.ProductCsvRow;
+import com.owr.product_service.controller.request.ProductIdsRequest;
 import com.owr.product_service.controller.request.ProductWithQuantity;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.owr.product_service.dto.PriceLookup;
 import com.owr.product_service.dto.ProductDto;
+import com.owr.product_service.dto.ProductFacets;
+import com.owr.product_service.dto.ProductImportResult;
+import com.owr.product_service.dto.ProductLookup;
+import com.owr.product_service.dto.ProductPage;
+import com.owr.product_service.dto.ProductSearchPage;
 import com.owr.product_service.model.Product;
+import com.owr.product_service.service.ProductImportService;
 import com.owr.product_service.service.ProductService;
+import com.owr.product_service.service.etag.ETagged;
+import com.owr.product_service.service.etag.ETags;
+import com.owr.product_service.service.facet.FacetIndex;
+import com.owr.product_service.service.search.ProductSearchIndex;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import com.owr.product_service.exceptions.NoSuchElementException;
 import com.owr.product_service.exceptions.InventoryUnavailableException;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class ProductController {
 
+    /**
+     * Media type of the streaming catalog: one JSON document per line.
+     */
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Media type of a CSV product import.
+     */
+    public static final String TEXT_CSV = "text/csv";
+
+    /**
+     * Reads CSV imports: first line is the header, empty cells become {@code null}.
+     */
+    private static final ObjectReader CSV_ROW_READER = new CsvMapper()
+            .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+            .readerFor(ProductCsvRow.class)
+            .with(CsvSchema.emptySchema().withHeader());
+
     private final ProductService service;
+    private final ProductImportService importService;
+    private final ProductSearchIndex searchIndex;
+    private final FacetIndex facetIndex;
+    private final ObjectMapper objectMapper;
 
     /**
      * Retrieves all products along with their current stock quantities.
+     * <p>
+     * Materializes the whole catalog in memory; large clients should use the paginated
+     * {@code GET /api/products} or request {@code application/x-ndjson} from this endpoint instead.
+     * <p>
+     * The response carries a catalog-level {@code ETag}. With a matching {@code If-None-Match} the service only
+     * reads product ids and versions and answers 304 Not Modified without loading or serializing the catalog.
      *
-     * @return a list of {@link ProductDto} containing product and stock information
+     * @param ifNoneMatch the {@code If-None-Match} header, if any
+     * @return 200 OK with a list of {@link ProductDto} ordered by id, or 304 Not Modified
      */
     @GetMapping("/all")
-    public List<ProductDto> getAllProducts() {
-        return service.getAllProducts();
+    public ResponseEntity<List<ProductDto>> getAllProducts(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (ifNoneMatch != null) {
+            String current = service.getCatalogETag();
+            if (ETags.matches(ifNoneMatch, current)) {
+                return notModified(current);
+            }
+        }
+        return conditional(ifNoneMatch, service.getAllProducts());
+    }
+
+    /**
+     * Retrieves all products, returning only the fields named in {@code fields}, e.g.
+     * {@code GET /api/products/all?fields=id,name,price}.
+     * <p>
+     * Only the columns needed for the selection are read from the database, and the inventory service is only
+     * called when {@code quantity} is selected. Selected responses carry no {@code ETag}.
+     *
+     * @param fields comma-separated subset of {@code id,name,category,description,price,quantity}
+     * @return 200 OK with one JSON object of the selected fields per product, ordered by id
+     * @throws com.owr.product_service.exceptions.InvalidRequestException if a field name is unknown
+     */
+    @GetMapping(value = "/all", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getAllProductFields(@RequestParam String fields) {
+        return ResponseEntity.ok(
+                service.getAllProducts(fields)
+        );
+    }
+
+    /**
+     * Streams all products as newline-delimited JSON when the client sends {@code Accept: application/x-ndjson}.
+     * <p>
+     * Products are read from the database in chunks and each chunk is written and flushed as soon as its stock
+     * is known, so the first bytes go out before the catalog has been read and heap use stays flat.
+     *
+     * @return a 200 OK whose body is written asynchronously, one {@link ProductDto} per line
+     */
+    @GetMapping(value = "/all", produces = APPLICATION_NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamAllProducts() {
+        // The body is written on an async thread; carry the request over so the Authorization header
+        // can still be forwarded to the inventory service.
+        RequestAttributes attributes = RequestContextHolder.currentRequestAttributes();
+        ObjectWriter writer = objectMapper.writerFor(ProductDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        StreamingResponseBody body = out -> {
+            RequestContextHolder.setRequestAttributes(attributes);
+            try {
+                service.streamAllProducts(chunk -> writeLines(out, writer, chunk));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON))
+                .body(body);
+    }
+
+    /**
+     * Retrieves one page of products using keyset pagination.
+     * <p>
+     * Pass the {@code nextCursor} of a response as {@code cursor} to get the following page;
+     * a {@code null} {@code nextCursor} marks the last page.
+     *
+     * @param cursor the opaque cursor of the previous page, omitted for the first page
+     * @param limit  the page size (default 50)
+     * @return 200 OK with the {@link ProductPage}
+     * @throws com.owr.product_service.exceptions.InvalidRequestException if the cursor or limit is invalid
+     */
+    @GetMapping
+    public ResponseEntity<ProductPage<ProductDto>> getProductPage(@RequestParam(required = false) String cursor,
+                                                                  @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(
+                service.getProductPage(cursor, limit)
+        );
+    }
+
+    /**
+     * Retrieves one page of products like {@link #getProductPage(String, int)}, returning only the fields named in
+     * {@code fields}, e.g. {@code GET /api/products?fields=id,name,price} for a listing page.
+     *
+     * @param cursor the opaque cursor of the previous page, omitted for the first page
+     * @param limit  the page size (default 50)
+     * @param fields comma-separated subset of {@code id,name,category,description,price,quantity}
+     * @return 200 OK with the {@link ProductPage} of selected fields
+     * @throws com.owr.product_service.exceptions.InvalidRequestException if the cursor, limit or a field is invalid
+     */
+    @GetMapping(params = "fields")
+    public ResponseEntity<ProductPage<Map<String, Object>>> getProductFieldsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam String fields) {
+        return ResponseEntity.ok(
+                service.getProductPage(cursor, limit, fields)
+        );
+    }
+
+    /**
+     * Searches products by name, category and description.
+     * <p>
+     * Every word of {@code q} must match; the last word also matches as a prefix, which makes the endpoint
+     * suitable for search-as-you-type. Results are ranked by relevance and served from an in-memory index.
+     *
+     * @param q    the search text
+     * @param page the zero-based page number (default 0)
+     * @param size the page size (default 20)
+     * @return 200 OK with the {@link ProductSearchPage}
+     * @throws com.owr.product_service.exceptions.InvalidRequestException    if the query or page is invalid
+     * @throws com.owr.product_service.exceptions.SearchUnavailableException if the index is still being built
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ProductSearchPage> searchProducts(@RequestParam String q,
+                                                            @RequestParam(defaultValue = "0") int page,
+                                                            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(
+                searchIndex.search(q, page, size)
+        );
+    }
+
+    /**
+     * Returns the product count per category and a price histogram for listing pages.
+     * <p>
+     * Served from counts kept in memory; the catalog is not scanned per request.
+     *
+     * @param category optional category; restricts the total and the price histogram to it, while the
+     *                 category counts always cover the whole catalog
+     * @return 200 OK with the {@link ProductFacets}
+     * @throws com.owr.product_service.exceptions.FacetsUnavailableException if the counts are still being built
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<ProductFacets> getFacets(@RequestParam(required = false) String category) {
+        return ResponseEntity.ok(
+                facetIndex.getFacets(category)
+        );
     }
 
     /**
@@ -35,40 +235,139 @@ public class ProductController {
      * <p>
      * Returns an HTTP 200 OK with the {@link ProductDto} in the response body if found.
      *
-     * @param id the product ID from the path (e.g., {@code /products/42})
+     * The {@code ETag} covers the product version and the stock; with a matching {@code If-None-Match} the
+     * response is 304 Not Modified without a body.
+     *
+     * @param id          the product ID from the path (e.g., {@code /products/42})
+     * @param ifNoneMatch the {@code If-None-Match} header, if any
      * @return a {@link org.springframework.http.ResponseEntity} wrapping the {@link ProductDto}
-     * with status 200 OK
+     * with status 200 OK, or 304 Not Modified
      * @throws NoSuchElementException if no product exists with the given {@code id};
      *                                consider handling this via a {@code @ControllerAdvice} to return 404 Not Found
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ProductDto> findProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductDto> findProductById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditional(ifNoneMatch, service.findProductById(id));
+    }
+
+    /**
+     * Retrieves a product by its identifier, returning only the fields named in {@code fields}.
+     *
+     * @param id     the product ID from the path
+     * @param fields comma-separated subset of {@code id,name,category,description,price,quantity}
+     * @return 200 OK with a JSON object of the selected fields
+     * @throws NoSuchElementException if no product exists with the given {@code id}
+     */
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> findProductFieldsById(@PathVariable Long id,
+                                                                     @RequestParam String fields) {
         return ResponseEntity.ok(
-                service.findProductById(id)
+                service.findProductById(id, fields)
         );
     }
 
+    /**
+     * Retrieves the unit price of a product as a bare JSON number.
+     * <p>
+     * The price comes from the in-memory price index as a primitive and is written straight to the response,
+     * bypassing message-converter lookup; a product without price yields {@code null}. The {@code ETag} is
+     * derived from the price, so a matching {@code If-None-Match} is answered with 304 Not Modified.
+     *
+     * @param id          the product ID from the path
+     * @param ifNoneMatch the {@code If-None-Match} header, if any
+     * @param response    the servlet response the price is written to
+     * @throws NoSuchElementException if no product exists with the given {@code id}
+     * @throws IOException            if writing the response fails
+     */
     @GetMapping("/{id}/price")
-    public Double getPrice(@PathVariable Long id) {
-        return service.getUnitPrice(id);
+    public void getPrice(@PathVariable long id,
+                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                         HttpServletResponse response) throws IOException {
+        double price = service.getUnitPrice(id);
+        String etag = ETags.price(price);
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        if (ETags.matches(ifNoneMatch, etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        PrintWriter writer = response.getWriter();
+        if (Double.isNaN(price)) {
+            writer.write("null");
+        } else {
+            writer.print(price);
+        }
     }
 
 
+    /**
+     * Retrieves many products, with stock, in one call.
+     * <p>
+     * Answers with one entry per requested id in request order; ids without a product are marked
+     * {@code "found": false} instead of failing the request.
+     *
+     * @param request the ids to look up (at most {@code products.batch.max-ids})
+     * @return 200 OK with one {@link ProductLookup} per id
+     * @throws com.owr.product_service.exceptions.InvalidRequestException if too many ids are requested
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductLookup>> findProductsByIds(@Valid @RequestBody ProductIdsRequest request) {
+        return ResponseEntity.ok(
+                service.findProductsByIds(request.ids())
+        );
+    }
+
+    /**
+     * Retrieves the unit prices of many products in one call, e.g. for all lines of a cart.
+     *
+     * @param request the ids to look up (at most {@code products.batch.max-ids})
+     * @return 200 OK with one {@link PriceLookup} per id
+     * @throws com.owr.product_service.exceptions.InvalidRequestException if too many ids are requested
+     */
+    @PostMapping("/batch/prices")
+    public ResponseEntity<List<PriceLookup>> findPricesByIds(@Valid @RequestBody ProductIdsRequest request) {
+        return ResponseEntity.ok(
+                service.findPricesByIds(request.ids())
+        );
+    }
+
     /**
      * Retrieves a product by its name.
      * <p>
      * Returns an HTTP 200 OK with the {@link ProductDto} in the response body if found.
      *
-     * @param name the product name from the path (e.g., {@code /products/iphone12})
+     * Conditional requests work as for {@code GET /{id}}.
+     *
+     * @param name        the product name from the path (e.g., {@code /products/iphone12})
+     * @param ifNoneMatch the {@code If-None-Match} header, if any
      * @return a {@link org.springframework.http.ResponseEntity} wrapping the {@link ProductDto}
-     * with status 200 OK
+     * with status 200 OK, or 304 Not Modified
      * @throws NoSuchElementException if no product exists with the given {@code name};
      *                                consider handling this via a {@code @ControllerAdvice} to return 404 Not Found
      */
     @GetMapping("/by-name/{name}")
-    public ResponseEntity<ProductDto> findProductByName(@PathVariable String name) {
+    public ResponseEntity<ProductDto> findProductByName(
+            @PathVariable String name,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return conditional(ifNoneMatch, service.findProductByName(name));
+    }
+
+    /**
+     * Retrieves a product by its name, returning only the fields named in {@code fields}.
+     *
+     * @param name   the product name from the path
+     * @param fields comma-separated subset of {@code id,name,category,description,price,quantity}
+     * @return 200 OK with a JSON object of the selected fields
+     * @throws NoSuchElementException if no product exists with the given {@code name}
+     */
+    @GetMapping(value = "/by-name/{name}", params = "fields")
+    public ResponseEntity<Map<String, Object>> findProductFieldsByName(@PathVariable String name,
+                                                                       @RequestParam String fields) {
         return ResponseEntity.ok(
-                service.findProductByName(name)
+                service.findProductByName(name, fields)
         );
     }
 
@@ -86,24 +385,65 @@ public class ProductController {
         return ResponseEntity.ok(created);
     }
 
+    /**
+     * Imports many products from a JSON array of {@link ProductWithQuantity}.
+     * <p>
+     * The body is parsed as a stream, so its size is not limited by the heap. Products whose name already exists
+     * are skipped; see {@link ProductImportService} for how the import is batched.
+     *
+     * @param body the request body, e.g. {@code [{"product": {...}, "quantity": 5}, ...]}
+     * @return 200 OK with the {@link ProductImportResult}
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ProductImportResult> importProducts(InputStream body) throws IOException {
+        try (MappingIterator<ProductWithQuantity> items =
+                     objectMapper.readerFor(ProductWithQuantity.class).readValues(body)) {
+            return ResponseEntity.ok(importService.importProducts(items));
+        }
+    }
+
+    /**
+     * Imports many products from CSV with the header {@code name,category,description,price,quantity}.
+     *
+     * @param body the request body
+     * @return 200 OK with the {@link ProductImportResult}
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/import", consumes = TEXT_CSV)
+    public ResponseEntity<ProductImportResult> importProductsCsv(InputStream body) throws IOException {
+        try (MappingIterator<ProductCsvRow> rows = CSV_ROW_READER.readValues(body)) {
+            return ResponseEntity.ok(importService.importProducts(toProductsWithQuantity(rows)));
+        }
+    }
+
     /**
      * Partially updates a product by its ID.
      * <p>
      * Accepts a JSON payload with one or more fields to change; fields omitted remain unchanged.
-     * Returns the updated {@link ProductDto}, enriched with current stock.
+     * Returns the updated {@link ProductDto}, enriched with current stock, and its new {@code ETag}.
+     * <p>
+     * Send the {@code ETag} of a previous read as {@code If-Match} to only update the version that was read;
+     * if the product has changed since, nothing is updated and the response is 412 Precondition Failed.
      *
-     * @param id    the product ID from the path (e.g., {@code /products/42})
-     * @param patch a {@link Product} carrying the non-null fields to update
+     * @param id      the product ID from the path (e.g., {@code /products/42})
+     * @param ifMatch the {@code If-Match} header, if any
+     * @param patch   a {@link Product} carrying the non-null fields to update
      * @return 200 OK with the updated {@link ProductDto}
      * @throws NoSuchElementException        if no product exists with the given {@code id}
      * @throws InventoryUnavailableException if stock lookup fails during DTO enrichment
      * @throws RuntimeException              if the new name conflicts with an existing product
+     * @throws com.owr.product_service.exceptions.PreconditionFailedException if {@code If-Match} does not match
      */
     @PatchMapping("/{id}")
-    public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id,
-                                                    @RequestBody Product patch) {
-        ProductDto updated = service.updateProduct(id, patch);
-        return ResponseEntity.ok(updated);
+    public ResponseEntity<ProductDto> updateProduct(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Product patch) {
+        ETagged<ProductDto> updated = service.updateProduct(id, patch, ifMatch);
+        return ResponseEntity.ok()
+                .eTag(updated.etag())
+                .body(updated.body());
     }
 
     /**
@@ -121,5 +461,59 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+    /**
+     * Answers 304 Not Modified if the client's copy is current, otherwise 200 OK with the body; both carry the
+     * {@code ETag}, and {@code Vary: Accept} since the tag is shared by the JSON, CBOR and Smile encodings.
+     */
+    private static <T> ResponseEntity<T> conditional(String ifNoneMatch, ETagged<T> tagged) {
+        if (ETags.matches(ifNoneMatch, tagged.etag())) {
+            return notModified(tagged.etag());
+        }
+        return ResponseEntity.ok()
+                .eTag(tagged.etag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(tagged.body());
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT)
+                .build();
+    }
+
+    /**
+     * Lazily converts CSV rows into import items.
+     */
+    private static Iterator<ProductWithQuantity> toProductsWithQuantity(Iterator<ProductCsvRow> rows) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return rows.hasNext();
+            }
+
+            @Override
+            public ProductWithQuantity next() {
+                return rows.next().toProductWithQuantity();
+            }
+        };
+    }
 
+    /**
+     * Writes a chunk of products as NDJSON lines and flushes them to the client.
+     */
+    private static void writeLines(OutputStream out, ObjectWriter writer, List<ProductDto> chunk) {
+        try {
+            for (ProductDto dto : chunk) {
+                writer.writeValue(out, dto);
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
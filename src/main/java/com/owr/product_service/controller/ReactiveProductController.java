@@ -0,0 +1,229 @@
+package com.owr.product_service.controller;
+
+import com.owr.product_service.controller.request.ProductWithQuantity;
+import com.owr.product_service.dto.ProductDto;
+import com.owr.product_service.dto.ProductFacets;
+import com.owr.product_service.dto.ProductImportResult;
+import com.owr.product_service.dto.ProductPage;
+import com.owr.product_service.dto.ProductSearchPage;
+import com.owr.product_service.exceptions.NoSuchElementException;
+import com.owr.product_service.model.Product;
+import com.owr.product_service.service.ReactiveProductService;
+import com.owr.product_service.service.etag.ETagged;
+import com.owr.product_service.service.etag.ETags;
+import com.owr.product_service.service.facet.FacetIndex;
+import com.owr.product_service.service.search.ProductSearchIndex;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The product API of the reactive mode, served by WebFlux on Netty with {@link ReactiveProductService}.
+ *
+ * <p>Replaces {@link ProductController} when the {@code reactive} profile is active and answers its routes the
+ * same way, except that {@code GET /all} always streams and carries no {@code ETag}. Field selection
+ * ({@code ?fields=}), the batch lookups and CSV imports are only available in the blocking mode.</p>
+ */
+@RestController
+@RequestMapping("/api/products")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveProductController {
+
+    private final ReactiveProductService service;
+    private final ProductSearchIndex searchIndex;
+    private final FacetIndex facetIndex;
+
+    /**
+     * Streams all products along with their current stock quantities.
+     * <p>
+     * Written as a JSON array, or as newline-delimited JSON when the client sends
+     * {@code Accept: application/x-ndjson}. Products are written as their stock is resolved, chunk by chunk,
+     * and a slow client slows down the database read rather than growing the heap.
+     *
+     * @return 200 OK with the {@link ProductDto}s ordered by id
+     */
+    @GetMapping(value = "/all", produces = {MediaType.APPLICATION_JSON_VALUE, ProductController.APPLICATION_NDJSON})
+    public Flux<ProductDto> getAllProducts() {
+        return service.streamAllProducts();
+    }
+
+    /**
+     * Retrieves one page of products using keyset pagination.
+     *
+     * @param cursor the opaque cursor of the previous page, omitted for the first page
+     * @param limit  the page size (default 50)
+     * @return 200 OK with the {@link ProductPage}
+     * @throws com.owr.product_service.exceptions.InvalidRequestException if the cursor or limit is invalid
+     */
+    @GetMapping
+    public Mono<ProductPage<ProductDto>> getProductPage(@RequestParam(required = false) String cursor,
+                                                        @RequestParam(defaultValue = "50") int limit) {
+        return service.getProductPage(cursor, limit);
+    }
+
+    /**
+     * Searches products by name, category and description; served from the in-memory index as in
+     * {@link ProductController#searchProducts(String, int, int)}.
+     *
+     * @param q    the search text
+     * @param page the zero-based page number (default 0)
+     * @param size the page size (default 20)
+     * @return 200 OK with the {@link ProductSearchPage}
+     */
+    @GetMapping("/search")
+    public ProductSearchPage searchProducts(@RequestParam String q,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "20") int size) {
+        return searchIndex.search(q, page, size);
+    }
+
+    /**
+     * Returns the product count per category and a price histogram, from the counts kept in memory.
+     *
+     * @param category optional category restricting the total and the price histogram
+     * @return 200 OK with the {@link ProductFacets}
+     */
+    @GetMapping("/facets")
+    public ProductFacets getFacets(@RequestParam(required = false) String category) {
+        return facetIndex.getFacets(category);
+    }
+
+    /**
+     * Retrieves a product by its identifier; conditional requests work as in the blocking mode.
+     *
+     * @param id          the product ID from the path
+     * @param ifNoneMatch the {@code If-None-Match} header, if any
+     * @return 200 OK with the {@link ProductDto}, or 304 Not Modified
+     * @throws NoSuchElementException if no product exists with the given {@code id}
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ProductDto>> findProductById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return service.findProductById(id).map(tagged -> conditional(ifNoneMatch, tagged));
+    }
+
+    /**
+     * Retrieves the unit price of a product as a bare JSON number, {@code null} for a product without price.
+     *
+     * @param id          the product ID from the path
+     * @param ifNoneMatch the {@code If-None-Match} header, if any
+     * @return 200 OK with the price, or 304 Not Modified
+     * @throws NoSuchElementException if no product exists with the given {@code id}
+     */
+    @GetMapping("/{id}/price")
+    public Mono<ResponseEntity<String>> getPrice(
+            @PathVariable long id,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return service.getUnitPrice(id).map(price -> {
+            String etag = ETags.price(price);
+            if (ETags.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Double.isNaN(price) ? "null" : Double.toString(price));
+        });
+    }
+
+    /**
+     * Retrieves a product by its name; conditional requests work as for {@code GET /{id}}.
+     *
+     * @param name        the product name from the path
+     * @param ifNoneMatch the {@code If-None-Match} header, if any
+     * @return 200 OK with the {@link ProductDto}, or 304 Not Modified
+     * @throws NoSuchElementException if no product exists with the given {@code name}
+     */
+    @GetMapping("/by-name/{name}")
+    public Mono<ResponseEntity<ProductDto>> findProductByName(
+            @PathVariable String name,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return service.findProductByName(name).map(tagged -> conditional(ifNoneMatch, tagged));
+    }
+
+    /**
+     * Adds a new product to the system and sets its initial stock quantity.
+     *
+     * @param request a {@code productWithQuantity} object containing product info and quantity
+     * @return the newly added product as a {@link ProductDto}
+     */
+    @PostMapping
+    public Mono<ProductDto> addProduct(@Valid @RequestBody ProductWithQuantity request) {
+        return service.addProduct(request.product(), request.quantity());
+    }
+
+    /**
+     * Imports many products from a JSON array of {@link ProductWithQuantity}.
+     * <p>
+     * Array elements are decoded as they arrive and inserted chunk by chunk, so the body is never held in memory.
+     *
+     * @param items the elements of the request body, e.g. {@code [{"product": {...}, "quantity": 5}, ...]}
+     * @return 200 OK with the {@link ProductImportResult}
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ProductImportResult> importProducts(@RequestBody Flux<ProductWithQuantity> items) {
+        return service.importProducts(items);
+    }
+
+    /**
+     * Partially updates a product by its ID; {@code If-Match} works as in the blocking mode.
+     *
+     * @param id      the product ID from the path
+     * @param ifMatch the {@code If-Match} header, if any
+     * @param patch   a {@link Product} carrying the non-null fields to update
+     * @return 200 OK with the updated {@link ProductDto} and its new {@code ETag}
+     * @throws NoSuchElementException if no product exists with the given {@code id}
+     * @throws com.owr.product_service.exceptions.PreconditionFailedException if {@code If-Match} does not match
+     */
+    @PatchMapping("/{id}")
+    public Mono<ResponseEntity<ProductDto>> updateProduct(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestBody Product patch) {
+        return service.updateProduct(id, patch, ifMatch)
+                .map(updated -> ResponseEntity.ok()
+                        .eTag(updated.etag())
+                        .body(updated.body()));
+    }
+
+    /**
+     * Deletes a product by its identifier.
+     *
+     * @param id the product ID from the path
+     * @return a 204 No Content response
+     * @throws NoSuchElementException if no product exists with the given id
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> deleteProductById(@PathVariable Long id) {
+        return service.deleteProductById(id)
+                .then(Mono.fromSupplier(() -> ResponseEntity.noContent().build()));
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+    /**
+     * Answers 304 Not Modified if the client's copy is current, otherwise 200 OK with the body.
+     */
+    private static <T> ResponseEntity<T> conditional(String ifNoneMatch, ETagged<T> tagged) {
+        if (ETags.matches(ifNoneMatch, tagged.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(tagged.etag())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(tagged.etag())
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(tagged.body());
+    }
+}
@@ -0,0 +1,11 @@
+package com.owr.product_service.dto;
+
+/**
+ * One bar of a price histogram.
+ *
+ * @param from  the lowest price in the bucket (inclusive)
+ * @param to    the upper bound of the bucket (exclusive), or {@code null} for the last, open-ended bucket
+ * @param count the number of products priced within the bucket
+ */
+public record PriceBucket(double from, Double to, long count) {
+}
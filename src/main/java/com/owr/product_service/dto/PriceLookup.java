@@ -0,0 +1,22 @@
+package com.owr.product_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of looking up one id in a multi-get prices request.
+ *
+ * @param id    the requested product id
+ * @param found whether a product with this id exists
+ * @param price the unit price, omitted when not found or not set
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record PriceLookup(Long id, boolean found, Double price) {
+
+    public static PriceLookup found(Long id, Double price) {
+        return new PriceLookup(id, true, price);
+    }
+
+    public static PriceLookup notFound(Long id) {
+        return new PriceLookup(id, false, null);
+    }
+}
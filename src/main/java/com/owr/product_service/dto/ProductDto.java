@@ -1,6 +1,7 @@
 package com.owr.product_service.dto;
 
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.*;
 
 /*=================================================================================
@@ -46,4 +47,18 @@ public class ProductDto {
      * The quantity of the product in stock.
      */
     private int quantity;
+
+    /**
+     * Why the stock quantity could not be resolved, or {@code null} when {@link #quantity} is accurate.
+     * <p>Only set by bulk reads, where one failing inventory lookup must not fail the whole list.</p>
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String stockError;
+
+    /**
+     * {@code true} when the inventory service was unavailable and {@link #quantity} is the last known value.
+     * <p>Omitted from the JSON when {@code false}.</p>
+     */
+    @JsonInclude(JsonInclude.Include.NON_DEFAULT)
+    private boolean stockStale;
 }
@@ -0,0 +1,20 @@
+package com.owr.product_service.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Facet counts for listing pages.
+ *
+ * @param category       the category filter applied to {@code total} and {@code priceHistogram}, or {@code null}
+ * @param total          the number of products matching the filter
+ * @param categories     product count per category over the whole catalog, largest first; products without a
+ *                       category are not listed
+ * @param priceHistogram product count per price bucket among the products matching the filter; products without
+ *                       a price are not counted
+ */
+public record ProductFacets(String category,
+                            long total,
+                            Map<String, Long> categories,
+                            List<PriceBucket> priceHistogram) {
+}
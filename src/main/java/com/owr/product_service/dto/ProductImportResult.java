@@ -0,0 +1,21 @@
+package com.owr.product_service.dto;
+
+import java.util.List;
+
+/**
+ * Summary of a bulk product import.
+ *
+ * <p>Inventory records of the imported products are created asynchronously through the inventory outbox.</p>
+ *
+ * @param received   number of items read from the request body
+ * @param imported   number of products created
+ * @param duplicates items skipped because a product with the same name exists (or came earlier in the input)
+ * @param rejected   items skipped because they are incomplete or invalid
+ * @param errors     the first error messages, one per rejected item or malformed input
+ */
+public record ProductImportResult(int received,
+                                  int imported,
+                                  int duplicates,
+                                  int rejected,
+                                  List<String> errors) {
+}
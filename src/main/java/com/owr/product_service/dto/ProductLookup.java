@@ -0,0 +1,22 @@
+package com.owr.product_service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Result of looking up one id in a multi-get request.
+ *
+ * @param id      the requested product id
+ * @param found   whether a product with this id exists
+ * @param product the product with its stock, omitted when not found
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductLookup(Long id, boolean found, ProductDto product) {
+
+    public static ProductLookup found(ProductDto product) {
+        return new ProductLookup(product.getId(), true, product);
+    }
+
+    public static ProductLookup notFound(Long id) {
+        return new ProductLookup(id, false, null);
+    }
+}
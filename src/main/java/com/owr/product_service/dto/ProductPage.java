@@ -0,0 +1,15 @@
+package com.owr.product_service.dto;
+
+import java.util.List;
+
+/**
+ * One page of the product catalog, ordered by product id.
+ *
+ * @param items      the products of this page, enriched with stock: {@link ProductDto}s, or only the selected
+ *                   fields of each product when {@code ?fields=} was given
+ * @param nextCursor opaque cursor to pass as {@code cursor} to fetch the next page,
+ *                   or {@code null} when this is the last page
+ * @param <T>        the item type
+ */
+public record ProductPage<T>(List<T> items, String nextCursor) {
+}
@@ -0,0 +1,16 @@
+package com.owr.product_service.dto;
+
+/**
+ * One product found by {@code GET /api/products/search}.
+ *
+ * <p>Served from the search index without touching the database or the inventory service; fetch
+ * {@code /api/products/{id}} for the full product with stock.</p>
+ *
+ * @param id       the product identifier
+ * @param name     the product name
+ * @param category the product category
+ * @param price    the unit price
+ * @param score    the relevance score, higher is better
+ */
+public record ProductSearchHit(Long id, String name, String category, Double price, double score) {
+}
@@ -0,0 +1,14 @@
+package com.owr.product_service.dto;
+
+import java.util.List;
+
+/**
+ * One page of search results, best match first.
+ *
+ * @param items the hits of this page
+ * @param total the number of products matching the query
+ * @param page  the zero-based page number
+ * @param size  the requested page size
+ */
+public record ProductSearchPage(List<ProductSearchHit> items, int total, int page, int size) {
+}
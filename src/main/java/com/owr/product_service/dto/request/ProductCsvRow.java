@@ -0,0 +1,31 @@
+package com.owr.product_service.controller.request;
+
+import com.owr.product_service.model.Product;
+
+/**
+ * One line of a CSV product import, with the header {@code name,category,description,price,quantity}.
+ *
+ * @param name        the product name
+ * @param category    the product category
+ * @param description a short description
+ * @param price       the unit price, may be empty
+ * @param quantity    the initial stock quantity
+ */
+public record ProductCsvRow(String name, String category, String description, Double price, Integer quantity) {
+
+    /**
+     * Converts the row into the payload used by the JSON import; a missing quantity becomes {@code -1} so that
+     * the import rejects it.
+     *
+     * @return the product and its initial quantity
+     */
+    public ProductWithQuantity toProductWithQuantity() {
+        Product product = Product.builder()
+                .name(name)
+                .category(category)
+                .description(description)
+                .price(price)
+                .build();
+        return new ProductWithQuantity(product, quantity != null ? quantity : -1);
+    }
+}
@@ -0,0 +1,15 @@
+package com.owr.product_service.controller.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Request payload for the multi-get endpoints.
+ *
+ * @param ids the product ids to look up, at most {@code products.batch.max-ids}
+ */
+public record ProductIdsRequest(
+        @NotEmpty List<@NotNull Long> ids) {
+}
@@ -0,0 +1,14 @@
+package com.owr.product_service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when facets are requested before the in-memory facet counts have been built.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class FacetsUnavailableException extends RuntimeException {
+    public FacetsUnavailableException(String message) {
+        super(message);
+    }
+}
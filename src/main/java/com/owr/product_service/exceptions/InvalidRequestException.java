@@ -0,0 +1,15 @@
+package com.owr.product_service.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when a request parameter is well-formed for Spring but not acceptable for the service,
+ * e.g. a tampered pagination cursor or a page size above the configured maximum.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidRequestException extends RuntimeException {
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
@@ -3,6 +3,8 @@ package com.owr.product_service.mapper;
 
 import com.owr.product_service.dto.ProductDto;
 import com.owr.product_service.model.Product;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.client.StockLevel;
 
 /*=================================================================================
  * Project: product-service
@@ -27,7 +29,68 @@ public class ProductMapper {
                 product.getCategory(),
                 product.getDescription(),
                 product.getPrice(),
-                quantity
+                quantity,
+                null,
+                false
         );
     }
+
+    /**
+     * Converts a {@link Product} entity to a {@link ProductDto}, attaching the specified stock level.
+     *
+     * @param product the product entity to convert
+     * @param stock   the live or last known stock of the product
+     * @return a new {@code ProductDto}, flagged as stale if the stock is a last known value
+     */
+    public static ProductDto toDTO(Product product, StockLevel stock) {
+        ProductDto dto = toDTO(product, stock.quantity());
+        dto.setStockStale(stock.stale());
+        return dto;
+    }
+
+    /**
+     * Converts a cached {@link ProductSnapshot} to a {@link ProductDto}, attaching the specified quantity.
+     *
+     * @param product  the product snapshot to convert
+     * @param quantity the quantity of the product in stock to include in the DTO
+     * @return a new {@code ProductDto} containing product details and stock quantity
+     */
+    public static ProductDto toDTO(ProductSnapshot product, int quantity) {
+        return new ProductDto(
+                product.id(),
+                product.name(),
+                product.category(),
+                product.description(),
+                product.price(),
+                quantity,
+                null,
+                false
+        );
+    }
+
+    /**
+     * Converts a cached {@link ProductSnapshot} to a {@link ProductDto}, attaching the specified stock level.
+     *
+     * @param product the product snapshot to convert
+     * @param stock   the live or last known stock of the product
+     * @return a new {@code ProductDto}, flagged as stale if the stock is a last known value
+     */
+    public static ProductDto toDTO(ProductSnapshot product, StockLevel stock) {
+        ProductDto dto = toDTO(product, stock.quantity());
+        dto.setStockStale(stock.stale());
+        return dto;
+    }
+
+    /**
+     * Converts a {@link Product} entity to a {@link ProductDto} whose stock lookup failed.
+     *
+     * @param product    the product entity to convert
+     * @param stockError the reason the stock quantity is unavailable
+     * @return a new {@code ProductDto} with quantity {@code 0} and the given stock error
+     */
+    public static ProductDto toDTOWithoutStock(Product product, String stockError) {
+        ProductDto dto = toDTO(product, 0);
+        dto.setStockError(stockError);
+        return dto;
+    }
 }
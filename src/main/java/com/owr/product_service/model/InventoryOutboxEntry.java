@@ -0,0 +1,78 @@
+package com.owr.product_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A pending "create inventory record" call, written in the same transaction as its product.
+ *
+ * <p>Entries are sent by {@code InventoryOutboxDispatcher} after commit, so creating a product never waits for
+ * the inventory service, and a product committed without its inventory record is retried instead of lost.</p>
+ */
+@Entity
+@Table(name = "inventory_outbox",
+        indexes = @Index(name = "idx_inventory_outbox_due", columnList = "processed_at, next_attempt_at"))
+@Getter @Setter
+@NoArgsConstructor @AllArgsConstructor
+@Builder
+public class InventoryOutboxEntry {
+
+    /**
+     * The unique identifier of the entry; allocated in blocks so inserts can be batched.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "inventory_outbox_seq")
+    @SequenceGenerator(name = "inventory_outbox_seq", sequenceName = "inventory_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The product whose inventory record is to be created.
+     */
+    @Column(nullable = false)
+    private Long productId;
+
+    /**
+     * The initial stock quantity.
+     */
+    private int quantity;
+
+    /**
+     * Number of failed delivery attempts so far.
+     */
+    private int attempts;
+
+    /**
+     * Earliest time of the next delivery attempt.
+     */
+    @Column(name = "next_attempt_at", nullable = false)
+    private Instant nextAttemptAt;
+
+    /**
+     * When the inventory record was created; {@code null} while pending.
+     */
+    @Column(name = "processed_at")
+    private Instant processedAt;
+
+    /**
+     * The error of the last failed attempt, if any.
+     */
+    @Column(length = 1000)
+    private String lastError;
+
+    /**
+     * Creates an entry that is due immediately.
+     *
+     * @param productId the product identifier
+     * @param quantity  the initial stock quantity
+     * @return the new, unsaved entry
+     */
+    public static InventoryOutboxEntry pending(Long productId, int quantity) {
+        return InventoryOutboxEntry.builder()
+                .productId(productId)
+                .quantity(quantity)
+                .nextAttemptAt(Instant.now())
+                .build();
+    }
+}
@@ -1,7 +1,9 @@
 package com.owr.product_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 
 @Entity
 @Table(name = "products")
@@ -11,10 +13,12 @@ import lombok.*;
 public class Product {
     /**
      * The unique identifier for the product.
-     * <p>Auto-generated using identity strategy.</p>
+     * <p>Taken from the {@code products_seq} sequence in blocks of 50 (pooled optimizer), so Hibernate
+     * knows ids before inserting and can batch inserts; identity columns would force one round trip per row.</p>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "products_seq")
+    @SequenceGenerator(name = "products_seq", sequenceName = "products_seq", allocationSize = 50)
     private Long id;
 
     /**
@@ -37,5 +41,15 @@ public class Product {
      */
     private Double price;
 
+    /**
+     * Optimistic-locking version, incremented by Hibernate on every update.
+     * <p>Part of the product's ETag; a {@code PATCH} with {@code If-Match} only applies to the version it names.
+     * Rows that existed before the column was added start at 0. Never bound from request bodies, since
+     * Spring Data decides from a {@code null} version whether an entity is new.</p>
+     */
+    @Version
+    @ColumnDefault("0")
+    @JsonIgnore
+    private Long version;
 
 }
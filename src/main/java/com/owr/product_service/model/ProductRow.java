@@ -0,0 +1,31 @@
+package com.owr.product_service.model;
+
+import com.owr.product_service.service.cache.ProductSnapshot;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of the {@code products} table as read by the reactive mode through R2DBC.
+ *
+ * <p>Kept apart from the JPA entity {@link Product}: Spring Data assigns repositories to a store by the
+ * annotations of their domain type, and an entity carrying both JPA and relational mapping annotations would be
+ * claimed by both. Rows are immutable; writes go through the statements of {@code ReactiveProductRepository}.</p>
+ *
+ * @param id          the product identifier
+ * @param name        the unique product name
+ * @param category    the product category
+ * @param description the product description
+ * @param price       the unit price
+ * @param version     the optimistic-locking version, shared with {@link Product#getVersion()}
+ */
+@Table("products")
+public record ProductRow(@Id Long id, String name, String category, String description, Double price,
+                         Long version) {
+
+    /**
+     * @return an immutable copy of this row as used by the caches, mappers and ETags
+     */
+    public ProductSnapshot toSnapshot() {
+        return new ProductSnapshot(id, name, category, description, price, version);
+    }
+}
@@ -0,0 +1,53 @@
+package com.owr.product_service.repository;
+
+import com.owr.product_service.model.InventoryOutboxEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface InventoryOutboxRepository extends JpaRepository<InventoryOutboxEntry, Long> {
+
+    /**
+     * Locks the oldest due entries, skipping rows already locked by another instance.
+     * <p>Must run inside a transaction; the caller pushes {@code next_attempt_at} out before committing so the
+     * entries stay claimed while it talks to the inventory service without holding the lock.</p>
+     *
+     * @param now   the current time
+     * @param limit the maximum number of entries to claim
+     * @return the claimed entries, oldest first
+     */
+    @Query(value = """
+            select * from inventory_outbox
+            where processed_at is null and next_attempt_at <= :now
+            order by id
+            limit :limit
+            for update skip locked
+            """, nativeQuery = true)
+    List<InventoryOutboxEntry> lockDueEntries(@Param("now") Instant now, @Param("limit") int limit);
+
+    /**
+     * Marks entries as delivered.
+     *
+     * @param ids the entry ids
+     * @param now the delivery time
+     * @return the number of updated entries
+     */
+    @Modifying
+    @Query("update InventoryOutboxEntry e set e.processedAt = :now, e.lastError = null where e.id in :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
+
+    /**
+     * Deletes delivered entries older than the given time.
+     *
+     * @param before the cut-off
+     * @return the number of deleted entries
+     */
+    @Modifying
+    @Query("delete from InventoryOutboxEntry e where e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,8 @@
+package com.owr.product_service.repository;
+
+/**
+ * Projection of a product row onto what a listing card shows: id, name and price.
+ * <p>Selects three narrow columns instead of the whole row with its description.</p>
+ */
+public record ProductCardView(Long id, String name, Double price) implements ProductProjection {
+}
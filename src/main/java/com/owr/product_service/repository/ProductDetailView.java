@@ -0,0 +1,8 @@
+package com.owr.product_service.repository;
+
+/**
+ * Projection of a product row onto all of its catalog columns, without materializing a managed entity.
+ */
+public record ProductDetailView(Long id, String name, String category, String description, Double price)
+        implements ProductProjection {
+}
@@ -0,0 +1,14 @@
+package com.owr.product_service.repository;
+
+/**
+ * Projection of a product row onto the fields that are faceted, used to build the facet counts without
+ * loading full entities.
+ */
+public interface ProductFacetView {
+
+    Long getId();
+
+    String getCategory();
+
+    Double getPrice();
+}
@@ -0,0 +1,12 @@
+package com.owr.product_service.repository;
+
+/**
+ * Projection of a product row onto its id and price, used to build the price index without
+ * loading full entities.
+ */
+public interface ProductPriceView {
+
+    Long getId();
+
+    Double getPrice();
+}
@@ -0,0 +1,25 @@
+package com.owr.product_service.repository;
+
+/**
+ * Common read access to the projections of a product row, so they can be mapped alike whichever columns were
+ * selected. Accessors of columns a projection does not select return {@code null}.
+ *
+ * <p>Implemented by the record projections used with the dynamic-projection query methods of
+ * {@link ProductRepository}, and by {@code ProductSnapshot}.</p>
+ */
+public interface ProductProjection {
+
+    Long id();
+
+    String name();
+
+    Double price();
+
+    default String category() {
+        return null;
+    }
+
+    default String description() {
+        return null;
+    }
+}
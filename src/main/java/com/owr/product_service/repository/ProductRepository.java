@@ -1,10 +1,31 @@
 package com.owr.product_service.repository;
 
 import com.owr.product_service.model.Product;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
+/**
+ * JPA access to the {@code products} table.
+ *
+ * <p>Queries run in read-only transactions unless called inside a write transaction, so with read replicas
+ * configured ({@code ReadReplicaConfig}) they are served by a replica; the writes inherited from
+ * {@link JpaRepository} keep their read-write transactions.</p>
+ */
+@Transactional(readOnly = true)
 public interface ProductRepository extends JpaRepository<Product, Long> {
     /**
      * Finds a product by its name.
@@ -13,4 +34,98 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @return an {@link Optional} containing the product if found, or empty if not
      */
     Optional<Product> findByName(String name);
+
+    /**
+     * Returns which of the given names are already taken, with one {@code where name in (...)} query.
+     *
+     * @param names the candidate product names
+     * @return the subset of {@code names} that exist in the catalog
+     */
+    @Query("select p.name from Product p where p.name in :names")
+    Set<String> findExistingNames(@Param("names") Collection<String> names);
+
+    /**
+     * Keyset pagination: returns the next products after the given id, ordered by id.
+     * <p>Runs as {@code where id > :cursor order by id limit :n}, so the cost of a page does not grow
+     * with its position in the catalog as it would with an offset.</p>
+     *
+     * @param cursor the id of the last product of the previous page ({@code 0} for the first page)
+     * @param limit  the maximum number of products to return
+     * @return up to {@code limit} products with an id greater than {@code cursor}
+     */
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long cursor, Limit limit);
+
+    /**
+     * Keyset pagination like {@link #findByIdGreaterThanOrderByIdAsc(Long, Limit)}, selecting only the columns
+     * of the given record projection.
+     *
+     * @param cursor the id of the last product of the previous page ({@code 0} for the first page)
+     * @param limit  the maximum number of products to return
+     * @param type   the projection, e.g. {@link ProductCardView}
+     * @param <T>    the projection type
+     * @return up to {@code limit} projected products with an id greater than {@code cursor}
+     */
+    <T extends ProductProjection> List<T> findByIdGreaterThanOrderByIdAsc(Long cursor, Limit limit, Class<T> type);
+
+    /**
+     * Returns the whole catalog, selecting only the columns of the given record projection.
+     *
+     * @param sort the order of the result
+     * @param type the projection, e.g. {@link ProductCardView}
+     * @param <T>  the projection type
+     * @return all products, projected
+     */
+    <T extends ProductProjection> List<T> findAllProjectedBy(Sort sort, Class<T> type);
+
+    /**
+     * Streams the whole catalog ordered by id, fetching rows from the database in batches.
+     * <p>Must be consumed inside a transaction and closed afterwards. Callers should detach the entities
+     * they have processed to keep the persistence context, and thus the heap, from growing.</p>
+     *
+     * @return a lazily populated stream of all products
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select p from Product p order by p.id")
+    Stream<Product> streamAllOrderById();
+
+    /**
+     * Streams the id and price of every product, fetching rows from the database in batches.
+     * <p>Must be consumed inside a transaction and closed afterwards.</p>
+     *
+     * @return a lazily populated stream of id/price pairs
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id as id, p.price as price from Product p")
+    Stream<ProductPriceView> streamAllPrices();
+
+    /**
+     * Streams the id, category and price of every product, fetching rows from the database in batches.
+     * <p>Must be consumed inside a transaction and closed afterwards.</p>
+     *
+     * @return a lazily populated stream of facet values
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select p.id as id, p.category as category, p.price as price from Product p")
+    Stream<ProductFacetView> streamAllFacetValues();
+
+    /**
+     * Returns the id and version of every product ordered by id, to compute the catalog ETag without loading
+     * full entities.
+     *
+     * @return the id/version pairs of the whole catalog
+     */
+    @Query("select p.id as id, p.version as version from Product p order by p.id")
+    List<ProductVersionView> findAllVersions();
+
+    /**
+     * Streams an immutable copy of every product ordered by id, fetching rows from the database in batches.
+     * <p>The copies are not managed entities, so the persistence context does not grow while streaming.
+     * Must be consumed inside a transaction and closed afterwards.</p>
+     *
+     * @return a lazily populated stream of product snapshots
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.owr.product_service.service.cache.ProductSnapshot("
+            + "p.id, p.name, p.category, p.description, p.price, p.version) from Product p order by p.id")
+    Stream<ProductSnapshot> streamAllSnapshots();
 }
@@ -0,0 +1,7 @@
+package com.owr.product_service.repository;
+
+/**
+ * Projection of a product row onto everything but the description.
+ */
+public record ProductSummaryView(Long id, String name, String category, Double price) implements ProductProjection {
+}
@@ -0,0 +1,12 @@
+package com.owr.product_service.repository;
+
+/**
+ * Projection of a product row onto its id and optimistic-locking version, used to compute the catalog ETag
+ * without loading full entities.
+ */
+public interface ProductVersionView {
+
+    Long getId();
+
+    Long getVersion();
+}
@@ -0,0 +1,127 @@
+package com.owr.product_service.repository;
+
+import com.owr.product_service.model.ProductRow;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+
+/**
+ * Non-blocking access to the {@code products} table over R2DBC, used by the reactive mode.
+ *
+ * <p>Reads and writes the same rows as the JPA {@link ProductRepository}: ids come from the same
+ * {@code products_seq} sequence (see {@code PooledIdAllocator}) and updates bump the same {@code version} column,
+ * so both modes can run against one database. Writes return the affected row ({@code returning *}), which saves
+ * the read Hibernate would do before an update or delete.</p>
+ */
+public interface ReactiveProductRepository extends R2dbcRepository<ProductRow, Long> {
+
+    /**
+     * Finds a product by its name.
+     *
+     * @param name the name of the product to search for
+     * @return the product, or empty if not found
+     */
+    Mono<ProductRow> findByName(String name);
+
+    /**
+     * Returns which of the given names are already taken, with one {@code where name in (...)} query.
+     *
+     * @param names the candidate product names
+     * @return the subset of {@code names} that exist in the catalog
+     */
+    @Query("select name from products where name in (:names)")
+    Flux<String> findExistingNames(@Param("names") Collection<String> names);
+
+    /**
+     * Keyset pagination: returns the next products after the given id, ordered by id.
+     *
+     * @param cursor the id of the last product of the previous page ({@code 0} for the first page)
+     * @param limit  the maximum number of products to return
+     * @return up to {@code limit} products with an id greater than {@code cursor}
+     */
+    @Query("select * from products where id > :cursor order by id limit :limit")
+    Flux<ProductRow> findPage(@Param("cursor") Long cursor, @Param("limit") int limit);
+
+    /**
+     * Streams the whole catalog ordered by id.
+     * <p>Rows are read from the connection as the subscriber requests them, so a slow consumer holds back the
+     * database instead of buffering the catalog.</p>
+     *
+     * @return all products
+     */
+    @Query("select * from products order by id")
+    Flux<ProductRow> streamAllOrderById();
+
+    /**
+     * Allocates the next block of {@code products_seq}, as Hibernate's pooled optimizer does.
+     *
+     * @return the highest id of the block
+     */
+    @Query("select nextval('products_seq')")
+    Mono<Long> nextProductIdBlock();
+
+    /**
+     * Allocates the next block of {@code inventory_outbox_seq}.
+     *
+     * @return the highest id of the block
+     */
+    @Query("select nextval('inventory_outbox_seq')")
+    Mono<Long> nextOutboxIdBlock();
+
+    /**
+     * Inserts a product with version 0.
+     *
+     * @return the inserted row
+     */
+    @Query("insert into products (id, name, category, description, price, version) "
+            + "values (:id, :name, :category, :description, :price, 0) returning *")
+    Mono<ProductRow> insert(@Param("id") Long id,
+                            @Param("name") String name,
+                            @Param("category") String category,
+                            @Param("description") String description,
+                            @Param("price") Double price);
+
+    /**
+     * Updates a product if it still has the given version, incrementing the version.
+     *
+     * @param version the version the update is based on
+     * @return the updated row, or empty if the product does not exist or its version has changed
+     */
+    @Query("update products set name = :name, category = :category, description = :description, price = :price, "
+            + "version = version + 1 where id = :id and version = :version returning *")
+    Mono<ProductRow> updateIfVersion(@Param("id") Long id,
+                                     @Param("version") Long version,
+                                     @Param("name") String name,
+                                     @Param("category") String category,
+                                     @Param("description") String description,
+                                     @Param("price") Double price);
+
+    /**
+     * Deletes a product.
+     *
+     * @param id the product identifier
+     * @return the deleted row, or empty if the product does not exist
+     */
+    @Query("delete from products where id = :id returning *")
+    Mono<ProductRow> deleteReturning(@Param("id") Long id);
+
+    /**
+     * Adds a pending entry to the inventory outbox, in the transaction of the product it belongs to; the entry
+     * is sent by {@code InventoryOutboxDispatcher} like those written through JPA.
+     *
+     * @return the number of inserted rows
+     */
+    @Modifying
+    @Query("insert into inventory_outbox (id, product_id, quantity, attempts, next_attempt_at) "
+            + "values (:id, :productId, :quantity, 0, :nextAttemptAt)")
+    Mono<Integer> insertOutboxEntry(@Param("id") Long id,
+                                    @Param("productId") Long productId,
+                                    @Param("quantity") int quantity,
+                                    @Param("nextAttemptAt") Instant nextAttemptAt);
+}
@@ -0,0 +1,53 @@
+package com.owr.product_service.service;
+
+import com.owr.product_service.exceptions.InvalidRequestException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Encodes and decodes the opaque keyset cursors used by the paginated catalog endpoint.
+ *
+ * <p>A cursor wraps the id of the last product of the previous page. It is Base64url encoded so clients
+ * treat it as a token rather than as an offset they can compute themselves.</p>
+ */
+final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    /**
+     * Encodes the id of the last product of a page into a cursor.
+     *
+     * @param lastId the last product id returned
+     * @return the opaque cursor
+     */
+    static String encode(long lastId) {
+        byte[] bytes = ByteBuffer.allocate(Long.BYTES).putLong(lastId).array();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    /**
+     * Decodes a cursor back into the id after which the next page starts.
+     *
+     * @param cursor the opaque cursor, or {@code null}/blank for the first page
+     * @return the id to continue after ({@code 0} for the first page)
+     * @throws InvalidRequestException if the cursor was not produced by {@link #encode(long)}
+     */
+    static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+            long lastId = bytes.length == Long.BYTES ? ByteBuffer.wrap(bytes).getLong() : -1L;
+            // Product ids are positive; anything else was not produced by encode
+            if (lastId < 0) {
+                throw new InvalidRequestException("Invalid cursor: " + cursor);
+            }
+            return lastId;
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.owr.product_service.service;
+
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+
+/**
+ * Hands out ids from a database sequence in blocks, compatible with Hibernate's pooled optimizer.
+ *
+ * <p>The sequences behind {@code Product} and {@code InventoryOutboxEntry} increment by the allocation size, and
+ * each {@code nextval} reserves the block {@code value - allocationSize + 1 .. value}; the first value of a fresh
+ * sequence ({@code 1}) only reserves itself, as Hibernate ids never go below it. The reactive mode takes its
+ * ids the same way, so it never collides with ids Hibernate hands out and only calls the database once per
+ * block.</p>
+ *
+ * <p>Two callers that exhaust a block at the same time both fetch a new one; the older remainder is dropped,
+ * which wastes ids but never duplicates one.</p>
+ */
+final class PooledIdAllocator {
+
+    private final Supplier<Mono<Long>> nextBlock;
+    private final int allocationSize;
+
+    private long next;
+    private long last = -1;
+
+    /**
+     * @param nextBlock      calls {@code nextval} on the sequence
+     * @param allocationSize the increment of the sequence, as declared on the entity's generator
+     */
+    PooledIdAllocator(Supplier<Mono<Long>> nextBlock, int allocationSize) {
+        this.nextBlock = nextBlock;
+        this.allocationSize = allocationSize;
+    }
+
+    /**
+     * @return the next free id, from the current block or a newly allocated one
+     */
+    Mono<Long> nextId() {
+        synchronized (this) {
+            if (next <= last) {
+                return Mono.just(next++);
+            }
+        }
+        return nextBlock.get().map(high -> {
+            synchronized (this) {
+                next = Math.max(high - allocationSize + 1, 1);
+                last = high;
+                return next++;
+            }
+        });
+    }
+}
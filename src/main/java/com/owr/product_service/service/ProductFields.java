@@ -0,0 +1,119 @@
+package com.owr.product_service.service;
+
+import com.owr.product_service.exceptions.InvalidRequestException;
+import com.owr.product_service.repository.ProductCardView;
+import com.owr.product_service.repository.ProductDetailView;
+import com.owr.product_service.repository.ProductProjection;
+import com.owr.product_service.repository.ProductSummaryView;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The product fields a client selected with {@code ?fields=}, e.g. {@code fields=id,name,price}.
+ *
+ * <p>Decides which repository projection has to be read, the narrowest one covering the selection, and whether
+ * stock has to be looked up at all, then copies only the selected fields into the response. The names are those
+ * of the {@code ProductDto} JSON; {@code quantity} brings {@code stockError} and {@code stockStale} along when
+ * they apply.</p>
+ */
+final class ProductFields {
+
+    enum Field {
+        ID, NAME, CATEGORY, DESCRIPTION, PRICE, QUANTITY;
+
+        private final String json = name().toLowerCase(Locale.ROOT);
+    }
+
+    private final EnumSet<Field> fields;
+
+    private ProductFields(EnumSet<Field> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parses the comma-separated value of {@code ?fields=}.
+     *
+     * @param fields the parameter value
+     * @return the selection
+     * @throws InvalidRequestException if no field or an unknown field is named
+     */
+    static ProductFields parse(String fields) {
+        EnumSet<Field> selected = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            selected.add(Arrays.stream(Field.values())
+                    .filter(field -> field.json.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidRequestException(
+                            "Unknown field '" + trimmed + "', expected any of " + allowed())));
+        }
+        if (selected.isEmpty()) {
+            throw new InvalidRequestException("fields must name at least one of " + allowed());
+        }
+        return new ProductFields(selected);
+    }
+
+    /**
+     * @return {@code true} if the stock has to be looked up in the inventory service
+     */
+    boolean includesStock() {
+        return fields.contains(Field.QUANTITY);
+    }
+
+    /**
+     * Returns the narrowest projection that reads every selected column. The id is always read, for the stock
+     * lookup and the page cursor.
+     *
+     * @return the projection to pass to the repository
+     */
+    Class<? extends ProductProjection> projection() {
+        if (fields.contains(Field.DESCRIPTION)) {
+            return ProductDetailView.class;
+        }
+        return fields.contains(Field.CATEGORY) ? ProductSummaryView.class : ProductCardView.class;
+    }
+
+    /**
+     * Copies the selected fields of a product into a JSON object, in {@code ProductDto} order.
+     *
+     * @param product    the projected product
+     * @param quantity   the stock quantity, {@code null} if not looked up or the lookup failed
+     * @param stale      whether {@code quantity} is a last known value
+     * @param stockError why the stock could not be resolved, or {@code null}
+     * @return the selected fields by JSON name
+     */
+    Map<String, Object> select(ProductProjection product, Integer quantity, boolean stale, String stockError) {
+        Map<String, Object> selected = new LinkedHashMap<>(fields.size() * 2);
+        for (Field field : fields) {
+            switch (field) {
+                case ID -> selected.put(field.json, product.id());
+                case NAME -> selected.put(field.json, product.name());
+                case CATEGORY -> selected.put(field.json, product.category());
+                case DESCRIPTION -> selected.put(field.json, product.description());
+                case PRICE -> selected.put(field.json, product.price());
+                case QUANTITY -> {
+                    selected.put(field.json, quantity != null ? quantity : 0);
+                    if (stockError != null) {
+                        selected.put("stockError", stockError);
+                    }
+                    if (stale) {
+                        selected.put("stockStale", true);
+                    }
+                }
+            }
+        }
+        return selected;
+    }
+
+    private static String allowed() {
+        return Arrays.stream(Field.values()).map(field -> field.json).collect(Collectors.joining(","));
+    }
+}
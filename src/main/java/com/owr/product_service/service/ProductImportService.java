@@ -0,0 +1,196 @@
+package com.owr.product_service.service;
+
+import com.owr.product_service.controller.request.ProductWithQuantity;
+import com.owr.product_service.dto.ProductImportResult;
+import com.owr.product_service.model.InventoryOutboxEntry;
+import com.owr.product_service.model.Product;
+import com.owr.product_service.repository.InventoryOutboxRepository;
+import com.owr.product_service.repository.ProductRepository;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Bulk import of products, e.g. a seasonal collection.
+ *
+ * <p>The input is consumed as a stream, {@code products.import.chunk-size} items at a time. For each chunk:</p>
+ * <ul>
+ *     <li>names already in the catalog are found with a single {@code where name in (...)} query;</li>
+ *     <li>the new products and their {@link InventoryOutboxEntry inventory outbox entries} are inserted in one
+ *     transaction with JDBC batching (sequence ids) and detached afterwards, so memory does not grow with the
+ *     input.</li>
+ * </ul>
+ *
+ * <p>The inventory records are created after commit by {@code InventoryOutboxDispatcher}, in bulk calls and
+ * with retries, so the import itself never waits for the inventory service.</p>
+ */
+@Service
+public class ProductImportService {
+
+    /**
+     * Maximum number of error messages returned in the result.
+     */
+    private static final int MAX_ERRORS = 100;
+
+    private final ProductRepository repository;
+    private final InventoryOutboxRepository outboxRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Number of items inserted per transaction.
+     */
+    @Value("${products.import.chunk-size:1000}")
+    private int chunkSize;
+
+    public ProductImportService(ProductRepository repository,
+                                InventoryOutboxRepository outboxRepository,
+                                EntityManager entityManager,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.outboxRepository = outboxRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Imports the given products.
+     *
+     * <p>Chunks are committed as they go. If the input turns out to be malformed part way through, the import
+     * stops there, the chunks before it stay imported, and the error is reported in the result.</p>
+     *
+     * @param items the products to import with their initial quantity, read lazily
+     * @return counts of imported, duplicate and rejected items and the first error messages
+     */
+    public ProductImportResult importProducts(Iterator<ProductWithQuantity> items) {
+        Tally tally = new Tally();
+        Map<String, ProductWithQuantity> chunk = new LinkedHashMap<>();
+
+        while (true) {
+            ProductWithQuantity item;
+            try {
+                if (!items.hasNext()) {
+                    break;
+                }
+                item = items.next();
+            } catch (RuntimeException e) {
+                tally.error("Malformed input after item " + tally.received + ": " + e.getMessage());
+                break;
+            }
+            tally.received++;
+
+            String problem = validate(item);
+            if (problem != null) {
+                tally.rejected++;
+                tally.error("Item " + tally.received + ": " + problem);
+                continue;
+            }
+            String name = item.product().getName();
+            if (chunk.containsKey(name)) {
+                tally.duplicates++;
+                continue;
+            }
+            chunk.put(name, item);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, tally);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, tally);
+        }
+        return tally.toResult();
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    /**
+     * Inserts the new products of one chunk and their outbox entries in one transaction.
+     */
+    private void importChunk(Map<String, ProductWithQuantity> chunk, Tally tally) {
+        Integer imported = transactionTemplate.execute(status -> {
+            Set<String> existing = repository.findExistingNames(chunk.keySet());
+
+            List<Product> products = new ArrayList<>(chunk.size());
+            List<Integer> productQuantities = new ArrayList<>(chunk.size());
+            chunk.forEach((name, item) -> {
+                if (existing.contains(name)) {
+                    tally.duplicates++;
+                } else {
+                    Product product = item.product();
+                    product.setId(null);
+                    products.add(product);
+                    productQuantities.add(item.quantity());
+                }
+            });
+
+            repository.saveAll(products);
+            List<InventoryOutboxEntry> outboxEntries = new ArrayList<>(products.size());
+            for (int i = 0; i < products.size(); i++) {
+                Product product = products.get(i);
+                outboxEntries.add(InventoryOutboxEntry.pending(product.getId(), productQuantities.get(i)));
+                eventPublisher.publishEvent(ProductChangedEvent.added(ProductSnapshot.of(product)));
+            }
+            outboxRepository.saveAll(outboxEntries);
+            entityManager.flush();
+            entityManager.clear();
+            return products.size();
+        });
+        tally.imported += imported;
+    }
+
+    /**
+     * Returns why an item cannot be imported, or {@code null} if it can.
+     */
+    static String validate(ProductWithQuantity item) {
+        if (item == null || item.product() == null) {
+            return "product is required";
+        }
+        String name = item.product().getName();
+        if (name == null || name.isBlank()) {
+            return "name is required";
+        }
+        if (item.quantity() < 0) {
+            return "quantity must be zero or positive";
+        }
+        return null;
+    }
+
+    /**
+     * Running counts of one import; also used by the reactive import of {@code ReactiveProductService}.
+     */
+    static final class Tally {
+        int received;
+        int imported;
+        int duplicates;
+        int rejected;
+        private final List<String> errors = new ArrayList<>();
+
+        void error(String message) {
+            if (errors.size() < MAX_ERRORS) {
+                errors.add(message);
+            }
+        }
+
+        ProductImportResult toResult() {
+            return new ProductImportResult(received, imported, duplicates, rejected, errors);
+        }
+    }
+}
@@ -1,45 +1,305 @@
 package com.owr.product_service.service;
 
+import com.owr.product_service.dto.PriceLookup;
 import com.owr.product_service.dto.ProductDto;
+import com.owr.product_service.dto.ProductLookup;
+import com.owr.product_service.dto.ProductPage;
+import com.owr.product_service.exceptions.ConcurrentUpdateException;
+import com.owr.product_service.exceptions.DeadlineExceededException;
+import com.owr.product_service.exceptions.InvalidRequestException;
 import com.owr.product_service.exceptions.InventoryUnavailableException;
 import com.owr.product_service.exceptions.NoSuchElementException;
+import com.owr.product_service.exceptions.PreconditionFailedException;
 import com.owr.product_service.mapper.ProductMapper;
+import com.owr.product_service.model.InventoryOutboxEntry;
 import com.owr.product_service.model.Product;
+import com.owr.product_service.repository.InventoryOutboxRepository;
+import com.owr.product_service.repository.ProductProjection;
 import com.owr.product_service.repository.ProductRepository;
+import com.owr.product_service.repository.ProductVersionView;
+import com.owr.product_service.service.cache.ProductCache;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import com.owr.product_service.service.index.PriceIndex;
 import com.owr.product_service.service.client.InventoryClient;
+import com.owr.product_service.service.client.StockLevel;
+import com.owr.product_service.service.client.StockLookupResult;
+import com.owr.product_service.service.coalescing.SingleFlight;
+import com.owr.product_service.service.deadline.DeadlineContext;
+import com.owr.product_service.service.routing.DataSourceRouting;
+import com.owr.product_service.service.routing.ReadYourWrites;
+import com.owr.product_service.service.etag.ETagged;
+import com.owr.product_service.service.etag.ETags;
+import com.owr.product_service.service.timing.Stage;
+import com.owr.product_service.service.timing.StageMetrics;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class ProductService {
+    /**
+     * Order of {@link #getAllProducts()}; fixed so that equal catalogs serialize, and are tagged, identically.
+     */
+    private static final Sort BY_ID = Sort.by("id");
+
     private final ProductRepository repository;
     private final InventoryClient client;
+    private final EntityManager entityManager;
+    private final ProductCache productCache;
+    private final PriceIndex priceIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InventoryOutboxRepository outboxRepository;
+    private final ReadYourWrites readYourWrites;
+    private final SingleFlight singleFlight;
+    private final StageMetrics stageMetrics;
+
+    /**
+     * Largest page size accepted by {@link #getProductPage(String, int)} and
+     * {@link #getProductPage(String, int, String)}.
+     */
+    @Value("${products.page.max-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Number of products read from the catalog stream before their stock is looked up and they are written out.
+     */
+    @Value("${products.stream.chunk-size:500}")
+    private int streamChunkSize;
+
+    /**
+     * Largest number of ids accepted by the multi-get methods.
+     */
+    @Value("${products.batch.max-ids:200}")
+    private int maxBatchIds;
+
+    /**
+     * A product with its stock, as loaded once for concurrent lookups of the same product.
+     */
+    private record LoadedProduct(ProductSnapshot product, StockLevel stock) {
+    }
 
     /**
      * Retrieves all products from the database and maps them to DTOs enriched with
      * real-time stock quantity from the inventory service.
      *
-     * @return a list of {@link ProductDto} containing product details and current stock levels
+     * <p>Stock is resolved with a single bulk lookup ({@link InventoryClient#getStockQuantities}) instead of
+     * one call per product. Products whose stock could not be resolved are still returned, with
+     * {@link ProductDto#getStockError()} describing the failure.</p>
+     *
+     * @return the {@link ProductDto}s ordered by id, with the catalog ETag (equal to {@link #getCatalogETag()}
+     * as long as nothing changed in between)
      */
-    public List<ProductDto> getAllProducts() {
-        return repository.findAll().stream()
-                .map(p-> ProductMapper.toDTO(
-                        p, safeGetStock(p.getId())
-                )).toList();
+    public ETagged<List<ProductDto>> getAllProducts() {
+        DeadlineContext.check("database query");
+        List<Product> products = timeQuery("findAll", () -> repository.findAll(BY_ID));
+        StockLookupResult stock = lookUpStock(products);
+
+        ETags.Catalog etag = ETags.catalog();
+        for (Product product : products) {
+            etag.add(product.getId(), product.getVersion(), stock);
+        }
+        return new ETagged<>(etag.toETag(), toDTOs(products, stock));
+    }
+
+    /**
+     * Retrieves all products like {@link #getAllProducts()}, reading and returning only the selected fields.
+     *
+     * <p>The catalog is read through the narrowest repository projection covering {@code fields}; stock is only
+     * looked up when {@code quantity} is selected. Responses are not tagged, the catalog ETag describes the full
+     * representation.</p>
+     *
+     * @param fields the comma-separated field names, e.g. {@code id,name,price}
+     * @return the selected fields per product, ordered by id
+     * @throws InvalidRequestException if a field name is invalid
+     */
+    public List<Map<String, Object>> getAllProducts(String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        DeadlineContext.check("database query");
+        List<? extends ProductProjection> products = timeQuery("findAllProjected",
+                () -> repository.findAllProjectedBy(BY_ID, selected.projection()));
+        return select(products, selected);
+    }
+
+    /**
+     * Computes the ETag {@link #getAllProducts()} would return, to answer {@code If-None-Match} without loading
+     * the catalog.
+     *
+     * <p>Reads only the ids and versions of the products. Their stock still has to be known; it comes from the
+     * stock cache where possible, so revalidating a catalog that was just served usually calls no one.</p>
+     *
+     * @return the quoted catalog ETag
+     */
+    public String getCatalogETag() {
+        DeadlineContext.check("database query");
+        List<ProductVersionView> versions = timeQuery("findAllVersions", () -> repository.findAllVersions());
+        StockLookupResult stock = client.getStockQuantities(
+                versions.stream().map(ProductVersionView::getId).toList()
+        );
+
+        ETags.Catalog etag = ETags.catalog();
+        for (ProductVersionView version : versions) {
+            etag.add(version.getId(), version.getVersion(), stock);
+        }
+        return etag.toETag();
+    }
+
+    /**
+     * Retrieves one page of the catalog using keyset pagination on the product id.
+     *
+     * @param cursor the opaque cursor returned with the previous page, or {@code null} for the first page
+     * @param limit  the maximum number of products to return, between 1 and {@code products.page.max-size}
+     * @return the page of products with stock and the cursor of the next page
+     * @throws InvalidRequestException if the cursor is malformed or the limit is out of range
+     */
+    public ProductPage<ProductDto> getProductPage(String cursor, int limit) {
+        checkPageSize(limit);
+        DeadlineContext.check("database query");
+        long after = PageCursor.decode(cursor);
+        List<Product> products = timeQuery("findPage",
+                () -> repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit)));
+
+        String nextCursor = products.size() < limit
+                ? null
+                : PageCursor.encode(products.get(products.size() - 1).getId());
+        return new ProductPage<>(toDTOs(products), nextCursor);
+    }
+
+    /**
+     * Retrieves one page of the catalog like {@link #getProductPage(String, int)}, reading and returning only the
+     * selected fields.
+     *
+     * <p>The page is read through the narrowest repository projection covering {@code fields}, so unselected
+     * columns, above all the description, are neither fetched from the database nor sent to the client. Stock is
+     * only looked up when {@code quantity} is selected.</p>
+     *
+     * @param cursor the opaque cursor returned with the previous page, or {@code null} for the first page
+     * @param limit  the maximum number of products to return, between 1 and {@code products.page.max-size}
+     * @param fields the comma-separated field names, e.g. {@code id,name,price}
+     * @return the page of selected fields per product and the cursor of the next page
+     * @throws InvalidRequestException if the cursor, limit or a field name is invalid
+     */
+    public ProductPage<Map<String, Object>> getProductPage(String cursor, int limit, String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        checkPageSize(limit);
+        DeadlineContext.check("database query");
+        long after = PageCursor.decode(cursor);
+        List<? extends ProductProjection> products = timeQuery("findPageProjected",
+                () -> repository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(limit), selected.projection()));
+
+        String nextCursor = products.size() < limit
+                ? null
+                : PageCursor.encode(products.get(products.size() - 1).id());
+        return new ProductPage<>(select(products, selected), nextCursor);
+    }
+
+    /**
+     * Streams the whole catalog in id order, handing the DTOs to {@code chunkConsumer} one chunk at a time.
+     *
+     * <p>Products are read through a database cursor, their stock is resolved with one bulk lookup per chunk,
+     * and the chunk is detached from the persistence context once consumed. Memory use therefore depends on
+     * {@code products.stream.chunk-size}, not on the size of the catalog.</p>
+     *
+     * @param chunkConsumer receives each chunk as soon as its stock is known, e.g. to write it to the response
+     */
+    @Transactional(readOnly = true)
+    public void streamAllProducts(Consumer<List<ProductDto>> chunkConsumer) {
+        try (Stream<Product> products = repository.streamAllOrderById()) {
+            List<Product> chunk = new ArrayList<>(streamChunkSize);
+            Iterator<Product> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == streamChunkSize || !iterator.hasNext()) {
+                    chunkConsumer.accept(toDTOs(chunk));
+                    // Detach the processed entities so the persistence context stays small
+                    entityManager.clear();
+                    chunk.clear();
+                }
+            }
+        }
+    }
+
+    /**
+     * Looks up many products at once: one {@code findAllById} query and one bulk stock lookup.
+     *
+     * @param ids the product ids, at most {@code products.batch.max-ids}; duplicates are answered once each
+     * @return one {@link ProductLookup} per requested id, in request order, marking ids that do not exist
+     * @throws InvalidRequestException if more ids than allowed are requested
+     */
+    public List<ProductLookup> findProductsByIds(List<Long> ids) {
+        checkBatchSize(ids);
+        DeadlineContext.check("database query");
+        List<Product> products = timeQuery("findAllById", () -> repository.findAllById(new LinkedHashSet<>(ids)));
+
+        Map<Long, ProductDto> byId = new HashMap<>(products.size() * 2);
+        for (ProductDto dto : toDTOs(products)) {
+            byId.put(dto.getId(), dto);
+        }
+        return ids.stream()
+                .map(id -> byId.containsKey(id) ? ProductLookup.found(byId.get(id)) : ProductLookup.notFound(id))
+                .toList();
+    }
+
+    /**
+     * Looks up the prices of many products at once.
+     *
+     * <p>Ids present in the {@link PriceIndex} are answered from memory; the rest are loaded with a single
+     * {@code findAllById} query.</p>
+     *
+     * @param ids the product ids, at most {@code products.batch.max-ids}
+     * @return one {@link PriceLookup} per requested id, in request order, marking ids that do not exist
+     * @throws InvalidRequestException if more ids than allowed are requested
+     */
+    public List<PriceLookup> findPricesByIds(List<Long> ids) {
+        checkBatchSize(ids);
+        Map<Long, PriceLookup> byId = new HashMap<>(ids.size() * 2);
+        List<Long> misses = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            double price = priceIndex.get(id);
+            if (Double.isNaN(price)) {
+                misses.add(id);
+            } else {
+                byId.put(id, PriceLookup.found(id, price));
+            }
+        }
+        if (!misses.isEmpty()) {
+            List<Product> products = timeQuery("findAllById", () -> repository.findAllById(misses));
+            for (Product product : products) {
+                byId.put(product.getId(), PriceLookup.found(product.getId(), product.getPrice()));
+            }
+        }
+        return ids.stream()
+                .map(id -> byId.getOrDefault(id, PriceLookup.notFound(id)))
+                .toList();
     }
 
     /**
      * Adds a new product to the system and initializes its stock in the inventory service.
      *
      * <p>This method first checks if a product with the same name already exists. If it does,
-     * a {@link RuntimeException} is thrown. Otherwise, the product is saved in the database and
-     * the stock quantity is initialized in the inventory service.</p>
+     * a {@link RuntimeException} is thrown. Otherwise, the product is saved in the database together with an
+     * {@link InventoryOutboxEntry}, from which the inventory record is created in the background after commit
+     * (see {@code InventoryOutboxDispatcher}). No inventory call happens while the transaction is open.</p>
      *
      * @param product  the product entity to be added
      * @param quantity the initial stock quantity to be registered in the inventory
@@ -48,57 +308,108 @@ public class ProductService {
      */
     @Transactional
     public ProductDto addProduct(Product product, int quantity) {
-        Optional<Product> existing = repository.findByName(product.getName());
+        Optional<Product> existing = timeQuery("findByName", () -> repository.findByName(product.getName()));
         if (existing.isPresent()) {
             throw new RuntimeException("Product already exists");
         }
 
-        Product savedProduct = repository.save(product);
-        client.createInventory(savedProduct.getId(), quantity);
+        Product savedProduct = timeQuery("save", () -> repository.save(product));
+        timeQuery("saveOutbox",
+                () -> outboxRepository.save(InventoryOutboxEntry.pending(savedProduct.getId(), quantity)));
+        eventPublisher.publishEvent(ProductChangedEvent.added(ProductSnapshot.of(savedProduct)));
 
-        return ProductMapper.toDTO(savedProduct, quantity);
+        return stageMetrics.time(Stage.MAPPING, "toDTO", () -> ProductMapper.toDTO(savedProduct, quantity));
     }
 
     /**
      * Finds a product by its id and enriches it with the current stock from the inventory service.
      *
-     * <p>Delegates to {@link #safeGetStock(Long)} for the stock lookup.</p>
+     * <p>The product is served from the {@link ProductCache} when possible.
+     * Delegates to {@link #safeGetStock(Long)} for the stock lookup, which is served from the stock cache
+     * when possible, so a cached product can be revalidated without a database or inventory call.</p>
+     *
+     * <p>Concurrent lookups of the same id share one product and stock load ({@link SingleFlight}), except for a
+     * caller who must read its own recent writes; each caller maps and tags the shared result itself.</p>
      *
      * @param id the product identifier
-     * @return a {@link ProductDto} containing the product details and current stock
+     * @return a {@link ProductDto} containing the product details and current stock, with its ETag
      * @throws NoSuchElementException        if no product exists with the given id
      * @throws InventoryUnavailableException if the inventory lookup fails
      */
-    public ProductDto findProductById(Long id) {
-        Product product = repository.findById(id)
-                .orElseThrow(() -> new NoSuchElementException("Product not found: " + id));
-
-
-
-        return ProductMapper.toDTO(product, safeGetStock(id));
+    public ETagged<ProductDto> findProductById(Long id) {
+        LoadedProduct loaded = coalesced("findById", id, () -> {
+            DeadlineContext.check("database query");
+            ProductSnapshot product = productCache.getById(id, () -> readYourWrites.read(id, () -> findById(id)))
+                    .orElseThrow(() -> new NoSuchElementException("Product not found: " + id));
+            return new LoadedProduct(product, safeGetStock(id));
+        });
+        return tagged(loaded.product(), loaded.stock());
+    }
 
+    /**
+     * Finds a product by its id like {@link #findProductById(Long)}, returning only the selected fields.
+     *
+     * <p>The product comes from the {@link ProductCache}, which holds complete rows, so there is no narrower
+     * query to run; the saving is in the response size and, without {@code quantity}, the stock lookup.</p>
+     *
+     * @param id     the product identifier
+     * @param fields the comma-separated field names, e.g. {@code id,name,price}
+     * @return the selected fields by JSON name
+     * @throws NoSuchElementException        if no product exists with the given id
+     * @throws InvalidRequestException       if a field name is invalid
+     * @throws InventoryUnavailableException if {@code quantity} is selected and the inventory lookup fails
+     */
+    public Map<String, Object> findProductById(Long id, String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        DeadlineContext.check("database query");
+        ProductSnapshot product = productCache.getById(id, () -> readYourWrites.read(id, () -> findById(id)))
+                .orElseThrow(() -> new NoSuchElementException("Product not found: " + id));
+        return select(product, selected);
     }
 
     /**
      * Finds a product by its name and enriches it with the current stock from the inventory service.
      *
-     * <p>Delegates to {@link #safeGetStock(Long)} for the stock lookup.</p>
+     * <p>The product is served from the {@link ProductCache} when possible.
+     * Delegates to {@link #safeGetStock(Long)} for the stock lookup. Concurrent lookups of the same name share
+     * one load, as in {@link #findProductById(Long)}.</p>
      *
      * @param name the unique product name
-     * @return a {@link ProductDto} containing the product details and current stock
+     * @return a {@link ProductDto} containing the product details and current stock, with its ETag
      * @throws NoSuchElementException        if no product exists with the given id
      * @throws InventoryUnavailableException if the inventory lookup fails
      */
-    public ProductDto findProductByName(String name) {
-        Product product = repository.findByName(name)
-                .orElseThrow(() -> new NoSuchElementException("Product not found: " + name));
-
+    public ETagged<ProductDto> findProductByName(String name) {
+        LoadedProduct loaded = coalesced("findByName", name, () -> {
+            DeadlineContext.check("database query");
+            ProductSnapshot product = productCache.getByName(name, () -> readYourWrites.read(name,
+                            () -> timeQuery("findByName", () -> repository.findByName(name))))
+                    .orElseThrow(() -> new NoSuchElementException("Product not found: " + name));
+            return new LoadedProduct(product, safeGetStock(product.id()));
+        });
+        return tagged(loaded.product(), loaded.stock());
+    }
 
-        return ProductMapper.toDTO(product, safeGetStock(product.getId()));
 
+    /**
+     * Finds a product by its name like {@link #findProductByName(String)}, returning only the selected fields.
+     *
+     * @param name   the unique product name
+     * @param fields the comma-separated field names, e.g. {@code id,name,price}
+     * @return the selected fields by JSON name
+     * @throws NoSuchElementException        if no product exists with the given name
+     * @throws InvalidRequestException       if a field name is invalid
+     * @throws InventoryUnavailableException if {@code quantity} is selected and the inventory lookup fails
+     */
+    public Map<String, Object> findProductByName(String name, String fields) {
+        ProductFields selected = ProductFields.parse(fields);
+        DeadlineContext.check("database query");
+        ProductSnapshot product = productCache.getByName(name, () -> readYourWrites.read(name,
+                        () -> timeQuery("findByName", () -> repository.findByName(name))))
+                .orElseThrow(() -> new NoSuchElementException("Product not found: " + name));
+        return select(product, selected);
     }
 
-
     /**
      * Updates an existing {@link Product} by applying a partial patch of its non-null fields and returns a
      * {@link ProductDto} enriched with the current stock quantity from the inventory service.
@@ -108,23 +419,39 @@ public class ProductService {
      * - If {@code patch.name} is provided and different, ensures name uniqueness before updating.
      * - Applies other non-null fields from {@code patch} (e.g., category, description, price)
      * - Saves the changes and fetches current stock via {@link #safeGetStock(Long)}.
+     * - Publishes a {@link ProductChangedEvent} with the old and new state, which evicts both the old and
+     *   the new name from the {@link ProductCache}.
+     * - With {@code ifMatch}, only applies the patch to the version the client names (see
+     *   {@link ETags#matchesVersion}); the version check is repeated by the {@code update} statement itself, so
+     *   a concurrent update in between is detected too.
+     * - Reads the product and checks the name on the primary database, never on a read replica; afterwards
+     *   {@link ReadYourWrites} keeps reads of the product, and all reads of the caller, on the primary for a while.
      *
-     * @param id    the identifier of the product to update
-     * @param patch a {@link Product} whose non-null fields represent updates to apply
-     * @return the updated product mapped to {@link ProductDto}, including current stock
+     * @param id      the identifier of the product to update
+     * @param patch   a {@link Product} whose non-null fields represent updates to apply
+     * @param ifMatch the {@code If-Match} header, or {@code null} to update whatever the current version is
+     * @return the updated product mapped to {@link ProductDto}, including current stock, with its new ETag
      * @throws NoSuchElementException        if no product exists with the given {@code id}
+     * @throws PreconditionFailedException   if {@code ifMatch} does not name the current version
+     * @throws ConcurrentUpdateException     if the product was changed concurrently and no {@code ifMatch} was given
      * @throws RuntimeException              if the provided name already exists for a different product
      * @throws InventoryUnavailableException if stock lookup fails in {@link #safeGetStock(Long)}
      */
-    public ProductDto updateProduct(Long id, Product patch) {
-        Product existing = repository.findById(id)
+    public ETagged<ProductDto> updateProduct(Long id, Product patch, String ifMatch) {
+        // The version and name checks must see the latest commit, not a replica's copy
+        Product existing = DataSourceRouting.onPrimary(() -> findById(id))
                 .orElseThrow(() -> new NoSuchElementException("Product not found: " + id));
+        if (ifMatch != null && !ETags.matchesVersion(ifMatch, id, existing.getVersion())) {
+            throw new PreconditionFailedException("Product " + id + " has been modified");
+        }
+        ProductSnapshot before = ProductSnapshot.of(existing);
 
 
         // If name is provided and changed, ensure uniqueness
         if (patch.getName() != null
                 && !patch.getName().equals(existing.getName())) {
-            repository.findByName(patch.getName()).ifPresent(p -> {
+            DataSourceRouting.onPrimary(() -> timeQuery("findByName",
+                    () -> repository.findByName(patch.getName()))).ifPresent(p -> {
                 throw new RuntimeException("Product name already exists: " + patch.getName());
             });
             existing.setName(patch.getName());
@@ -145,11 +472,21 @@ public class ProductService {
         // ... add any other fields
 
 
-        Product savedProduct = repository.save(existing);
+        Product savedProduct;
+        try {
+            savedProduct = timeQuery("save", () -> repository.save(existing));
+        } catch (OptimisticLockingFailureException e) {
+            if (ifMatch != null) {
+                throw new PreconditionFailedException("Product " + id + " has been modified");
+            }
+            throw new ConcurrentUpdateException("Product " + id + " was modified concurrently", e);
+        }
+        ProductSnapshot after = ProductSnapshot.of(savedProduct);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(before, after));
 
         // no inventory update here — inventory service handles quantity itself
-        int qty = safeGetStock(id);
-        return ProductMapper.toDTO(savedProduct, qty);
+        StockLevel stock = safeGetStock(id);
+        return tagged(after, stock);
     }
 
     /**
@@ -160,31 +497,58 @@ public class ProductService {
      * @throws NoSuchElementException if no product exists with the given id
      */
     public void deleteProductById(Long id) {
-        if (!repository.existsById(id)) {
-            throw new NoSuchElementException("Product not found: " + id);
-        }
-        repository.deleteById(id);
+        Product existing = DataSourceRouting.onPrimary(() -> findById(id))
+                .orElseThrow(() -> new NoSuchElementException("Product not found: " + id));
+        stageMetrics.run(Stage.DB, "delete", () -> repository.delete(existing));
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(ProductSnapshot.of(existing)));
     }
 
-    public Double getUnitPrice(Long productId) {
+    /**
+     * Returns the unit price of a product.
+     *
+     * <p>Answered from the {@link PriceIndex} without boxing or allocation; products not (yet) in the index
+     * are read through the {@link ProductCache}.</p>
+     *
+     * @param productId the product identifier
+     * @return the unit price, or {@code NaN} if the product has no price set
+     * @throws NoSuchElementException if no product exists with the given id
+     */
+    public double getUnitPrice(long productId) {
+        double indexed = priceIndex.get(productId);
+        if (!Double.isNaN(indexed)) {
+            return indexed;
+        }
 
-        return repository.findById(productId)
-                .map(Product::getPrice)
-                .orElseThrow(() -> new NoSuchElementException("Product not found: " + productId));
+        Double price = productCache.getById(productId, () -> readYourWrites.read(productId, () -> findById(productId)))
+                .orElseThrow(() -> new NoSuchElementException("Product not found: " + productId))
+                .price();
+        return price != null ? price : Double.NaN;
     }
     /**========================================================================
      * Helper Methods
      ===========================================================================*/
+    /**
+     * Runs a lookup through the {@link SingleFlight}, or directly for a caller who wrote recently: it must read
+     * its own writes from the primary, which a load shared with other callers may not do.
+     */
+    private <T> T coalesced(String operation, Object key, Supplier<T> load) {
+        return readYourWrites.callerWroteRecently() ? load.get() : singleFlight.run(operation, key, load);
+    }
+
     /**
      * Retrieves the current available stock for the given product by calling the inventory service.
      *
+     * <p>While the inventory service is failing, the last known quantity is returned flagged as stale.</p>
+     *
      * @param productId the product identifier
-     * @return the available stock quantity
-     * @throws InventoryUnavailableException if the inventory service call fails for any reason
+     * @return the available stock level
+     * @throws InventoryUnavailableException if the inventory service call fails and no last known quantity exists
      */
-    private int safeGetStock(Long productId) {
+    private StockLevel safeGetStock(Long productId) {
         try {
-            return client.getStockQuantity(productId);
+            return client.getStock(productId);
+        } catch (InventoryUnavailableException | DeadlineExceededException e) {
+            throw e;
         } catch (RuntimeException e) {
             throw new InventoryUnavailableException(
                     "Inventory lookup failed for product " + productId, e
@@ -192,4 +556,117 @@ public class ProductService {
         }
     }
 
+    /**
+     * Loads a product by id, timed as a database stage.
+     */
+    private Optional<Product> findById(Long id) {
+        return timeQuery("findById", () -> repository.findById(id));
+    }
+
+    /**
+     * Runs a database call timed as a database stage.
+     *
+     * <p>Statements run on behalf of a request are bounded by its deadline (see
+     * {@code DeadlineQueryTimeoutDataSource}); the resulting query timeout is reported as the exceeded deadline.</p>
+     */
+    private <T> T timeQuery(String operation, Supplier<T> query) {
+        try {
+            return stageMetrics.time(Stage.DB, operation, query);
+        } catch (QueryTimeoutException e) {
+            throw new DeadlineExceededException("Request deadline exceeded during database query " + operation);
+        }
+    }
+
+    /**
+     * Rejects page sizes outside of 1 and {@code products.page.max-size}.
+     */
+    private void checkPageSize(int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new InvalidRequestException("limit must be between 1 and " + maxPageSize);
+        }
+    }
+
+    /**
+     * Rejects multi-get requests above {@code products.batch.max-ids}.
+     */
+    private void checkBatchSize(List<Long> ids) {
+        if (ids.size() > maxBatchIds) {
+            throw new InvalidRequestException("At most " + maxBatchIds + " ids per request, got " + ids.size());
+        }
+    }
+
+    /**
+     * Copies the selected fields of one product, looking up its stock only if {@code quantity} is selected.
+     */
+    private Map<String, Object> select(ProductSnapshot product, ProductFields fields) {
+        if (!fields.includesStock()) {
+            return stageMetrics.time(Stage.MAPPING, "select", () -> fields.select(product, null, false, null));
+        }
+        StockLevel stock = safeGetStock(product.id());
+        return stageMetrics.time(Stage.MAPPING, "select",
+                () -> fields.select(product, stock.quantity(), stock.stale(), null));
+    }
+
+    /**
+     * Copies the selected fields of a list of products, resolving their stock with one bulk lookup only if
+     * {@code quantity} is selected.
+     */
+    private List<Map<String, Object>> select(List<? extends ProductProjection> products, ProductFields fields) {
+        if (!fields.includesStock()) {
+            return stageMetrics.time(Stage.MAPPING, "select", () -> products.stream()
+                    .map(p -> fields.select(p, null, false, null))
+                    .toList());
+        }
+        StockLookupResult stock = client.getStockQuantities(
+                products.stream().map(ProductProjection::id).toList()
+        );
+        return stageMetrics.time(Stage.MAPPING, "select", () -> products.stream()
+                .map(p -> fields.select(p, stock.quantity(p.id()), stock.isStale(p.id()), stock.failure(p.id())))
+                .toList());
+    }
+
+    /**
+     * Maps a product to its DTO and tags it.
+     */
+    private ETagged<ProductDto> tagged(ProductSnapshot product, StockLevel stock) {
+        return new ETagged<>(ETags.product(product, stock),
+                stageMetrics.time(Stage.MAPPING, "toDTO", () -> ProductMapper.toDTO(product, stock)));
+    }
+
+    /**
+     * Resolves the stock of a list of products with one bulk inventory lookup.
+     */
+    private StockLookupResult lookUpStock(List<Product> products) {
+        return client.getStockQuantities(
+                products.stream().map(Product::getId).toList()
+        );
+    }
+
+    /**
+     * Maps a list of products to DTOs, resolving their stock with one bulk inventory lookup.
+     *
+     * @param products the products to map
+     * @return the DTOs in the same order, with per-product stock errors where the lookup failed
+     */
+    private List<ProductDto> toDTOs(List<Product> products) {
+        return toDTOs(products, lookUpStock(products));
+    }
+
+    /**
+     * Maps a list of products to DTOs with the given stock.
+     *
+     * @param products the products to map
+     * @param stock    the result of the bulk stock lookup for these products
+     * @return the DTOs in the same order, with per-product stock errors where the lookup failed
+     */
+    private List<ProductDto> toDTOs(List<Product> products, StockLookupResult stock) {
+        return stageMetrics.time(Stage.MAPPING, "toDTOs", () -> products.stream()
+                .map(p -> {
+                    Integer quantity = stock.quantity(p.getId());
+                    return quantity != null
+                            ? ProductMapper.toDTO(p, new StockLevel(quantity, stock.isStale(p.getId())))
+                            : ProductMapper.toDTOWithoutStock(p, stock.failure(p.getId()));
+                }).toList());
+    }
+
 }
@@ -0,0 +1,415 @@
+package com.owr.product_service.service;
+
+import com.owr.product_service.controller.request.ProductWithQuantity;
+import com.owr.product_service.dto.ProductDto;
+import com.owr.product_service.dto.ProductImportResult;
+import com.owr.product_service.dto.ProductPage;
+import com.owr.product_service.exceptions.ConcurrentUpdateException;
+import com.owr.product_service.exceptions.InvalidRequestException;
+import com.owr.product_service.exceptions.NoSuchElementException;
+import com.owr.product_service.exceptions.PreconditionFailedException;
+import com.owr.product_service.mapper.ProductMapper;
+import com.owr.product_service.model.Product;
+import com.owr.product_service.model.ProductRow;
+import com.owr.product_service.repository.ReactiveProductRepository;
+import com.owr.product_service.service.cache.ProductCache;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.client.ReactiveInventoryClient;
+import com.owr.product_service.service.client.StockLevel;
+import com.owr.product_service.service.client.StockLookupResult;
+import com.owr.product_service.service.etag.ETagged;
+import com.owr.product_service.service.etag.ETags;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import com.owr.product_service.service.index.PriceIndex;
+import com.owr.product_service.service.reactive.ReactiveRequestContext;
+import com.owr.product_service.service.timing.Outcome;
+import com.owr.product_service.service.timing.Stage;
+import com.owr.product_service.service.timing.StageMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Non-blocking counterpart of {@link ProductService} and {@link ProductImportService}, used by the reactive mode.
+ *
+ * <p>Products are read and written over R2DBC ({@link ReactiveProductRepository}) and stock is looked up with
+ * {@link ReactiveInventoryClient}, so no request ever parks a thread. Everything around it is shared with the
+ * blocking mode: the {@link ProductCache}, the {@link PriceIndex}, the ETags, and the inventory outbox, whose
+ * entries are written in the product's transaction and sent by {@code InventoryOutboxDispatcher}. Changes are
+ * published as {@link ProductChangedEvent}s after commit, which keeps the caches and in-memory indexes current as
+ * in the blocking mode.</p>
+ *
+ * <p>Failures surface as the exceptions {@link ProductService} throws, so both modes answer with the same status
+ * codes.</p>
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveProductService {
+
+    /**
+     * Must match the {@code allocationSize} of the generators on {@code Product} and {@code InventoryOutboxEntry}.
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final ReactiveProductRepository repository;
+    private final ReactiveInventoryClient client;
+    private final ProductCache productCache;
+    private final PriceIndex priceIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionalOperator transactionalOperator;
+    private final StageMetrics stageMetrics;
+    private final PooledIdAllocator productIds;
+    private final PooledIdAllocator outboxIds;
+
+    /**
+     * Largest page size accepted by {@link #getProductPage(String, int)}.
+     */
+    @Value("${products.page.max-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Number of products read from the catalog stream before their stock is looked up and they are emitted.
+     */
+    @Value("${products.stream.chunk-size:500}")
+    private int streamChunkSize;
+
+    /**
+     * Number of items inserted per transaction by {@link #importProducts(Flux)}.
+     */
+    @Value("${products.import.chunk-size:1000}")
+    private int importChunkSize;
+
+    public ReactiveProductService(
+            ReactiveProductRepository repository,
+            ReactiveInventoryClient client,
+            ProductCache productCache,
+            PriceIndex priceIndex,
+            ApplicationEventPublisher eventPublisher,
+            @Qualifier("reactiveTransactionalOperator") TransactionalOperator transactionalOperator,
+            StageMetrics stageMetrics) {
+        this.repository = repository;
+        this.client = client;
+        this.productCache = productCache;
+        this.priceIndex = priceIndex;
+        this.eventPublisher = eventPublisher;
+        this.transactionalOperator = transactionalOperator;
+        this.stageMetrics = stageMetrics;
+        this.productIds = new PooledIdAllocator(repository::nextProductIdBlock, ALLOCATION_SIZE);
+        this.outboxIds = new PooledIdAllocator(repository::nextOutboxIdBlock, ALLOCATION_SIZE);
+    }
+
+    /**
+     * Streams the whole catalog in id order, enriched with stock.
+     *
+     * <p>Rows are collected into chunks of {@code products.stream.chunk-size}, each resolved with one bulk stock
+     * lookup. Demand flows back from the subscriber: one chunk is enriched at a time, and the next one is only
+     * read from the database once the response has taken the previous one, so a slow client holds back the
+     * query instead of filling the heap.</p>
+     *
+     * @return the {@link ProductDto}s ordered by id; products whose stock could not be resolved carry a
+     * {@link ProductDto#getStockError()}
+     */
+    public Flux<ProductDto> streamAllProducts() {
+        return repository.streamAllOrderById()
+                .buffer(streamChunkSize)
+                .concatMap(chunk -> client.getStockQuantities(chunk.stream().map(ProductRow::id).toList())
+                        .flatMapIterable(stock -> toDTOs(chunk, stock)), 1);
+    }
+
+    /**
+     * Retrieves one page of the catalog using keyset pagination, like {@link ProductService#getProductPage}.
+     *
+     * @param cursor the opaque cursor returned with the previous page, or {@code null} for the first page
+     * @param limit  the maximum number of products to return, between 1 and {@code products.page.max-size}
+     * @return the page of products with stock and the cursor of the next page
+     * @throws InvalidRequestException if the cursor is malformed or the limit is out of range
+     */
+    public Mono<ProductPage<ProductDto>> getProductPage(String cursor, int limit) {
+        return Mono.defer(() -> {
+            if (limit < 1 || limit > maxPageSize) {
+                return Mono.error(new InvalidRequestException("limit must be between 1 and " + maxPageSize));
+            }
+            long after = PageCursor.decode(cursor);
+            return db("findPage", repository.findPage(after, limit).collectList())
+                    .flatMap(rows -> client.getStockQuantities(rows.stream().map(ProductRow::id).toList())
+                            .map(stock -> new ProductPage<>(toDTOs(rows, stock), rows.size() < limit
+                                    ? null
+                                    : PageCursor.encode(rows.get(rows.size() - 1).id()))));
+        });
+    }
+
+    /**
+     * Finds a product by its id and enriches it with its stock, like {@link ProductService#findProductById(Long)}.
+     *
+     * @param id the product identifier
+     * @return the {@link ProductDto} with its ETag
+     * @throws NoSuchElementException if no product exists with the given id
+     */
+    public Mono<ETagged<ProductDto>> findProductById(Long id) {
+        return productCache.getById(id, loadById(id))
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Product not found: " + id)))
+                .flatMap(product -> client.getStock(id).map(stock -> tagged(product, stock)));
+    }
+
+    /**
+     * Finds a product by its name and enriches it with its stock.
+     *
+     * @param name the unique product name
+     * @return the {@link ProductDto} with its ETag
+     * @throws NoSuchElementException if no product exists with the given name
+     */
+    public Mono<ETagged<ProductDto>> findProductByName(String name) {
+        return productCache.getByName(name, db("findByName", repository.findByName(name).map(ProductRow::toSnapshot)))
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Product not found: " + name)))
+                .flatMap(product -> client.getStock(product.id()).map(stock -> tagged(product, stock)));
+    }
+
+    /**
+     * Returns the unit price of a product from the {@link PriceIndex}, reading products not (yet) in the index
+     * through the {@link ProductCache}.
+     *
+     * @param productId the product identifier
+     * @return the unit price, or {@code NaN} if the product has no price set
+     * @throws NoSuchElementException if no product exists with the given id
+     */
+    public Mono<Double> getUnitPrice(long productId) {
+        double indexed = priceIndex.get(productId);
+        if (!Double.isNaN(indexed)) {
+            return Mono.just(indexed);
+        }
+        return productCache.getById(productId, loadById(productId))
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Product not found: " + productId)))
+                .map(product -> product.price() != null ? product.price() : Double.NaN);
+    }
+
+    /**
+     * Adds a new product together with its inventory outbox entry in one transaction, like
+     * {@link ProductService#addProduct}.
+     *
+     * @param product  the product to be added
+     * @param quantity the initial stock quantity to be registered in the inventory
+     * @return the saved product as a {@link ProductDto}, with the given quantity
+     * @throws RuntimeException if a product with the same name already exists
+     */
+    public Mono<ProductDto> addProduct(Product product, int quantity) {
+        return db("findByName", repository.findByName(product.getName()))
+                .flatMap(existing -> Mono.<ProductRow>error(new RuntimeException("Product already exists")))
+                .switchIfEmpty(Mono.defer(() -> insert(product, quantity)))
+                .as(transactionalOperator::transactional)
+                .map(row -> {
+                    ProductSnapshot added = row.toSnapshot();
+                    eventPublisher.publishEvent(ProductChangedEvent.added(added));
+                    return ProductMapper.toDTO(added, quantity);
+                });
+    }
+
+    /**
+     * Applies the non-null fields of {@code patch} to a product, like {@link ProductService#updateProduct}.
+     *
+     * <p>The update statement is conditional on the version that was read, so a concurrent update in between is
+     * detected without a lock.</p>
+     *
+     * @param id      the identifier of the product to update
+     * @param patch   a {@link Product} whose non-null fields represent updates to apply
+     * @param ifMatch the {@code If-Match} header, or {@code null} to update whatever the current version is
+     * @return the updated product with its stock and new ETag
+     * @throws NoSuchElementException      if no product exists with the given {@code id}
+     * @throws PreconditionFailedException if {@code ifMatch} does not name the current version
+     * @throws ConcurrentUpdateException   if the product was changed concurrently and no {@code ifMatch} was given
+     * @throws RuntimeException            if the provided name already exists for a different product
+     */
+    public Mono<ETagged<ProductDto>> updateProduct(Long id, Product patch, String ifMatch) {
+        return db("findById", repository.findById(id))
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Product not found: " + id)))
+                .flatMap(existing -> {
+                    if (ifMatch != null && !ETags.matchesVersion(ifMatch, id, existing.version())) {
+                        return Mono.error(new PreconditionFailedException("Product " + id + " has been modified"));
+                    }
+                    Mono<Void> nameCheck = patch.getName() != null && !patch.getName().equals(existing.name())
+                            ? db("findByName", repository.findByName(patch.getName()))
+                            .flatMap(taken -> Mono.<Void>error(
+                                    new RuntimeException("Product name already exists: " + patch.getName())))
+                            : Mono.empty();
+                    return nameCheck.then(db("update", repository.updateIfVersion(id, existing.version(),
+                                    patch.getName() != null ? patch.getName() : existing.name(),
+                                    patch.getCategory() != null ? patch.getCategory() : existing.category(),
+                                    patch.getDescription() != null ? patch.getDescription() : existing.description(),
+                                    patch.getPrice() != null ? patch.getPrice() : existing.price())))
+                            .switchIfEmpty(Mono.error(() -> ifMatch != null
+                                    ? new PreconditionFailedException("Product " + id + " has been modified")
+                                    : new ConcurrentUpdateException("Product " + id + " was modified concurrently",
+                                    null)))
+                            .map(updated -> {
+                                ProductSnapshot after = updated.toSnapshot();
+                                eventPublisher.publishEvent(ProductChangedEvent.updated(existing.toSnapshot(), after));
+                                return after;
+                            });
+                })
+                .flatMap(after -> client.getStock(id).map(stock -> tagged(after, stock)));
+    }
+
+    /**
+     * Deletes a product by its identifier.
+     *
+     * @param id the product id to delete
+     * @return completes once the product is deleted
+     * @throws NoSuchElementException if no product exists with the given id
+     */
+    public Mono<Void> deleteProductById(Long id) {
+        return db("delete", repository.deleteReturning(id))
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Product not found: " + id)))
+                .doOnNext(deleted -> eventPublisher.publishEvent(ProductChangedEvent.deleted(deleted.toSnapshot())))
+                .then();
+    }
+
+    /**
+     * Imports products from a stream of items, like {@link ProductImportService#importProducts}.
+     *
+     * <p>Items are consumed {@code products.import.chunk-size} at a time, each chunk in its own transaction, and
+     * the next chunk is only requested from the request body once the previous one is committed. Rows are inserted
+     * one statement at a time; R2DBC repositories offer no JDBC-style batching.</p>
+     *
+     * @param items the products to import with their initial quantity, decoded from the request body as they
+     *              arrive
+     * @return counts of imported, duplicate and rejected items and the first error messages
+     */
+    public Mono<ProductImportResult> importProducts(Flux<ProductWithQuantity> items) {
+        ProductImportService.Tally tally = new ProductImportService.Tally();
+        return items
+                .onErrorResume(e -> {
+                    tally.error("Malformed input after item " + tally.received + ": " + e.getMessage());
+                    return Mono.empty();
+                })
+                .filter(item -> {
+                    tally.received++;
+                    String problem = ProductImportService.validate(item);
+                    if (problem != null) {
+                        tally.rejected++;
+                        tally.error("Item " + tally.received + ": " + problem);
+                    }
+                    return problem == null;
+                })
+                .buffer(importChunkSize)
+                .concatMap(chunk -> importChunk(chunk, tally), 0)
+                .then(Mono.fromSupplier(tally::toResult));
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    /**
+     * Inserts a product and its outbox entry; must run inside a transaction.
+     */
+    private Mono<ProductRow> insert(Product product, int quantity) {
+        return insert(product, quantity, true);
+    }
+
+    /**
+     * Inserts a product and its outbox entry; must run inside a transaction. Imports pass {@code bounded = false}:
+     * like the blocking import, an import is not cut off by the request deadline once it has started.
+     */
+    private Mono<ProductRow> insert(Product product, int quantity, boolean bounded) {
+        return productIds.nextId()
+                .flatMap(id -> db("save", bounded, repository.insert(id, product.getName(), product.getCategory(),
+                        product.getDescription(), product.getPrice())))
+                .flatMap(row -> outboxIds.nextId()
+                        .flatMap(outboxId -> db("saveOutbox", bounded,
+                                repository.insertOutboxEntry(outboxId, row.id(), quantity, Instant.now())))
+                        .thenReturn(row));
+    }
+
+    /**
+     * Inserts the new products of one import chunk and their outbox entries in one transaction.
+     */
+    private Mono<Void> importChunk(List<ProductWithQuantity> items, ProductImportService.Tally tally) {
+        Map<String, ProductWithQuantity> chunk = new LinkedHashMap<>();
+        for (ProductWithQuantity item : items) {
+            if (chunk.putIfAbsent(item.product().getName(), item) != null) {
+                tally.duplicates++;
+            }
+        }
+        return repository.findExistingNames(chunk.keySet())
+                .collect(HashSet<String>::new, HashSet::add)
+                .flatMapMany(existing -> Flux.fromIterable(chunk.values())
+                        .filter(item -> {
+                            boolean duplicate = existing.contains(item.product().getName());
+                            if (duplicate) {
+                                tally.duplicates++;
+                            }
+                            return !duplicate;
+                        }))
+                .concatMap(item -> insert(item.product(), item.quantity(), false))
+                .collectList()
+                .as(transactionalOperator::transactional)
+                .doOnNext(rows -> {
+                    tally.imported += rows.size();
+                    rows.forEach(row -> eventPublisher.publishEvent(ProductChangedEvent.added(row.toSnapshot())));
+                })
+                .then();
+    }
+
+    /**
+     * Reads a product by id for the {@link ProductCache}.
+     */
+    private Mono<ProductSnapshot> loadById(Long id) {
+        return db("findById", repository.findById(id).map(ProductRow::toSnapshot));
+    }
+
+    /**
+     * Bounds a database call by the request deadline and times it as a database stage.
+     */
+    private <T> Mono<T> db(String operation, Mono<T> query) {
+        return db(operation, true, query);
+    }
+
+    /**
+     * Times a database call as a database stage, bounded by the request deadline if {@code bounded}.
+     */
+    private <T> Mono<T> db(String operation, boolean bounded, Mono<T> query) {
+        Mono<T> timed = Mono.defer(() -> {
+            long start = System.nanoTime();
+            return query
+                    .doOnSuccess(result -> stageMetrics.record(Stage.DB, operation, Outcome.SUCCESS,
+                            System.nanoTime() - start))
+                    .doOnError(e -> stageMetrics.record(Stage.DB, operation, Outcome.ERROR,
+                            System.nanoTime() - start));
+        });
+        return bounded ? ReactiveRequestContext.withinDeadline("database query", timed) : timed;
+    }
+
+    /**
+     * Maps a product to its DTO and tags it.
+     */
+    private ETagged<ProductDto> tagged(ProductSnapshot product, StockLevel stock) {
+        return new ETagged<>(ETags.product(product, stock),
+                stageMetrics.time(Stage.MAPPING, "toDTO", () -> ProductMapper.toDTO(product, stock)));
+    }
+
+    /**
+     * Maps rows to DTOs with the result of their bulk stock lookup.
+     */
+    private List<ProductDto> toDTOs(List<ProductRow> rows, StockLookupResult stock) {
+        return stageMetrics.time(Stage.MAPPING, "toDTOs", () -> rows.stream()
+                .map(row -> {
+                    Integer quantity = stock.quantity(row.id());
+                    if (quantity != null) {
+                        return ProductMapper.toDTO(row.toSnapshot(), new StockLevel(quantity, stock.isStale(row.id())));
+                    }
+                    ProductDto dto = ProductMapper.toDTO(row.toSnapshot(), 0);
+                    dto.setStockError(stock.failure(row.id()));
+                    return dto;
+                }).toList());
+    }
+}
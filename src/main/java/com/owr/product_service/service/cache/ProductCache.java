@@ -0,0 +1,182 @@
+package com.owr.product_service.service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.owr.product_service.model.Product;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of {@link ProductSnapshot}s addressable by product id and by product name.
+ *
+ * <p>Both keys point to the same snapshot. The cache is bounded by {@code products.cache.max-bytes}
+ * using {@link ProductSnapshot#estimatedBytes()} as weight, so a few products with very long descriptions
+ * cannot blow the budget the way an entry count would allow.</p>
+ *
+ * <p>Entries are invalidated from {@link ProductChangedEvent}s once the change is committed; on a rename
+ * both the old and the new name are dropped. A load that overlaps an invalidation may have read the row before
+ * the change committed, so its result is returned but not cached. {@code products.cache.ttl} is a safety net for
+ * changes made outside of this instance.</p>
+ */
+@Component
+public class ProductCache {
+
+    private final boolean enabled;
+    private final Cache<Object, ProductSnapshot> cache;
+
+    /**
+     * Incremented before every invalidation; a load only caches its result if this did not move while it ran.
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * Cache key of a product looked up by id.
+     */
+    private record IdKey(Long id) {
+    }
+
+    /**
+     * Cache key of a product looked up by name.
+     */
+    private record NameKey(String name) {
+    }
+
+    public ProductCache(@Value("${products.cache.enabled:true}") boolean enabled,
+                        @Value("${products.cache.max-bytes:64MB}") DataSize maxBytes,
+                        @Value("${products.cache.ttl:10m}") Duration ttl,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes.toBytes())
+                .weigher((Object key, ProductSnapshot snapshot) -> keyBytes(key) + snapshot.estimatedBytes())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "products");
+    }
+
+    /**
+     * Returns the product with the given id, loading it with {@code loader} on a miss.
+     *
+     * @param id     the product identifier
+     * @param loader loads the entity from the database
+     * @return the snapshot, or empty if no such product exists (misses are not cached)
+     */
+    public Optional<ProductSnapshot> getById(Long id, Supplier<Optional<Product>> loader) {
+        return get(new IdKey(id), loader);
+    }
+
+    /**
+     * Returns the product with the given name, loading it with {@code loader} on a miss.
+     *
+     * @param name   the unique product name
+     * @param loader loads the entity from the database
+     * @return the snapshot, or empty if no such product exists (misses are not cached)
+     */
+    public Optional<ProductSnapshot> getByName(String name, Supplier<Optional<Product>> loader) {
+        return get(new NameKey(name), loader);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getById(Long, Supplier)} for the reactive mode.
+     *
+     * @param id     the product identifier
+     * @param loader reads the product from the database when subscribed
+     * @return the snapshot, or empty if no such product exists (misses are not cached)
+     */
+    public Mono<ProductSnapshot> getById(Long id, Mono<ProductSnapshot> loader) {
+        return getReactive(new IdKey(id), loader);
+    }
+
+    /**
+     * Non-blocking variant of {@link #getByName(String, Supplier)} for the reactive mode.
+     *
+     * @param name   the unique product name
+     * @param loader reads the product from the database when subscribed
+     * @return the snapshot, or empty if no such product exists (misses are not cached)
+     */
+    public Mono<ProductSnapshot> getByName(String name, Mono<ProductSnapshot> loader) {
+        return getReactive(new NameKey(name), loader);
+    }
+
+    /**
+     * Drops every key of the products touched by a committed change.
+     *
+     * @param event the change published by the service
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidations.incrementAndGet();
+        invalidate(event.before());
+        invalidate(event.after());
+    }
+
+    private Optional<ProductSnapshot> get(Object key, Supplier<Optional<Product>> loader) {
+        if (!enabled) {
+            return loader.get().map(ProductSnapshot::of);
+        }
+        ProductSnapshot cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long stamp = invalidations.get();
+        Optional<ProductSnapshot> loaded = loader.get().map(ProductSnapshot::of);
+        loaded.ifPresent(snapshot -> put(snapshot, stamp));
+        return loaded;
+    }
+
+    private Mono<ProductSnapshot> getReactive(Object key, Mono<ProductSnapshot> loader) {
+        if (!enabled) {
+            return loader;
+        }
+        return Mono.defer(() -> {
+            ProductSnapshot cached = cache.getIfPresent(key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long stamp = invalidations.get();
+            return loader.doOnNext(snapshot -> put(snapshot, stamp));
+        });
+    }
+
+    /**
+     * Caches a snapshot loaded when {@link #invalidations} was {@code stamp}, unless an invalidation has run since.
+     * An invalidation between the check and the puts may miss the new entries, so they are checked once more and
+     * dropped again if needed.
+     */
+    private void put(ProductSnapshot snapshot, long stamp) {
+        if (invalidations.get() != stamp) {
+            return;
+        }
+        cache.put(new IdKey(snapshot.id()), snapshot);
+        cache.put(new NameKey(snapshot.name()), snapshot);
+        if (invalidations.get() != stamp) {
+            invalidate(snapshot);
+        }
+    }
+
+    private void invalidate(ProductSnapshot snapshot) {
+        if (snapshot == null) {
+            return;
+        }
+        cache.invalidate(new IdKey(snapshot.id()));
+        cache.invalidate(new NameKey(snapshot.name()));
+    }
+
+    private static int keyBytes(Object key) {
+        return key instanceof NameKey nameKey
+                ? 16 + ProductSnapshot.stringBytes(nameKey.name())
+                : 16 + 16;
+    }
+}
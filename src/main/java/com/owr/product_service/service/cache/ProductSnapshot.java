@@ -0,0 +1,62 @@
+package com.owr.product_service.service.cache;
+
+import com.owr.product_service.model.Product;
+import com.owr.product_service.repository.ProductProjection;
+
+/**
+ * Immutable copy of a {@link Product} row, safe to share between threads and to keep in caches.
+ *
+ * <p>Unlike the managed entity it cannot be modified by accident or lazily attached to a persistence context.</p>
+ *
+ * @param id          the product identifier
+ * @param name        the unique product name
+ * @param category    the product category
+ * @param description the product description
+ * @param price       the unit price
+ * @param version     the optimistic-locking version of the row
+ */
+public record ProductSnapshot(Long id, String name, String category, String description, Double price,
+                              Long version) implements ProductProjection {
+
+    /**
+     * Rough per-object overhead used by {@link #estimatedBytes()}: object header plus fields,
+     * and the boxed id, price and version.
+     */
+    private static final int FIXED_BYTES = 40 + 16 + 16 + 16;
+
+    /**
+     * Copies the current state of a product entity.
+     *
+     * @param product the entity to copy
+     * @return the snapshot
+     */
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(
+                product.getId(),
+                product.getName(),
+                product.getCategory(),
+                product.getDescription(),
+                product.getPrice(),
+                product.getVersion()
+        );
+    }
+
+    /**
+     * Estimates the heap retained by this snapshot, used to bound caches by bytes rather than entries.
+     *
+     * @return the estimated size in bytes
+     */
+    public int estimatedBytes() {
+        return FIXED_BYTES + stringBytes(name) + stringBytes(category) + stringBytes(description);
+    }
+
+    /**
+     * Estimates the heap retained by a string: header, backing array header and up to two bytes per char.
+     *
+     * @param value the string, may be {@code null}
+     * @return the estimated size in bytes
+     */
+    static int stringBytes(String value) {
+        return value == null ? 0 : 40 + 2 * value.length();
+    }
+}
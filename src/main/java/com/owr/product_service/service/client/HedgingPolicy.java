@@ -0,0 +1,208 @@
+package com.owr.product_service.service.client;
+
+import com.owr.product_service.exceptions.DeadlineExceededException;
+import com.owr.product_service.service.deadline.Deadline;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Request hedging for single inventory lookups.
+ *
+ * <p>The call is started on the {@code hedgingExecutor}. If it has not answered after the hedge delay, a second
+ * identical call is sent and the first successful answer wins. The delay is the
+ * {@code inventory.hedging.percentile} of recently observed call latencies, but at least
+ * {@code inventory.hedging.min-delay}, so only the slow tail gets a second call.</p>
+ *
+ * <p>Extra load is capped by a token budget. Every call earns {@code inventory.hedging.budget-percent}/100 of a
+ * token and a hedge costs one token, so at most that share of calls is hedged, even when the inventory service is
+ * slow across the board.</p>
+ *
+ * <p>The total wait is bounded by the request {@link Deadline}, if any.</p>
+ *
+ * <p>Metrics: {@code inventory.hedging.requests{outcome=sent|budget_exhausted}},
+ * {@code inventory.hedging.wins{winner=primary|hedge}}.</p>
+ */
+@Component
+public class HedgingPolicy {
+
+    private static final int WINDOW = 512;
+    private static final long RECOMPUTE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    private static final long TOKEN = 1_000;
+    private static final long MAX_TOKENS = 10 * TOKEN;
+
+    private final boolean enabled;
+    private final Executor executor;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final long tokensPerCall;
+
+    /**
+     * Ring buffer of recent call latencies; writes may race, which only blurs the estimate.
+     */
+    private final long[] latencies = new long[WINDOW];
+    private final AtomicInteger latencyCursor = new AtomicInteger();
+    private final AtomicLong tokens = new AtomicLong(MAX_TOKENS);
+    private volatile long hedgeDelayNanos;
+    private volatile long delayComputedAtNanos;
+
+    private final Counter hedgesSent;
+    private final Counter hedgesSkipped;
+    private final Counter primaryWins;
+    private final Counter hedgeWins;
+
+    public HedgingPolicy(@Value("${inventory.hedging.enabled:true}") boolean enabled,
+                         @Value("${inventory.hedging.percentile:95}") double percentile,
+                         @Value("${inventory.hedging.min-delay:20ms}") Duration minDelay,
+                         @Value("${inventory.hedging.budget-percent:10}") int budgetPercent,
+                         @Qualifier("hedgingExecutor") Executor executor,
+                         MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.executor = executor;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay.toNanos();
+        this.hedgeDelayNanos = minDelay.toNanos();
+        this.tokensPerCall = TOKEN * budgetPercent / 100;
+        this.hedgesSent = meterRegistry.counter("inventory.hedging.requests", "outcome", "sent");
+        this.hedgesSkipped = meterRegistry.counter("inventory.hedging.requests", "outcome", "budget_exhausted");
+        this.primaryWins = meterRegistry.counter("inventory.hedging.wins", "winner", "primary");
+        this.hedgeWins = meterRegistry.counter("inventory.hedging.wins", "winner", "hedge");
+    }
+
+    /**
+     * Runs {@code call}, hedging it if it is slow, and waits at most until {@code deadline}.
+     *
+     * @param call     the idempotent call to run
+     * @param deadline the request deadline, or {@code null} for none
+     * @return the first successful result
+     * @throws DeadlineExceededException if the deadline passes before any call answers
+     */
+    public <T> T execute(Supplier<T> call, Deadline deadline) {
+        earnToken();
+        if (!enabled) {
+            return timed(call);
+        }
+
+        CompletableFuture<T> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(() -> timed(call), executor);
+        } catch (TaskRejectedException e) {
+            // Executor saturated: don't add more load, just call on this thread
+            return timed(call);
+        }
+
+        long hedgeAfter = currentHedgeDelay();
+        if (deadline != null) {
+            hedgeAfter = Math.min(hedgeAfter, Math.max(0L, deadline.remainingNanos()));
+        }
+        try {
+            return await(primary, hedgeAfter);
+        } catch (TimeoutException slow) {
+            if (deadline != null && deadline.isExpired()) {
+                throw new DeadlineExceededException("Request deadline exceeded waiting for inventory");
+            }
+        }
+
+        CompletableFuture<T> hedge = null;
+        if (tryTakeToken()) {
+            try {
+                hedge = CompletableFuture.supplyAsync(() -> timed(call), executor);
+                hedgesSent.increment();
+            } catch (TaskRejectedException e) {
+                // Fall through and keep waiting for the primary
+            }
+        } else {
+            hedgesSkipped.increment();
+        }
+
+        try {
+            CompletableFuture<T> winner = hedge != null ? firstSuccessful(primary, hedge) : primary;
+            T result = await(winner, deadline != null ? Math.max(0L, deadline.remainingNanos()) : Long.MAX_VALUE);
+            boolean primaryAnswered = primary.isDone() && !primary.isCompletedExceptionally();
+            (primaryAnswered ? primaryWins : hedgeWins).increment();
+            return result;
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Request deadline exceeded waiting for inventory");
+        }
+    }
+
+    private <T> T timed(Supplier<T> call) {
+        long start = System.nanoTime();
+        T result = call.get();
+        latencies[Math.floorMod(latencyCursor.getAndIncrement(), WINDOW)] = System.nanoTime() - start;
+        return result;
+    }
+
+    private static <T> T await(CompletableFuture<T> future, long timeoutNanos) throws TimeoutException {
+        try {
+            return future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Completes with the first successful result, or exceptionally once both calls have failed.
+     */
+    private static <T> CompletableFuture<T> firstSuccessful(CompletableFuture<T> a, CompletableFuture<T> b) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> candidate : Arrays.asList(a, b)) {
+            candidate.whenComplete((value, error) -> {
+                if (error == null) {
+                    result.complete(value);
+                } else if (failures.incrementAndGet() == 2) {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Returns the hedge delay, recomputing it from the latency window at most once per second.
+     */
+    private long currentHedgeDelay() {
+        long now = System.nanoTime();
+        if (now - delayComputedAtNanos > RECOMPUTE_INTERVAL_NANOS) {
+            delayComputedAtNanos = now;
+            int samples = Math.min(latencyCursor.get(), WINDOW);
+            if (samples > 0) {
+                long[] sorted = Arrays.copyOf(latencies, samples);
+                Arrays.sort(sorted);
+                int index = (int) Math.min(samples - 1, Math.ceil(percentile / 100.0 * samples) - 1);
+                hedgeDelayNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+            }
+        }
+        return hedgeDelayNanos;
+    }
+
+    private void earnToken() {
+        tokens.getAndUpdate(current -> Math.min(MAX_TOKENS, current + tokensPerCall));
+    }
+
+    private boolean tryTakeToken() {
+        while (true) {
+            long current = tokens.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (tokens.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package com.owr.product_service.service.client;
 
 
+import com.owr.product_service.exceptions.DeadlineExceededException;
 import com.owr.product_service.exceptions.InventoryUnavailableException;
+import com.owr.product_service.service.deadline.Deadline;
+import com.owr.product_service.service.deadline.DeadlineContext;
+import com.owr.product_service.service.timing.Outcome;
+import com.owr.product_service.service.timing.Stage;
+import com.owr.product_service.service.timing.StageMetrics;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import jakarta.servlet.http.HttpServletRequest;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClientResponseException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
-import org.springframework.web.util.UriComponentsBuilder;
 
-import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
 
 /*=================================================================================
  * Project: product-service
@@ -23,130 +31,373 @@ import java.net.URI;
  * Description: HTTP client to communicate with inventory
  =================================================================================*/
 @Component
-@RequiredArgsConstructor
 public class InventoryClient {
 
     /**
-     * The HTTP client used to send requests to external services.
+     * The transport used to reach the inventory service (REST or local stand-in).
      */
-    private final RestTemplate restTemplate;
+    private final InventoryGateway gateway;
 
+    /**
+     * Executor on which the chunks of a bulk stock lookup are sent concurrently.
+     */
+    private final Executor inventoryExecutor;
 
     /**
-     * The base URL of the inventory service.
-     * *
-     * This value is injected from the application's configuration (e.g., `application.properties` or `application.yml`)
-     * using the property key {@code inventory.service.port}.
+     * Short-lived stock cache shared by single and bulk lookups.
      */
-    @Value("${inventory.service.port}")
-    private String inventoryServiceUrl;
+    private final StockCache stockCache;
 
-    // ================================= RECORD  ======================================
+    /**
+     * Circuit breaker around every inventory call; see {@code InventoryResilienceConfig}.
+     */
+    private final CircuitBreaker circuitBreaker;
 
     /**
-     * Represents a request to check or update inventory for a specific product and quantity.
-     *
-     * @param productId the ID of the product
-     * @param quantity  the quantity of the product involved in the inventory operation
+     * Last quantities read from the inventory service, served while it is failing.
+     */
+    private final LastKnownStock lastKnownStock;
+
+    /**
+     * Hedges slow single lookups and bounds them by the request deadline.
+     */
+    private final HedgingPolicy hedgingPolicy;
+
+    /**
+     * Times every public operation ({@code inventory.requests}) and counts failed calls
+     * ({@code inventory.requests.failures}, tagged with the reason).
+     */
+    private final StageMetrics stageMetrics;
+
+    /**
+     * Maximum number of product ids sent to the inventory service in a single bulk call.
+     */
+    @Value("${inventory.batch.chunk-size:200}")
+    private int chunkSize;
+
+    /**
+     * Bearer token sent by background work that runs outside of a request (e.g. the inventory outbox);
+     * empty to send no Authorization header.
      */
-    public record InventoryRequest(Long productId, int quantity) {
+    @Value("${inventory.service.token:}")
+    private String serviceToken;
+
+    public InventoryClient(InventoryGateway gateway,
+                           @Qualifier("inventoryExecutor") Executor inventoryExecutor,
+                           StockCache stockCache,
+                           CircuitBreaker inventoryCircuitBreaker,
+                           LastKnownStock lastKnownStock,
+                           HedgingPolicy hedgingPolicy,
+                           StageMetrics stageMetrics) {
+        this.gateway = gateway;
+        this.inventoryExecutor = inventoryExecutor;
+        this.stockCache = stockCache;
+        this.circuitBreaker = inventoryCircuitBreaker;
+        this.lastKnownStock = lastKnownStock;
+        this.hedgingPolicy = hedgingPolicy;
+        this.stageMetrics = stageMetrics;
     }
 
     // ==================================================================================
 
     /**
-     * Extracts the Authorization token from the current HTTP request and
-     * builds an {@link HttpHeaders} object with required headers.
+     * Extracts the Authorization token from the current HTTP request.
      *
      * <p>This method is typically used when forwarding requests to other services
-     * while preserving the user's access token (e.g., in microservice-to-microservice communication).</p>
+     * while preserving the user's access token (e.g., in microservice-to-microservice communication).
+     * It must be called on the request thread; the value is then handed to worker threads explicitly.
+     * Outside of a request the configured {@code inventory.service.token} is used.</p>
      *
-     * @return an {@link HttpHeaders} object containing the Authorization header and content type set to JSON.
+     * @return the Authorization header value, or {@code null} if there is none
      */
-
-    private HttpHeaders getAuthHeaders(){
+    private String currentAuthorization() {
         // Access the current HTTP request from the request context ( bound to the current thread)
-        ServletRequestAttributes attributes =
-                (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            return serviceToken.isBlank() ? null : "Bearer " + serviceToken;
+        }
 
         // Retrieve the actual HttpServletRequest object (contains headers)
-        HttpServletRequest currentRequest = attributes.getRequest();
+        HttpServletRequest currentRequest = servletAttributes.getRequest();
 
         // Get the Authorization token from the current request's headers
-        String token = currentRequest.getHeader("Authorization");
-
-        // Create new headers with JSON content type and forward the Authorization token
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("Authorization", token);
-
-        return headers;
+        return currentRequest.getHeader(HttpHeaders.AUTHORIZATION);
     }
 
     /**
-     * Retrieves the available stock quantity for a given product
-     * by making an HTTP GET request to the inventory service.
+     * Retrieves the available stock quantity for a given product from the inventory service.
+     *
+     * <p>Served from the {@link StockCache} when possible; may therefore be up to
+     * {@code inventory.cache.ttl} old. Calls go through the circuit breaker; when the call fails or the breaker
+     * is open, the last known quantity is returned flagged as stale. A slow call is hedged (see
+     * {@link HedgingPolicy}) and waited for no longer than the request deadline.</p>
      *
      * @param productId the unique identifier of the product
-     * @return the stock quantity from the inventory service, or 0 if unavailable
-     * @throws InventoryUnavailableException if the inventory service is unreachable or returns an error
+     * @return the live or last known stock level
+     * @throws InventoryUnavailableException if the lookup fails and no last known quantity exists
+     * @throws DeadlineExceededException     if the deadline passes and no last known quantity exists
      */
-    public int getStockQuantity(Long productId) {
+    public StockLevel getStock(Long productId) {
+        DeadlineContext.check("inventory lookup");
+        long start = System.nanoTime();
+        String authorization = currentAuthorization();
+        try {
+            StockLevel stock = StockLevel.live(stockCache.get(productId, id -> fetchLive(id, authorization)));
+            stageMetrics.record(Stage.INVENTORY, "getStock", Outcome.SUCCESS, System.nanoTime() - start);
+            return stock;
+        } catch (RuntimeException e) {
+            stageMetrics.countFailure(Stage.INVENTORY, "getStock", failureReason(e));
+            Integer lastKnown = lastKnownStock.fallback(productId);
+            if (lastKnown != null) {
+                stageMetrics.record(Stage.INVENTORY, "getStock", Outcome.STALE, System.nanoTime() - start);
+                return StockLevel.lastKnown(lastKnown);
+            }
+            stageMetrics.record(Stage.INVENTORY, "getStock", Outcome.ERROR, System.nanoTime() - start);
+            if (e instanceof InventoryUnavailableException || e instanceof DeadlineExceededException) {
+                throw e;
+            }
+            throw new InventoryUnavailableException("Inventory lookup failed for product " + productId, e);
+        }
+    }
 
-        // Wrap the authorization headers in an HttpEntity (no request body needed for GET)
-        HttpEntity<Void> entity = new HttpEntity<>(getAuthHeaders());
+    /**
+     * Retrieves the available stock for many products at once.
+     *
+     * <p>The ids are de-duplicated and split into chunks of {@code inventory.batch.chunk-size}; the chunks
+     * are sent concurrently on the inventory executor. A failing chunk or product is reported in
+     * {@link StockLookupResult#failures()} instead of failing the whole lookup, unless a last known quantity
+     * can be served (reported in {@link StockLookupResult#stale()}). Ids with a fresh entry in the
+     * {@link StockCache} are not sent at all. Chunks still outstanding when the request deadline passes, and
+     * chunks the saturated executor rejects, are reported as failures (or served stale) rather than waited for.</p>
+     *
+     * @param productIds the product identifiers to look up
+     * @return the resolved quantities and the per-id failures
+     */
+    public StockLookupResult getStockQuantities(Collection<Long> productIds) {
+        long start = System.nanoTime();
+        Set<Long> requested = new LinkedHashSet<>(productIds);
+        Map<Long, Integer> cached = stockCache.getAllFresh(requested);
+        List<Long> ids = new ArrayList<>(requested.size());
+        for (Long id : requested) {
+            if (!cached.containsKey(id)) {
+                ids.add(id);
+            }
+        }
+        if (ids.isEmpty()) {
+            stageMetrics.record(Stage.INVENTORY, "getStockQuantities", Outcome.SUCCESS, System.nanoTime() - start);
+            return new StockLookupResult(cached, Map.of(), Set.of());
+        }
 
-        // 2. Build the full URL for the inventory lookup in a safe way:
-        URI uri = UriComponentsBuilder
-                .fromHttpUrl(inventoryServiceUrl)   // e.g. "http://inventory-service:8687/api/inventory/"
-                .pathSegment("{id}")                // appends /{id} safely
-                .build(productId);                   // replaces {id} with the actual value
+        // Resolve the token and deadline on the request thread, the chunks run on worker threads
+        DeadlineContext.check("inventory lookup");
+        String authorization = currentAuthorization();
+        Deadline deadline = DeadlineContext.current();
 
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
 
-        try {
-        // Send GET request to inventory service: /{productId}
-        ResponseEntity<Integer> response = restTemplate.exchange(
-                uri, // Full URL for the product stock lookup
-                HttpMethod.GET, // HTTP GET method
-                entity, // Headers including Authorization
-                Integer.class // Expecting an Integer response (stock quantity)
-        );
-        // Return the quantity if not null, otherwise default to 0
-        return response.getBody() != null ? response.getBody() : 0;
-        } catch (RestClientResponseException e) {
-            // 5b. Thrown when the service returns a 4xx or 5xx status code.
-            throw new InventoryUnavailableException(
-                    "Inventory error " + e.getRawStatusCode() + " at " + uri, e
-            );
+        List<CompletableFuture<Map<Long, Integer>>> futures = new ArrayList<>(chunks.size());
+        for (List<Long> chunk : chunks) {
+            futures.add(submitChunk(() -> circuitBreaker.executeSupplier(
+                    () -> gateway.fetchStocks(chunk, authorization))));
         }
+
+        Map<Long, Integer> quantities = new HashMap<>(requested.size() * 2);
+        Map<Long, String> failures = new HashMap<>();
+        Set<Long> stale = new HashSet<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            List<Long> chunk = chunks.get(i);
+            try {
+                Map<Long, Integer> chunkResult = awaitChunk(futures.get(i), deadline);
+                for (Long id : chunk) {
+                    Integer quantity = chunkResult.get(id);
+                    if (quantity != null) {
+                        quantities.put(id, quantity);
+                    } else {
+                        failures.put(id, "Inventory returned no stock for product " + id);
+                    }
+                }
+            } catch (CompletionException e) {
+                stageMetrics.countFailure(Stage.INVENTORY, "getStockQuantities", failureReason(e));
+                String message = "Inventory lookup failed: " + e.getCause().getMessage();
+                for (Long id : chunk) {
+                    failures.put(id, message);
+                }
+            } catch (TimeoutException e) {
+                stageMetrics.countFailure(Stage.INVENTORY, "getStockQuantities", failureReason(e));
+                futures.get(i).cancel(false);
+                for (Long id : chunk) {
+                    failures.put(id, "Request deadline exceeded waiting for inventory");
+                }
+            }
+        }
+        stockCache.putAll(quantities);
+        lastKnownStock.recordAll(quantities);
+
+        // Degraded mode: serve the last known quantity where the live lookup failed
+        failures.keySet().removeIf(id -> {
+            Integer lastKnown = lastKnownStock.fallback(id);
+            if (lastKnown == null) {
+                return false;
+            }
+            quantities.put(id, lastKnown);
+            stale.add(id);
+            return true;
+        });
+        quantities.putAll(cached);
+        Outcome outcome = !failures.isEmpty() ? Outcome.PARTIAL : stale.isEmpty() ? Outcome.SUCCESS : Outcome.STALE;
+        stageMetrics.record(Stage.INVENTORY, "getStockQuantities", outcome, System.nanoTime() - start);
+        return new StockLookupResult(quantities, failures, stale);
     }
 
     /**
-     * Sends a POST request to the inventory service to create an inventory record
-     * for the specified product with the given initial quantity.
+     * Creates an inventory record for the specified product with the given initial quantity.
      *
      * <p>This method is typically called right after a new product is created,
-     * ensuring that its initial stock is registered in the external inventory system.</p>
-     *
-     * <p>The request includes authentication headers and a request body containing the product ID
-     * and quantity, wrapped inside an {@link InventoryRequest} object.</p>
+     * ensuring that its initial stock is registered in the external inventory system.
+     * Any cached stock for the product is dropped.</p>
      *
      * @param productId the ID of the product to register in the inventory
      * @param quantity  the initial stock quantity for the product
      */
     public void createInventory(Long productId, int quantity) {
+        String authorization = currentAuthorization();
+        try {
+            stageMetrics.run(Stage.INVENTORY, "createInventory", () -> circuitBreaker.executeRunnable(
+                    () -> gateway.createInventory(productId, quantity, authorization)));
+        } catch (RuntimeException e) {
+            stageMetrics.countFailure(Stage.INVENTORY, "createInventory", failureReason(e));
+            throw e;
+        }
+        stockCache.invalidate(productId);
+        lastKnownStock.record(productId, quantity);
+    }
+
+    /**
+     * Creates the inventory records for many newly added products.
+     *
+     * <p>The products are split into chunks of {@code inventory.batch.chunk-size} that are sent concurrently on
+     * the inventory executor, one bulk call per chunk. A failing chunk or product, including a chunk the saturated
+     * executor rejects, is reported instead of failing the whole operation. Cached stock of the created products is
+     * dropped.</p>
+     *
+     * @param quantities initial stock quantity per product id
+     * @return error message per product id whose record could not be created; empty if all were created
+     */
+    public Map<Long, String> createInventories(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return Map.of();
+        }
+        long start = System.nanoTime();
+        String authorization = currentAuthorization();
+
+        List<Map<Long, Integer>> chunks = new ArrayList<>();
+        Map<Long, Integer> current = new LinkedHashMap<>();
+        for (Map.Entry<Long, Integer> entry : quantities.entrySet()) {
+            current.put(entry.getKey(), entry.getValue());
+            if (current.size() == chunkSize) {
+                chunks.add(current);
+                current = new LinkedHashMap<>();
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+
+        List<CompletableFuture<Map<Long, String>>> futures = new ArrayList<>(chunks.size());
+        for (Map<Long, Integer> chunk : chunks) {
+            futures.add(submitChunk(() -> circuitBreaker.executeSupplier(
+                    () -> gateway.createInventories(chunk, authorization))));
+        }
+
+        Map<Long, String> failures = new HashMap<>();
+        for (int i = 0; i < chunks.size(); i++) {
+            Map<Long, Integer> chunk = chunks.get(i);
+            try {
+                failures.putAll(futures.get(i).join());
+            } catch (CompletionException e) {
+                stageMetrics.countFailure(Stage.INVENTORY, "createInventories", failureReason(e));
+                String message = "Inventory creation failed: " + e.getCause().getMessage();
+                for (Long id : chunk.keySet()) {
+                    failures.put(id, message);
+                }
+            }
+            chunk.forEach((id, quantity) -> {
+                if (!failures.containsKey(id)) {
+                    stockCache.invalidate(id);
+                    lastKnownStock.record(id, quantity);
+                }
+            });
+        }
+        stageMetrics.record(Stage.INVENTORY, "createInventories",
+                failures.isEmpty() ? Outcome.SUCCESS : Outcome.PARTIAL, System.nanoTime() - start);
+        return failures;
+    }
 
-        // Wrap the inventory request and authentication headers into an HttpEntity
-        HttpEntity<InventoryRequest> entity =
-                new HttpEntity<>(new InventoryRequest(productId, quantity), getAuthHeaders());
-
-        // Send a POST request to the inventory service to create the inventory record
-        restTemplate.exchange(
-                inventoryServiceUrl,  // The base URL of the inventory service (should handle POST requests)
-                HttpMethod.POST,
-                entity,               // Request body + headers
-                Void.class            // No response body expected
-        );
+    /**
+     * Reads the stock of one product from the inventory service through the circuit breaker and
+     * remembers it as last known quantity.
+     *
+     * <p>The deadline is read from the running thread: the cache loads on the request thread, where it is
+     * set, while background refreshes run without one.</p>
+     */
+    private int fetchLive(Long productId, String authorization) {
+        int quantity = hedgingPolicy.execute(
+                () -> circuitBreaker.executeSupplier(() -> gateway.fetchStock(productId, authorization)),
+                DeadlineContext.current());
+        lastKnownStock.record(productId, quantity);
+        return quantity;
+    }
+
+    /**
+     * Sends a bulk chunk on the inventory executor. When the executor is saturated the chunk is not run on the
+     * caller's thread, which would add load where there is already too much; it fails with the rejection.
+     */
+    private <T> CompletableFuture<T> submitChunk(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, inventoryExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Classifies a failed call for the {@code reason} tag.
+     */
+    private static String failureReason(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof CallNotPermittedException) {
+            return "circuit_open";
+        }
+        if (cause instanceof DeadlineExceededException || cause instanceof TimeoutException) {
+            return "deadline";
+        }
+        if (cause instanceof RejectedExecutionException) {
+            return "rejected";
+        }
+        return "error";
+    }
+
+    /**
+     * Waits for a bulk chunk, at most until the deadline.
+     */
+    private static Map<Long, Integer> awaitChunk(CompletableFuture<Map<Long, Integer>> future, Deadline deadline)
+            throws TimeoutException {
+        if (deadline == null) {
+            return future.join();
+        }
+        try {
+            return future.get(Math.max(0L, deadline.remainingNanos()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
     }
 
 }
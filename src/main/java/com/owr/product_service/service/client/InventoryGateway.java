@@ -0,0 +1,55 @@
+package com.owr.product_service.service.client;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Transport used by {@link InventoryClient} to talk to the inventory service.
+ *
+ * <p>The REST implementation ({@link RestInventoryGateway}) is used by default. Setting
+ * {@code inventory.client.mode=local} swaps in {@link LocalInventoryGateway}, an in-memory stand-in
+ * that allows the service to run and be exercised without a reachable inventory service.</p>
+ *
+ * <p>The Authorization header is passed in explicitly instead of being read from the request context,
+ * so that implementations can be called from worker threads.</p>
+ */
+public interface InventoryGateway {
+
+    /**
+     * Fetches the available stock for a single product.
+     *
+     * @param productId     the product identifier
+     * @param authorization the Authorization header to forward, may be {@code null}
+     * @return the available stock quantity
+     */
+    int fetchStock(Long productId, String authorization);
+
+    /**
+     * Fetches the available stock for one chunk of products.
+     *
+     * <p>Ids missing from the returned map are reported as failed by the caller.</p>
+     *
+     * @param productIds    the product identifiers of the chunk
+     * @param authorization the Authorization header to forward, may be {@code null}
+     * @return a map of product id to available stock quantity
+     */
+    Map<Long, Integer> fetchStocks(List<Long> productIds, String authorization);
+
+    /**
+     * Creates the inventory record for a newly added product.
+     *
+     * @param productId     the product identifier
+     * @param quantity      the initial stock quantity
+     * @param authorization the Authorization header to forward, may be {@code null}
+     */
+    void createInventory(Long productId, int quantity, String authorization);
+
+    /**
+     * Creates the inventory records for one chunk of newly added products.
+     *
+     * @param quantities    initial stock quantity per product id
+     * @param authorization the Authorization header to forward, may be {@code null}
+     * @return error message per product id whose record could not be created; empty if all were created
+     */
+    Map<Long, String> createInventories(Map<Long, Integer> quantities, String authorization);
+}
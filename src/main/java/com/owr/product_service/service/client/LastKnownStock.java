@@ -0,0 +1,64 @@
+package com.owr.product_service.service.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Last stock quantity successfully read from the inventory service per product, used as fallback
+ * while the inventory service is failing or its circuit breaker is open.
+ *
+ * <p>Values older than {@code inventory.fallback.max-staleness} are dropped: past that point an error is more
+ * honest than a number. Served fallbacks are counted as {@code inventory.stock.fallbacks{outcome=stale}},
+ * lookups without any known value as {@code inventory.stock.fallbacks{outcome=unavailable}}.</p>
+ */
+@Component
+public class LastKnownStock {
+
+    private final Cache<Long, Integer> quantities;
+    private final Counter staleServed;
+    private final Counter unavailable;
+
+    public LastKnownStock(@Value("${inventory.fallback.max-staleness:1h}") Duration maxStaleness,
+                          @Value("${inventory.cache.max-size:100000}") long maxSize,
+                          MeterRegistry meterRegistry) {
+        this.quantities = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(maxStaleness)
+                .build();
+        this.staleServed = meterRegistry.counter("inventory.stock.fallbacks", "outcome", "stale");
+        this.unavailable = meterRegistry.counter("inventory.stock.fallbacks", "outcome", "unavailable");
+    }
+
+    /**
+     * Records a quantity read from the inventory service.
+     */
+    public void record(Long productId, int quantity) {
+        quantities.put(productId, quantity);
+    }
+
+    /**
+     * Records quantities read from the inventory service in bulk.
+     */
+    public void recordAll(Map<Long, Integer> live) {
+        quantities.putAll(live);
+    }
+
+    /**
+     * Returns the last known quantity of a product for degraded mode, counting the outcome.
+     *
+     * @param productId the product identifier
+     * @return the last known quantity, or {@code null} if none is known
+     */
+    public Integer fallback(Long productId) {
+        Integer quantity = quantities.getIfPresent(productId);
+        (quantity != null ? staleServed : unavailable).increment();
+        return quantity;
+    }
+}
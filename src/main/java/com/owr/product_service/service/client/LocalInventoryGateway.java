@@ -0,0 +1,55 @@
+package com.owr.product_service.service.client;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory stand-in for the inventory service, enabled with {@code inventory.client.mode=local}.
+ *
+ * <p>Stock created through {@link #createInventory(Long, int, String)} is kept in a map; products without
+ * a record report {@code inventory.local.default-quantity}. Useful for running the service offline and for
+ * exercising the bulk stock path without network calls.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.client.mode", havingValue = "local")
+public class LocalInventoryGateway implements InventoryGateway {
+
+    private final Map<Long, Integer> stock = new ConcurrentHashMap<>();
+
+    /**
+     * Quantity reported for products that have no inventory record yet.
+     */
+    @Value("${inventory.local.default-quantity:0}")
+    private int defaultQuantity;
+
+    @Override
+    public int fetchStock(Long productId, String authorization) {
+        return stock.getOrDefault(productId, defaultQuantity);
+    }
+
+    @Override
+    public Map<Long, Integer> fetchStocks(List<Long> productIds, String authorization) {
+        Map<Long, Integer> quantities = new HashMap<>(productIds.size() * 2);
+        for (Long productId : productIds) {
+            quantities.put(productId, stock.getOrDefault(productId, defaultQuantity));
+        }
+        return quantities;
+    }
+
+    @Override
+    public void createInventory(Long productId, int quantity, String authorization) {
+        stock.put(productId, quantity);
+    }
+
+    @Override
+    public Map<Long, String> createInventories(Map<Long, Integer> quantities, String authorization) {
+        stock.putAll(quantities);
+        return Map.of();
+    }
+}
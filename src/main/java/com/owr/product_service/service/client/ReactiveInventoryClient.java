@@ -0,0 +1,322 @@
+package com.owr.product_service.service.client;
+
+import com.owr.product_service.exceptions.DeadlineExceededException;
+import com.owr.product_service.exceptions.InventoryUnavailableException;
+import com.owr.product_service.service.reactive.ReactiveRequestContext;
+import com.owr.product_service.service.timing.Outcome;
+import com.owr.product_service.service.timing.Stage;
+import com.owr.product_service.service.timing.StageMetrics;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Non-blocking counterpart of {@link InventoryClient} for the reactive mode, calling the inventory service with
+ * {@link WebClient}.
+ *
+ * <p>Shares the {@link StockCache}, the {@link LastKnownStock} fallback and the circuit breaker with the blocking
+ * client, so both modes behave the same towards callers and the inventory service. The Authorization header to
+ * forward is read from the Reactor context of the request ({@link ReactiveRequestContext}), not from
+ * {@code RequestContextHolder}, which is bound to a thread a reactive request does not stay on.</p>
+ *
+ * <p>Always calls the inventory service over HTTP; {@code inventory.client.mode} only selects the transport of the
+ * blocking client. Slow single lookups are not hedged.</p>
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveInventoryClient {
+
+    private static final ParameterizedTypeReference<Map<Long, Integer>> STOCK_MAP =
+            new ParameterizedTypeReference<>() {
+            };
+
+    private final WebClient webClient;
+    private final StockCache stockCache;
+    private final CircuitBreaker circuitBreaker;
+    private final LastKnownStock lastKnownStock;
+    private final StageMetrics stageMetrics;
+
+    /**
+     * Maximum number of product ids sent to the inventory service in a single bulk call.
+     */
+    @Value("${inventory.batch.chunk-size:200}")
+    private int chunkSize;
+
+    /**
+     * Maximum number of bulk calls in flight for one lookup.
+     */
+    @Value("${inventory.batch.parallelism:8}")
+    private int parallelism;
+
+    /**
+     * Bearer token sent outside of a request; empty to send no Authorization header.
+     */
+    @Value("${inventory.service.token:}")
+    private String serviceToken;
+
+    /**
+     * Set to {@code false} once the inventory service answered that it has no batch endpoint.
+     */
+    private volatile boolean batchSupported = true;
+
+    public ReactiveInventoryClient(@Qualifier("inventoryWebClient") WebClient webClient,
+                                   StockCache stockCache,
+                                   CircuitBreaker inventoryCircuitBreaker,
+                                   LastKnownStock lastKnownStock,
+                                   StageMetrics stageMetrics) {
+        this.webClient = webClient;
+        this.stockCache = stockCache;
+        this.circuitBreaker = inventoryCircuitBreaker;
+        this.lastKnownStock = lastKnownStock;
+        this.stageMetrics = stageMetrics;
+    }
+
+    /**
+     * Retrieves the available stock of a product, like {@link InventoryClient#getStock(Long)}.
+     *
+     * <p>Served from the {@link StockCache} when fresh. Otherwise the inventory service is called through the
+     * circuit breaker, bounded by the request deadline; when that fails the last known quantity is emitted,
+     * flagged as stale.</p>
+     *
+     * @param productId the unique identifier of the product
+     * @return the live or last known stock level
+     */
+    public Mono<StockLevel> getStock(Long productId) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Integer cached = stockCache.getAllFresh(List.of(productId)).get(productId);
+            if (cached != null) {
+                stageMetrics.record(Stage.INVENTORY, "getStock", Outcome.SUCCESS, System.nanoTime() - start);
+                return Mono.just(StockLevel.live(cached));
+            }
+            return ReactiveRequestContext.withinDeadline("inventory lookup",
+                            Mono.deferContextual(context -> fetchStock(productId, authorization(context)))
+                                    .transformDeferred(CircuitBreakerOperator.of(circuitBreaker)))
+                    .map(quantity -> {
+                        stockCache.putAll(Map.of(productId, quantity));
+                        lastKnownStock.record(productId, quantity);
+                        stageMetrics.record(Stage.INVENTORY, "getStock", Outcome.SUCCESS, System.nanoTime() - start);
+                        return StockLevel.live(quantity);
+                    })
+                    .onErrorResume(e -> {
+                        stageMetrics.countFailure(Stage.INVENTORY, "getStock", failureReason(e));
+                        Integer lastKnown = lastKnownStock.fallback(productId);
+                        if (lastKnown != null) {
+                            stageMetrics.record(Stage.INVENTORY, "getStock", Outcome.STALE,
+                                    System.nanoTime() - start);
+                            return Mono.just(StockLevel.lastKnown(lastKnown));
+                        }
+                        stageMetrics.record(Stage.INVENTORY, "getStock", Outcome.ERROR, System.nanoTime() - start);
+                        if (e instanceof InventoryUnavailableException || e instanceof DeadlineExceededException) {
+                            return Mono.error(e);
+                        }
+                        return Mono.error(new InventoryUnavailableException(
+                                "Inventory lookup failed for product " + productId, e));
+                    });
+        });
+    }
+
+    /**
+     * Retrieves the available stock of many products, like {@link InventoryClient#getStockQuantities}.
+     *
+     * <p>Ids with a fresh cache entry are not sent. The others are split into chunks of
+     * {@code inventory.batch.chunk-size}, of which at most {@code inventory.batch.parallelism} are in flight. A
+     * failing or late chunk is reported per id (or served stale) instead of failing the lookup.</p>
+     *
+     * @param productIds the product identifiers to look up
+     * @return the resolved quantities and the per-id failures
+     */
+    public Mono<StockLookupResult> getStockQuantities(Collection<Long> productIds) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Set<Long> requested = new LinkedHashSet<>(productIds);
+            Map<Long, Integer> cached = stockCache.getAllFresh(requested);
+            List<Long> ids = new ArrayList<>(requested.size());
+            for (Long id : requested) {
+                if (!cached.containsKey(id)) {
+                    ids.add(id);
+                }
+            }
+            if (ids.isEmpty()) {
+                stageMetrics.record(Stage.INVENTORY, "getStockQuantities", Outcome.SUCCESS,
+                        System.nanoTime() - start);
+                return Mono.just(new StockLookupResult(cached, Map.of(), Set.of()));
+            }
+
+            List<List<Long>> chunks = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += chunkSize) {
+                chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+            }
+            Map<Long, Integer> quantities = new HashMap<>(requested.size() * 2);
+            Map<Long, String> failures = new HashMap<>();
+
+            return Flux.fromIterable(chunks)
+                    .flatMap(chunk -> fetchChunk(chunk)
+                            .map(chunkResult -> {
+                                Map<Long, String> chunkFailures = new HashMap<>();
+                                for (Long id : chunk) {
+                                    if (!chunkResult.containsKey(id)) {
+                                        chunkFailures.put(id, "Inventory returned no stock for product " + id);
+                                    }
+                                }
+                                return new ChunkResult(chunkResult, chunkFailures);
+                            })
+                            .onErrorResume(e -> {
+                                stageMetrics.countFailure(Stage.INVENTORY, "getStockQuantities", failureReason(e));
+                                String message = e instanceof DeadlineExceededException
+                                        ? "Request deadline exceeded waiting for inventory"
+                                        : "Inventory lookup failed: " + e.getMessage();
+                                Map<Long, String> chunkFailures = new HashMap<>();
+                                for (Long id : chunk) {
+                                    chunkFailures.put(id, message);
+                                }
+                                return Mono.just(new ChunkResult(Map.of(), chunkFailures));
+                            }), parallelism)
+                    .doOnNext(result -> {
+                        quantities.putAll(result.quantities());
+                        failures.putAll(result.failures());
+                    })
+                    .then(Mono.fromSupplier(() -> {
+                        stockCache.putAll(quantities);
+                        lastKnownStock.recordAll(quantities);
+
+                        // Degraded mode: serve the last known quantity where the live lookup failed
+                        Set<Long> stale = new HashSet<>();
+                        failures.keySet().removeIf(id -> {
+                            Integer lastKnown = lastKnownStock.fallback(id);
+                            if (lastKnown == null) {
+                                return false;
+                            }
+                            quantities.put(id, lastKnown);
+                            stale.add(id);
+                            return true;
+                        });
+                        quantities.putAll(cached);
+                        Outcome outcome = !failures.isEmpty() ? Outcome.PARTIAL
+                                : stale.isEmpty() ? Outcome.SUCCESS : Outcome.STALE;
+                        stageMetrics.record(Stage.INVENTORY, "getStockQuantities", outcome,
+                                System.nanoTime() - start);
+                        return new StockLookupResult(quantities, failures, stale);
+                    }));
+        });
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    /**
+     * Quantities and failures of one bulk chunk.
+     */
+    private record ChunkResult(Map<Long, Integer> quantities, Map<Long, String> failures) {
+    }
+
+    /**
+     * Resolves one chunk through the circuit breaker, bounded by the request deadline.
+     */
+    private Mono<Map<Long, Integer>> fetchChunk(List<Long> chunk) {
+        return ReactiveRequestContext.withinDeadline("inventory lookup",
+                Mono.deferContextual(context -> fetchStocks(chunk, authorization(context)))
+                        .transformDeferred(CircuitBreakerOperator.of(circuitBreaker)));
+    }
+
+    /**
+     * {@code GET {base}/{id}}.
+     */
+    private Mono<Integer> fetchStock(Long productId, String authorization) {
+        return webClient.get()
+                .uri(uri -> uri.pathSegment("{id}").build(productId))
+                .headers(headers -> forward(headers, authorization))
+                .retrieve()
+                .bodyToMono(Integer.class)
+                .defaultIfEmpty(0)
+                .onErrorMap(WebClientResponseException.class, e -> new InventoryUnavailableException(
+                        "Inventory error " + e.getStatusCode().value() + " at " + e.getRequest().getURI(), e));
+    }
+
+    /**
+     * {@code POST {base}/batch}, falling back to one {@code GET} per id on deployments without the batch endpoint;
+     * ids whose single lookup fails are left out so the caller reports them individually.
+     */
+    private Mono<Map<Long, Integer>> fetchStocks(List<Long> productIds, String authorization) {
+        if (!batchSupported) {
+            return fetchEach(productIds, authorization);
+        }
+        return webClient.post()
+                .uri(uri -> uri.pathSegment("batch").build())
+                .headers(headers -> forward(headers, authorization))
+                .bodyValue(productIds)
+                .retrieve()
+                .bodyToMono(STOCK_MAP)
+                .defaultIfEmpty(Map.of())
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    int status = e.getStatusCode().value();
+                    if (status != HttpStatus.NOT_FOUND.value() && status != HttpStatus.METHOD_NOT_ALLOWED.value()) {
+                        return Mono.error(new InventoryUnavailableException(
+                                "Inventory error " + status + " at " + e.getRequest().getURI(), e));
+                    }
+                    // Older inventory deployment without the batch endpoint
+                    batchSupported = false;
+                    return fetchEach(productIds, authorization);
+                });
+    }
+
+    private Mono<Map<Long, Integer>> fetchEach(List<Long> productIds, String authorization) {
+        return Flux.fromIterable(productIds)
+                .flatMap(id -> fetchStock(id, authorization)
+                        .map(quantity -> Map.entry(id, quantity))
+                        .onErrorResume(e -> Mono.empty()), parallelism)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    /**
+     * Returns the Authorization header of the request in the context, or the service token outside of one.
+     */
+    private String authorization(ContextView context) {
+        String authorization = ReactiveRequestContext.authorization(context);
+        if (authorization != null) {
+            return authorization;
+        }
+        return serviceToken.isBlank() ? null : "Bearer " + serviceToken;
+    }
+
+    private static void forward(HttpHeaders headers, String authorization) {
+        if (authorization != null) {
+            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+    }
+
+    /**
+     * Classifies a failed call for the {@code reason} tag.
+     */
+    private static String failureReason(Throwable failure) {
+        if (failure instanceof CallNotPermittedException) {
+            return "circuit_open";
+        }
+        if (failure instanceof DeadlineExceededException) {
+            return "deadline";
+        }
+        return "error";
+    }
+}
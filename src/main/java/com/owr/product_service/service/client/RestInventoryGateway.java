@@ -0,0 +1,256 @@
+package com.owr.product_service.service.client;
+
+import com.owr.product_service.exceptions.InventoryUnavailableException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.*;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link InventoryGateway} that calls the inventory service over HTTP through the shared {@link RestTemplate}.
+ *
+ * <p>Bulk lookups are sent to {@code POST {base}/batch} with the list of ids as body. Inventory deployments
+ * that do not expose that endpoint yet answer with 404/405; in that case the gateway remembers it and
+ * resolves each chunk with single lookups instead. Bulk creation works the same way with
+ * {@code POST {base}/bulk}.</p>
+ */
+@Component
+@ConditionalOnProperty(name = "inventory.client.mode", havingValue = "rest", matchIfMissing = true)
+@RequiredArgsConstructor
+public class RestInventoryGateway implements InventoryGateway {
+
+    private static final ParameterizedTypeReference<Map<Long, Integer>> STOCK_MAP =
+            new ParameterizedTypeReference<>() {
+            };
+
+    /**
+     * The HTTP client used to send requests to external services.
+     */
+    private final RestTemplate restTemplate;
+
+    /**
+     * The base URL of the inventory service.
+     * *
+     * This value is injected from the application's configuration (e.g., `application.properties` or `application.yml`)
+     * using the property key {@code inventory.service.port}.
+     */
+    @Value("${inventory.service.port}")
+    private String inventoryServiceUrl;
+
+    /**
+     * Set to {@code false} once the inventory service answered that it has no batch endpoint.
+     */
+    private volatile boolean batchSupported = true;
+
+    /**
+     * Set to {@code false} once the inventory service answered that it has no bulk create endpoint.
+     */
+    private volatile boolean bulkCreateSupported = true;
+
+    // ================================= RECORD  ======================================
+
+    /**
+     * Represents a request to check or update inventory for a specific product and quantity.
+     *
+     * @param productId the ID of the product
+     * @param quantity  the quantity of the product involved in the inventory operation
+     */
+    public record InventoryRequest(Long productId, int quantity) {
+    }
+
+    // ==================================================================================
+
+    /**
+     * Builds an {@link HttpHeaders} object with JSON content type and the forwarded Authorization token.
+     *
+     * @param authorization the Authorization header of the incoming request, may be {@code null}
+     * @return the headers to send to the inventory service
+     */
+    private HttpHeaders authHeaders(String authorization) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        if (authorization != null) {
+            headers.set(HttpHeaders.AUTHORIZATION, authorization);
+        }
+        return headers;
+    }
+
+    /**
+     * Retrieves the available stock quantity for a given product
+     * by making an HTTP GET request to the inventory service.
+     *
+     * @param productId     the unique identifier of the product
+     * @param authorization the Authorization header to forward
+     * @return the stock quantity from the inventory service, or 0 if the body is empty
+     * @throws InventoryUnavailableException if the inventory service returns an error
+     */
+    @Override
+    public int fetchStock(Long productId, String authorization) {
+
+        // Wrap the authorization headers in an HttpEntity (no request body needed for GET)
+        HttpEntity<Void> entity = new HttpEntity<>(authHeaders(authorization));
+
+        // Build the full URL for the inventory lookup in a safe way:
+        URI uri = UriComponentsBuilder
+                .fromHttpUrl(inventoryServiceUrl)   // e.g. "http://inventory-service:8687/api/inventory/"
+                .pathSegment("{id}")                // appends /{id} safely
+                .build(productId);                   // replaces {id} with the actual value
+
+        try {
+            // Send GET request to inventory service: /{productId}
+            ResponseEntity<Integer> response = restTemplate.exchange(
+                    uri, // Full URL for the product stock lookup
+                    HttpMethod.GET, // HTTP GET method
+                    entity, // Headers including Authorization
+                    Integer.class // Expecting an Integer response (stock quantity)
+            );
+            // Return the quantity if not null, otherwise default to 0
+            return response.getBody() != null ? response.getBody() : 0;
+        } catch (RestClientResponseException e) {
+            // Thrown when the service returns a 4xx or 5xx status code.
+            throw new InventoryUnavailableException(
+                    "Inventory error " + e.getStatusCode().value() + " at " + uri, e
+            );
+        }
+    }
+
+    /**
+     * Retrieves the stock of one chunk of products with a single call to {@code POST {base}/batch}.
+     *
+     * <p>Falls back to one GET per id when the batch endpoint is not available. In that mode ids whose
+     * lookup fails are left out of the result so the caller can report them individually.</p>
+     *
+     * @param productIds    the product identifiers of the chunk
+     * @param authorization the Authorization header to forward
+     * @return a map of product id to available stock
+     * @throws InventoryUnavailableException if the batch call fails with anything other than 404/405
+     */
+    @Override
+    public Map<Long, Integer> fetchStocks(List<Long> productIds, String authorization) {
+        if (batchSupported) {
+            URI uri = UriComponentsBuilder
+                    .fromHttpUrl(inventoryServiceUrl)
+                    .pathSegment("batch")
+                    .build()
+                    .toUri();
+            try {
+                ResponseEntity<Map<Long, Integer>> response = restTemplate.exchange(
+                        uri,
+                        HttpMethod.POST,
+                        new HttpEntity<>(productIds, authHeaders(authorization)),
+                        STOCK_MAP
+                );
+                return response.getBody() != null ? response.getBody() : Map.of();
+            } catch (RestClientResponseException e) {
+                int status = e.getStatusCode().value();
+                if (status != HttpStatus.NOT_FOUND.value() && status != HttpStatus.METHOD_NOT_ALLOWED.value()) {
+                    throw new InventoryUnavailableException(
+                            "Inventory error " + status + " at " + uri, e
+                    );
+                }
+                // Older inventory deployment without the batch endpoint
+                batchSupported = false;
+            }
+        }
+
+        Map<Long, Integer> quantities = new HashMap<>(productIds.size() * 2);
+        for (Long productId : productIds) {
+            try {
+                quantities.put(productId, fetchStock(productId, authorization));
+            } catch (RuntimeException e) {
+                // Left out on purpose: the caller reports missing ids as failed
+            }
+        }
+        return quantities;
+    }
+
+    /**
+     * Sends a POST request to the inventory service to create an inventory record
+     * for the specified product with the given initial quantity.
+     *
+     * <p>The request includes authentication headers and a request body containing the product ID
+     * and quantity, wrapped inside an {@link InventoryRequest} object.</p>
+     *
+     * @param productId     the ID of the product to register in the inventory
+     * @param quantity      the initial stock quantity for the product
+     * @param authorization the Authorization header to forward
+     */
+    @Override
+    public void createInventory(Long productId, int quantity, String authorization) {
+
+        // Wrap the inventory request and authentication headers into an HttpEntity
+        HttpEntity<InventoryRequest> entity =
+                new HttpEntity<>(new InventoryRequest(productId, quantity), authHeaders(authorization));
+
+        // Send a POST request to the inventory service to create the inventory record
+        restTemplate.exchange(
+                inventoryServiceUrl,  // The base URL of the inventory service (should handle POST requests)
+                HttpMethod.POST,
+                entity,               // Request body + headers
+                Void.class            // No response body expected
+        );
+    }
+
+    /**
+     * Creates the inventory records of one chunk with a single call to {@code POST {base}/bulk}.
+     *
+     * <p>Falls back to one POST per product when the bulk endpoint is not available; failures are then
+     * reported per product.</p>
+     *
+     * @param quantities    initial stock quantity per product id
+     * @param authorization the Authorization header to forward
+     * @return error message per product id whose record could not be created
+     * @throws InventoryUnavailableException if the bulk call fails with anything other than 404/405
+     */
+    @Override
+    public Map<Long, String> createInventories(Map<Long, Integer> quantities, String authorization) {
+        if (bulkCreateSupported) {
+            URI uri = UriComponentsBuilder
+                    .fromHttpUrl(inventoryServiceUrl)
+                    .pathSegment("bulk")
+                    .build()
+                    .toUri();
+            List<InventoryRequest> body = quantities.entrySet().stream()
+                    .map(entry -> new InventoryRequest(entry.getKey(), entry.getValue()))
+                    .toList();
+            try {
+                restTemplate.exchange(
+                        uri,
+                        HttpMethod.POST,
+                        new HttpEntity<>(body, authHeaders(authorization)),
+                        Void.class
+                );
+                return Map.of();
+            } catch (RestClientResponseException e) {
+                int status = e.getStatusCode().value();
+                if (status != HttpStatus.NOT_FOUND.value() && status != HttpStatus.METHOD_NOT_ALLOWED.value()) {
+                    throw new InventoryUnavailableException(
+                            "Inventory error " + status + " at " + uri, e
+                    );
+                }
+                // Older inventory deployment without the bulk endpoint
+                bulkCreateSupported = false;
+            }
+        }
+
+        Map<Long, String> failures = new HashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            try {
+                createInventory(productId, quantity, authorization);
+            } catch (RuntimeException e) {
+                failures.put(productId, "Inventory creation failed: " + e.getMessage());
+            }
+        });
+        return failures;
+    }
+}
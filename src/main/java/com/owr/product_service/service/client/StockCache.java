@@ -0,0 +1,186 @@
+package com.owr.product_service.service.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Short-lived, size-bounded cache of stock quantities in front of the inventory service.
+ *
+ * <p>Behaviour:</p>
+ * <ul>
+ *     <li>Entries expire {@code inventory.cache.ttl} after they were loaded.</li>
+ *     <li>At most {@code inventory.cache.max-size} entries are kept; Caffeine evicts with W-TinyLFU.</li>
+ *     <li>Only one loader runs per product id; concurrent callers for the same id wait for its result
+ *     instead of each calling the inventory service. The loader runs on the caller's thread outside of any
+ *     cache lock (entries are futures), so waiting never pins a virtual thread to its carrier.</li>
+ *     <li>A hit older than {@code inventory.cache.refresh-ahead} is served immediately and reloaded in the
+ *     background, so hot products do not periodically fall through to a synchronous call.</li>
+ * </ul>
+ *
+ * <p>Hit, miss, eviction and load counters are published as {@code cache.*{cache=inventory.stock}} meters,
+ * background refreshes as {@code inventory.stock.refreshes}.</p>
+ */
+@Component
+public class StockCache {
+
+    private final boolean enabled;
+    private final long refreshAheadNanos;
+    private final AsyncCache<Long, CachedStock> cache;
+    private final Executor refreshExecutor;
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+    private final Counter refreshes;
+
+    /**
+     * A cached quantity together with the time it was loaded.
+     */
+    private record CachedStock(int quantity, long loadedAtNanos) {
+    }
+
+    public StockCache(@Value("${inventory.cache.enabled:true}") boolean enabled,
+                      @Value("${inventory.cache.ttl:5s}") Duration ttl,
+                      @Value("${inventory.cache.refresh-ahead:3s}") Duration refreshAhead,
+                      @Value("${inventory.cache.max-size:100000}") long maxSize,
+                      @Qualifier("inventoryExecutor") Executor refreshExecutor,
+                      MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.refreshAheadNanos = refreshAhead.toNanos();
+        this.refreshExecutor = refreshExecutor;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        this.refreshes = meterRegistry.counter("inventory.stock.refreshes");
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "inventory.stock");
+    }
+
+    /**
+     * Returns the cached stock for a product, loading it with {@code loader} on a miss.
+     *
+     * <p>The loader may be invoked again later on a background thread to refresh the entry, so it must not
+     * depend on the calling thread (e.g. capture the Authorization header beforehand).</p>
+     *
+     * @param productId the product identifier
+     * @param loader    loads the current stock from the inventory service
+     * @return the cached or freshly loaded stock quantity
+     */
+    public int get(Long productId, Function<Long, Integer> loader) {
+        if (!enabled) {
+            return loader.apply(productId);
+        }
+        CompletableFuture<CachedStock> mine = new CompletableFuture<>();
+        CompletableFuture<CachedStock> future = cache.get(productId, (id, executor) -> mine);
+        if (future == mine) {
+            // This caller won the race for the key: load on its own thread and publish to the waiters
+            try {
+                mine.complete(new CachedStock(loader.apply(productId), System.nanoTime()));
+            } catch (RuntimeException e) {
+                mine.completeExceptionally(e); // failed futures are dropped from the cache by Caffeine
+                throw e;
+            }
+        }
+
+        CachedStock cached;
+        try {
+            cached = future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        if (System.nanoTime() - cached.loadedAtNanos() > refreshAheadNanos) {
+            refreshAsync(productId, loader);
+        }
+        return cached.quantity();
+    }
+
+    /**
+     * Returns the cached stock of every given product that is present and not yet due for refresh.
+     *
+     * <p>Entries due for refresh are left out so that the caller reloads them with its bulk call.</p>
+     *
+     * @param productIds the product identifiers
+     * @return the fresh cached quantities, keyed by product id
+     */
+    public Map<Long, Integer> getAllFresh(Collection<Long> productIds) {
+        if (!enabled) {
+            return Map.of();
+        }
+        long now = System.nanoTime();
+        Map<Long, Integer> fresh = new HashMap<>();
+        for (Long id : productIds) {
+            CompletableFuture<CachedStock> future = cache.getIfPresent(id);
+            // Loads still in flight are treated as misses rather than waited for
+            if (future != null && future.isDone() && !future.isCompletedExceptionally()) {
+                CachedStock cached = future.join();
+                if (now - cached.loadedAtNanos() <= refreshAheadNanos) {
+                    fresh.put(id, cached.quantity());
+                }
+            }
+        }
+        return fresh;
+    }
+
+    /**
+     * Stores quantities obtained from a bulk lookup.
+     *
+     * @param quantities stock quantity per product id
+     */
+    public void putAll(Map<Long, Integer> quantities) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        quantities.forEach((id, quantity) ->
+                cache.put(id, CompletableFuture.completedFuture(new CachedStock(quantity, now))));
+    }
+
+    /**
+     * Drops the cached stock of a product, e.g. after its inventory record was (re)created.
+     *
+     * @param productId the product identifier
+     */
+    public void invalidate(Long productId) {
+        cache.synchronous().invalidate(productId);
+    }
+
+    /**
+     * Reloads an entry in the background unless a refresh for it is already running.
+     */
+    private void refreshAsync(Long productId, Function<Long, Integer> loader) {
+        if (!refreshing.add(productId)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    CachedStock reloaded = new CachedStock(loader.apply(productId), System.nanoTime());
+                    cache.put(productId, CompletableFuture.completedFuture(reloaded));
+                    refreshes.increment();
+                } catch (RuntimeException e) {
+                    // Keep serving the current entry until it expires; the next hit retries
+                } finally {
+                    refreshing.remove(productId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            refreshing.remove(productId);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.owr.product_service.service.client;
+
+/**
+ * Stock quantity of a product as served to callers.
+ *
+ * @param quantity the available stock
+ * @param stale    {@code true} if the inventory service could not be reached and {@code quantity} is the
+ *                 last value it reported (degraded mode)
+ */
+public record StockLevel(int quantity, boolean stale) {
+
+    public static StockLevel live(int quantity) {
+        return new StockLevel(quantity, false);
+    }
+
+    public static StockLevel lastKnown(int quantity) {
+        return new StockLevel(quantity, true);
+    }
+}
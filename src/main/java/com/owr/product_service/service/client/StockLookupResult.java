@@ -0,0 +1,47 @@
+package com.owr.product_service.service.client;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of a bulk stock lookup.
+ *
+ * <p>Every requested id ends up in exactly one of the two maps, so a single failing chunk or product
+ * does not hide the stock of the others.</p>
+ *
+ * @param quantities stock quantity per product id that could be resolved
+ * @param failures   error message per product id whose stock could not be resolved
+ * @param stale      ids in {@code quantities} whose value is the last known quantity (degraded mode)
+ */
+public record StockLookupResult(Map<Long, Integer> quantities, Map<Long, String> failures, Set<Long> stale) {
+
+    /**
+     * Returns the stock quantity for the given product, or {@code null} if its lookup failed.
+     *
+     * @param productId the product identifier
+     * @return the stock quantity, or {@code null} if unavailable
+     */
+    public Integer quantity(Long productId) {
+        return quantities.get(productId);
+    }
+
+    /**
+     * Returns whether the quantity of the given product is a last known value rather than a live one.
+     *
+     * @param productId the product identifier
+     * @return {@code true} if the quantity is stale
+     */
+    public boolean isStale(Long productId) {
+        return stale.contains(productId);
+    }
+
+    /**
+     * Returns the failure message for the given product, or {@code null} if its stock was resolved.
+     *
+     * @param productId the product identifier
+     * @return the failure message, or {@code null}
+     */
+    public String failure(Long productId) {
+        return failures.get(productId);
+    }
+}
@@ -0,0 +1,207 @@
+package com.owr.product_service.service.coalescing;
+
+import com.owr.product_service.exceptions.DeadlineExceededException;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.deadline.Deadline;
+import com.owr.product_service.service.deadline.DeadlineContext;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.HttpStatusCodeException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical loads: while a load for a key is in flight, further callers for the same key
+ * wait for it and receive its result (or its exception) instead of repeating it.
+ *
+ * <p>The first caller runs the load on its own thread, with its own request context; the others block until it
+ * is done, at most until their own request deadline. A failure that belongs to the first caller's request rather
+ * than to the data (its deadline passed, its credentials were refused) is not handed on: each waiting caller then
+ * runs the load itself, with its own context.</p>
+ *
+ * <p>A successful result keeps being handed out for {@code products.coalescing.window} after it completed, so
+ * callers arriving just after also share it; with a window of zero only loads in flight are shared. Failures are
+ * never kept, and a committed {@link ProductChangedEvent} drops the loads keyed by the changed product's id or
+ * name, so no caller arriving after a change is answered from a load that started before it.</p>
+ *
+ * <p>Callers are counted in {@code products.coalescing.requests}, tagged with {@code operation} and
+ * {@code role}: {@code loaded} for callers that ran the load, {@code collapsed} for those that shared one, and
+ * {@code retried} for collapsed callers that had to run the load themselves afterwards.</p>
+ */
+@Component
+public class SingleFlight {
+
+    private static final int LOADED = 0;
+    private static final int COLLAPSED = 1;
+    private static final int RETRIED = 2;
+
+    private final boolean enabled;
+    private final long windowNanos;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentMap<FlightKey, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+    /**
+     * Operation name to its counters, indexed by {@link #LOADED}, {@link #COLLAPSED} and {@link #RETRIED}.
+     */
+    private final ConcurrentMap<String, Counter[]> counters = new ConcurrentHashMap<>();
+
+    /**
+     * Key of a load; the operation keeps keys of different loads, and their result types, apart.
+     */
+    private record FlightKey(String operation, Object key) {
+    }
+
+    public SingleFlight(@Value("${products.coalescing.enabled:true}") boolean enabled,
+                        @Value("${products.coalescing.window:0ms}") Duration window,
+                        MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Runs {@code load}, or waits for the identical load already in flight.
+     *
+     * @param operation the {@code operation} tag, from a small fixed set (e.g. {@code "findById"}); every call
+     *                  with the same operation must produce the same result type
+     * @param key       identifies the load within the operation: a product id or name, which
+     *                  {@link #onProductChanged(ProductChangedEvent)} matches against
+     * @param load      the load
+     * @return the result of this or the shared load
+     * @throws DeadlineExceededException if the request deadline passes while waiting for a shared load
+     */
+    public <T> T run(String operation, Object key, Supplier<T> load) {
+        if (!enabled) {
+            return load.get();
+        }
+        FlightKey flightKey = new FlightKey(operation, key);
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> shared = flights.putIfAbsent(flightKey, own);
+        if (shared != null) {
+            counter(operation, COLLAPSED).increment();
+            return await(shared, operation, load);
+        }
+
+        counter(operation, LOADED).increment();
+        T result;
+        try {
+            result = load.get();
+        } catch (RuntimeException | Error e) {
+            flights.remove(flightKey, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+        own.complete(result);
+        if (windowNanos > 0) {
+            CompletableFuture.delayedExecutor(windowNanos, TimeUnit.NANOSECONDS)
+                    .execute(() -> flights.remove(flightKey, own));
+        } else {
+            flights.remove(flightKey, own);
+        }
+        return result;
+    }
+
+    /**
+     * Drops the loads of a changed product, in flight or within the window, so that later callers load it anew.
+     *
+     * @param event the change published by the service
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        forget(event.before());
+        forget(event.after());
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    /**
+     * Waits for a shared load within the request deadline. Rethrows its failure as is, unless the failure belongs
+     * to the request that ran it; then runs {@code load} for this request.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T await(CompletableFuture<Object> shared, String operation, Supplier<T> load) {
+        Deadline deadline = DeadlineContext.current();
+        try {
+            return (T) (deadline == null
+                    ? shared.get()
+                    : shared.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Request deadline exceeded waiting for a shared " + operation);
+        } catch (ExecutionException e) {
+            if (isBoundToRequest(e.getCause())) {
+                counter(operation, RETRIED).increment();
+                return load.get();
+            }
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a shared " + operation, e);
+        }
+    }
+
+    /**
+     * Whether a failure stems from the request that ran the load rather than from what was loaded: its deadline,
+     * or its credentials being refused here or by the inventory service.
+     */
+    static boolean isBoundToRequest(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DeadlineExceededException
+                    || cause instanceof AuthenticationException
+                    || cause instanceof AccessDeniedException) {
+                return true;
+            }
+            if (cause instanceof HttpStatusCodeException http
+                    && (http.getStatusCode().isSameCodeAs(HttpStatus.UNAUTHORIZED)
+                    || http.getStatusCode().isSameCodeAs(HttpStatus.FORBIDDEN))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void forget(ProductSnapshot product) {
+        if (product != null) {
+            flights.keySet().removeIf(flight -> product.id().equals(flight.key())
+                    || product.name().equals(flight.key()));
+        }
+    }
+
+    private Counter counter(String operation, int role) {
+        Counter[] byRole = counters.get(operation);
+        if (byRole == null) {
+            byRole = counters.computeIfAbsent(operation, op -> new Counter[]{
+                    counter(op, "loaded"), counter(op, "collapsed"), counter(op, "retried")});
+        }
+        return byRole[role];
+    }
+
+    private Counter counter(String operation, String role) {
+        return Counter.builder("products.coalescing.requests")
+                .description("Lookups that ran their load, shared an identical one in flight, or retried it alone")
+                .tag("operation", operation)
+                .tag("role", role)
+                .register(meterRegistry);
+    }
+}
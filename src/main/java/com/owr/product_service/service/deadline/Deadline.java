@@ -0,0 +1,56 @@
+package com.owr.product_service.service.deadline;
+
+import com.owr.product_service.exceptions.DeadlineExceededException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point in time by which a request must be answered.
+ *
+ * @param expiresAtNanos the {@link System#nanoTime()} value at which the deadline expires
+ */
+public record Deadline(long expiresAtNanos) {
+
+    /**
+     * Creates a deadline the given number of milliseconds from now.
+     *
+     * @param budgetMillis the time budget
+     * @return the deadline
+     */
+    public static Deadline inMillis(long budgetMillis) {
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis));
+    }
+
+    /**
+     * @return the remaining time in nanoseconds, zero or negative once expired
+     */
+    public long remainingNanos() {
+        return expiresAtNanos - System.nanoTime();
+    }
+
+    /**
+     * @return the remaining time in milliseconds, never negative
+     */
+    public long remainingMillis() {
+        return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(remainingNanos()));
+    }
+
+    /**
+     * @return whether the deadline has passed
+     */
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Fails fast before starting a stage of work if the deadline has already passed.
+     *
+     * @param stage the work about to start, used in the error message (e.g. {@code "db"})
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Request deadline exceeded before " + stage);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.owr.product_service.service.deadline;
+
+/**
+ * Holds the {@link Deadline} of the request being processed by the current thread.
+ *
+ * <p>Set by {@code RequestDeadlineFilter} for the duration of a request. Like the request context, it is bound
+ * to the request thread; code that hands work to other threads captures it first.</p>
+ */
+public final class DeadlineContext {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private DeadlineContext() {
+    }
+
+    /**
+     * @return the deadline of the current request, or {@code null} outside of a request
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Fails fast if the current request's deadline has passed; does nothing outside of a request.
+     *
+     * @param stage the work about to start (e.g. {@code "db"}, {@code "inventory"})
+     * @throws com.owr.product_service.exceptions.DeadlineExceededException if the deadline has passed
+     */
+    public static void check(String stage) {
+        Deadline deadline = CURRENT.get();
+        if (deadline != null) {
+            deadline.check(stage);
+        }
+    }
+
+    /**
+     * Binds a deadline to the current thread.
+     *
+     * @param deadline the deadline of the request being processed
+     */
+    public static void set(Deadline deadline) {
+        CURRENT.set(deadline);
+    }
+
+    /**
+     * Removes the deadline from the current thread once the request is done.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
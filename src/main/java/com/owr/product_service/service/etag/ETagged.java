@@ -0,0 +1,11 @@
+package com.owr.product_service.service.etag;
+
+/**
+ * A response body together with its entity tag.
+ *
+ * @param etag the quoted strong tag, see {@link ETags}
+ * @param body the body the tag describes
+ * @param <T>  the body type
+ */
+public record ETagged<T>(String etag, T body) {
+}
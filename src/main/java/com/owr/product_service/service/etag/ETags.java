@@ -0,0 +1,167 @@
+package com.owr.product_service.service.etag;
+
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.client.StockLevel;
+import com.owr.product_service.service.client.StockLookupResult;
+
+/**
+ * Entity tags for the product representations.
+ *
+ * <p>Tags are derived from what a representation is built from (the product's version and the stock served with
+ * it) rather than from the serialized bytes, so a conditional request can be answered before anything is mapped
+ * or serialized. Two responses with the same tag have the same content: every field of a {@code ProductDto} is
+ * determined by the product row, which changes its version on every update, and the stock level. The tag does
+ * not depend on the negotiated format (JSON, CBOR, Smile); tagged responses therefore carry {@code Vary: Accept}.</p>
+ *
+ * <p>Product and price tags are strong. The catalog tag is weak: the catalog is large enough to be gzip-compressed,
+ * one tag covers the compressed and the identity encoding, and Tomcat does not compress responses with a strong
+ * tag.</p>
+ *
+ * <p>Formats (opaque to clients): {@code "<id>.<version>.<quantity>[s]"} for a product ({@code s} marks a stale
+ * quantity), {@code "p<bits>"} for a price and {@code W/"c<count>-<digest>"} for the catalog.</p>
+ */
+public final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Returns the tag of a single product served with the given stock.
+     *
+     * @param product the product
+     * @param stock   the stock level included in the response
+     * @return the quoted tag
+     */
+    public static String product(ProductSnapshot product, StockLevel stock) {
+        return "\"" + product.id() + "." + version(product.version()) + "." + stock.quantity()
+                + (stock.stale() ? "s\"" : "\"");
+    }
+
+    /**
+     * Returns the tag of a bare price; {@code NaN} stands for a product without price.
+     *
+     * @param price the price
+     * @return the quoted tag
+     */
+    public static String price(double price) {
+        return "\"p" + Long.toHexString(Double.doubleToLongBits(price)) + "\"";
+    }
+
+    /**
+     * Starts the tag of a product list; products must be added in the order they are returned.
+     *
+     * @return an empty catalog tag
+     */
+    public static Catalog catalog() {
+        return new Catalog();
+    }
+
+    /**
+     * Evaluates {@code If-None-Match} with the weak comparison RFC 9110 prescribes for it.
+     *
+     * @param ifNoneMatch the header value, may be {@code null}
+     * @param etag        the current tag
+     * @return {@code true} if the client's copy is current and {@code 304 Not Modified} can be sent
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String current = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = opaqueTag(candidate.trim());
+            if (tag.equals("*") || tag.equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Evaluates {@code If-Match} for an update of a product.
+     *
+     * <p>Only the product id and version of a product tag are compared: an update changes the product, not its
+     * stock, so a tag fetched before a stock change still names the state the client wants to modify. Weak tags
+     * never match, as required for {@code If-Match}.</p>
+     *
+     * @param ifMatch   the header value
+     * @param productId the product to be updated
+     * @param version   its current version
+     * @return {@code true} if the update may proceed
+     */
+    public static boolean matchesVersion(String ifMatch, long productId, Long version) {
+        String prefix = "\"" + productId + "." + version(version) + ".";
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || tag.startsWith(prefix) && tag.endsWith("\"")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tag of an ordered product list, accumulated one product at a time without keeping the products.
+     */
+    public static final class Catalog {
+
+        private long hash = 0x9E3779B97F4A7C15L;
+        private int count;
+
+        private Catalog() {
+        }
+
+        /**
+         * Adds the next product of the list.
+         *
+         * @param productId the product identifier
+         * @param version   its version
+         * @param stock     the stock lookup the list is served with
+         * @return this tag
+         */
+        public Catalog add(Long productId, Long version, StockLookupResult stock) {
+            Integer quantity = stock.quantity(productId);
+            String failure = stock.failure(productId);
+            mix(productId);
+            mix(version(version));
+            mix(quantity == null ? Long.MIN_VALUE : quantity);
+            mix(stock.isStale(productId) ? 1 : 0);
+            mix(failure == null ? 0 : failure.hashCode());
+            count++;
+            return this;
+        }
+
+        /**
+         * @return the weak tag
+         */
+        public String toETag() {
+            return "W/\"c" + count + "-" + Long.toHexString(hash) + "\"";
+        }
+
+        /**
+         * Order-dependent 64-bit mixing (SplitMix64 finalizer); not cryptographic, but a collision between two
+         * states of the same catalog is far less likely than a lost response.
+         */
+        private void mix(long value) {
+            long h = (hash ^ value) * 0xBF58476D1CE4E5B9L;
+            h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+            hash = h ^ (h >>> 31);
+        }
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * Versions are {@code null} only for entities that were never flushed; they count as 0, like rows that
+     * existed before the version column was added.
+     */
+    private static long version(Long version) {
+        return version == null ? 0 : version;
+    }
+}
@@ -0,0 +1,27 @@
+package com.owr.product_service.service.event;
+
+import com.owr.product_service.service.cache.ProductSnapshot;
+
+/**
+ * Published by {@code ProductService} whenever a product is added, updated or deleted.
+ *
+ * <p>Listeners that keep derived state (caches, indexes) should use
+ * {@code @TransactionalEventListener(fallbackExecution = true)} so they only see committed changes.</p>
+ *
+ * @param before the product before the change, or {@code null} if it was added
+ * @param after  the product after the change, or {@code null} if it was deleted
+ */
+public record ProductChangedEvent(ProductSnapshot before, ProductSnapshot after) {
+
+    public static ProductChangedEvent added(ProductSnapshot after) {
+        return new ProductChangedEvent(null, after);
+    }
+
+    public static ProductChangedEvent updated(ProductSnapshot before, ProductSnapshot after) {
+        return new ProductChangedEvent(before, after);
+    }
+
+    public static ProductChangedEvent deleted(ProductSnapshot before) {
+        return new ProductChangedEvent(before, null);
+    }
+}
@@ -0,0 +1,151 @@
+package com.owr.product_service.service.facet;
+
+import com.owr.product_service.dto.PriceBucket;
+import com.owr.product_service.dto.ProductFacets;
+import com.owr.product_service.service.index.LongDoubleHashMap;
+
+import java.util.*;
+
+/**
+ * Category counts and price histograms of the catalog, maintained one product at a time.
+ *
+ * <p>Besides the counts, the category and price each product is counted under are remembered (in primitive maps),
+ * so {@link #put} and {@link #remove} can undo a product's previous contribution. That makes them idempotent:
+ * applying the same change twice, as can happen when changes are replayed after a rebuild, does not count a
+ * product twice.</p>
+ *
+ * <p>Counts are kept per category slot (slot 0 for products without a category) and per price bucket; the extra
+ * last bucket holds products without a price.</p>
+ *
+ * <p>Not thread-safe; guarded by {@link FacetIndex}.</p>
+ */
+final class FacetCounts {
+
+    /**
+     * Lower bounds of the price buckets, ascending.
+     */
+    private final double[] bucketBounds;
+
+    private final Map<String, Integer> slotByCategory = new HashMap<>();
+    private final List<String> categoryBySlot = new ArrayList<>();
+
+    /**
+     * Product count per category slot and price bucket.
+     */
+    private long[][] counts;
+
+    private final LongDoubleHashMap slotOfProduct;
+    private final LongDoubleHashMap priceOfProduct;
+
+    FacetCounts(double[] bucketBounds, int expectedProducts) {
+        this.bucketBounds = bucketBounds;
+        this.slotOfProduct = new LongDoubleHashMap(expectedProducts);
+        this.priceOfProduct = new LongDoubleHashMap(expectedProducts);
+        this.categoryBySlot.add(null);
+        this.counts = new long[16][];
+        this.counts[0] = new long[bucketBounds.length + 1];
+    }
+
+    /**
+     * Counts a product, replacing its previous category and price if it was already counted.
+     *
+     * @param productId the product identifier
+     * @param category  the category, may be {@code null}
+     * @param price     the price, may be {@code null}
+     */
+    void put(long productId, String category, Double price) {
+        remove(productId);
+        int slot = slot(category);
+        slotOfProduct.put(productId, slot);
+        if (price != null) {
+            priceOfProduct.put(productId, price);
+        }
+        counts[slot][bucket(price == null ? LongDoubleHashMap.MISSING : price)]++;
+    }
+
+    /**
+     * Stops counting a product; does nothing if it is not counted.
+     *
+     * @param productId the product identifier
+     */
+    void remove(long productId) {
+        double slot = slotOfProduct.get(productId);
+        if (Double.isNaN(slot)) {
+            return;
+        }
+        counts[(int) slot][bucket(priceOfProduct.get(productId))]--;
+        slotOfProduct.remove(productId);
+        priceOfProduct.remove(productId);
+    }
+
+    /**
+     * Builds the facets, optionally restricting total and histogram to one category.
+     *
+     * @param category the category filter, or {@code null} for the whole catalog
+     * @return the facets
+     */
+    ProductFacets facets(String category) {
+        long[] histogram = new long[bucketBounds.length + 1];
+        Map<String, Long> categories = new HashMap<>();
+        for (int slot = 0; slot < categoryBySlot.size(); slot++) {
+            long[] slotCounts = counts[slot];
+            long slotTotal = Arrays.stream(slotCounts).sum();
+            String name = categoryBySlot.get(slot);
+            if (name != null && slotTotal > 0) {
+                categories.put(name, slotTotal);
+            }
+            if (category == null || category.equals(name)) {
+                for (int bucket = 0; bucket < histogram.length; bucket++) {
+                    histogram[bucket] += slotCounts[bucket];
+                }
+            }
+        }
+
+        List<PriceBucket> priceHistogram = new ArrayList<>(bucketBounds.length);
+        for (int bucket = 0; bucket < bucketBounds.length; bucket++) {
+            Double to = bucket + 1 < bucketBounds.length ? bucketBounds[bucket + 1] : null;
+            priceHistogram.add(new PriceBucket(bucketBounds[bucket], to, histogram[bucket]));
+        }
+
+        Map<String, Long> sortedCategories = new LinkedHashMap<>();
+        categories.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .forEach(entry -> sortedCategories.put(entry.getKey(), entry.getValue()));
+        return new ProductFacets(category, Arrays.stream(histogram).sum(), sortedCategories, priceHistogram);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private int slot(String category) {
+        if (category == null) {
+            return 0;
+        }
+        Integer slot = slotByCategory.get(category);
+        if (slot == null) {
+            slot = categoryBySlot.size();
+            slotByCategory.put(category, slot);
+            categoryBySlot.add(category);
+            if (slot == counts.length) {
+                counts = Arrays.copyOf(counts, counts.length * 2);
+            }
+            counts[slot] = new long[bucketBounds.length + 1];
+        }
+        return slot;
+    }
+
+    /**
+     * Returns the bucket of a price: the last bound not above it, bucket 0 below the first bound, and the extra
+     * last bucket for a missing price.
+     */
+    private int bucket(double price) {
+        if (Double.isNaN(price)) {
+            return bucketBounds.length;
+        }
+        int index = Arrays.binarySearch(bucketBounds, price);
+        int bucket = index >= 0 ? index : -index - 2;
+        return Math.max(0, bucket);
+    }
+}
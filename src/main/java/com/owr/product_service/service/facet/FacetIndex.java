@@ -0,0 +1,118 @@
+package com.owr.product_service.service.facet;
+
+import com.owr.product_service.dto.ProductFacets;
+import com.owr.product_service.exceptions.FacetsUnavailableException;
+import com.owr.product_service.repository.ProductFacetView;
+import com.owr.product_service.repository.ProductRepository;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import com.owr.product_service.service.index.RebuildableIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * In-memory facet counts for {@code GET /api/products/facets}: products per category and a price histogram with
+ * the fixed bucket bounds {@code products.facets.price-buckets}.
+ *
+ * <p>The counts are a {@link RebuildableIndex}: built from a streamed scan once the application is ready, updated
+ * from every committed {@link ProductChangedEvent} (add, update including category and price changes, delete),
+ * and rebuilt every {@code products.facets.rebuild-interval-ms} to pick up changes made through other instances.
+ * Reading them costs one pass over the categories, independent of the catalog size.</p>
+ */
+@Component
+public class FacetIndex {
+
+    private final ProductRepository repository;
+    private final double[] bucketBounds;
+    private final RebuildableIndex<FacetCounts> counts;
+
+    public FacetIndex(ProductRepository repository,
+                      PlatformTransactionManager transactionManager,
+                      @Value("${products.facets.price-buckets:0,10,25,50,100,250,500,1000}") double[] bucketBounds) {
+        this.repository = repository;
+        this.bucketBounds = bucketBounds.clone();
+        Arrays.sort(this.bucketBounds);
+        this.counts = new RebuildableIndex<>(transactionManager, this::scan, FacetIndex::apply, null);
+    }
+
+    /**
+     * Returns the category counts and the price histogram.
+     *
+     * @param category restricts the total and the histogram to this category; {@code null} for the whole catalog
+     * @return the facets
+     * @throws FacetsUnavailableException if the counts have not been built yet
+     */
+    public ProductFacets getFacets(String category) {
+        return counts.read(current -> {
+            if (current == null) {
+                throw new FacetsUnavailableException("Facets are still being built");
+            }
+            return current.facets(category);
+        });
+    }
+
+    /**
+     * Builds the counts as soon as the application is ready to serve traffic.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Periodically rebuilds the counts from the database.
+     */
+    @Scheduled(initialDelayString = "${products.facets.rebuild-interval-ms:300000}",
+            fixedDelayString = "${products.facets.rebuild-interval-ms:300000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Applies a committed product change to the counts.
+     *
+     * @param event the change published by the service
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        counts.onProductChanged(event);
+    }
+
+    /**
+     * Scans all products into new counts and swaps them in. Readers keep using the previous counts meanwhile.
+     */
+    void rebuild() {
+        counts.rebuild();
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private FacetCounts scan() {
+        FacetCounts fresh = new FacetCounts(bucketBounds, (int) repository.count());
+        try (Stream<ProductFacetView> rows = repository.streamAllFacetValues()) {
+            rows.forEach(row -> fresh.put(row.getId(), row.getCategory(), row.getPrice()));
+        }
+        return fresh;
+    }
+
+    /**
+     * Idempotent, as {@link RebuildableIndex} requires: a change already seen by the scan is applied again without
+     * double counting.
+     */
+    private static void apply(FacetCounts counts, ProductChangedEvent event) {
+        if (event.after() != null) {
+            counts.put(event.after().id(), event.after().category(), event.after().price());
+        } else if (event.before() != null) {
+            counts.remove(event.before().id());
+        }
+    }
+}
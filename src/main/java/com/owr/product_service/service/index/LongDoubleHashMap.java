@@ -0,0 +1,164 @@
+package com.owr.product_service.service.index;
+
+/**
+ * Open-addressing hash map from positive {@code long} keys to {@code double} values without boxing.
+ *
+ * <p>Keys and values are interleaved in a single {@code long[]} (values stored as raw double bits) and resolved
+ * with linear probing; removals use backward-shift deletion, so there are no tombstones. {@link #get(long)}
+ * allocates nothing.</p>
+ *
+ * <p>Not thread-safe. {@link #get(long)} never throws or loops forever when it races with a writer, it may only
+ * return a wrong answer, which lets callers use it under an optimistic read lock and validate afterwards.</p>
+ *
+ * <p>Key {@code 0} marks an empty slot, so only keys greater than zero can be stored.</p>
+ */
+public final class LongDoubleHashMap {
+
+    /**
+     * Returned by {@link #get(long)} for absent keys.
+     */
+    public static final double MISSING = Double.NaN;
+
+    private static final long EMPTY = 0L;
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * Slot {@code i} uses {@code table[2 * i]} for the key and {@code table[2 * i + 1]} for the value bits.
+     */
+    private long[] table;
+    private int size;
+
+    public LongDoubleHashMap(int expectedSize) {
+        this.table = new long[2 * capacityFor(expectedSize)];
+    }
+
+    /**
+     * Returns the value mapped to {@code key}, or {@link #MISSING}.
+     *
+     * @param key the key
+     * @return the value, or {@code NaN} if the key is absent
+     */
+    public double get(long key) {
+        if (key <= 0) {
+            return MISSING;
+        }
+        long[] t = table;
+        int slots = t.length >>> 1;
+        int mask = slots - 1;
+        int slot = hash(key) & mask;
+        for (int probes = 0; probes < slots; probes++) {
+            long k = t[slot << 1];
+            if (k == key) {
+                return Double.longBitsToDouble(t[(slot << 1) + 1]);
+            }
+            if (k == EMPTY) {
+                return MISSING;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return MISSING;
+    }
+
+    /**
+     * Maps {@code key} to {@code value}, replacing any previous value.
+     *
+     * @param key   the key, must be greater than zero
+     * @param value the value
+     * @throws IllegalArgumentException if {@code key <= 0}
+     */
+    public void put(long key, double value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("Key must be positive: " + key);
+        }
+        if ((size + 1) * 2 > (table.length >>> 1)) {
+            resize(table.length); // doubles the slot count, keeping the load factor at or below 0.5
+        }
+        int mask = (table.length >>> 1) - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            long k = table[slot << 1];
+            if (k == key || k == EMPTY) {
+                if (k == EMPTY) {
+                    size++;
+                }
+                table[(slot << 1) + 1] = Double.doubleToRawLongBits(value);
+                table[slot << 1] = key;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Removes the mapping of {@code key}, if present.
+     *
+     * @param key the key
+     */
+    public void remove(long key) {
+        if (key <= 0) {
+            return;
+        }
+        int mask = (table.length >>> 1) - 1;
+        int slot = hash(key) & mask;
+        while (true) {
+            long k = table[slot << 1];
+            if (k == EMPTY) {
+                return;
+            }
+            if (k == key) {
+                break;
+            }
+            slot = (slot + 1) & mask;
+        }
+        size--;
+
+        // Backward-shift deletion: move later entries of the probe chain into the gap
+        int gap = slot;
+        int next = (gap + 1) & mask;
+        while (table[next << 1] != EMPTY) {
+            int home = hash(table[next << 1]) & mask;
+            // The entry at 'next' may move to 'gap' if its home slot is not cyclically in (gap, next]
+            boolean movable = gap <= next
+                    ? home <= gap || home > next
+                    : home <= gap && home > next;
+            if (movable) {
+                table[(gap << 1) + 1] = table[(next << 1) + 1];
+                table[gap << 1] = table[next << 1];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap << 1] = EMPTY;
+    }
+
+    /**
+     * @return the number of mappings
+     */
+    public int size() {
+        return size;
+    }
+
+    private void resize(int newSlots) {
+        long[] old = table;
+        table = new long[2 * newSlots];
+        size = 0;
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] != EMPTY) {
+                put(old[i], Double.longBitsToDouble(old[i + 1]));
+            }
+        }
+    }
+
+    private static int capacityFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,106 @@
+package com.owr.product_service.service.index;
+
+import com.owr.product_service.repository.ProductPriceView;
+import com.owr.product_service.repository.ProductRepository;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of product prices for the {@code GET /api/products/{id}/price} hot path.
+ *
+ * <p>Prices are kept in a {@link LongDoubleHashMap}, so a lookup neither boxes nor allocates. Readers use an
+ * optimistic read and only fall back to a real read lock when a writer interfered.</p>
+ *
+ * <p>The index is a {@link RebuildableIndex}: filled from a bulk scan once the application is ready, kept current
+ * from committed {@link ProductChangedEvent}s, and rebuilt every {@code products.price-index.rebuild-interval-ms}
+ * to pick up changes made through other instances. Until the first scan completes, and for products without a price,
+ * {@link #get(long)} reports {@link LongDoubleHashMap#MISSING} and callers fall back to the database.</p>
+ */
+@Component
+public class PriceIndex {
+
+    private final ProductRepository repository;
+    private final RebuildableIndex<LongDoubleHashMap> prices;
+
+    public PriceIndex(ProductRepository repository, PlatformTransactionManager transactionManager) {
+        this.repository = repository;
+        this.prices = new RebuildableIndex<>(transactionManager, this::scan, PriceIndex::apply,
+                new LongDoubleHashMap(0));
+    }
+
+    /**
+     * Returns the indexed price of a product without allocating.
+     *
+     * @param productId the product identifier
+     * @return the price, or {@link LongDoubleHashMap#MISSING} ({@code NaN}) if the product is not indexed
+     */
+    public double get(long productId) {
+        return prices.readDouble(productId, LongDoubleHashMap::get);
+    }
+
+    /**
+     * Builds the index as soon as the application is ready to serve traffic.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Periodically rebuilds the index from the database.
+     */
+    @Scheduled(initialDelayString = "${products.price-index.rebuild-interval-ms:300000}",
+            fixedDelayString = "${products.price-index.rebuild-interval-ms:300000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Applies a committed product change to the index.
+     *
+     * @param event the change published by the service
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        prices.onProductChanged(event);
+    }
+
+    /**
+     * Scans all prices into a new map and swaps it in, replaying changes that happened during the scan.
+     */
+    void rebuild() {
+        prices.rebuild();
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private LongDoubleHashMap scan() {
+        LongDoubleHashMap map = new LongDoubleHashMap((int) repository.count());
+        try (Stream<ProductPriceView> rows = repository.streamAllPrices()) {
+            rows.forEach(row -> {
+                if (row.getPrice() != null && row.getId() > 0) {
+                    map.put(row.getId(), row.getPrice());
+                }
+            });
+        }
+        return map;
+    }
+
+    private static void apply(LongDoubleHashMap map, ProductChangedEvent event) {
+        if (event.before() != null) {
+            map.remove(event.before().id());
+        }
+        if (event.after() != null && event.after().price() != null && event.after().id() > 0) {
+            map.put(event.after().id(), event.after().price());
+        }
+    }
+}
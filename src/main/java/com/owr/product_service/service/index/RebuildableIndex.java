@@ -0,0 +1,169 @@
+package com.owr.product_service.service.index;
+
+import com.owr.product_service.service.event.ProductChangedEvent;
+import com.owr.product_service.service.routing.DataSourceRouting;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * An in-memory structure derived from the products table, such as the {@link PriceIndex}: built by a full scan,
+ * kept current from committed {@link ProductChangedEvent}s, and rebuilt from time to time.
+ *
+ * <p>A rebuild scans into a new structure while readers keep using the current one. Changes that arrive during the
+ * scan are applied to the current structure and remembered; once the scan is done they are replayed onto the new
+ * structure, which is then swapped in. Applying a change must therefore be idempotent: the scan may already have
+ * seen it. If the scan fails, the current structure stays in place and the remembered changes are dropped.</p>
+ *
+ * <p>The scan reads from the primary ({@link DataSourceRouting}). On a lagging replica it could miss changes that
+ * were already applied to the current structure and are not replayed, and the swap would undo them.</p>
+ *
+ * <p>Readers share a read lock, or read optimistically without one ({@link #readDouble(long, DoubleReader)});
+ * applying a change and swapping take the write lock.</p>
+ *
+ * @param <T> the type of the structure; it is only read and changed under the lock
+ */
+public final class RebuildableIndex<T> {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final Supplier<T> scan;
+    private final BiConsumer<T, ProductChangedEvent> apply;
+
+    private final StampedLock lock = new StampedLock();
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    /**
+     * Guarded by {@link #lock}; {@code null} until the first build has completed, unless an initial value is given.
+     */
+    private T current;
+
+    /**
+     * Changes received while a rebuild is scanning the table, replayed onto the new structure; {@code null} when
+     * no rebuild is running. Guarded by {@link #lock}.
+     */
+    private List<ProductChangedEvent> pendingChanges;
+
+    /**
+     * Reads a {@code double} by a primitive key, e.g. {@code LongDoubleHashMap::get}, without allocating.
+     *
+     * @param <T> the type of the structure
+     */
+    @FunctionalInterface
+    public interface DoubleReader<T> {
+        double read(T structure, long key);
+    }
+
+    /**
+     * @param transactionManager runs the scan in a read-only transaction on the primary
+     * @param scan               reads the whole table into a new structure
+     * @param apply              applies one change to a structure; must be idempotent
+     * @param initial            the structure until the first build, or {@code null}
+     */
+    public RebuildableIndex(PlatformTransactionManager transactionManager, Supplier<T> scan,
+                            BiConsumer<T, ProductChangedEvent> apply, T initial) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.scan = scan;
+        this.apply = apply;
+        this.current = initial;
+    }
+
+    /**
+     * Reads the current structure under the read lock.
+     *
+     * @param reader reads the structure, which is {@code null} until the first build has completed
+     * @return the result of {@code reader}
+     */
+    public <R> R read(Function<T, R> reader) {
+        long stamp = lock.readLock();
+        try {
+            return reader.apply(current);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Reads a value optimistically, falling back to the read lock only when a writer interfered. The structure must
+     * not be {@code null} (give an initial one) and {@code reader} must tolerate a concurrent change, as it may run
+     * while one is applied; its result is then discarded.
+     *
+     * @param key    the key to read
+     * @param reader reads the value of {@code key}; pass a method reference so that nothing is captured
+     * @return the value
+     */
+    public double readDouble(long key, DoubleReader<T> reader) {
+        long stamp = lock.tryOptimisticRead();
+        double value = reader.read(current, key);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                value = reader.read(current, key);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Applies a committed change to the current structure, and remembers it for a rebuild in progress.
+     *
+     * @param event the change published by the service
+     */
+    public void onProductChanged(ProductChangedEvent event) {
+        long stamp = lock.writeLock();
+        try {
+            if (current != null) {
+                apply.accept(current, event);
+            }
+            if (pendingChanges != null) {
+                pendingChanges.add(event);
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Scans the table into a new structure and swaps it in; does nothing while another rebuild runs.
+     *
+     * @throws RuntimeException the failure of the scan; the current structure stays in place
+     */
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        long stamp = lock.writeLock();
+        try {
+            pendingChanges = new ArrayList<>();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        try {
+            T rebuilt = DataSourceRouting.onPrimary(() -> readOnlyTransaction.execute(status -> scan.get()));
+
+            stamp = lock.writeLock();
+            try {
+                for (ProductChangedEvent change : pendingChanges) {
+                    apply.accept(rebuilt, change);
+                }
+                current = rebuilt;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        } finally {
+            stamp = lock.writeLock();
+            pendingChanges = null;
+            lock.unlockWrite(stamp);
+            rebuilding.set(false);
+        }
+    }
+}
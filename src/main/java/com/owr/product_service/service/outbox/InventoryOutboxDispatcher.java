@@ -0,0 +1,165 @@
+package com.owr.product_service.service.outbox;
+
+import com.owr.product_service.model.InventoryOutboxEntry;
+import com.owr.product_service.repository.InventoryOutboxRepository;
+import com.owr.product_service.service.client.InventoryClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends pending {@link InventoryOutboxEntry inventory outbox entries} to the inventory service in the background.
+ *
+ * <p>Every {@code inventory.outbox.poll-interval-ms} up to {@code inventory.outbox.batch-size} due entries are
+ * claimed ({@code for update skip locked}, so several instances can run side by side) and their lease is pushed
+ * {@code inventory.outbox.lease} into the future before the claim commits. The inventory records are then created
+ * with {@link InventoryClient#createInventories(Map)} without holding a database connection. Delivered entries are
+ * marked processed; failed ones are retried with exponential backoff, starting at
+ * {@code inventory.outbox.initial-backoff} and capped at {@code inventory.outbox.max-backoff}. An instance that
+ * dies mid-delivery simply lets the lease expire, and the entries are sent again.</p>
+ *
+ * <p>Processed entries are deleted after {@code inventory.outbox.retention}.</p>
+ *
+ * <p>Metrics: {@code inventory.outbox.deliveries{outcome=created|retry}}.</p>
+ */
+@Component
+public class InventoryOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final InventoryOutboxRepository repository;
+    private final InventoryClient client;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter created;
+    private final Counter retried;
+
+    @Value("${inventory.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Value("${inventory.outbox.lease:1m}")
+    private Duration lease;
+
+    @Value("${inventory.outbox.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${inventory.outbox.max-backoff:5m}")
+    private Duration maxBackoff;
+
+    @Value("${inventory.outbox.retention:1d}")
+    private Duration retention;
+
+    public InventoryOutboxDispatcher(InventoryOutboxRepository repository,
+                                     InventoryClient client,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.client = client;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.created = meterRegistry.counter("inventory.outbox.deliveries", "outcome", "created");
+        this.retried = meterRegistry.counter("inventory.outbox.deliveries", "outcome", "retry");
+    }
+
+    /**
+     * Delivers due entries until fewer than a full batch is due.
+     */
+    @Scheduled(fixedDelayString = "${inventory.outbox.poll-interval-ms:250}")
+    public void dispatch() {
+        List<InventoryOutboxEntry> batch;
+        do {
+            batch = claimDueEntries();
+            if (!batch.isEmpty()) {
+                deliver(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    /**
+     * Deletes entries delivered longer than {@code inventory.outbox.retention} ago.
+     */
+    @Scheduled(fixedDelayString = "${inventory.outbox.cleanup-interval-ms:3600000}")
+    public void deleteProcessed() {
+        transactionTemplate.executeWithoutResult(status ->
+                repository.deleteProcessedBefore(Instant.now().minus(retention)));
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    /**
+     * Claims a batch of due entries by pushing their next attempt past the lease, in a short transaction.
+     */
+    private List<InventoryOutboxEntry> claimDueEntries() {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<InventoryOutboxEntry> due = repository.lockDueEntries(now, batchSize);
+            Instant leaseEnd = now.plus(lease);
+            // Managed entities: the new lease is written on commit
+            due.forEach(entry -> entry.setNextAttemptAt(leaseEnd));
+            return due;
+        });
+    }
+
+    /**
+     * Creates the inventory records of a claimed batch and records the outcome per entry.
+     */
+    private void deliver(List<InventoryOutboxEntry> batch) {
+        Map<Long, Integer> quantities = new LinkedHashMap<>(batch.size() * 2);
+        batch.forEach(entry -> quantities.put(entry.getProductId(), entry.getQuantity()));
+
+        Map<Long, String> failures;
+        try {
+            failures = client.createInventories(quantities);
+        } catch (RuntimeException e) {
+            failures = new HashMap<>();
+            for (Long productId : quantities.keySet()) {
+                failures.put(productId, "Inventory creation failed: " + e.getMessage());
+            }
+        }
+
+        Instant now = Instant.now();
+        List<Long> delivered = new ArrayList<>(batch.size());
+        List<InventoryOutboxEntry> failed = new ArrayList<>();
+        for (InventoryOutboxEntry entry : batch) {
+            String error = failures.get(entry.getProductId());
+            if (error == null) {
+                delivered.add(entry.getId());
+            } else {
+                entry.setAttempts(entry.getAttempts() + 1);
+                entry.setNextAttemptAt(now.plus(backoff(entry.getAttempts())));
+                entry.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+                failed.add(entry);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!delivered.isEmpty()) {
+                repository.markProcessed(delivered, now);
+            }
+            repository.saveAll(failed);
+        });
+        created.increment(delivered.size());
+        retried.increment(failed.size());
+    }
+
+    /**
+     * Returns the delay before the given attempt: doubling from the initial backoff, capped at the maximum.
+     */
+    private Duration backoff(int attempts) {
+        int exponent = Math.min(attempts - 1, 30);
+        Duration delay = initialBackoff.multipliedBy(1L << exponent);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
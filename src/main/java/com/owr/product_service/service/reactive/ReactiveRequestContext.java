@@ -0,0 +1,80 @@
+package com.owr.product_service.service.reactive;
+
+import com.owr.product_service.exceptions.DeadlineExceededException;
+import com.owr.product_service.service.deadline.Deadline;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Request data of the reactive mode, carried in the Reactor {@link Context} of a request.
+ *
+ * <p>The reactive counterpart of {@code RequestContextHolder} and {@code DeadlineContext}: a reactive request
+ * hops between event-loop threads, so thread-bound holders would see another request's data or none.
+ * {@code ReactiveRequestContextFilter} writes the Authorization header and the {@link Deadline} of every request;
+ * code downstream reads them with {@link Mono#deferContextual}.</p>
+ */
+public final class ReactiveRequestContext {
+
+    private static final String AUTHORIZATION = ReactiveRequestContext.class.getName() + ".authorization";
+    private static final String DEADLINE = ReactiveRequestContext.class.getName() + ".deadline";
+
+    private ReactiveRequestContext() {
+    }
+
+    /**
+     * Adds the data of a request to a context.
+     *
+     * @param context       the context to extend
+     * @param authorization the Authorization header, may be {@code null}
+     * @param deadline      the deadline of the request
+     * @return the extended context
+     */
+    public static Context with(Context context, String authorization, Deadline deadline) {
+        Context withDeadline = context.put(DEADLINE, deadline);
+        return authorization == null ? withDeadline : withDeadline.put(AUTHORIZATION, authorization);
+    }
+
+    /**
+     * @param context the context of the running request
+     * @return the Authorization header of the request, or {@code null} outside of a request or without one
+     */
+    public static String authorization(ContextView context) {
+        return context.getOrDefault(AUTHORIZATION, null);
+    }
+
+    /**
+     * @param context the context of the running request
+     * @return the deadline of the request, or {@code null} outside of a request
+     */
+    public static Deadline deadline(ContextView context) {
+        return context.getOrDefault(DEADLINE, null);
+    }
+
+    /**
+     * Bounds a stage of work by the request deadline: it is not started once the deadline has passed, and
+     * cancelled with a {@link DeadlineExceededException} when the deadline passes while it runs.
+     *
+     * @param stage the work about to start, used in the error message (e.g. {@code "database query"})
+     * @param work  the work
+     * @return the work, bounded by the deadline of the subscribing request
+     */
+    public static <T> Mono<T> withinDeadline(String stage, Mono<T> work) {
+        return Mono.deferContextual(context -> {
+            Deadline deadline = deadline(context);
+            if (deadline == null) {
+                return work;
+            }
+            if (deadline.isExpired()) {
+                return Mono.error(new DeadlineExceededException("Request deadline exceeded before " + stage));
+            }
+            return work
+                    .timeout(Duration.ofNanos(deadline.remainingNanos()))
+                    .onErrorMap(TimeoutException.class,
+                            e -> new DeadlineExceededException("Request deadline exceeded during " + stage));
+        });
+    }
+}
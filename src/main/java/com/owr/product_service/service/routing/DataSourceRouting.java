@@ -0,0 +1,44 @@
+package com.owr.product_service.service.routing;
+
+import java.util.function.Supplier;
+
+/**
+ * Pins the database work of the current thread to the primary, bypassing the read replicas.
+ *
+ * <p>Read-only transactions normally go to a replica (see {@code ReplicaDataSource}), which may lag behind the
+ * primary. Reads whose result must include the latest committed writes, such as the row an update is based on,
+ * run inside {@link #onPrimary(Supplier)}. The connection of a transaction is chosen when its first statement
+ * runs, so the pin has to cover that statement.</p>
+ */
+public final class DataSourceRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * @return whether the current thread is pinned to the primary
+     */
+    public static boolean isPrimaryRequired() {
+        return PRIMARY.get() != null;
+    }
+
+    /**
+     * Runs {@code work} with its database connections taken from the primary.
+     *
+     * @param work the work, typically a repository call
+     * @return the result of {@code work}
+     */
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (PRIMARY.get() != null) {
+            return work.get();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.owr.product_service.service.routing;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Keeps reads consistent with recent writes while read-only queries are served by lagging replicas.
+ *
+ * <p>For {@code products.datasource.read-your-writes.window} after a committed {@link ProductChangedEvent}:</p>
+ * <ul>
+ *     <li>the caller who made the change reads everything from the primary, so it sees its own writes in every
+ *     response, including {@code GET /all};</li>
+ *     <li>the changed product is read from the primary by everyone, so a stale replica row cannot be put back
+ *     into the {@code ProductCache} right after the change evicted it.</li>
+ * </ul>
+ *
+ * <p>The window must exceed the lag at which a replica is ejected ({@code products.datasource.replicas.max-lag})
+ * plus the health-check interval. Without configured replicas nothing is tracked.</p>
+ */
+@Component
+public class ReadYourWrites {
+
+    private final boolean enabled;
+    private final Cache<Object, Boolean> recentWrites;
+
+    /**
+     * Key of a product written by id.
+     */
+    private record IdKey(Long id) {
+    }
+
+    /**
+     * Key of a product written by name.
+     */
+    private record NameKey(String name) {
+    }
+
+    /**
+     * Key of a caller (token subject) that made a write.
+     */
+    private record CallerKey(String subject) {
+    }
+
+    public ReadYourWrites(@Value("${products.datasource.replicas.urls:}") List<String> replicaUrls,
+                          @Value("${products.datasource.read-your-writes.window:5s}") Duration window) {
+        this.enabled = !replicaUrls.isEmpty();
+        this.recentWrites = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * Reads a product by id, from the primary if it was written within the window.
+     *
+     * @param productId the product identifier
+     * @param query     the database read
+     * @return the result of {@code query}
+     */
+    public <T> T read(Long productId, Supplier<T> query) {
+        return read(new IdKey(productId), query);
+    }
+
+    /**
+     * Reads a product by name, from the primary if a product of that name was written within the window.
+     *
+     * @param name  the product name
+     * @param query the database read
+     * @return the result of {@code query}
+     */
+    public <T> T read(String name, Supplier<T> query) {
+        return read(new NameKey(name), query);
+    }
+
+    /**
+     * @return whether the authenticated caller of the current request wrote within the window
+     */
+    public boolean callerWroteRecently() {
+        if (!enabled) {
+            return false;
+        }
+        String caller = currentCaller();
+        return caller != null && recentWrites.getIfPresent(new CallerKey(caller)) != null;
+    }
+
+    /**
+     * Records the products touched by a committed change and the caller who made it.
+     *
+     * @param event the change published by the service
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        record(event.before());
+        record(event.after());
+        String caller = currentCaller();
+        if (caller != null) {
+            recentWrites.put(new CallerKey(caller), Boolean.TRUE);
+        }
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private <T> T read(Object key, Supplier<T> query) {
+        if (enabled && recentWrites.getIfPresent(key) != null) {
+            return DataSourceRouting.onPrimary(query);
+        }
+        return query.get();
+    }
+
+    private void record(ProductSnapshot product) {
+        if (product != null) {
+            recentWrites.put(new IdKey(product.id()), Boolean.TRUE);
+            recentWrites.put(new NameKey(product.name()), Boolean.TRUE);
+        }
+    }
+
+    /**
+     * The subject of the bearer token of the current request, or {@code null} outside of one.
+     */
+    private static String currentCaller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
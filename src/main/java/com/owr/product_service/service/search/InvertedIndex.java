@@ -0,0 +1,404 @@
+package com.owr.product_service.service.search;
+
+import com.owr.product_service.service.cache.ProductSnapshot;
+
+import java.util.*;
+
+/**
+ * Inverted index over product name, category and description.
+ *
+ * <p>Every indexed product gets an internal document id, assigned in increasing order. The term dictionary is
+ * sorted, so a prefix maps to a contiguous range of terms. A changed product is indexed again under a new
+ * document id and its old id is marked deleted; deleted postings are skipped at query time and dropped by the
+ * next full rebuild.</p>
+ *
+ * <p>Queries match products containing every query term (AND). The last term also matches as a prefix, for
+ * search-as-you-type. Results are ranked by the sum over the query terms of the term's inverse document
+ * frequency, weighted by the best field the term occurs in (name &gt; category &gt; description). Terms only
+ * matched through prefix expansion count a bit less than exact matches.</p>
+ *
+ * <p>Not thread-safe; guarded by {@link ProductSearchIndex}.</p>
+ */
+final class InvertedIndex {
+
+    static final int NAME = 1;
+    static final int CATEGORY = 2;
+    static final int DESCRIPTION = 4;
+
+    /**
+     * Maximum number of dictionary terms a prefix expands to; the most frequent ones are kept.
+     */
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    /**
+     * Maximum number of dictionary terms looked at while expanding a prefix.
+     */
+    private static final int MAX_PREFIX_SCAN = 4096;
+
+    /**
+     * Score factor of a term that only matched as a prefix of a longer term.
+     */
+    private static final float PREFIX_FACTOR = 0.7f;
+
+    /**
+     * Maximum number of distinct terms of a query that are evaluated.
+     */
+    private static final int MAX_QUERY_TERMS = 8;
+
+    /**
+     * The stored fields of an indexed product, returned with search hits.
+     */
+    record Document(long productId, String name, String category, Double price) {
+    }
+
+    /**
+     * One ranked hit.
+     */
+    record Hit(Document document, double score) {
+    }
+
+    /**
+     * A page of hits and the total number of matches.
+     */
+    record Hits(int total, List<Hit> hits) {
+    }
+
+    /**
+     * Documents matching all query terms, in ascending document order, and their scores.
+     */
+    private record Match(int[] docs, float[] scores, int size) {
+    }
+
+    /**
+     * The documents of one query term, streamed from its posting lists in ascending order.
+     */
+    private interface TermMatches {
+
+        /**
+         * @return an upper bound of the number of documents, used to pick the rarest term and size the results
+         */
+        int cost();
+
+        /**
+         * Moves to the first document at or after {@code target}; does not move back.
+         *
+         * @return the current document, or {@link PostingList#NO_MORE_DOCS}
+         */
+        int advance(int target);
+
+        /**
+         * @return the term's score for the current document
+         */
+        float score();
+    }
+
+    /**
+     * A term matched through one posting list.
+     */
+    private static final class PostingMatches implements TermMatches {
+
+        private final PostingList.Cursor cursor;
+        private final int cost;
+        private final float weight;
+
+        PostingMatches(PostingList postings, float weight) {
+            this.cursor = postings.cursor();
+            this.cost = postings.documentCount();
+            this.weight = weight;
+        }
+
+        @Override
+        public int cost() {
+            return cost;
+        }
+
+        @Override
+        public int advance(int target) {
+            return cursor.advance(target);
+        }
+
+        @Override
+        public float score() {
+            return weight * fieldWeight(cursor.fieldMask());
+        }
+    }
+
+    /**
+     * A prefix matched through several posting lists; a document in more than one keeps its best score.
+     */
+    private static final class UnionMatches implements TermMatches {
+
+        private final PostingMatches[] expansions;
+        private final int cost;
+        private int doc = -1;
+        private float score;
+
+        UnionMatches(PostingMatches[] expansions) {
+            this.expansions = expansions;
+            int total = 0;
+            for (PostingMatches expansion : expansions) {
+                total += expansion.cost();
+            }
+            this.cost = total;
+        }
+
+        @Override
+        public int cost() {
+            return cost;
+        }
+
+        @Override
+        public int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            int min = PostingList.NO_MORE_DOCS;
+            float best = 0f;
+            for (PostingMatches expansion : expansions) {
+                int candidate = expansion.advance(target);
+                if (candidate < min) {
+                    min = candidate;
+                    best = expansion.score();
+                } else if (candidate == min && candidate != PostingList.NO_MORE_DOCS) {
+                    best = Math.max(best, expansion.score());
+                }
+            }
+            doc = min;
+            score = best;
+            return doc;
+        }
+
+        @Override
+        public float score() {
+            return score;
+        }
+    }
+
+    private final NavigableMap<String, PostingList> terms = new TreeMap<>();
+    private final Map<Long, Integer> docByProduct = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private Document[] documents;
+    private int nextDoc;
+    private int liveDocuments;
+
+    InvertedIndex(int expectedDocuments) {
+        documents = new Document[Math.max(16, expectedDocuments)];
+    }
+
+    /**
+     * Indexes a product, replacing its previous version if any.
+     *
+     * @param product the product to index
+     */
+    void put(ProductSnapshot product) {
+        remove(product.id());
+
+        int doc = nextDoc++;
+        if (doc == documents.length) {
+            documents = Arrays.copyOf(documents, documents.length + (documents.length >> 1));
+        }
+        documents[doc] = new Document(product.id(), product.name(), product.category(), product.price());
+        docByProduct.put(product.id(), doc);
+        liveDocuments++;
+
+        Map<String, Integer> fieldMasks = new HashMap<>();
+        collectTerms(fieldMasks, product.name(), NAME);
+        collectTerms(fieldMasks, product.category(), CATEGORY);
+        collectTerms(fieldMasks, product.description(), DESCRIPTION);
+        fieldMasks.forEach((term, mask) -> terms.computeIfAbsent(term, t -> new PostingList()).add(doc, mask));
+    }
+
+    /**
+     * Removes a product from the results.
+     *
+     * @param productId the product identifier
+     */
+    void remove(Long productId) {
+        Integer doc = docByProduct.remove(productId);
+        if (doc != null) {
+            deleted.set(doc);
+            documents[doc] = null;
+            liveDocuments--;
+        }
+    }
+
+    /**
+     * Releases spare capacity after a bulk build.
+     */
+    void trim() {
+        terms.values().forEach(PostingList::trim);
+    }
+
+    /**
+     * @return the number of products in the index
+     */
+    int size() {
+        return liveDocuments;
+    }
+
+    /**
+     * @return the number of distinct terms
+     */
+    int termCount() {
+        return terms.size();
+    }
+
+    /**
+     * Runs a query and returns one page of the ranked hits.
+     *
+     * @param query  the query text
+     * @param offset the number of best hits to skip
+     * @param limit  the maximum number of hits to return
+     * @return the page and the total number of matching products
+     */
+    Hits search(String query, int offset, int limit) {
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+        if (queryTerms.isEmpty()) {
+            return new Hits(0, List.of());
+        }
+        if (queryTerms.size() > MAX_QUERY_TERMS) {
+            queryTerms = queryTerms.subList(queryTerms.size() - MAX_QUERY_TERMS, queryTerms.size());
+        }
+
+        TermMatches[] matches = new TermMatches[queryTerms.size()];
+        for (int i = 0; i < matches.length; i++) {
+            boolean last = i == matches.length - 1;
+            matches[i] = last ? matchPrefix(queryTerms.get(i)) : matchExact(queryTerms.get(i));
+            if (matches[i] == null) {
+                return new Hits(0, List.of());
+            }
+        }
+
+        // Intersect starting with the rarest term: it proposes candidates, the others only skip ahead to them
+        Arrays.sort(matches, Comparator.comparingInt(TermMatches::cost));
+        return topHits(intersect(matches), offset, limit);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static void collectTerms(Map<String, Integer> fieldMasks, String text, int field) {
+        for (String term : Tokenizer.tokenize(text)) {
+            fieldMasks.merge(term, field, (a, b) -> a | b);
+        }
+    }
+
+    /**
+     * @return the documents containing {@code term}, or {@code null} if there are none
+     */
+    private TermMatches matchExact(String term) {
+        PostingList postings = terms.get(term);
+        return postings == null ? null : new PostingMatches(postings, idf(postings));
+    }
+
+    /**
+     * Matches every term starting with {@code prefix}, the exact term included.
+     *
+     * @return the documents containing such a term, or {@code null} if there are none
+     */
+    private TermMatches matchPrefix(String prefix) {
+        List<Map.Entry<String, PostingList>> expansions = new ArrayList<>();
+        int scanned = 0;
+        for (Map.Entry<String, PostingList> entry : terms.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix) || scanned++ == MAX_PREFIX_SCAN) {
+                break;
+            }
+            expansions.add(entry);
+        }
+        if (expansions.isEmpty()) {
+            return null;
+        }
+        if (expansions.size() > MAX_PREFIX_EXPANSIONS) {
+            expansions.sort(Comparator.comparingInt(
+                    (Map.Entry<String, PostingList> e) -> e.getValue().documentCount()).reversed());
+            expansions = expansions.subList(0, MAX_PREFIX_EXPANSIONS);
+        }
+
+        PostingMatches[] cursors = new PostingMatches[expansions.size()];
+        for (int i = 0; i < cursors.length; i++) {
+            Map.Entry<String, PostingList> entry = expansions.get(i);
+            float factor = entry.getKey().equals(prefix) ? 1f : PREFIX_FACTOR;
+            cursors[i] = new PostingMatches(entry.getValue(), idf(entry.getValue()) * factor);
+        }
+        return cursors.length == 1 ? cursors[0] : new UnionMatches(cursors);
+    }
+
+    private float idf(PostingList postings) {
+        return (float) Math.log(1.0 + (double) Math.max(liveDocuments, 1) / postings.documentCount());
+    }
+
+    private static float fieldWeight(int mask) {
+        if ((mask & NAME) != 0) {
+            return 3f;
+        }
+        return (mask & CATEGORY) != 0 ? 2f : 1f;
+    }
+
+    /**
+     * Documents of every term that are not deleted, with the scores added up; {@code matches} starts with the
+     * rarest term.
+     */
+    private Match intersect(TermMatches[] matches) {
+        TermMatches lead = matches[0];
+        int[] docs = new int[lead.cost()];
+        float[] scores = new float[docs.length];
+        int size = 0;
+
+        int doc = lead.advance(0);
+        while (doc != PostingList.NO_MORE_DOCS) {
+            int candidate = doc;
+            for (int i = 1; i < matches.length && candidate == doc; i++) {
+                candidate = matches[i].advance(doc);
+            }
+            if (candidate == PostingList.NO_MORE_DOCS) {
+                break;
+            }
+            if (candidate != doc) {
+                doc = lead.advance(candidate);
+                continue;
+            }
+            if (!deleted.get(doc)) {
+                float score = 0f;
+                for (TermMatches match : matches) {
+                    score += match.score();
+                }
+                docs[size] = doc;
+                scores[size++] = score;
+            }
+            doc = lead.advance(doc + 1);
+        }
+        return new Match(docs, scores, size);
+    }
+
+    /**
+     * Selects the hits at {@code offset .. offset + limit} by descending score, keeping only that many
+     * candidates in a heap; ties go to the product indexed first.
+     */
+    private Hits topHits(Match match, int offset, int limit) {
+        int wanted = Math.min(match.size(), offset + limit);
+        if (offset >= wanted) {
+            return new Hits(match.size(), List.of());
+        }
+        Comparator<Integer> better = (x, y) -> {
+            int byScore = Float.compare(match.scores()[x], match.scores()[y]);
+            return byScore != 0 ? byScore : Integer.compare(match.docs()[y], match.docs()[x]);
+        };
+        PriorityQueue<Integer> worstFirst = new PriorityQueue<>(wanted, better);
+        for (int i = 0; i < match.size(); i++) {
+            if (worstFirst.size() < wanted) {
+                worstFirst.add(i);
+            } else if (better.compare(i, worstFirst.peek()) > 0) {
+                worstFirst.poll();
+                worstFirst.add(i);
+            }
+        }
+
+        Hit[] ranked = new Hit[worstFirst.size()];
+        for (int k = ranked.length - 1; k >= 0; k--) {
+            int i = worstFirst.poll();
+            ranked[k] = new Hit(documents[match.docs()[i]], match.scores()[i]);
+        }
+        return new Hits(match.size(), List.of(ranked).subList(offset, ranked.length));
+    }
+}
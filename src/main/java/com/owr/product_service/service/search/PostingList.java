@@ -0,0 +1,182 @@
+package com.owr.product_service.service.search;
+
+import java.util.Arrays;
+
+/**
+ * The documents containing one term, in ascending document order, compressed.
+ *
+ * <p>Each posting is stored as the gap to the previous document id as a variable-length integer (7 bits per byte,
+ * so most gaps take one or two bytes), followed by one byte holding the {@link InvertedIndex} field mask. Documents
+ * are only ever appended with increasing ids, which keeps the gaps positive and the list sorted.</p>
+ *
+ * <p>Postings are read in place through a {@link Cursor}. Every {@value #SKIP_INTERVAL} postings a skip entry
+ * records the byte offset of the next posting and the document before it, so that a cursor advancing to a distant
+ * document jumps over whole blocks instead of decoding them.</p>
+ *
+ * <p>Not thread-safe; guarded by {@link ProductSearchIndex}.</p>
+ */
+final class PostingList {
+
+    /**
+     * Returned by {@link Cursor#advance(int)} once the postings are exhausted.
+     */
+    static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    /**
+     * Postings per skip entry.
+     */
+    static final int SKIP_INTERVAL = 128;
+
+    private byte[] data = new byte[8];
+    private int length;
+    private int lastDoc = -1;
+    private int documentCount;
+
+    /**
+     * Entry {@code k} describes posting {@code (k + 1) * SKIP_INTERVAL}: the document before it and its offset.
+     */
+    private int[] skipDocs = new int[0];
+    private int[] skipOffsets = new int[0];
+    private int skipCount;
+
+    /**
+     * Reads the postings in ascending document order, starting before the first one.
+     */
+    final class Cursor {
+
+        private int position;
+        private int index;
+        private int doc = -1;
+        private int fieldMask;
+        private int nextSkip;
+
+        /**
+         * Moves to the first document at or after {@code target}; does not move back.
+         *
+         * @param target the document id to reach
+         * @return the current document, or {@link #NO_MORE_DOCS}
+         */
+        int advance(int target) {
+            if (doc >= target) {
+                return doc;
+            }
+            while (nextSkip < skipCount && skipDocs[nextSkip] < target) {
+                nextSkip++;
+            }
+            int skip = nextSkip - 1;
+            if (skip >= 0 && (skip + 1) * SKIP_INTERVAL > index) {
+                position = skipOffsets[skip];
+                doc = skipDocs[skip];
+                index = (skip + 1) * SKIP_INTERVAL;
+            }
+            while (index < documentCount) {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do {
+                    b = data[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                doc += gap;
+                fieldMask = data[position++];
+                index++;
+                if (doc >= target) {
+                    return doc;
+                }
+            }
+            doc = NO_MORE_DOCS;
+            return doc;
+        }
+
+        /**
+         * @return the current document, {@code -1} before the first {@link #advance(int)}
+         */
+        int doc() {
+            return doc;
+        }
+
+        /**
+         * @return the fields of the current document that contain the term
+         */
+        int fieldMask() {
+            return fieldMask;
+        }
+    }
+
+    /**
+     * Appends a posting.
+     *
+     * @param doc       the document id, greater than every id added before
+     * @param fieldMask the fields of the document that contain the term
+     */
+    void add(int doc, int fieldMask) {
+        if (doc <= lastDoc) {
+            throw new IllegalArgumentException(
+                    "Documents must be added in ascending order: " + doc + " after " + lastDoc);
+        }
+        if (documentCount > 0 && documentCount % SKIP_INTERVAL == 0) {
+            addSkip();
+        }
+        ensureCapacity(6);
+        int gap = doc - lastDoc;
+        while ((gap & ~0x7F) != 0) {
+            data[length++] = (byte) ((gap & 0x7F) | 0x80);
+            gap >>>= 7;
+        }
+        data[length++] = (byte) gap;
+        data[length++] = (byte) fieldMask;
+        lastDoc = doc;
+        documentCount++;
+    }
+
+    /**
+     * @return the number of postings, including those of deleted documents
+     */
+    int documentCount() {
+        return documentCount;
+    }
+
+    /**
+     * @return a cursor before the first posting
+     */
+    Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * @return bytes used by the encoded postings and the skip entries
+     */
+    int sizeInBytes() {
+        return length + skipCount * 2 * Integer.BYTES;
+    }
+
+    /**
+     * Drops spare capacity once the list is complete.
+     */
+    void trim() {
+        if (data.length > length) {
+            data = Arrays.copyOf(data, length);
+        }
+        if (skipDocs.length > skipCount) {
+            skipDocs = Arrays.copyOf(skipDocs, skipCount);
+            skipOffsets = Arrays.copyOf(skipOffsets, skipCount);
+        }
+    }
+
+    private void addSkip() {
+        if (skipCount == skipDocs.length) {
+            int capacity = Math.max(4, skipCount + (skipCount >> 1));
+            skipDocs = Arrays.copyOf(skipDocs, capacity);
+            skipOffsets = Arrays.copyOf(skipOffsets, capacity);
+        }
+        skipDocs[skipCount] = lastDoc;
+        skipOffsets[skipCount++] = length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > data.length) {
+            data = Arrays.copyOf(data, Math.max(length + extra, data.length + (data.length >> 1)));
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.owr.product_service.service.search;
+
+import com.owr.product_service.dto.ProductSearchHit;
+import com.owr.product_service.dto.ProductSearchPage;
+import com.owr.product_service.exceptions.InvalidRequestException;
+import com.owr.product_service.exceptions.SearchUnavailableException;
+import com.owr.product_service.repository.ProductRepository;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import com.owr.product_service.service.index.RebuildableIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+import java.util.stream.Stream;
+
+/**
+ * Full-text search over product name, category and description for {@code GET /api/products/search}.
+ *
+ * <p>Queries run against an in-memory {@link InvertedIndex}, never against the database. The index is a
+ * {@link RebuildableIndex}: built from a bulk scan once the application is ready, kept current from committed
+ * {@link ProductChangedEvent}s, and rebuilt every {@code products.search.rebuild-interval-ms} to pick up changes
+ * made through other instances and to drop the postings of changed and deleted products. Until the first scan
+ * completes, searches fail with 503.</p>
+ *
+ * <p>Queries share a read lock; applying a change takes the write lock for the few microseconds it needs.</p>
+ *
+ * <p>Metrics: {@code products.search.documents} and {@code products.search.terms} gauges.</p>
+ */
+@Component
+public class ProductSearchIndex {
+
+    private final ProductRepository repository;
+    private final RebuildableIndex<InvertedIndex> index;
+
+    /**
+     * Largest page size accepted by {@link #search(String, int, int)}.
+     */
+    @Value("${products.search.max-page-size:100}")
+    private int maxPageSize;
+
+    /**
+     * How deep into the ranking clients may page ({@code (page + 1) * size}).
+     */
+    @Value("${products.search.max-window:1000}")
+    private int maxWindow;
+
+    public ProductSearchIndex(ProductRepository repository,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.index = new RebuildableIndex<>(transactionManager, this::scan, ProductSearchIndex::apply, null);
+        Gauge.builder("products.search.documents", this, search -> search.stat(InvertedIndex::size))
+                .register(meterRegistry);
+        Gauge.builder("products.search.terms", this, search -> search.stat(InvertedIndex::termCount))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Searches products and returns one page of the ranked results.
+     *
+     * <p>Products must contain every word of the query in their name, category or description; the last word
+     * may also be the beginning of a word, so the query can be sent on each keystroke.</p>
+     *
+     * @param query the search text
+     * @param page  the zero-based page number
+     * @param size  the page size, between 1 and {@code products.search.max-page-size}
+     * @return the page of hits, best match first, and the total number of matches
+     * @throws InvalidRequestException    if the query is blank or the page is out of range
+     * @throws SearchUnavailableException if the index has not been built yet
+     */
+    public ProductSearchPage search(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("q must not be blank");
+        }
+        if (size < 1 || size > maxPageSize) {
+            throw new InvalidRequestException("size must be between 1 and " + maxPageSize);
+        }
+        if (page < 0 || (long) (page + 1) * size > maxWindow) {
+            throw new InvalidRequestException("Only the first " + maxWindow + " results can be paged through");
+        }
+
+        InvertedIndex.Hits hits = index.read(current -> {
+            if (current == null) {
+                throw new SearchUnavailableException("Search index is still being built");
+            }
+            return current.search(query, page * size, size);
+        });
+
+        List<ProductSearchHit> items = new ArrayList<>(hits.hits().size());
+        for (InvertedIndex.Hit hit : hits.hits()) {
+            InvertedIndex.Document document = hit.document();
+            items.add(new ProductSearchHit(
+                    document.productId(), document.name(), document.category(), document.price(), hit.score()));
+        }
+        return new ProductSearchPage(items, hits.total(), page, size);
+    }
+
+    /**
+     * Builds the index as soon as the application is ready to serve traffic.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Periodically rebuilds the index from the database.
+     */
+    @Scheduled(initialDelayString = "${products.search.rebuild-interval-ms:1800000}",
+            fixedDelayString = "${products.search.rebuild-interval-ms:1800000}")
+    public void scheduledRebuild() {
+        rebuild();
+    }
+
+    /**
+     * Applies a committed product change to the index.
+     *
+     * @param event the change published by the service
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        index.onProductChanged(event);
+    }
+
+    /**
+     * Scans all products into a new index and swaps it in. Searches keep using the previous index meanwhile.
+     */
+    void rebuild() {
+        index.rebuild();
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private InvertedIndex scan() {
+        InvertedIndex fresh = new InvertedIndex((int) repository.count());
+        try (Stream<ProductSnapshot> products = repository.streamAllSnapshots()) {
+            products.forEach(fresh::put);
+        }
+        fresh.trim();
+        return fresh;
+    }
+
+    private static void apply(InvertedIndex index, ProductChangedEvent event) {
+        if (event.after() != null) {
+            index.put(event.after());
+        } else if (event.before() != null) {
+            index.remove(event.before().id());
+        }
+    }
+
+    private double stat(ToIntFunction<InvertedIndex> metric) {
+        return index.read(current -> current == null ? 0 : metric.applyAsInt(current));
+    }
+}
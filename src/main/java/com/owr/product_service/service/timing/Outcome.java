@@ -0,0 +1,27 @@
+package com.owr.product_service.service.timing;
+
+/**
+ * Value of the {@code outcome} tag of the stage timers.
+ */
+public enum Outcome {
+
+    SUCCESS("success"),
+
+    /**
+     * Completed, but served the last known inventory data instead of live data.
+     */
+    STALE("stale"),
+
+    /**
+     * Completed, but some of the requested items could not be resolved.
+     */
+    PARTIAL("partial"),
+
+    ERROR("error");
+
+    final String tag;
+
+    Outcome(String tag) {
+        this.tag = tag;
+    }
+}
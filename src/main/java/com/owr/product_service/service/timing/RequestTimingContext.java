@@ -0,0 +1,38 @@
+package com.owr.product_service.service.timing;
+
+/**
+ * Holds the {@link RequestTimings} of the request being processed by the current thread.
+ *
+ * <p>Set by {@code ServerTimingFilter} for the duration of a request. Time spent on other threads (e.g. bulk
+ * inventory chunks) is accounted for by the request thread waiting for it.</p>
+ */
+public final class RequestTimingContext {
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+    private RequestTimingContext() {
+    }
+
+    /**
+     * @return the timings of the current request, or {@code null} outside of a request
+     */
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Binds timings to the current thread.
+     *
+     * @param timings the timings of the request being processed
+     */
+    public static void set(RequestTimings timings) {
+        CURRENT.set(timings);
+    }
+
+    /**
+     * Removes the timings from the current thread once the request is done.
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,66 @@
+package com.owr.product_service.service.timing;
+
+/**
+ * Time spent per {@link Stage} by one request, rendered as its {@code Server-Timing} response header.
+ *
+ * <p>Only the request thread adds to it (see {@link RequestTimingContext}); not thread-safe.</p>
+ */
+public final class RequestTimings {
+
+    private final long startNanos;
+    private final long[] nanos = new long[Stage.VALUES.length];
+    private final int[] counts = new int[Stage.VALUES.length];
+
+    /**
+     * @param startNanos {@link System#nanoTime()} when the request arrived
+     */
+    public RequestTimings(long startNanos) {
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Adds time spent in a stage; a stage entered several times is reported as the sum.
+     *
+     * @param stage the stage
+     * @param nanos the time spent
+     */
+    public void add(Stage stage, long nanos) {
+        this.nanos[stage.ordinal()] += nanos;
+        this.counts[stage.ordinal()]++;
+    }
+
+    /**
+     * Renders the stages entered so far, in milliseconds, plus the total time since the request arrived, e.g.
+     * {@code db;dur=1.52;desc="Database", inventory;dur=4.1;desc="Inventory service", total;dur=6.93}.
+     *
+     * @param nowNanos {@link System#nanoTime()} now
+     * @return the header value
+     */
+    public String toServerTiming(long nowNanos) {
+        StringBuilder header = new StringBuilder(160);
+        for (Stage stage : Stage.VALUES) {
+            int i = stage.ordinal();
+            if (counts[i] == 0) {
+                continue;
+            }
+            header.append(stage.serverTimingName).append(";dur=").append(millis(nanos[i]))
+                    .append(";desc=\"").append(stage.description);
+            if (counts[i] > 1) {
+                header.append(" (").append(counts[i]).append(" calls)");
+            }
+            header.append("\", ");
+        }
+        return header.append("total;dur=").append(millis(nowNanos - startNanos)).toString();
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    /**
+     * Milliseconds with two decimals.
+     */
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
@@ -0,0 +1,55 @@
+package com.owr.product_service.service.timing;
+
+/**
+ * The stages a request spends its time in, each with its own timer and {@code Server-Timing} entry.
+ */
+public enum Stage {
+
+    /**
+     * JWT decoding and validation in the security filter chain.
+     */
+    AUTH("products.auth", "auth", "JWT decoding"),
+
+    /**
+     * Database queries and writes issued by the service.
+     */
+    DB("products.db", "db", "Database"),
+
+    /**
+     * Calls to the inventory service, including cache, hedging and fallbacks.
+     */
+    INVENTORY("inventory.requests", "inventory", "Inventory service"),
+
+    /**
+     * Mapping of entities and snapshots to DTOs.
+     */
+    MAPPING("products.mapping", "mapping", "DTO mapping"),
+
+    /**
+     * Writing the response body as JSON.
+     */
+    SERIALIZATION("products.serialization", "serialize", "JSON serialization");
+
+    static final Stage[] VALUES = values();
+
+    /**
+     * Name of the timer, tagged with {@code operation} and {@code outcome}.
+     */
+    final String meterName;
+
+    /**
+     * Metric name in the {@code Server-Timing} header.
+     */
+    final String serverTimingName;
+
+    /**
+     * Description in the {@code Server-Timing} header.
+     */
+    final String description;
+
+    Stage(String meterName, String serverTimingName, String description) {
+        this.meterName = meterName;
+        this.serverTimingName = serverTimingName;
+        this.description = description;
+    }
+}
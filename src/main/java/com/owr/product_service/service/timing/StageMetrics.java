@@ -0,0 +1,124 @@
+package com.owr.product_service.service.timing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times the {@link Stage}s of request processing.
+ *
+ * <p>Every measurement goes to the stage's timer, tagged with {@code operation} and {@code outcome}, and, on a
+ * request thread, into the request's {@link RequestTimings} for the {@code Server-Timing} header. Percentiles
+ * and histogram buckets of the timers are configured with {@code management.metrics.distribution.*}.</p>
+ *
+ * <p>Timers are looked up without allocation once registered, so a measurement costs two {@code nanoTime}
+ * calls and a timer update.</p>
+ */
+@Component
+public class StageMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Per stage: operation name to its timers, indexed by {@link Outcome#ordinal()}.
+     */
+    private final ConcurrentMap<String, Timer[]>[] timers;
+
+    @SuppressWarnings("unchecked")
+    public StageMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.timers = new ConcurrentMap[Stage.VALUES.length];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Runs {@code work} and records its duration, with outcome {@link Outcome#ERROR} if it throws.
+     *
+     * @param stage     the stage the work belongs to
+     * @param operation the {@code operation} tag, from a small fixed set (e.g. {@code "findById"})
+     * @param work      the work
+     * @return the result of {@code work}
+     */
+    public <T> T time(Stage stage, String operation, Supplier<T> work) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            T result = work.get();
+            outcome = Outcome.SUCCESS;
+            return result;
+        } finally {
+            record(stage, operation, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Like {@link #time(Stage, String, Supplier)} for work without a result.
+     */
+    public void run(Stage stage, String operation, Runnable work) {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.ERROR;
+        try {
+            work.run();
+            outcome = Outcome.SUCCESS;
+        } finally {
+            record(stage, operation, outcome, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Records a duration measured by the caller, for stages whose outcome is more than success or failure.
+     *
+     * @param stage     the stage
+     * @param operation the {@code operation} tag
+     * @param outcome   the {@code outcome} tag
+     * @param nanos     the duration
+     */
+    public void record(Stage stage, String operation, Outcome outcome, long nanos) {
+        timer(stage, operation, outcome).record(nanos, TimeUnit.NANOSECONDS);
+        RequestTimings timings = RequestTimingContext.current();
+        if (timings != null) {
+            timings.add(stage, nanos);
+        }
+    }
+
+    /**
+     * Counts a failed call of a stage in {@code <timer name>.failures}.
+     *
+     * @param stage     the stage
+     * @param operation the {@code operation} tag
+     * @param reason    the {@code reason} tag, from a small fixed set (e.g. {@code "circuit_open"})
+     */
+    public void countFailure(Stage stage, String operation, String reason) {
+        meterRegistry.counter(stage.meterName + ".failures", "operation", operation, "reason", reason).increment();
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private Timer timer(Stage stage, String operation, Outcome outcome) {
+        ConcurrentMap<String, Timer[]> byOperation = timers[stage.ordinal()];
+        Timer[] byOutcome = byOperation.get(operation);
+        if (byOutcome == null) {
+            byOutcome = byOperation.computeIfAbsent(operation, op -> new Timer[Outcome.values().length]);
+        }
+        Timer timer = byOutcome[outcome.ordinal()];
+        if (timer == null) {
+            // Racing registrations resolve to the same meter
+            timer = Timer.builder(stage.meterName)
+                    .description(stage.description)
+                    .tag("operation", operation)
+                    .tag("outcome", outcome.tag)
+                    .register(meterRegistry);
+            byOutcome[outcome.ordinal()] = timer;
+        }
+        return timer;
+    }
+}
@@ -0,0 +1,74 @@
+package com.owr.product_service.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class AppConfigTest {
+
+    private final AppConfig config = new AppConfig();
+
+    @Test
+    void saturatedVirtualInventoryExecutorRejectsInsteadOfBlocking() throws InterruptedException {
+        assertThat(saturateAndSubmitOneMore(true)).containsExactly(true);
+    }
+
+    @Test
+    void saturatedPlatformInventoryExecutorRejectsInsteadOfBlocking() throws InterruptedException {
+        assertThat(saturateAndSubmitOneMore(false)).containsExactly(false);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    /**
+     * Occupies both workers and the whole queue of a 2-thread inventory executor, then checks that one more task is
+     * rejected right away.
+     *
+     * @return whether the workers ran on virtual threads
+     */
+    private Set<Boolean> saturateAndSubmitOneMore(boolean virtualThreads) throws InterruptedException {
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) config.inventoryExecutor(2, virtualThreads);
+        executor.initialize();
+        CountDownLatch running = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        Set<Boolean> virtual = ConcurrentHashMap.newKeySet();
+        try {
+            for (int i = 0; i < 2 + 1_000; i++) {
+                executor.execute(() -> {
+                    virtual.add(Thread.currentThread().isVirtual());
+                    running.countDown();
+                    awaitQuietly(release);
+                });
+            }
+            assertThat(running.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () ->
+                    assertThatThrownBy(() -> executor.execute(() -> { }))
+                            .isInstanceOf(TaskRejectedException.class));
+            return virtual;
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
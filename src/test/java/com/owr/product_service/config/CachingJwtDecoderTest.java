@@ -0,0 +1,110 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.service.timing.StageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CachingJwtDecoderTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Map<String, Jwt> issued = new HashMap<>();
+    private final List<String> verified = new ArrayList<>();
+    private final JwtDecoder delegate = token -> {
+        verified.add(token);
+        Jwt jwt = issued.get(token);
+        if (jwt == null) {
+            throw new BadJwtException("Signature does not match");
+        }
+        return jwt;
+    };
+
+    @Test
+    void cachedTokenIsNotVerifiedAgain() {
+        Jwt jwt = issue("alice", Instant.now().plus(Duration.ofHours(1)));
+        CachingJwtDecoder decoder = decoder(100);
+
+        assertThat(decoder.decode("alice")).isSameAs(jwt);
+        assertThat(decoder.decode("alice")).isSameAs(jwt);
+
+        assertThat(verified).containsExactly("alice");
+        assertThat(meterRegistry.get("cache.gets").tag("cache", "jwt").tag("result", "hit").functionCounter()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedTokenIsNeverCached() {
+        CachingJwtDecoder decoder = decoder(100);
+
+        assertThatThrownBy(() -> decoder.decode("forged")).isInstanceOf(BadJwtException.class);
+        issue("forged", Instant.now().plus(Duration.ofHours(1)));
+        decoder.decode("forged");
+
+        assertThat(verified).containsExactly("forged", "forged");
+    }
+
+    @Test
+    void expiredTokenIsNotServedFromTheCache() {
+        issue("bob", Instant.now().minusSeconds(1));
+        CachingJwtDecoder decoder = decoder(100);
+
+        decoder.decode("bob");
+        decoder.decode("bob");
+
+        assertThat(verified).containsExactly("bob", "bob");
+    }
+
+    @Test
+    void tokensAreCachedUntilTheyExpireAndAtMostForTheMaxTtl() {
+        Instant now = Instant.parse("2026-01-01T12:00:00Z");
+        Duration maxTtl = Duration.ofMinutes(5);
+
+        assertThat(CachingJwtDecoder.timeToLive(jwt(now.plusSeconds(90)), maxTtl, now))
+                .isEqualTo(Duration.ofSeconds(90));
+        assertThat(CachingJwtDecoder.timeToLive(jwt(now.plus(Duration.ofHours(1))), maxTtl, now)).isEqualTo(maxTtl);
+        assertThat(CachingJwtDecoder.timeToLive(jwt(now.minusSeconds(1)), maxTtl, now)).isZero();
+        assertThat(CachingJwtDecoder.timeToLive(jwt(null), maxTtl, now)).isEqualTo(maxTtl);
+    }
+
+    @Test
+    void everyTokenIsVerifiedWhenTheCacheIsDisabled() {
+        issue("alice", Instant.now().plus(Duration.ofHours(1)));
+        CachingJwtDecoder decoder = decoder(0);
+
+        decoder.decode("alice");
+        decoder.decode("alice");
+
+        assertThat(verified).containsExactly("alice", "alice");
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private CachingJwtDecoder decoder(long maxSize) {
+        return new CachingJwtDecoder(delegate, maxSize, Duration.ofMinutes(5), new StageMetrics(meterRegistry),
+                meterRegistry);
+    }
+
+    private Jwt issue(String token, Instant expiresAt) {
+        Jwt jwt = Jwt.withTokenValue(token).header("alg", "RS256").subject(token).expiresAt(expiresAt).build();
+        issued.put(token, jwt);
+        return jwt;
+    }
+
+    private static Jwt jwt(Instant expiresAt) {
+        return Jwt.withTokenValue("token").header("alg", "RS256").subject("alice").expiresAt(expiresAt).build();
+    }
+}
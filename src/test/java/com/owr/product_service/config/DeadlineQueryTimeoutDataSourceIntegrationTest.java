@@ -0,0 +1,79 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.service.deadline.Deadline;
+import com.owr.product_service.service.deadline.DeadlineContext;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DeadlineQueryTimeoutDataSourceIntegrationTest {
+
+    private static EmbeddedPostgres postgres;
+
+    private final DeadlineQueryTimeoutDataSource dataSource =
+            new DeadlineQueryTimeoutDataSource(postgres.getPostgresDatabase());
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        DeadlineContext.clear();
+    }
+
+    @Test
+    void queryRunningPastTheDeadlineIsCancelled() {
+        DeadlineContext.set(Deadline.inMillis(800));
+        long start = System.nanoTime();
+
+        assertThatThrownBy(() -> jdbcTemplate.execute("select pg_sleep(10)"))
+                .isInstanceOf(QueryTimeoutException.class);
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(5_000);
+    }
+
+    @Test
+    void remainingTimeIsRoundedUpToWholeSeconds() throws SQLException {
+        DeadlineContext.set(Deadline.inMillis(1_500));
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select 1")) {
+            assertThat(statement.getQueryTimeout()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void queryAfterTheDeadlineIsNotSent() {
+        DeadlineContext.set(Deadline.inMillis(0));
+
+        assertThatThrownBy(() -> jdbcTemplate.queryForObject("select 1", Integer.class))
+                .isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void queriesOutsideOfARequestHaveNoTimeout() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select 1")) {
+            assertThat(statement.getQueryTimeout()).isZero();
+        }
+        assertThat(jdbcTemplate.queryForObject("select 1", Integer.class)).isEqualTo(1);
+    }
+}
@@ -0,0 +1,183 @@
+package com.owr.product_service.config;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.owr.product_service.service.timing.StageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.test.web.client.ResponseActions;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withStatus;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+class IssuerKeySourceTest {
+
+    private static final String ISSUER = "https://issuer.example";
+    private static final String JWKS_URI = ISSUER + "/keys";
+
+    private static RSAKey first;
+    private static RSAKey rotated;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RestTemplate restTemplate = new RestTemplate();
+    private final MockRestServiceServer issuer = MockRestServiceServer.bindTo(restTemplate).build();
+
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        first = new RSAKeyGenerator(2048).keyID("first").generate();
+        rotated = new RSAKeyGenerator(2048).keyID("rotated").generate();
+    }
+
+    @Test
+    void keysAreLoadedAtStartupAndVerifyTokens() throws JOSEException {
+        expectStartup();
+        IssuerKeySource source = started(Duration.ofMinutes(1));
+
+        JwtDecoder decoder = new SecurityConfig().jwtDecoder(ISSUER, new String[]{"RS256"}, 100,
+                Duration.ofMinutes(5), source, new StageMetrics(meterRegistry), meterRegistry);
+
+        assertThat(decoder.decode(token(first)).getSubject()).isEqualTo("alice");
+        assertThat(meterRegistry.get("security.jwks.keys").gauge().value()).isEqualTo(1);
+        issuer.verify();
+    }
+
+    @Test
+    void unknownKeyReloadsAtMostOncePerMinRefreshInterval() {
+        IssuerKeySource source = source(Duration.ofHours(1));
+        expectMetadata();
+        expectKeys(first);
+
+        assertThat(source.get(selector("first"), null)).extracting(JWK::getKeyID).containsExactly("first");
+        for (int i = 0; i < 3; i++) {
+            assertThat(source.get(selector("made-up-" + i), null)).isEmpty();
+        }
+        issuer.verify();
+    }
+
+    @Test
+    void rotatedKeyIsLoadedOnDemand() {
+        expectStartup();
+        expectKeys(first, rotated);
+        IssuerKeySource source = started(Duration.ZERO);
+
+        assertThat(source.get(selector("rotated"), null)).extracting(JWK::getKeyID).containsExactly("rotated");
+        issuer.verify();
+    }
+
+    @Test
+    void failedReloadKeepsTheOldKeys() {
+        expectStartup();
+        expect(JWKS_URI).andRespond(withStatus(HttpStatus.SERVICE_UNAVAILABLE));
+        IssuerKeySource source = started(Duration.ofHours(1));
+
+        source.scheduledReload();
+
+        assertThat(source.get(selector("first"), null)).extracting(JWK::getKeyID).containsExactly("first");
+        issuer.verify();
+    }
+
+    @Test
+    void unknownKeyDoesNotWaitForARunningReload() throws InterruptedException {
+        expectStartup();
+        CountDownLatch fetching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        expect(JWKS_URI).andRespond(request -> {
+            fetching.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            return withSuccess(new JWKSet(List.of(first, rotated)).toString(), MediaType.APPLICATION_JSON)
+                    .createResponse(request);
+        });
+        IssuerKeySource source = started(Duration.ZERO);
+        Thread scheduled = Thread.ofPlatform().start(source::scheduledReload);
+        assertThat(fetching.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2),
+                () -> assertThat(source.get(selector("rotated"), null)).isEmpty());
+
+        release.countDown();
+        scheduled.join();
+        assertThat(source.get(selector("rotated"), null)).extracting(JWK::getKeyID).containsExactly("rotated");
+        issuer.verify();
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private IssuerKeySource source(Duration minRefreshInterval) {
+        return new IssuerKeySource(ISSUER, restTemplate, minRefreshInterval, meterRegistry);
+    }
+
+    private IssuerKeySource started(Duration minRefreshInterval) {
+        IssuerKeySource source = source(minRefreshInterval);
+        source.afterSingletonsInstantiated();
+        return source;
+    }
+
+    private ResponseActions expect(String uri) {
+        return issuer.expect(requestTo(uri));
+    }
+
+    /**
+     * Expects the requests of a startup that finds the key {@code first}.
+     */
+    private void expectStartup() {
+        expectMetadata();
+        expectKeys(first);
+    }
+
+    private void expectMetadata() {
+        expect(ISSUER + "/.well-known/openid-configuration").andRespond(withSuccess(
+                "{\"issuer\":\"" + ISSUER + "\",\"jwks_uri\":\"" + JWKS_URI + "\"}", MediaType.APPLICATION_JSON));
+    }
+
+    private void expectKeys(JWK... keys) {
+        expect(JWKS_URI).andRespond(withSuccess(new JWKSet(List.of(keys)).toString(), MediaType.APPLICATION_JSON));
+    }
+
+    private static JWKSelector selector(String keyId) {
+        return new JWKSelector(new JWKMatcher.Builder().keyID(keyId).build());
+    }
+
+    private static String token(RSAKey key) throws JOSEException {
+        JWTClaimsSet claims = new JWTClaimsSet.Builder()
+                .issuer(ISSUER)
+                .subject("alice")
+                .expirationTime(Date.from(Instant.now().plus(Duration.ofMinutes(10))))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+}
@@ -0,0 +1,165 @@
+package com.owr.product_service.config;
+
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import com.owr.product_service.service.index.RebuildableIndex;
+import com.owr.product_service.service.routing.DataSourceRouting;
+import com.owr.product_service.service.routing.ReadYourWrites;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadReplicaRoutingIntegrationTest {
+
+    // The primary and the replica are two databases of one embedded server; current_database() tells where a
+    // read went
+    private static final String PRIMARY = "primary_db";
+    private static final String REPLICA = "replica_db";
+
+    private static EmbeddedPostgres postgres;
+
+    private final ReadReplicaConfig config = new ReadReplicaConfig();
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(List.of(url(REPLICA)), Duration.ofMinutes(1));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final HikariDataSource primaryDataSource = config.primaryDataSource(properties());
+    private final ReplicaDataSource replicaDataSource = replicas(url(REPLICA));
+    private final DataSource dataSource = config.dataSource(primaryDataSource, replicaDataSource);
+    private final DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    @BeforeAll
+    static void startPostgres() throws Exception {
+        postgres = EmbeddedPostgres.builder().start();
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("create database " + PRIMARY);
+            statement.execute("create database " + REPLICA);
+        }
+    }
+
+    @AfterAll
+    static void stopPostgres() throws Exception {
+        postgres.close();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        replicaDataSource.close();
+        primaryDataSource.close();
+    }
+
+    @Test
+    void readsGoToTheReplicaAndWritesToThePrimary() {
+        assertThat(readOnly()).isEqualTo(REPLICA);
+        assertThat(readWrite()).isEqualTo(PRIMARY);
+    }
+
+    @Test
+    void readsAfterAWriteGoToThePrimary() {
+        authenticate("alice");
+        readYourWrites.onProductChanged(ProductChangedEvent.updated(product(1L), product(1L)));
+
+        // The writing caller reads everything from the primary
+        assertThat(readOnly()).isEqualTo(PRIMARY);
+
+        // Everyone reads the changed product from the primary, other products from the replica
+        authenticate("bob");
+        assertThat(readOnly()).isEqualTo(REPLICA);
+        assertThat(readYourWrites.read(1L, this::readOnly)).isEqualTo(PRIMARY);
+        assertThat(readYourWrites.read("Lamp 1", this::readOnly)).isEqualTo(PRIMARY);
+        assertThat(readYourWrites.read(2L, this::readOnly)).isEqualTo(REPLICA);
+    }
+
+    @Test
+    void pinnedReadsAndIndexRebuildsGoToThePrimary() {
+        assertThat(DataSourceRouting.onPrimary(this::readOnly)).isEqualTo(PRIMARY);
+
+        RebuildableIndex<String> index = new RebuildableIndex<>(transactionManager,
+                () -> currentDatabase(jdbcTemplate), (db, event) -> {
+        }, null);
+        index.rebuild();
+        String scannedDatabase = index.read(db -> db);
+
+        assertThat(scannedDatabase).isEqualTo(PRIMARY);
+    }
+
+    @Test
+    void readsFallBackToThePrimaryWhenNoReplicaIsReachable() {
+        try (ReplicaDataSource unreachable = replicas(url("missing_db"))) {
+            DataSource fallback = config.dataSource(primaryDataSource, unreachable);
+            TransactionTemplate readOnly = readOnlyTemplate(new DataSourceTransactionManager(fallback));
+
+            String database = readOnly.execute(status -> currentDatabase(new JdbcTemplate(fallback)));
+
+            assertThat(database).isEqualTo(PRIMARY);
+            assertThat(meterRegistry.get("products.db.replica.fallbacks").counter().count()).isEqualTo(1);
+        }
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private String readOnly() {
+        return readOnlyTemplate(transactionManager).execute(status -> currentDatabase(jdbcTemplate));
+    }
+
+    private String readWrite() {
+        return new TransactionTemplate(transactionManager).execute(status -> currentDatabase(jdbcTemplate));
+    }
+
+    private ReplicaDataSource replicas(String url) {
+        return config.replicaDataSource(properties(), primaryDataSource, List.of(url), 2, Duration.ofMillis(250),
+                Duration.ofSeconds(2), readYourWrites, meterRegistry);
+    }
+
+    private static TransactionTemplate readOnlyTemplate(DataSourceTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private static String currentDatabase(JdbcTemplate jdbcTemplate) {
+        return jdbcTemplate.queryForObject("select current_database()", String.class);
+    }
+
+    private static DataSourceProperties properties() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl(url(PRIMARY));
+        properties.setUsername("postgres");
+        properties.setPassword("postgres");
+        return properties;
+    }
+
+    private static String url(String database) {
+        return postgres.getJdbcUrl("postgres", database);
+    }
+
+    private static void authenticate(String subject) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new TestingAuthenticationToken(subject, null, "ROLE_USER"));
+    }
+
+    private static ProductSnapshot product(Long id) {
+        return new ProductSnapshot(id, "Lamp " + id, "Home", "A lamp", 10.0, 0L);
+    }
+}
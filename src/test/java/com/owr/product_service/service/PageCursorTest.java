@@ -0,0 +1,43 @@
+package com.owr.product_service.service;
+
+import com.owr.product_service.exceptions.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PageCursorTest {
+
+    @Test
+    void decodingReturnsTheEncodedId() {
+        for (long lastId : new long[]{1L, 8L, 123_456_789L, Long.MAX_VALUE}) {
+            assertThat(PageCursor.decode(PageCursor.encode(lastId))).isEqualTo(lastId);
+        }
+    }
+
+    @Test
+    void missingCursorStartsAtTheFirstProduct() {
+        assertThat(PageCursor.decode(null)).isZero();
+        assertThat(PageCursor.decode(" ")).isZero();
+    }
+
+    @Test
+    void cursorsNotProducedByEncodeAreBadRequests() {
+        String valid = PageCursor.encode(8L);
+        String[] invalid = {
+                "not a cursor!",
+                valid.substring(1),
+                valid + "AA",
+                Base64.getUrlEncoder().encodeToString("page=2".getBytes()),
+                PageCursor.encode(-8L)
+        };
+        for (String cursor : invalid) {
+            assertThatThrownBy(() -> PageCursor.decode(cursor))
+                    .as(cursor)
+                    .isInstanceOf(InvalidRequestException.class)
+                    .hasMessage("Invalid cursor: " + cursor);
+        }
+    }
+}
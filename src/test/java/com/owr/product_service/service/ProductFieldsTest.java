@@ -0,0 +1,55 @@
+package com.owr.product_service.service;
+
+import com.owr.product_service.exceptions.InvalidRequestException;
+import com.owr.product_service.repository.ProductCardView;
+import com.owr.product_service.repository.ProductDetailView;
+import com.owr.product_service.repository.ProductSummaryView;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+class ProductFieldsTest {
+
+    private static final ProductDetailView SHIRT = new ProductDetailView(7L, "Shirt", "Shirts", "Cotton", 19.99);
+
+    @Test
+    void unknownFieldNamesAreRejected() {
+        assertThatThrownBy(() -> ProductFields.parse("id,colour"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Unknown field 'colour', expected any of id,name,category,description,price,quantity");
+        assertThatThrownBy(() -> ProductFields.parse("stockError")).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> ProductFields.parse(" , ")).isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void narrowestProjectionCoveringTheSelectionIsRead() {
+        assertThat(ProductFields.parse("id,name,price").projection()).isEqualTo(ProductCardView.class);
+        assertThat(ProductFields.parse("name,category").projection()).isEqualTo(ProductSummaryView.class);
+        assertThat(ProductFields.parse("price,description").projection()).isEqualTo(ProductDetailView.class);
+    }
+
+    @Test
+    void stockIsOnlyNeededForQuantity() {
+        assertThat(ProductFields.parse("id,name,category,description,price").includesStock()).isFalse();
+        assertThat(ProductFields.parse("name, quantity").includesStock()).isTrue();
+    }
+
+    @Test
+    void onlyTheSelectedFieldsAreCopiedInDtoOrder() {
+        assertThat(ProductFields.parse("price,name").select(SHIRT, 5, false, null))
+                .containsExactly(entry("name", "Shirt"), entry("price", 19.99));
+    }
+
+    @Test
+    void quantityBringsStockErrorAndStalenessAlong() {
+        ProductFields fields = ProductFields.parse("id,quantity");
+
+        assertThat(fields.select(SHIRT, 5, false, null)).containsExactly(entry("id", 7L), entry("quantity", 5));
+        assertThat(fields.select(SHIRT, 5, true, null))
+                .containsExactly(entry("id", 7L), entry("quantity", 5), entry("stockStale", true));
+        assertThat(fields.select(SHIRT, null, false, "Inventory unavailable"))
+                .containsExactly(entry("id", 7L), entry("quantity", 0), entry("stockError", "Inventory unavailable"));
+    }
+}
@@ -0,0 +1,165 @@
+package com.owr.product_service.service;
+
+import com.owr.product_service.controller.request.ProductWithQuantity;
+import com.owr.product_service.dto.ProductImportResult;
+import com.owr.product_service.model.InventoryOutboxEntry;
+import com.owr.product_service.model.Product;
+import com.owr.product_service.repository.InventoryOutboxRepository;
+import com.owr.product_service.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductImportServiceTest {
+
+    private final ProductRepository repository = mock(ProductRepository.class);
+    private final InventoryOutboxRepository outboxRepository = mock(InventoryOutboxRepository.class);
+    private final List<Object> events = new ArrayList<>();
+    private final ProductImportService service = new ProductImportService(repository, outboxRepository,
+            mock(EntityManager.class), events::add, new NoOpTransactionManager());
+
+    private final AtomicLong ids = new AtomicLong(100);
+    private final List<Collection<String>> nameQueries = new ArrayList<>();
+    private final List<List<String>> inserts = new ArrayList<>();
+    private final List<InventoryOutboxEntry> outboxEntries = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+        when(repository.findExistingNames(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> names = invocation.getArgument(0);
+            nameQueries.add(List.copyOf(names));
+            return names.contains("Existing") ? Set.of("Existing") : Set.of();
+        });
+        when(repository.saveAll(any())).thenAnswer(invocation -> {
+            List<Product> products = invocation.getArgument(0);
+            products.forEach(product -> product.setId(ids.incrementAndGet()));
+            inserts.add(products.stream().map(Product::getName).toList());
+            return products;
+        });
+        when(outboxRepository.saveAll(any())).thenAnswer(invocation -> {
+            outboxEntries.addAll(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+    }
+
+    @Test
+    void eachChunkIsCheckedWithOneNameQueryAndInsertedInOneBatch() {
+        ProductImportResult result = service.importProducts(
+                items(item("Shirt", 5), item("Existing", 1), item("Scarf", 2), item("Socks", 0), item("Hat", 3)));
+
+        assertThat(nameQueries).containsExactly(List.of("Shirt", "Existing"), List.of("Scarf", "Socks"),
+                List.of("Hat"));
+        assertThat(inserts).containsExactly(List.of("Shirt"), List.of("Scarf", "Socks"), List.of("Hat"));
+        assertThat(outboxEntries).extracting(InventoryOutboxEntry::getProductId, InventoryOutboxEntry::getQuantity)
+                .containsExactly(tuple(101L, 5), tuple(102L, 2), tuple(103L, 0), tuple(104L, 3));
+        assertThat(events).hasSize(4);
+        assertThat(result).isEqualTo(new ProductImportResult(5, 4, 1, 0, List.of()));
+    }
+
+    @Test
+    void repeatedNamesWithinTheInputAreImportedOnce() {
+        ProductImportResult result = service.importProducts(
+                items(item("Shirt", 5), item("Shirt", 7), item("Scarf", 2)));
+
+        assertThat(nameQueries).containsExactly(List.of("Shirt", "Scarf"));
+        assertThat(inserts).containsExactly(List.of("Shirt", "Scarf"));
+        assertThat(outboxEntries).extracting(InventoryOutboxEntry::getQuantity).containsExactly(5, 2);
+        assertThat(result).isEqualTo(new ProductImportResult(3, 2, 1, 0, List.of()));
+    }
+
+    @Test
+    void invalidItemsAreReportedAndSkipped() {
+        ProductImportResult result = service.importProducts(
+                items(item("Shirt", 5), new ProductWithQuantity(null, 1), item(" ", 1), item("Scarf", -1)));
+
+        assertThat(inserts).containsExactly(List.of("Shirt"));
+        assertThat(result).isEqualTo(new ProductImportResult(4, 1, 0, 3, List.of(
+                "Item 2: product is required",
+                "Item 3: name is required",
+                "Item 4: quantity must be zero or positive")));
+    }
+
+    @Test
+    void malformedInputStopsTheImportAndKeepsTheChunksBefore() {
+        Iterator<ProductWithQuantity> items = items(item("Shirt", 5), item("Scarf", 2), item("Hat", 3));
+        Iterator<ProductWithQuantity> truncated = new Iterator<>() {
+            int read;
+
+            @Override
+            public boolean hasNext() {
+                if (read == 3) {
+                    throw new IllegalArgumentException("Unexpected end of input");
+                }
+                return items.hasNext();
+            }
+
+            @Override
+            public ProductWithQuantity next() {
+                read++;
+                return items.next();
+            }
+        };
+
+        ProductImportResult result = service.importProducts(truncated);
+
+        assertThat(inserts).containsExactly(List.of("Shirt", "Scarf"), List.of("Hat"));
+        assertThat(result).isEqualTo(new ProductImportResult(3, 3, 0, 0,
+                List.of("Malformed input after item 3: Unexpected end of input")));
+    }
+
+    @Test
+    void emptyInputRunsNoQuery() {
+        assertThat(service.importProducts(items())).isEqualTo(new ProductImportResult(0, 0, 0, 0, List.of()));
+        verify(repository, never()).findExistingNames(anyCollection());
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static ProductWithQuantity item(String name, int quantity) {
+        return new ProductWithQuantity(
+                Product.builder().name(name).category("Shirts").description("Cotton").price(19.99).build(), quantity);
+    }
+
+    private static Iterator<ProductWithQuantity> items(ProductWithQuantity... items) {
+        return List.of(items).iterator();
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.owr.product_service.service;
+
+import com.owr.product_service.dto.PriceLookup;
+import com.owr.product_service.dto.ProductDto;
+import com.owr.product_service.dto.ProductLookup;
+import com.owr.product_service.dto.ProductPage;
+import com.owr.product_service.exceptions.ConcurrentUpdateException;
+import com.owr.product_service.exceptions.DeadlineExceededException;
+import com.owr.product_service.exceptions.InvalidRequestException;
+import com.owr.product_service.exceptions.PreconditionFailedException;
+import com.owr.product_service.model.Product;
+import com.owr.product_service.repository.ProductCardView;
+import com.owr.product_service.repository.ProductRepository;
+import com.owr.product_service.service.client.InventoryClient;
+import com.owr.product_service.service.client.StockLevel;
+import com.owr.product_service.service.client.StockLookupResult;
+import com.owr.product_service.service.etag.ETagged;
+import com.owr.product_service.service.index.PriceIndex;
+import com.owr.product_service.service.timing.StageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.InvocationOnMock;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class ProductServiceTest {
+
+    private final ProductRepository repository = mock(ProductRepository.class);
+    private final InventoryClient inventoryClient = mock(InventoryClient.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final PriceIndex priceIndex = mock(PriceIndex.class);
+    private final List<Object> events = new ArrayList<>();
+    private final ProductService service = new ProductService(repository, inventoryClient, entityManager, null,
+            priceIndex, events::add, null, null, null, new StageMetrics(new SimpleMeterRegistry()));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "maxPageSize", 3);
+        ReflectionTestUtils.setField(service, "streamChunkSize", 2);
+        ReflectionTestUtils.setField(service, "maxBatchIds", 4);
+        when(priceIndex.get(anyLong())).thenReturn(Double.NaN);
+        when(repository.findById(7L)).thenReturn(Optional.of(product(3L, 19.99)));
+        when(inventoryClient.getStock(7L)).thenReturn(StockLevel.live(5));
+    }
+
+    @Test
+    void catalogStockIsLookedUpInOneBulkCall() {
+        when(repository.findAll(any(Sort.class))).thenReturn(List.of(product(3L, 19.99), product(8L, 1L, 9.99)));
+        when(inventoryClient.getStockQuantities(List.of(7L, 8L))).thenReturn(
+                new StockLookupResult(Map.of(7L, 5), Map.of(8L, "Inventory lookup failed: timeout"), Set.of()));
+
+        List<ProductDto> catalog = service.getAllProducts().body();
+
+        verify(inventoryClient, never()).getStock(any());
+        assertThat(catalog).extracting(ProductDto::getId, ProductDto::getQuantity, ProductDto::getStockError)
+                .containsExactly(tuple(7L, 5, null), tuple(8L, 0, "Inventory lookup failed: timeout"));
+    }
+
+    @Test
+    void databaseQueryTimeoutIsAnExceededDeadline() {
+        when(repository.findAll(any(Sort.class))).thenThrow(new QueryTimeoutException("canceling statement"));
+
+        assertThatThrownBy(() -> service.getAllProducts()).isInstanceOf(DeadlineExceededException.class);
+        verify(inventoryClient, never()).getStockQuantities(any());
+    }
+
+    @Test
+    void pagesFollowTheCursorUntilTheLastPage() {
+        when(repository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(2)))
+                .thenReturn(List.of(product(7L, 1L, 19.99), product(8L, 1L, 9.99)));
+        when(repository.findByIdGreaterThanOrderByIdAsc(8L, Limit.of(2))).thenReturn(List.of(product(9L, 1L, 4.99)));
+        when(inventoryClient.getStockQuantities(any())).thenAnswer(ProductServiceTest::inStock);
+
+        ProductPage<ProductDto> first = service.getProductPage(null, 2);
+        ProductPage<ProductDto> last = service.getProductPage(first.nextCursor(), 2);
+
+        assertThat(first.items()).extracting(ProductDto::getId).containsExactly(7L, 8L);
+        assertThat(first.nextCursor()).isEqualTo(PageCursor.encode(8L));
+        assertThat(last.items()).extracting(ProductDto::getId, ProductDto::getQuantity).containsExactly(tuple(9L, 1));
+        assertThat(last.nextCursor()).isNull();
+    }
+
+    @Test
+    void invalidCursorsAndPageSizesAreRejectedBeforeQuerying() {
+        assertThatThrownBy(() -> service.getProductPage("not a cursor!", 2))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> service.getProductPage(null, 0)).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> service.getProductPage(null, 4)).isInstanceOf(InvalidRequestException.class);
+
+        verify(repository, never()).findByIdGreaterThanOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void catalogIsStreamedInChunksWithOneStockLookupEach() {
+        when(repository.streamAllOrderById()).thenReturn(Stream.of(7L, 8L, 9L, 10L, 11L)
+                .map(id -> product(id, 1L, 9.99)));
+        when(inventoryClient.getStockQuantities(any())).thenAnswer(ProductServiceTest::inStock);
+        List<List<Long>> chunks = new ArrayList<>();
+
+        service.streamAllProducts(chunk -> chunks.add(chunk.stream().map(ProductDto::getId).toList()));
+
+        assertThat(chunks).containsExactly(List.of(7L, 8L), List.of(9L, 10L), List.of(11L));
+        verify(inventoryClient, times(3)).getStockQuantities(any());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void selectedFieldsWithoutQuantityNeedNoStockLookup() {
+        when(repository.findAllProjectedBy(any(), eq(ProductCardView.class)))
+                .thenReturn(List.of(new ProductCardView(7L, "Shirt", 19.99)));
+
+        List<Map<String, Object>> products = service.getAllProducts("id,price");
+
+        assertThat(products).containsExactly(Map.of("id", 7L, "price", 19.99));
+        assertThat(products.get(0)).containsOnlyKeys("id", "price");
+        verifyNoInteractions(inventoryClient);
+    }
+
+    @Test
+    void selectedQuantityIsLookedUpOncePerPage() {
+        when(repository.findByIdGreaterThanOrderByIdAsc(eq(0L), eq(Limit.of(2)), eq(ProductCardView.class)))
+                .thenReturn(List.of(new ProductCardView(7L, "Shirt", 19.99), new ProductCardView(8L, "Hat", 9.99)));
+        when(inventoryClient.getStockQuantities(any())).thenAnswer(ProductServiceTest::inStock);
+
+        ProductPage<Map<String, Object>> page = service.getProductPage(null, 2, "name,quantity");
+
+        assertThat(page.items()).containsExactly(Map.of("name", "Shirt", "quantity", 1),
+                Map.of("name", "Hat", "quantity", 1));
+        assertThat(page.nextCursor()).isEqualTo(PageCursor.encode(8L));
+        verify(inventoryClient).getStockQuantities(List.of(7L, 8L));
+    }
+
+    @Test
+    void unknownFieldIsRejectedBeforeQuerying() {
+        assertThatThrownBy(() -> service.getAllProducts("id,colour")).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> service.getProductPage(null, 2, "")).isInstanceOf(InvalidRequestException.class);
+
+        verifyNoInteractions(repository, inventoryClient);
+    }
+
+    @Test
+    void productsByIdsAreAnsweredInRequestOrderWithOneQueryAndOneStockLookup() {
+        when(repository.findAllById(any())).thenReturn(List.of(product(7L, 1L, 19.99), product(8L, 1L, 9.99)));
+        when(inventoryClient.getStockQuantities(List.of(7L, 8L))).thenReturn(
+                new StockLookupResult(Map.of(7L, 5, 8L, 2), Map.of(), Set.of()));
+
+        List<ProductLookup> lookups = service.findProductsByIds(List.of(8L, 99L, 7L, 8L));
+
+        assertThat(lookups).extracting(ProductLookup::id, ProductLookup::found)
+                .containsExactly(tuple(8L, true), tuple(99L, false), tuple(7L, true), tuple(8L, true));
+        assertThat(lookups.get(0).product().getQuantity()).isEqualTo(2);
+        assertThat(lookups.get(1).product()).isNull();
+        assertThat(lookups.get(2).product().getQuantity()).isEqualTo(5);
+        verify(repository).findAllById(Set.of(7L, 8L, 99L));
+        verify(inventoryClient, times(1)).getStockQuantities(any());
+        verify(inventoryClient, never()).getStock(any());
+    }
+
+    @Test
+    void moreIdsThanAllowedAreRejected() {
+        List<Long> ids = List.of(1L, 2L, 3L, 4L, 5L);
+
+        assertThatThrownBy(() -> service.findProductsByIds(ids)).isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> service.findPricesByIds(ids)).isInstanceOf(InvalidRequestException.class);
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    void pricesComeFromThePriceIndexAndOneQueryForTheIdsItLacks() {
+        when(priceIndex.get(7L)).thenReturn(19.99);
+        when(repository.findAllById(List.of(8L, 99L))).thenReturn(List.of(product(8L, 1L, 9.99)));
+
+        List<PriceLookup> prices = service.findPricesByIds(List.of(7L, 8L, 99L, 7L));
+
+        assertThat(prices).containsExactly(PriceLookup.found(7L, 19.99), PriceLookup.found(8L, 9.99),
+                PriceLookup.notFound(99L), PriceLookup.found(7L, 19.99));
+        verify(repository, times(1)).findAllById(any());
+        verify(inventoryClient, never()).getStockQuantities(any());
+    }
+
+    @Test
+    void indexedPricesNeedNoQuery() {
+        when(priceIndex.get(7L)).thenReturn(19.99);
+
+        assertThat(service.findPricesByIds(List.of(7L, 7L)))
+                .containsExactly(PriceLookup.found(7L, 19.99), PriceLookup.found(7L, 19.99));
+        verify(repository, never()).findAllById(any());
+    }
+
+    @Test
+    void ifMatchNamingTheCurrentVersionUpdates() {
+        when(repository.save(any(Product.class))).thenReturn(product(4L, 24.99));
+
+        ETagged<ProductDto> updated = service.updateProduct(7L, patch(24.99), "\"7.3.2\"");
+
+        assertThat(updated.etag()).isEqualTo("\"7.4.5\"");
+        assertThat(updated.body().getPrice()).isEqualTo(24.99);
+        assertThat(events).hasSize(1);
+    }
+
+    @Test
+    void ifMatchNamingAnOlderVersionIsRejectedBeforeSaving() {
+        assertThatThrownBy(() -> service.updateProduct(7L, patch(24.99), "\"7.2.5\""))
+                .isInstanceOf(PreconditionFailedException.class);
+
+        verify(repository, never()).save(any(Product.class));
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void concurrentUpdateIsAFailedPreconditionWithIfMatch() {
+        when(repository.save(any(Product.class))).thenThrow(new OptimisticLockingFailureException("version 3"));
+
+        assertThatThrownBy(() -> service.updateProduct(7L, patch(24.99), "\"7.3.5\""))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void concurrentUpdateIsAConflictWithoutIfMatch() {
+        when(repository.save(any(Product.class))).thenThrow(new OptimisticLockingFailureException("version 3"));
+
+        assertThatThrownBy(() -> service.updateProduct(7L, patch(24.99), null))
+                .isInstanceOf(ConcurrentUpdateException.class);
+        assertThat(events).isEmpty();
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static Product product(Long version, double price) {
+        return product(7L, version, price);
+    }
+
+    private static Product product(Long id, Long version, double price) {
+        return Product.builder().id(id).name("Shirt " + id).category("Shirts").description("Cotton").price(price)
+                .version(version).build();
+    }
+
+    /**
+     * Answers a bulk stock lookup with a quantity of 1 for every requested product.
+     */
+    private static StockLookupResult inStock(InvocationOnMock invocation) {
+        Collection<Long> ids = invocation.getArgument(0);
+        Map<Long, Integer> quantities = new HashMap<>();
+        ids.forEach(id -> quantities.put(id, 1));
+        return new StockLookupResult(quantities, Map.of(), Set.of());
+    }
+
+    private static Product patch(double price) {
+        return Product.builder().price(price).build();
+    }
+}
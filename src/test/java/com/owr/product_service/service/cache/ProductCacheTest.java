@@ -0,0 +1,123 @@
+package com.owr.product_service.service.cache;
+
+import com.owr.product_service.model.Product;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTest {
+
+    private final ProductCache cache = new ProductCache(true, DataSize.ofMegabytes(1), Duration.ofMinutes(10),
+            new SimpleMeterRegistry());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesHitsUnderBothKeys() {
+        Product lamp = product(1L, "Lamp", 10.0);
+
+        assertThat(cache.getById(1L, () -> load(lamp))).map(ProductSnapshot::price).contains(10.0);
+        assertThat(cache.getById(1L, () -> load(lamp))).isPresent();
+        assertThat(cache.getByName("Lamp", () -> load(lamp))).map(ProductSnapshot::id).contains(1L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void doesNotCacheMisses() {
+        assertThat(cache.getById(1L, () -> load(null))).isEmpty();
+        assertThat(cache.getById(1L, () -> load(null))).isEmpty();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void renameDropsTheOldAndTheNewName() {
+        Product lamp = product(1L, "Lamp", 10.0);
+        Product desk = product(2L, "Desk Lamp", 20.0);
+        cache.getById(1L, () -> load(lamp));
+        cache.getByName("Desk Lamp", () -> load(desk));
+
+        cache.onProductChanged(ProductChangedEvent.updated(snapshot(lamp), new ProductSnapshot(
+                1L, "Desk Lamp", "Home", "A lamp", 10.0, 1L)));
+
+        assertThat(cache.getByName("Lamp", () -> load(null))).isEmpty();
+        assertThat(cache.getByName("Desk Lamp", () -> load(lamp))).map(ProductSnapshot::id).contains(1L);
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void loadOverlappingAnInvalidationIsNotCached() {
+        Product before = product(1L, "Lamp", 10.0);
+        Product after = product(1L, "Lamp", 12.0);
+
+        // The row is read, then the update commits and invalidates before the read is cached
+        Optional<ProductSnapshot> stale = cache.getById(1L, () -> {
+            Optional<Product> read = load(before);
+            cache.onProductChanged(ProductChangedEvent.updated(snapshot(before), snapshot(after)));
+            return read;
+        });
+
+        assertThat(stale).map(ProductSnapshot::price).contains(10.0);
+        assertThat(cache.getById(1L, () -> load(after))).map(ProductSnapshot::price).contains(12.0);
+        assertThat(cache.getByName("Lamp", () -> load(after))).map(ProductSnapshot::price).contains(12.0);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void reactiveLoadOverlappingAnInvalidationIsNotCached() {
+        ProductSnapshot before = snapshot(product(1L, "Lamp", 10.0));
+        ProductSnapshot after = snapshot(product(1L, "Lamp", 12.0));
+
+        Mono<ProductSnapshot> staleRead = Mono.fromSupplier(() -> {
+            loads.incrementAndGet();
+            cache.onProductChanged(ProductChangedEvent.updated(before, after));
+            return before;
+        });
+
+        assertThat(cache.getById(1L, staleRead).block()).isEqualTo(before);
+        assertThat(cache.getById(1L, Mono.just(after)).block()).isEqualTo(after);
+        assertThat(cache.getById(1L, Mono.just(before)).block()).isEqualTo(after);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        ProductCache disabled = new ProductCache(false, DataSize.ofMegabytes(1), Duration.ofMinutes(10),
+                new SimpleMeterRegistry());
+        Product lamp = product(1L, "Lamp", 10.0);
+
+        disabled.getById(1L, () -> load(lamp));
+        disabled.getById(1L, () -> load(lamp));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private Optional<Product> load(Product product) {
+        loads.incrementAndGet();
+        return Optional.ofNullable(product);
+    }
+
+    private static Product product(Long id, String name, Double price) {
+        return Product.builder()
+                .id(id)
+                .name(name)
+                .category("Home")
+                .description("A lamp")
+                .price(price)
+                .version(0L)
+                .build();
+    }
+
+    private static ProductSnapshot snapshot(Product product) {
+        return ProductSnapshot.of(product);
+    }
+}
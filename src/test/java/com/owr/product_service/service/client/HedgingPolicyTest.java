@@ -0,0 +1,103 @@
+package com.owr.product_service.service.client;
+
+import com.owr.product_service.exceptions.DeadlineExceededException;
+import com.owr.product_service.service.deadline.Deadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HedgingPolicyTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fastCallsAreNotHedged() {
+        HedgingPolicy policy = policy(Duration.ofSeconds(1));
+
+        String result = policy.execute(() -> "stock", null);
+
+        assertThat(result).isEqualTo("stock");
+        assertThat(hedges("sent")).isZero();
+    }
+
+    @Test
+    void slowCallsAreHedged() {
+        HedgingPolicy policy = policy(Duration.ofMillis(1));
+
+        String result = policy.execute(slowThenFast(), null);
+
+        assertThat(result).isEqualTo("fast");
+        assertThat(hedges("sent")).isEqualTo(1);
+    }
+
+    @Test
+    void hedgesStopOnceTheTokenBudgetIsSpent() {
+        HedgingPolicy policy = policy(Duration.ofMillis(1));
+
+        // 10 tokens to start with, a tenth of a token earned per call, one token per hedge
+        for (int call = 0; call < 15; call++) {
+            policy.execute(slowThenFast(), null);
+        }
+
+        assertThat(hedges("sent")).isEqualTo(11);
+        assertThat(hedges("budget_exhausted")).isEqualTo(4);
+        assertThat(wins("primary") + wins("hedge")).isEqualTo(15);
+    }
+
+    @Test
+    void waitsNoLongerThanTheDeadline() {
+        HedgingPolicy policy = policy(Duration.ofMillis(1));
+
+        assertThatThrownBy(() -> policy.execute(() -> sleepThen(2_000, "late"), Deadline.inMillis(50)))
+                .isInstanceOf(DeadlineExceededException.class);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private HedgingPolicy policy(Duration minDelay) {
+        return new HedgingPolicy(true, 95, minDelay, 10, executor, meterRegistry);
+    }
+
+    /**
+     * The first call of an execution answers after 30 ms, the second one right away. Which of the primary and the
+     * hedge makes the first call depends on thread scheduling.
+     */
+    private static Supplier<String> slowThenFast() {
+        AtomicInteger calls = new AtomicInteger();
+        return () -> calls.getAndIncrement() == 0 ? sleepThen(30, "slow") : "fast";
+    }
+
+    private static String sleepThen(long millis, String result) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result;
+    }
+
+    private double hedges(String outcome) {
+        return meterRegistry.counter("inventory.hedging.requests", "outcome", outcome).count();
+    }
+
+    private double wins(String winner) {
+        return meterRegistry.counter("inventory.hedging.wins", "winner", winner).count();
+    }
+}
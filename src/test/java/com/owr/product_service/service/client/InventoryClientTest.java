@@ -0,0 +1,141 @@
+package com.owr.product_service.service.client;
+
+import com.owr.product_service.service.timing.StageMetrics;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InventoryClientTest {
+
+    /**
+     * Chunks containing this product fail.
+     */
+    private static final Long UNREACHABLE = 99L;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Long>> fetchedChunks = new CopyOnWriteArrayList<>();
+    private final LocalInventoryGateway gateway = new LocalInventoryGateway() {
+        @Override
+        public Map<Long, Integer> fetchStocks(List<Long> productIds, String authorization) {
+            fetchedChunks.add(List.copyOf(productIds));
+            if (productIds.contains(UNREACHABLE)) {
+                throw new IllegalStateException("connection reset");
+            }
+            return super.fetchStocks(productIds, authorization);
+        }
+    };
+    private final LastKnownStock lastKnownStock = new LastKnownStock(Duration.ofHours(1), 1_000, meterRegistry);
+
+    @Test
+    void bulkLookupSendsChunksOnTheExecutor() {
+        InventoryClient client = client(Runnable::run);
+        gateway.createInventory(1L, 5, null);
+        gateway.createInventory(2L, 7, null);
+
+        StockLookupResult result = client.getStockQuantities(List.of(1L, 2L, 1L));
+
+        assertThat(result.quantities()).containsOnly(Map.entry(1L, 5), Map.entry(2L, 7));
+        assertThat(result.failures()).isEmpty();
+    }
+
+    @Test
+    void bulkLookupSplitsDistinctIdsIntoChunks() {
+        InventoryClient client = client(Runnable::run, false, 2);
+
+        client.getStockQuantities(List.of(1L, 2L, 3L, 2L, 4L, 5L));
+
+        assertThat(fetchedChunks).containsExactly(List.of(1L, 2L), List.of(3L, 4L), List.of(5L));
+    }
+
+    @Test
+    void bulkLookupOnlyFetchesProductsWithoutFreshCachedStock() {
+        InventoryClient client = client(Runnable::run, true, 200);
+        gateway.createInventory(1L, 5, null);
+        client.getStockQuantities(List.of(1L, 2L));
+        gateway.createInventory(1L, 6, null);
+
+        StockLookupResult result = client.getStockQuantities(List.of(1L, 2L, 3L));
+
+        assertThat(fetchedChunks).containsExactly(List.of(1L, 2L), List.of(3L));
+        assertThat(result.quantities()).containsOnly(Map.entry(1L, 5), Map.entry(2L, 0), Map.entry(3L, 0));
+    }
+
+    @Test
+    void failedChunkOnlyFailsItsOwnProducts() {
+        InventoryClient client = client(Runnable::run, false, 2);
+        gateway.createInventory(1L, 5, null);
+        gateway.createInventory(2L, 7, null);
+
+        StockLookupResult result = client.getStockQuantities(List.of(1L, 2L, 3L, UNREACHABLE));
+
+        assertThat(result.quantities()).containsOnly(Map.entry(1L, 5), Map.entry(2L, 7));
+        assertThat(result.failures()).containsOnlyKeys(3L, UNREACHABLE);
+        assertThat(result.failure(3L)).isEqualTo("Inventory lookup failed: connection reset");
+    }
+
+    @Test
+    void rejectedLookupChunksAreReportedAsFailures() {
+        InventoryClient client = client(rejecting());
+        lastKnownStock.record(2L, 7);
+
+        StockLookupResult result = client.getStockQuantities(List.of(1L, 2L));
+
+        assertThat(result.failures()).containsOnlyKeys(1L);
+        assertThat(result.quantities()).containsOnly(Map.entry(2L, 7));
+        assertThat(result.stale()).containsOnly(2L);
+        assertThat(rejections("getStockQuantities")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectedCreationChunksAreReportedAsFailures() {
+        InventoryClient client = client(rejecting());
+
+        Map<Long, String> failures = client.createInventories(Map.of(1L, 5, 2L, 7));
+
+        assertThat(failures).containsOnlyKeys(1L, 2L);
+        assertThat(gateway.fetchStock(1L, null)).isZero();
+        assertThat(rejections("createInventories")).isEqualTo(1);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private InventoryClient client(Executor inventoryExecutor) {
+        return client(inventoryExecutor, false, 200);
+    }
+
+    private InventoryClient client(Executor inventoryExecutor, boolean cacheEnabled, int chunkSize) {
+        StockCache stockCache = new StockCache(cacheEnabled, Duration.ofSeconds(5), Duration.ofSeconds(3), 1_000,
+                Runnable::run, meterRegistry);
+        HedgingPolicy hedgingPolicy = new HedgingPolicy(false, 95, Duration.ofMillis(20), 10, Runnable::run,
+                meterRegistry);
+        InventoryClient client = new InventoryClient(gateway, inventoryExecutor, stockCache,
+                CircuitBreaker.ofDefaults("inventory"), lastKnownStock, hedgingPolicy,
+                new StageMetrics(meterRegistry));
+        ReflectionTestUtils.setField(client, "chunkSize", chunkSize);
+        ReflectionTestUtils.setField(client, "serviceToken", "");
+        return client;
+    }
+
+    private static Executor rejecting() {
+        return task -> {
+            throw new TaskRejectedException("Inventory executor is saturated");
+        };
+    }
+
+    private double rejections(String operation) {
+        return meterRegistry.counter("inventory.requests.failures", "operation", operation, "reason", "rejected")
+                .count();
+    }
+}
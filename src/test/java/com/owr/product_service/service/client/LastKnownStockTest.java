@@ -0,0 +1,51 @@
+package com.owr.product_service.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LastKnownStockTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void servesTheLastRecordedQuantity() {
+        LastKnownStock lastKnownStock = new LastKnownStock(Duration.ofHours(1), 1_000, meterRegistry);
+        lastKnownStock.record(1L, 5);
+        lastKnownStock.recordAll(Map.of(1L, 6, 2L, 7));
+
+        assertThat(lastKnownStock.fallback(1L)).isEqualTo(6);
+        assertThat(lastKnownStock.fallback(2L)).isEqualTo(7);
+        assertThat(fallbacks("stale")).isEqualTo(2);
+        assertThat(fallbacks("unavailable")).isZero();
+    }
+
+    @Test
+    void unknownProductsAreCountedAsUnavailable() {
+        LastKnownStock lastKnownStock = new LastKnownStock(Duration.ofHours(1), 1_000, meterRegistry);
+
+        assertThat(lastKnownStock.fallback(1L)).isNull();
+        assertThat(fallbacks("unavailable")).isEqualTo(1);
+    }
+
+    @Test
+    void quantitiesOlderThanTheMaximumStalenessAreNotServed() {
+        LastKnownStock lastKnownStock = new LastKnownStock(Duration.ZERO, 1_000, meterRegistry);
+        lastKnownStock.record(1L, 5);
+
+        assertThat(lastKnownStock.fallback(1L)).isNull();
+        assertThat(fallbacks("unavailable")).isEqualTo(1);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private double fallbacks(String outcome) {
+        return meterRegistry.counter("inventory.stock.fallbacks", "outcome", outcome).count();
+    }
+}
@@ -0,0 +1,121 @@
+package com.owr.product_service.service.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StockCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Runnable> refreshTasks = new ArrayList<>();
+
+    @Test
+    void concurrentMissesForTheSameProductLoadOnce() throws Exception {
+        StockCache cache = cache(Duration.ofHours(1));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> cache.get(1L, id -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return 5;
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() -> cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return 7;
+        }));
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo(5);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(5);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void failedLoadsAreNotCached() {
+        StockCache cache = cache(Duration.ofHours(1));
+
+        assertThatThrownBy(() -> cache.get(1L, id -> {
+            throw new IllegalStateException("inventory down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get(1L, id -> 5)).isEqualTo(5);
+    }
+
+    @Test
+    void entriesDueForRefreshAreServedAndReloadedInTheBackground() {
+        StockCache cache = cache(Duration.ZERO);
+        AtomicInteger stock = new AtomicInteger(5);
+        assertThat(cache.get(1L, id -> stock.get())).isEqualTo(5);
+
+        stock.set(7);
+        assertThat(cache.get(1L, id -> stock.get())).isEqualTo(5);
+        assertThat(cache.get(1L, id -> stock.get())).isEqualTo(5);
+        assertThat(refreshTasks).hasSize(1);
+
+        refreshTasks.remove(0).run();
+        assertThat(cache.get(1L, id -> stock.get())).isEqualTo(7);
+        assertThat(meterRegistry.counter("inventory.stock.refreshes").count()).isEqualTo(1);
+    }
+
+    @Test
+    void bulkReadsLeaveOutEntriesDueForRefresh() {
+        StockCache fresh = cache(Duration.ofHours(1));
+        fresh.putAll(Map.of(1L, 5, 2L, 7));
+        StockCache due = cache(Duration.ZERO);
+        due.putAll(Map.of(1L, 5, 2L, 7));
+
+        assertThat(fresh.getAllFresh(List.of(1L, 2L, 3L))).containsOnly(Map.entry(1L, 5), Map.entry(2L, 7));
+        assertThat(due.getAllFresh(List.of(1L, 2L, 3L))).isEmpty();
+    }
+
+    @Test
+    void invalidatedEntriesAreLoadedAgain() {
+        StockCache cache = cache(Duration.ofHours(1));
+        cache.get(1L, id -> 5);
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L, id -> 7)).isEqualTo(7);
+    }
+
+    @Test
+    void disabledCacheAlwaysLoads() {
+        StockCache cache = new StockCache(false, Duration.ofHours(1), Duration.ofHours(1), 1_000, refreshTasks::add,
+                meterRegistry);
+        cache.putAll(Map.of(1L, 5));
+
+        assertThat(cache.get(1L, id -> 7)).isEqualTo(7);
+        assertThat(cache.getAllFresh(List.of(1L))).isEmpty();
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private StockCache cache(Duration refreshAhead) {
+        return new StockCache(true, Duration.ofHours(1), refreshAhead, 1_000, refreshTasks::add, meterRegistry);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
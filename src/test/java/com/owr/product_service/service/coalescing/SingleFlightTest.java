@@ -0,0 +1,238 @@
+package com.owr.product_service.service.coalescing;
+
+import com.owr.product_service.exceptions.DeadlineExceededException;
+import com.owr.product_service.exceptions.InventoryUnavailableException;
+import com.owr.product_service.exceptions.NoSuchElementException;
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.deadline.Deadline;
+import com.owr.product_service.service.deadline.DeadlineContext;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int FOLLOWERS = 4;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        DeadlineContext.clear();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<String> leader = executor.submit(() -> singleFlight.run("findById", 1L, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "product-1";
+        }));
+        List<Future<String>> followers = startFollowers(singleFlight, 1L, () -> {
+            loads.incrementAndGet();
+            return "own load";
+        });
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("product-1");
+        for (Future<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("product-1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(count("loaded")).isEqualTo(1);
+        assertThat(count("collapsed")).isEqualTo(FOLLOWERS);
+    }
+
+    @Test
+    void differentKeysAndOperationsDoNotShare() {
+        SingleFlight singleFlight = singleFlight(Duration.ofMinutes(1));
+
+        assertThat(singleFlight.run("findById", 1L, () -> "id 1")).isEqualTo("id 1");
+        assertThat(singleFlight.run("findById", 2L, () -> "id 2")).isEqualTo("id 2");
+        assertThat(singleFlight.run("findByName", 1L, () -> "name 1")).isEqualTo("name 1");
+        assertThat(count("collapsed")).isZero();
+    }
+
+    @Test
+    void followersShareAFailureOfTheData() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        Future<String> leader = executor.submit(() -> singleFlight.run("findById", 1L, () -> {
+            loads.incrementAndGet();
+            await(release);
+            throw new NoSuchElementException("Product not found: 1");
+        }));
+        List<Future<String>> followers = startFollowers(singleFlight, 1L, () -> {
+            loads.incrementAndGet();
+            return "own load";
+        });
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(NoSuchElementException.class);
+        for (Future<String> follower : followers) {
+            assertThatThrownBy(() -> follower.get(5, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(NoSuchElementException.class);
+        }
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void followersDoNotInheritTheDeadlineOfTheLeader() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> singleFlight.run("findById", 1L, () -> {
+            await(release);
+            throw new DeadlineExceededException("Request deadline exceeded before inventory lookup");
+        }));
+        List<Future<String>> followers = startFollowers(singleFlight, 1L, () -> "own load");
+        release.countDown();
+
+        assertThatThrownBy(() -> leader.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(DeadlineExceededException.class);
+        for (Future<String> follower : followers) {
+            assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("own load");
+        }
+        assertThat(count("retried")).isEqualTo(FOLLOWERS);
+    }
+
+    @Test
+    void failuresOfTheLeadersRequestAreRecognizedThroughWrapping() {
+        HttpClientErrorException unauthorized = HttpClientErrorException.create(
+                HttpStatus.UNAUTHORIZED, "Unauthorized", null, null, null);
+        HttpClientErrorException notFound = HttpClientErrorException.create(
+                HttpStatus.NOT_FOUND, "Not Found", null, null, null);
+
+        assertThat(SingleFlight.isBoundToRequest(new DeadlineExceededException("late"))).isTrue();
+        assertThat(SingleFlight.isBoundToRequest(new InventoryUnavailableException("failed", unauthorized))).isTrue();
+        assertThat(SingleFlight.isBoundToRequest(new InventoryUnavailableException("failed", notFound))).isFalse();
+        assertThat(SingleFlight.isBoundToRequest(new NoSuchElementException("Product not found: 1"))).isFalse();
+    }
+
+    @Test
+    void followerWaitsNoLongerThanItsOwnDeadline() throws Exception {
+        SingleFlight singleFlight = singleFlight(Duration.ZERO);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> singleFlight.run("findById", 1L, () -> {
+            leaderStarted.countDown();
+            await(release);
+            return "product-1";
+        }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        DeadlineContext.set(Deadline.inMillis(50));
+        assertThatThrownBy(() -> singleFlight.run("findById", 1L, () -> "own load"))
+                .isInstanceOf(DeadlineExceededException.class);
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("product-1");
+    }
+
+    @Test
+    void windowSharesACompletedLoadUntilTheProductChanges() {
+        SingleFlight singleFlight = singleFlight(Duration.ofMinutes(1));
+        ProductSnapshot product = new ProductSnapshot(1L, "Lamp", "Home", "A lamp", 10.0, 0L);
+
+        assertThat(singleFlight.run("findById", 1L, () -> "version 0")).isEqualTo("version 0");
+        assertThat(singleFlight.run("findByName", "Lamp", () -> "version 0")).isEqualTo("version 0");
+        assertThat(singleFlight.run("findById", 1L, () -> "version 1")).isEqualTo("version 0");
+
+        singleFlight.onProductChanged(ProductChangedEvent.updated(product, product));
+
+        assertThat(singleFlight.run("findById", 1L, () -> "version 1")).isEqualTo("version 1");
+        assertThat(singleFlight.run("findByName", "Lamp", () -> "version 1")).isEqualTo("version 1");
+    }
+
+    @Test
+    void failuresAreNotKeptForTheWindow() {
+        SingleFlight singleFlight = singleFlight(Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> singleFlight.run("findById", 1L, () -> {
+            throw new InventoryUnavailableException("Inventory lookup failed for product 1", null);
+        })).isInstanceOf(InventoryUnavailableException.class);
+        assertThat(singleFlight.run("findById", 1L, () -> "product-1")).isEqualTo("product-1");
+    }
+
+    @Test
+    void disabledRunsEveryLoad() {
+        SingleFlight singleFlight = new SingleFlight(false, Duration.ofMinutes(1), meterRegistry);
+        AtomicInteger loads = new AtomicInteger();
+
+        singleFlight.run("findById", 1L, loads::incrementAndGet);
+        singleFlight.run("findById", 1L, loads::incrementAndGet);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private SingleFlight singleFlight(Duration window) {
+        return new SingleFlight(true, window, meterRegistry);
+    }
+
+    /**
+     * Waits until the leader's load is in flight, then starts {@link #FOLLOWERS} callers for {@code key} and
+     * returns once all of them wait for it.
+     */
+    private List<Future<String>> startFollowers(SingleFlight singleFlight, Long key, Supplier<String> load)
+            throws InterruptedException {
+        awaitCount("loaded", 1);
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < FOLLOWERS; i++) {
+            followers.add(executor.submit(() -> singleFlight.run("findById", key, load)));
+        }
+        awaitCount("collapsed", FOLLOWERS);
+        return followers;
+    }
+
+    private void awaitCount(String role, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(role) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(count(role)).isEqualTo(expected);
+    }
+
+    private double count(String role) {
+        return meterRegistry.find("products.coalescing.requests").tag("role", role).counters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertThat(latch.await(5, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
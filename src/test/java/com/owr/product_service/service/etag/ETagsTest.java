@@ -0,0 +1,73 @@
+package com.owr.product_service.service.etag;
+
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.client.StockLevel;
+import com.owr.product_service.service.client.StockLookupResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ETagsTest {
+
+    private static final ProductSnapshot PRODUCT = new ProductSnapshot(7L, "Shirt", "Shirts", "", 19.99, 3L);
+
+    @Test
+    void productTagsChangeWithVersionAndStock() {
+        String tag = ETags.product(PRODUCT, StockLevel.live(5));
+
+        assertThat(tag).isEqualTo("\"7.3.5\"");
+        assertThat(ETags.product(PRODUCT, StockLevel.lastKnown(5))).isNotEqualTo(tag);
+        assertThat(ETags.product(PRODUCT, StockLevel.live(4))).isNotEqualTo(tag);
+        assertThat(ETags.product(new ProductSnapshot(7L, "Shirt", "Shirts", "", 19.99, 4L), StockLevel.live(5)))
+                .isNotEqualTo(tag);
+    }
+
+    @Test
+    void ifNoneMatchComparesWeakly() {
+        String tag = "\"7.3.5\"";
+
+        assertThat(ETags.matches(null, tag)).isFalse();
+        assertThat(ETags.matches("\"7.3.5\"", tag)).isTrue();
+        assertThat(ETags.matches("W/\"7.3.5\"", tag)).isTrue();
+        assertThat(ETags.matches("\"7.2.5\", \"7.3.5\"", tag)).isTrue();
+        assertThat(ETags.matches("*", tag)).isTrue();
+        assertThat(ETags.matches("\"7.3.4\"", tag)).isFalse();
+        assertThat(ETags.matches("\"c1-ab\"", "W/\"c1-ab\"")).isTrue();
+    }
+
+    @Test
+    void ifMatchComparesProductAndVersionOnly() {
+        assertThat(ETags.matchesVersion("\"7.3.5\"", 7L, 3L)).isTrue();
+        assertThat(ETags.matchesVersion("\"7.3.9s\"", 7L, 3L)).isTrue();
+        assertThat(ETags.matchesVersion("\"7.2.5\", \"7.3.1\"", 7L, 3L)).isTrue();
+        assertThat(ETags.matchesVersion("*", 7L, 3L)).isTrue();
+        assertThat(ETags.matchesVersion("\"0.0.0\"", 0L, null)).isTrue();
+
+        assertThat(ETags.matchesVersion("\"7.2.5\"", 7L, 3L)).isFalse();
+        assertThat(ETags.matchesVersion("\"17.3.5\"", 7L, 3L)).isFalse();
+        assertThat(ETags.matchesVersion("\"7.33.5\"", 7L, 3L)).isFalse();
+        assertThat(ETags.matchesVersion("W/\"7.3.5\"", 7L, 3L)).isFalse();
+        assertThat(ETags.matchesVersion("\"p4033fd70a3d70a3d\"", 7L, 3L)).isFalse();
+    }
+
+    @Test
+    void catalogTagsAreWeakAndDependOnContentAndOrder() {
+        StockLookupResult stock = new StockLookupResult(Map.of(1L, 5, 2L, 7), Map.of(), Set.of());
+        String tag = ETags.catalog().add(1L, 0L, stock).add(2L, 0L, stock).toETag();
+
+        assertThat(tag).startsWith("W/\"c2-");
+        assertThat(ETags.catalog().add(1L, 0L, stock).add(2L, 0L, stock).toETag()).isEqualTo(tag);
+        assertThat(ETags.catalog().add(2L, 0L, stock).add(1L, 0L, stock).toETag()).isNotEqualTo(tag);
+        assertThat(ETags.catalog().add(1L, 0L, stock).add(2L, 1L, stock).toETag()).isNotEqualTo(tag);
+
+        StockLookupResult changed = new StockLookupResult(Map.of(1L, 5, 2L, 6), Map.of(), Set.of());
+        StockLookupResult stale = new StockLookupResult(Map.of(1L, 5, 2L, 7), Map.of(), Set.of(2L));
+        StockLookupResult failed = new StockLookupResult(Map.of(1L, 5), Map.of(2L, "timeout"), Set.of());
+        assertThat(ETags.catalog().add(1L, 0L, changed).add(2L, 0L, changed).toETag()).isNotEqualTo(tag);
+        assertThat(ETags.catalog().add(1L, 0L, stale).add(2L, 0L, stale).toETag()).isNotEqualTo(tag);
+        assertThat(ETags.catalog().add(1L, 0L, failed).add(2L, 0L, failed).toETag()).isNotEqualTo(tag);
+    }
+}
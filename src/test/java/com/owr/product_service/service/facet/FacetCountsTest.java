@@ -0,0 +1,98 @@
+package com.owr.product_service.service.facet;
+
+import com.owr.product_service.dto.PriceBucket;
+import com.owr.product_service.dto.ProductFacets;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FacetCountsTest {
+
+    private static final double[] BOUNDS = {0, 25, 50, 100};
+
+    @Test
+    void countsCategoriesLargestFirstAndPricesPerBucket() {
+        FacetCounts counts = new FacetCounts(BOUNDS, 8);
+        counts.put(1L, "Shirts", 19.99);
+        counts.put(2L, "Shoes", 89.99);
+        counts.put(3L, "Shoes", 25.0);
+        counts.put(4L, "Shoes", 250.0);
+        counts.put(5L, "Accessories", -1.0);
+
+        ProductFacets facets = counts.facets(null);
+
+        assertThat(facets.total()).isEqualTo(5);
+        assertThat(facets.categories()).containsExactly(
+                Map.entry("Shoes", 3L), Map.entry("Accessories", 1L), Map.entry("Shirts", 1L));
+        assertThat(histogramCounts(facets)).containsExactly(2L, 1L, 1L, 1L);
+        assertThat(facets.priceHistogram().get(3)).isEqualTo(new PriceBucket(100, null, 1));
+    }
+
+    @Test
+    void categoryFilterRestrictsTotalAndHistogramButNotCategories() {
+        FacetCounts counts = new FacetCounts(BOUNDS, 8);
+        counts.put(1L, "Shirts", 19.99);
+        counts.put(2L, "Shoes", 89.99);
+
+        ProductFacets facets = counts.facets("Shoes");
+
+        assertThat(facets.total()).isEqualTo(1);
+        assertThat(histogramCounts(facets)).containsExactly(0L, 0L, 1L, 0L);
+        assertThat(facets.categories()).containsOnlyKeys("Shirts", "Shoes");
+    }
+
+    @Test
+    void productsWithoutCategoryOrPriceCountOnlyTowardsTheTotal() {
+        FacetCounts counts = new FacetCounts(BOUNDS, 8);
+        counts.put(1L, null, 19.99);
+        counts.put(2L, "Shoes", null);
+
+        ProductFacets facets = counts.facets(null);
+
+        assertThat(facets.total()).isEqualTo(2);
+        assertThat(facets.categories()).containsOnlyKeys("Shoes");
+        assertThat(histogramCounts(facets)).containsExactly(1L, 0L, 0L, 0L);
+    }
+
+    @Test
+    void putAndRemoveAreIdempotent() {
+        FacetCounts counts = new FacetCounts(BOUNDS, 8);
+        counts.put(1L, "Shirts", 19.99);
+        counts.put(1L, "Shirts", 19.99);
+        counts.put(1L, "Shoes", 60.0);
+        counts.put(2L, "Shirts", 30.0);
+        counts.remove(2L);
+        counts.remove(2L);
+        counts.remove(3L);
+
+        ProductFacets facets = counts.facets(null);
+
+        assertThat(facets.total()).isEqualTo(1);
+        assertThat(facets.categories()).containsOnly(Map.entry("Shoes", 1L));
+        assertThat(histogramCounts(facets)).containsExactly(0L, 0L, 1L, 0L);
+    }
+
+    @Test
+    void growsPastTheInitialCategorySlots() {
+        FacetCounts counts = new FacetCounts(BOUNDS, 8);
+        for (long id = 1; id <= 40; id++) {
+            counts.put(id, "Category " + id, 10.0);
+        }
+
+        ProductFacets facets = counts.facets("Category 40");
+
+        assertThat(facets.categories()).hasSize(40);
+        assertThat(facets.total()).isEqualTo(1);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static List<Long> histogramCounts(ProductFacets facets) {
+        return facets.priceHistogram().stream().map(PriceBucket::count).toList();
+    }
+}
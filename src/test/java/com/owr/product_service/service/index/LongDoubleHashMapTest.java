@@ -0,0 +1,97 @@
+package com.owr.product_service.service.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LongDoubleHashMapTest {
+
+    @Test
+    void putReplacesAndRemoveForgets() {
+        LongDoubleHashMap map = new LongDoubleHashMap(4);
+        map.put(1L, 9.99);
+        map.put(2L, 19.99);
+        map.put(1L, 4.99);
+
+        assertThat(map.get(1L)).isEqualTo(4.99);
+        assertThat(map.size()).isEqualTo(2);
+
+        map.remove(1L);
+        map.remove(3L);
+
+        assertThat(map.get(1L)).isNaN();
+        assertThat(map.get(2L)).isEqualTo(19.99);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    void growsWithoutLosingMappings() {
+        LongDoubleHashMap map = new LongDoubleHashMap(1);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, key / 100.0);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key)).isEqualTo(key / 100.0);
+        }
+    }
+
+    @Test
+    void onlyPositiveKeysAreStored() {
+        LongDoubleHashMap map = new LongDoubleHashMap(4);
+
+        assertThatThrownBy(() -> map.put(0L, 1.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> map.put(-1L, 1.0)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(map.get(0L)).isNaN();
+        assertThat(map.get(-1L)).isNaN();
+        map.remove(0L);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void removalsKeepEveryProbeChainReachable() {
+        // Seven random keys in a 16-slot table, which stays at 16 slots: probe chains collide and wrap around the
+        // end of the table, so backward-shift deletion has to move entries across the wrap and must leave entries
+        // at their home slot in place
+        Random random = new Random(11);
+        for (int round = 0; round < 2_000; round++) {
+            long[] keys = random.longs(7, 1, 1_000_000).toArray();
+            LongDoubleHashMap map = new LongDoubleHashMap(8);
+            Map<Long, Double> expected = new HashMap<>();
+            for (int operation = 0; operation < 100; operation++) {
+                long key = keys[random.nextInt(keys.length)];
+                if (random.nextInt(3) > 0) {
+                    double value = random.nextDouble();
+                    map.put(key, value);
+                    expected.put(key, value);
+                } else {
+                    map.remove(key);
+                    expected.remove(key);
+                }
+                assertSameMappings(map, expected, keys);
+            }
+        }
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static void assertSameMappings(LongDoubleHashMap map, Map<Long, Double> expected, long[] keys) {
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key : keys) {
+            Double value = expected.get(key);
+            if (value == null) {
+                assertThat(map.get(key)).isNaN();
+            } else {
+                assertThat(map.get(key)).isEqualTo(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.owr.product_service.service.index;
+
+import com.owr.product_service.service.cache.ProductSnapshot;
+import com.owr.product_service.service.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RebuildableIndexTest {
+
+    private final List<Supplier<Map<Long, Double>>> scans = new ArrayList<>();
+    private final RebuildableIndex<Map<Long, Double>> index = new RebuildableIndex<>(
+            new NoOpTransactionManager(), () -> scans.removeFirst().get(), RebuildableIndexTest::apply, null);
+
+    @Test
+    void isEmptyUntilTheFirstBuild() {
+        assertThat(current()).isNull();
+
+        index.onProductChanged(ProductChangedEvent.added(product(1L, 10.0)));
+        scans.add(() -> new LinkedHashMap<>(Map.of(2L, 20.0)));
+        index.rebuild();
+
+        assertThat(current()).containsOnly(Map.entry(2L, 20.0));
+    }
+
+    @Test
+    void changesDuringTheScanAreReplayedOntoTheNewStructure() {
+        scans.add(() -> new LinkedHashMap<>(Map.of(1L, 10.0)));
+        index.rebuild();
+
+        scans.add(() -> {
+            Map<Long, Double> scanned = new LinkedHashMap<>(Map.of(1L, 10.0, 2L, 20.0));
+            // Committed after the scan read its rows
+            index.onProductChanged(ProductChangedEvent.updated(product(1L, 10.0), product(1L, 11.0)));
+            index.onProductChanged(ProductChangedEvent.deleted(product(2L, 20.0)));
+            return scanned;
+        });
+        index.rebuild();
+
+        assertThat(current()).containsOnly(Map.entry(1L, 11.0));
+    }
+
+    @Test
+    void failedScanKeepsTheCurrentStructureAndDropsPendingChanges() {
+        scans.add(() -> new LinkedHashMap<>(Map.of(1L, 10.0)));
+        index.rebuild();
+
+        scans.add(() -> {
+            index.onProductChanged(ProductChangedEvent.added(product(2L, 20.0)));
+            throw new IllegalStateException("connection lost");
+        });
+        assertThatThrownBy(index::rebuild).isInstanceOf(IllegalStateException.class);
+        assertThat(current()).containsOnly(Map.entry(1L, 10.0), Map.entry(2L, 20.0));
+
+        // Changes after the failed scan are no longer remembered, and the next rebuild runs
+        index.onProductChanged(ProductChangedEvent.added(product(3L, 30.0)));
+        scans.add(() -> new LinkedHashMap<>(Map.of(4L, 40.0)));
+        index.rebuild();
+
+        assertThat(current()).containsOnly(Map.entry(4L, 40.0));
+    }
+
+    @Test
+    void readDoubleSeesTheCurrentValue() {
+        RebuildableIndex<LongDoubleHashMap> prices = new RebuildableIndex<>(new NoOpTransactionManager(),
+                () -> new LongDoubleHashMap(0), (map, event) -> map.put(event.after().id(), event.after().price()),
+                new LongDoubleHashMap(0));
+
+        assertThat(prices.readDouble(1L, LongDoubleHashMap::get)).isNaN();
+        prices.onProductChanged(ProductChangedEvent.added(product(1L, 10.0)));
+        assertThat(prices.readDouble(1L, LongDoubleHashMap::get)).isEqualTo(10.0);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private Map<Long, Double> current() {
+        return index.read(prices -> prices);
+    }
+
+    private static void apply(Map<Long, Double> prices, ProductChangedEvent event) {
+        if (event.after() == null) {
+            prices.remove(event.before().id());
+        } else {
+            prices.put(event.after().id(), event.after().price());
+        }
+    }
+
+    private static ProductSnapshot product(Long id, Double price) {
+        return new ProductSnapshot(id, "Lamp " + id, "Home", "A lamp", price, 0L);
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
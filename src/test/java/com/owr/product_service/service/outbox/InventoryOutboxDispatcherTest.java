@@ -0,0 +1,141 @@
+package com.owr.product_service.service.outbox;
+
+import com.owr.product_service.model.InventoryOutboxEntry;
+import com.owr.product_service.repository.InventoryOutboxRepository;
+import com.owr.product_service.service.client.InventoryClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InventoryOutboxDispatcherTest {
+
+    private final InventoryOutboxRepository repository = mock(InventoryOutboxRepository.class);
+    private final InventoryClient client = mock(InventoryClient.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final InventoryOutboxDispatcher dispatcher = new InventoryOutboxDispatcher(repository, client,
+            new NoOpTransactionManager(), meterRegistry);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 2);
+        ReflectionTestUtils.setField(dispatcher, "lease", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(dispatcher, "initialBackoff", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(dispatcher, "maxBackoff", Duration.ofMinutes(5));
+    }
+
+    @Test
+    void deliveredEntriesAreMarkedProcessedAndFailedOnesRetried() {
+        InventoryOutboxEntry delivered = entry(1L, 10L, 0);
+        InventoryOutboxEntry failed = entry(2L, 20L, 0);
+        when(repository.lockDueEntries(any(Instant.class), eq(2))).thenReturn(List.of(delivered, failed), List.of());
+        when(client.createInventories(Map.of(10L, 5, 20L, 5))).thenReturn(Map.of(20L, "HTTP 503"));
+
+        Instant start = Instant.now();
+        dispatcher.dispatch();
+
+        verify(repository).markProcessed(eq(List.of(1L)), any(Instant.class));
+        verify(repository).saveAll(List.of(failed));
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getLastError()).isEqualTo("HTTP 503");
+        assertThat(failed.getNextAttemptAt()).isCloseTo(start.plusSeconds(1), within(Duration.ofMillis(500)));
+        assertThat(deliveries("created")).isEqualTo(1);
+        assertThat(deliveries("retry")).isEqualTo(1);
+    }
+
+    @Test
+    void claimedEntriesAreLeased() {
+        InventoryOutboxEntry entry = entry(1L, 10L, 0);
+        when(repository.lockDueEntries(any(Instant.class), eq(2))).thenReturn(List.of(entry));
+        Instant[] leaseEnd = new Instant[1];
+        when(client.createInventories(anyMap())).thenAnswer(invocation -> {
+            leaseEnd[0] = entry.getNextAttemptAt();
+            return Map.of();
+        });
+
+        Instant start = Instant.now();
+        dispatcher.dispatch();
+
+        assertThat(leaseEnd[0]).isCloseTo(start.plus(Duration.ofMinutes(1)), within(Duration.ofMillis(500)));
+    }
+
+    @Test
+    void backoffDoublesPerAttemptUpToTheMaximum() {
+        InventoryOutboxEntry third = entry(1L, 10L, 2);
+        InventoryOutboxEntry tenth = entry(2L, 20L, 9);
+        when(repository.lockDueEntries(any(Instant.class), eq(2))).thenReturn(List.of(third, tenth), List.of());
+        when(client.createInventories(anyMap())).thenThrow(new IllegalStateException("connection refused"));
+
+        Instant start = Instant.now();
+        dispatcher.dispatch();
+
+        assertThat(third.getNextAttemptAt()).isCloseTo(start.plusSeconds(4), within(Duration.ofMillis(500)));
+        assertThat(tenth.getNextAttemptAt())
+                .isCloseTo(start.plus(Duration.ofMinutes(5)), within(Duration.ofMillis(500)));
+        assertThat(third.getLastError()).isEqualTo("Inventory creation failed: connection refused");
+        verify(repository, never()).markProcessed(any(), any());
+    }
+
+    @Test
+    void keepsClaimingWhileBatchesAreFull() {
+        when(repository.lockDueEntries(any(Instant.class), anyInt())).thenReturn(
+                List.of(entry(1L, 10L, 0), entry(2L, 20L, 0)),
+                List.of(entry(3L, 30L, 0)),
+                List.of(entry(4L, 40L, 0)));
+        when(client.createInventories(anyMap())).thenReturn(Map.of());
+
+        dispatcher.dispatch();
+
+        verify(repository, times(2)).lockDueEntries(any(Instant.class), anyInt());
+        assertThat(deliveries("created")).isEqualTo(3);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static InventoryOutboxEntry entry(Long id, Long productId, int attempts) {
+        return InventoryOutboxEntry.builder().id(id).productId(productId).quantity(5).attempts(attempts)
+                .nextAttemptAt(Instant.now()).build();
+    }
+
+    private double deliveries(String outcome) {
+        return meterRegistry.counter("inventory.outbox.deliveries", "outcome", outcome).count();
+    }
+
+    private static class NoOpTransactionManager implements PlatformTransactionManager {
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.owr.product_service.service.search;
+
+import com.owr.product_service.service.cache.ProductSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvertedIndexTest {
+
+    private static final String[] WORDS = {"red", "blue", "green", "cotton", "wool", "linen", "shirt", "shoe",
+            "shorts", "jacket", "jeans", "lamp", "large", "small", "slim", "soft", "warm", "light", "dark", "classic"};
+
+    @Test
+    void matchesEveryTermAndTheLastAsAPrefix() {
+        InvertedIndex index = new InvertedIndex(4);
+        index.put(product(1L, "Red Cotton Shirt", "Shirts", "Soft and light"));
+        index.put(product(2L, "Blue Cotton Shorts", "Shorts", "Light summer wear"));
+        index.put(product(3L, "Red Wool Jacket", "Jackets", "Warm"));
+
+        assertThat(productIds(index.search("cotton sh", 0, 10))).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(productIds(index.search("red cotton", 0, 10))).containsExactly(1L);
+        assertThat(productIds(index.search("wool cotton", 0, 10))).isEmpty();
+        assertThat(productIds(index.search("unknown red", 0, 10))).isEmpty();
+    }
+
+    @Test
+    void ranksNameAboveCategoryAboveDescription() {
+        InvertedIndex index = new InvertedIndex(3);
+        index.put(product(1L, "Desk", "Furniture", "Holds a lamp"));
+        index.put(product(2L, "Reading Lamp", "Lighting", "Bright"));
+        index.put(product(3L, "Shade", "Lamp", "Fabric"));
+
+        assertThat(productIds(index.search("lamp", 0, 10))).containsExactly(2L, 3L, 1L);
+        assertThat(productIds(index.search("lamp", 1, 1))).containsExactly(3L);
+    }
+
+    @Test
+    void changedAndRemovedProductsAreNotMatchedUnderTheirOldTerms() {
+        InvertedIndex index = new InvertedIndex(2);
+        index.put(product(1L, "Red Shirt", "Shirts", ""));
+        index.put(product(2L, "Red Shoe", "Shoes", ""));
+
+        index.put(product(1L, "Blue Shirt", "Shirts", ""));
+        index.remove(2L);
+
+        assertThat(index.search("red", 0, 10).total()).isZero();
+        assertThat(productIds(index.search("blue shirt", 0, 10))).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void agreesWithAScanOfEveryProduct() {
+        Random random = new Random(7);
+        InvertedIndex index = new InvertedIndex(5_000);
+        Map<Long, Set<String>> termsByProduct = new HashMap<>();
+        for (long id = 1; id <= 5_000; id++) {
+            ProductSnapshot product = product(id, words(random, 3), words(random, 1), words(random, 6));
+            index.put(product);
+            termsByProduct.put(id, terms(product));
+        }
+        // Replace and remove some, leaving deleted postings behind
+        for (long id = 1; id <= 5_000; id += 7) {
+            ProductSnapshot product = product(id, words(random, 3), words(random, 1), words(random, 6));
+            index.put(product);
+            termsByProduct.put(id, terms(product));
+        }
+        for (long id = 3; id <= 5_000; id += 11) {
+            index.remove(id);
+            termsByProduct.remove(id);
+        }
+
+        for (int query = 0; query < 200; query++) {
+            List<String> queryTerms = new ArrayList<>();
+            int termCount = 1 + random.nextInt(3);
+            for (int i = 0; i < termCount; i++) {
+                queryTerms.add(WORDS[random.nextInt(WORDS.length)]);
+            }
+            String last = queryTerms.remove(queryTerms.size() - 1);
+            String prefix = last.substring(0, 1 + random.nextInt(last.length()));
+
+            Set<Long> expected = new HashSet<>();
+            termsByProduct.forEach((id, terms) -> {
+                if (terms.containsAll(queryTerms) && terms.stream().anyMatch(term -> term.startsWith(prefix))) {
+                    expected.add(id);
+                }
+            });
+
+            String text = String.join(" ", queryTerms) + " " + prefix;
+            InvertedIndex.Hits hits = index.search(text, 0, 5_000);
+            assertThat(hits.total()).as(text).isEqualTo(expected.size());
+            assertThat(productIds(hits)).as(text).containsExactlyInAnyOrderElementsOf(expected);
+        }
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static ProductSnapshot product(Long id, String name, String category, String description) {
+        return new ProductSnapshot(id, name, category, description, 10.0, 0L);
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    private static Set<String> terms(ProductSnapshot product) {
+        Set<String> terms = new HashSet<>(Tokenizer.tokenize(product.name()));
+        terms.addAll(Tokenizer.tokenize(product.category()));
+        terms.addAll(Tokenizer.tokenize(product.description()));
+        return terms;
+    }
+
+    private static List<Long> productIds(InvertedIndex.Hits hits) {
+        return hits.hits().stream().map(hit -> hit.document().productId()).toList();
+    }
+}
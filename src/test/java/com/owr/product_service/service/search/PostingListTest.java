@@ -0,0 +1,97 @@
+package com.owr.product_service.service.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostingListTest {
+
+    @Test
+    void roundTripsGapsAcrossVarintByteBoundaries() {
+        int[] docs = {0, 1, 128, 256, 16_640, 16_641, 2_113_793, 270_549_121, Integer.MAX_VALUE - 1};
+        PostingList postings = new PostingList();
+        for (int i = 0; i < docs.length; i++) {
+            postings.add(docs[i], i % 8);
+        }
+
+        PostingList.Cursor cursor = postings.cursor();
+        for (int i = 0; i < docs.length; i++) {
+            assertThat(cursor.advance(cursor.doc() + 1)).isEqualTo(docs[i]);
+            assertThat(cursor.fieldMask()).isEqualTo(i % 8);
+        }
+        assertThat(cursor.advance(cursor.doc() + 1)).isEqualTo(PostingList.NO_MORE_DOCS);
+    }
+
+    @Test
+    void smallGapsTakeOneByte() {
+        PostingList postings = new PostingList();
+        for (int doc = 0; doc < 100; doc++) {
+            postings.add(doc * 127, InvertedIndex.NAME);
+        }
+
+        // One byte of gap and one byte of field mask per posting
+        assertThat(postings.sizeInBytes()).isEqualTo(200);
+    }
+
+    @Test
+    void advanceSkipsToTheFirstDocumentAtOrAfterTheTarget() {
+        List<Integer> docs = new ArrayList<>();
+        PostingList postings = new PostingList();
+        Random random = new Random(42);
+        int doc = -1;
+        for (int i = 0; i < 10 * PostingList.SKIP_INTERVAL + 7; i++) {
+            doc += 1 + random.nextInt(300);
+            docs.add(doc);
+            postings.add(doc, InvertedIndex.DESCRIPTION);
+        }
+        postings.trim();
+
+        PostingList.Cursor cursor = postings.cursor();
+        int target = 0;
+        while (target <= doc) {
+            int expected = firstAtOrAfter(docs, target);
+            assertThat(cursor.advance(target)).isEqualTo(expected);
+            target = expected + 1 + random.nextInt(5_000);
+        }
+        assertThat(cursor.advance(target)).isEqualTo(PostingList.NO_MORE_DOCS);
+    }
+
+    @Test
+    void advanceDoesNotMoveBack() {
+        PostingList postings = new PostingList();
+        postings.add(10, InvertedIndex.NAME);
+        postings.add(20, InvertedIndex.CATEGORY);
+
+        PostingList.Cursor cursor = postings.cursor();
+        assertThat(cursor.advance(15)).isEqualTo(20);
+        assertThat(cursor.advance(5)).isEqualTo(20);
+        assertThat(cursor.fieldMask()).isEqualTo(InvertedIndex.CATEGORY);
+    }
+
+    @Test
+    void rejectsDocumentsOutOfOrder() {
+        PostingList postings = new PostingList();
+        postings.add(5, InvertedIndex.NAME);
+
+        assertThatThrownBy(() -> postings.add(5, InvertedIndex.NAME)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(postings.documentCount()).isEqualTo(1);
+    }
+
+    /**========================================================================
+     * Helper Methods
+     ===========================================================================*/
+
+    private static int firstAtOrAfter(List<Integer> docs, int target) {
+        for (int doc : docs) {
+            if (doc >= target) {
+                return doc;
+            }
+        }
+        return PostingList.NO_MORE_DOCS;
+    }
+}